@@ -29,6 +29,7 @@ package org.opencms.workplace.tools.cache;
 
 import org.opencms.file.CmsObject;
 import org.opencms.flex.CmsFlexCache;
+import org.opencms.flex.CmsFlexCache.CmsFlexCacheVariation;
 import org.opencms.flex.CmsFlexController;
 import org.opencms.jsp.CmsJspActionElement;
 import org.opencms.main.CmsRuntimeException;
@@ -61,12 +62,21 @@ public class CmsFlexCacheList extends A_CmsListDialog {
     /** list action id constant. */
     public static final String LIST_ACTION_ICON = "ai";
 
+    /** list column id constant. */
+    public static final String LIST_COLUMN_EVICTIONS = "ce";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_HITS = "ch";
+
     /** list column id constant. */
     public static final String LIST_COLUMN_ICON = "ci";
 
     /** list column id constant. */
     public static final String LIST_COLUMN_KEY = "ck";
 
+    /** list column id constant. */
+    public static final String LIST_COLUMN_MISSES = "cm";
+
     /** list column id constant. */
     public static final String LIST_COLUMN_PROJECT = "cp";
 
@@ -201,6 +211,12 @@ public class CmsFlexCacheList extends A_CmsListDialog {
             item.set(LIST_COLUMN_RESOURCE, resName);
             item.set(LIST_COLUMN_PROJECT, project);
             item.set(LIST_COLUMN_KEY, cache.getCachedKey(resource, getCms()));
+            CmsFlexCacheVariation variation = cache.getCachedVariation(resource, getCms());
+            if (variation != null) {
+                item.set(LIST_COLUMN_HITS, new Long(variation.getHits()));
+                item.set(LIST_COLUMN_MISSES, new Long(variation.getMisses()));
+                item.set(LIST_COLUMN_EVICTIONS, new Long(variation.getEvictions()));
+            }
             ret.add(item);
         }
 
@@ -241,14 +257,14 @@ public class CmsFlexCacheList extends A_CmsListDialog {
         // create column for resource name
         CmsListColumnDefinition nameCol = new CmsListColumnDefinition(LIST_COLUMN_RESOURCE);
         nameCol.setName(Messages.get().container(Messages.GUI_FLEXCACHE_LIST_COLS_RESOURCE_0));
-        nameCol.setWidth("60%");
+        nameCol.setWidth("50%");
         // add it to the list definition
         metadata.addColumn(nameCol);
 
         // create column for project
         CmsListColumnDefinition projectCol = new CmsListColumnDefinition(LIST_COLUMN_PROJECT);
         projectCol.setName(Messages.get().container(Messages.GUI_FLEXCACHE_LIST_COLS_PROJECT_0));
-        projectCol.setWidth("15%");
+        projectCol.setWidth("10%");
         // add it to the list definition
         metadata.addColumn(projectCol);
 
@@ -258,6 +274,30 @@ public class CmsFlexCacheList extends A_CmsListDialog {
         keyCol.setWidth("25%");
         // add it to the list definition
         metadata.addColumn(keyCol);
+
+        // create column for cache hits
+        CmsListColumnDefinition hitsCol = new CmsListColumnDefinition(LIST_COLUMN_HITS);
+        hitsCol.setName(Messages.get().container(Messages.GUI_FLEXCACHE_LIST_COLS_HITS_0));
+        hitsCol.setWidth("5%");
+        hitsCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        // add it to the list definition
+        metadata.addColumn(hitsCol);
+
+        // create column for cache misses
+        CmsListColumnDefinition missesCol = new CmsListColumnDefinition(LIST_COLUMN_MISSES);
+        missesCol.setName(Messages.get().container(Messages.GUI_FLEXCACHE_LIST_COLS_MISSES_0));
+        missesCol.setWidth("5%");
+        missesCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        // add it to the list definition
+        metadata.addColumn(missesCol);
+
+        // create column for evicted entries
+        CmsListColumnDefinition evictionsCol = new CmsListColumnDefinition(LIST_COLUMN_EVICTIONS);
+        evictionsCol.setName(Messages.get().container(Messages.GUI_FLEXCACHE_LIST_COLS_EVICTIONS_0));
+        evictionsCol.setWidth("5%");
+        evictionsCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        // add it to the list definition
+        metadata.addColumn(evictionsCol);
     }
 
     /**
@@ -109,12 +109,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String GUI_FLEXCACHE_LIST_ACTION_ICON_NAME_0 = "GUI_FLEXCACHE_LIST_ACTION_ICON_NAME_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_FLEXCACHE_LIST_COLS_EVICTIONS_0 = "GUI_FLEXCACHE_LIST_COLS_EVICTIONS_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_FLEXCACHE_LIST_COLS_HITS_0 = "GUI_FLEXCACHE_LIST_COLS_HITS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String GUI_FLEXCACHE_LIST_COLS_ICON_0 = "GUI_FLEXCACHE_LIST_COLS_ICON_0";
 
     /** Message constant for key in the resource bundle. */
     public static final String GUI_FLEXCACHE_LIST_COLS_KEY_0 = "GUI_FLEXCACHE_LIST_COLS_KEY_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_FLEXCACHE_LIST_COLS_MISSES_0 = "GUI_FLEXCACHE_LIST_COLS_MISSES_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String GUI_FLEXCACHE_LIST_COLS_PROJECT_0 = "GUI_FLEXCACHE_LIST_COLS_PROJECT_0";
 
@@ -271,6 +271,7 @@ public class CmsUpdateDBManager {
             } else {
                 m_plugins.add(new org.opencms.setup.db.update7to8.CmsUpdateDBNewTables());
                 m_plugins.add(new org.opencms.setup.db.update7to8.CmsUpdatePasswordColumn());
+                m_plugins.add(new org.opencms.setup.db.update7to8.CmsUpdateDBParentIds());
             }
         } catch (Throwable t) {
             t.printStackTrace();
@@ -0,0 +1,133 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.setup.db.update7to8;
+
+import org.opencms.file.CmsResource;
+import org.opencms.setup.CmsSetupDBWrapper;
+import org.opencms.setup.CmsSetupDb;
+import org.opencms.setup.db.A_CmsUpdateDBPart;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repairs the parent ids in the CMS_OFFLINE_STRUCTURE and CMS_ONLINE_STRUCTURE tables.<p>
+ * 
+ * The VFS driver can read whole subtrees along the parent ids instead of scanning the resource paths,
+ * so every parent id has to match the resource path of its structure entry.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsUpdateDBParentIds extends A_CmsUpdateDBPart {
+
+    /** The structure tables to repair. */
+    private static final String[] STRUCTURE_TABLES = {"CMS_OFFLINE_STRUCTURE", "CMS_ONLINE_STRUCTURE"};
+
+    /** The token for the table name in the SQL statements. */
+    private static final String TOKEN_TABLE = "${TABLE}";
+
+    /**
+     * Gets the SQL to read the structure entries.<p>
+     * 
+     * @return the SQL to read the structure entries
+     */
+    public String getSelectSql() {
+
+        return "SELECT STRUCTURE_ID, RESOURCE_PATH, PARENT_ID FROM " + TOKEN_TABLE;
+    }
+
+    /**
+     * Gets the SQL to update the parent id of a structure entry.<p>
+     * 
+     * @return the SQL to update the parent id of a structure entry
+     */
+    public String getUpdateSql() {
+
+        return "UPDATE " + TOKEN_TABLE + " SET PARENT_ID=? WHERE STRUCTURE_ID=?";
+    }
+
+    /**
+     * @see org.opencms.setup.db.A_CmsUpdateDBPart#internalExecute(org.opencms.setup.CmsSetupDb)
+     */
+    @Override
+    protected void internalExecute(CmsSetupDb setupDb) throws SQLException {
+
+        System.out.println(new Exception().getStackTrace()[0].toString());
+
+        for (String table : STRUCTURE_TABLES) {
+            Map<String, String> replacer = new HashMap<String, String>();
+            replacer.put(TOKEN_TABLE, table);
+
+            Map<String, String> idsByPath = new HashMap<String, String>();
+            Map<String, String> parentIds = new HashMap<String, String>();
+            Map<String, String> paths = new HashMap<String, String>();
+            CmsSetupDBWrapper db = null;
+            try {
+                db = setupDb.executeSqlStatement(getSelectSql(), replacer);
+                ResultSet res = db.getResultSet();
+                while (res.next()) {
+                    String structureId = res.getString("STRUCTURE_ID");
+                    String path = CmsFileUtil.removeTrailingSeparator(res.getString("RESOURCE_PATH"));
+                    idsByPath.put(path, structureId);
+                    paths.put(structureId, path);
+                    parentIds.put(structureId, res.getString("PARENT_ID"));
+                }
+            } finally {
+                if (db != null) {
+                    db.close();
+                }
+            }
+
+            int repaired = 0;
+            for (Map.Entry<String, String> entry : paths.entrySet()) {
+                String parentPath = CmsResource.getParentFolder(entry.getValue());
+                String parentId = CmsUUID.getNullUUID().toString();
+                if (parentPath != null) {
+                    parentId = idsByPath.get(CmsFileUtil.removeTrailingSeparator(parentPath));
+                }
+                if ((parentId == null) || parentId.equals(parentIds.get(entry.getKey()))) {
+                    // the parent folder is missing or the parent id is already correct
+                    continue;
+                }
+                List<Object> params = new ArrayList<Object>();
+                params.add(parentId);
+                params.add(entry.getKey());
+                setupDb.updateSqlStatement(getUpdateSql(), replacer, params);
+                repaired++;
+            }
+            System.out.println("repaired " + repaired + " parent ids in table " + table);
+        }
+    }
+}
@@ -324,6 +324,33 @@ public class CmsLruCache extends java.lang.Object {
         return true;
     }
 
+    /**
+     * Checks if the last recently used object should be kept although this cache has to free space.<p>
+     * 
+     * A kept object is moved to the head of the list of all cached objects, every object is 
+     * kept at most once per garbage collection run. The default implementation keeps no objects.<p>
+     * 
+     * @param theCacheObject the last recently used object
+     * 
+     * @return <code>true</code> if the object should be kept in this cache
+     */
+    protected boolean keepOnEviction(I_CmsLruCacheObject theCacheObject) {
+
+        return false;
+    }
+
+    /**
+     * Called before the last recently used object is removed from this cache to free space.<p>
+     * 
+     * The default implementation does nothing.<p>
+     * 
+     * @param theCacheObject the object being evicted
+     */
+    protected void onEviction(I_CmsLruCacheObject theCacheObject) {
+
+        // noop
+    }
+
     /**
      * Adds a cache object as the new haed to the list of all cached objects in this cache.<p>
      *
@@ -377,13 +404,22 @@ public class CmsLruCache extends java.lang.Object {
      */
     private void gc() {
 
+        int keptObjects = 0;
         I_CmsLruCacheObject currentObject = m_listTail;
         while (currentObject != null) {
             if (m_objectCosts < m_avgCacheCosts) {
                 break;
             }
-            currentObject = currentObject.getNextLruObject();
-            removeTail();
+            I_CmsLruCacheObject nextObject = currentObject.getNextLruObject();
+            if ((nextObject != null) && (keptObjects < m_objectCount) && keepOnEviction(currentObject)) {
+                // move the object to the head, the next object is the new tail
+                keptObjects++;
+                touch(currentObject);
+            } else {
+                onEviction(currentObject);
+                removeTail();
+            }
+            currentObject = nextObject;
         }
     }
 
@@ -677,24 +677,30 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         try {
             CmsObject cms = getCmsObject(context);
             CmsResource resource = cms.readResource(new CmsUUID(objectId));
-            byte[] contents = null;
+            InputStream stream = null;
+            long streamLength;
             if (streamId != null) {
                 I_CmsCmisRenditionProvider renditionProvider = m_renditionProviders.get(streamId);
                 if (renditionProvider == null) {
                     throw new CmisRuntimeException("Invalid stream id " + streamId);
                 }
-                contents = renditionProvider.getContent(cms, resource);
+                byte[] contents = extractRange(renditionProvider.getContent(cms, resource), offset, length);
+                stream = new ByteArrayInputStream(contents);
+                streamLength = contents.length;
             } else if (resource.isFolder()) {
                 throw new CmisStreamNotSupportedException("Not a file!");
             } else {
-                CmsFile file = cms.readFile(resource);
-                contents = file.getContents();
+                // stream the file content, so that large files do not have to be read into memory
+                long start = Math.min((offset == null) ? 0 : offset.longValue(), resource.getLength());
+                streamLength = resource.getLength() - start;
+                if ((length != null) && (length.signum() >= 0) && (length.longValue() < streamLength)) {
+                    streamLength = length.longValue();
+                }
+                stream = cms.readContentStream(resource, start, streamLength);
             }
-            contents = extractRange(contents, offset, length);
-            InputStream stream = new ByteArrayInputStream(contents);
             ContentStreamImpl result = new ContentStreamImpl();
             result.setFileName(resource.getName());
-            result.setLength(BigInteger.valueOf(contents.length));
+            result.setLength(BigInteger.valueOf(streamLength));
             result.setMimeType(OpenCms.getResourceManager().getMimeType(resource.getRootPath(), null, "text/plain"));
             result.setStream(stream);
 
@@ -283,6 +283,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
     /**  The node name of the static export vfx-prefix node. */
     public static final String N_STATICEXPORT_VFS_PREFIX = "vfs-prefix";
 
+    /** The node name of the import threads node. */
+    public static final String N_THREADS = "threads";
+
     /**  The node name of the user csv export node. */
     public static final String N_USERCSVEXPORT = "usercsvexport";
 
@@ -329,6 +332,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         // old webapp rule
         digester.addCallMethod("*/" + N_IMPORTEXPORT + "/" + N_IMPORT + "/" + N_OLDWEBAPPURL, "setOldWebAppUrl", 0);
 
+        // add rules for the number of import threads
+        digester.addCallMethod("*/" + N_IMPORTEXPORT + "/" + N_IMPORT + "/" + N_THREADS, "setImportThreads", 0);
+
         // add rules for the import versions
         digester.addObjectCreate("*/"
             + N_IMPORTEXPORT
@@ -489,6 +495,13 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             + N_STATICEXPORT_RENDERSETTINGS
             + "/"
             + N_STATICEXPORT_PLAINOPTIMIZATION, "setPlainExportOptimization", 0);
+        // render threads rule
+        digester.addCallMethod("*/"
+            + N_STATICEXPORT
+            + "/"
+            + N_STATICEXPORT_RENDERSETTINGS
+            + "/"
+            + N_THREADS, "setExportThreads", 0);
         // test resource rule
         digester.addCallMethod("*/"
             + N_STATICEXPORT
@@ -713,6 +726,11 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             importElement.addElement(N_OLDWEBAPPURL).setText(m_importExportManager.getOldWebAppUrl());
         }
 
+        // <threads> node
+        if (m_importExportManager.getImportThreads() > 1) {
+            importElement.addElement(N_THREADS).setText(String.valueOf(m_importExportManager.getImportThreads()));
+        }
+
         // <importversions> node
         Element resourcetypesElement = importElement.addElement(N_IMPORTVERSIONS);
         Iterator<I_CmsImport> importVersions = m_importExportManager.getImportVersionClasses().iterator();
@@ -854,6 +872,12 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         rendersettingsElement.addElement(N_STATICEXPORT_PLAINOPTIMIZATION).addText(
             m_staticExportManager.getPlainExportOptimization());
 
+        if (m_staticExportManager.getExportThreads() > 1) {
+            // <threads> node
+            rendersettingsElement.addElement(N_THREADS).addText(
+                String.valueOf(m_staticExportManager.getExportThreads()));
+        }
+
         // <testresource> node
         Element testresourceElement = rendersettingsElement.addElement(N_STATICEXPORT_TESTRESOURCE);
         testresourceElement.addAttribute(A_URI, m_staticExportManager.getTestResource());
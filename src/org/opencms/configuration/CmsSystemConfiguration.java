@@ -137,6 +137,15 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The "title" attribute. */
     public static final String A_TITLE = "title";
 
+    /** The "visitflushinterval" attribute. */
+    public static final String A_VISITFLUSHINTERVAL = "visitflushinterval";
+
+    /** The "visitflushonshutdown" attribute. */
+    public static final String A_VISITFLUSHONSHUTDOWN = "visitflushonshutdown";
+
+    /** The "visitqueue" attribute. */
+    public static final String A_VISITQUEUE = "visitqueue";
+
     /** The "webserver" attribute. */
     public static final String A_WEBSERVER = "webserver";
 
@@ -173,6 +182,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the browser-based node. */
     public static final String N_BROWSER_BASED = "browser-based";
 
+    /** The name of the class to create the memory monitor's caches. */
+    public static final String N_CACHEFACTORY = "cachefactory";
+
     /** The node name for the cache-enabled node. */
     public static final String N_CACHE_ENABLED = "cache-enabled";
 
@@ -356,12 +368,18 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the context project name. */
     public static final String N_PROJECT = "project";
 
+    /** The node name for the number of resources published in one database transaction. */
+    public static final String N_PUBLISH_BATCH_SIZE = "publish-batch-size";
+
     /** The node name for the publish list remove mode. */
     public static final String N_PUBLISH_LIST_REMOVE_MODE = "publish-list-remove-mode";
 
     /** The node name for the "publishhistory" section. */
     public static final String N_PUBLISHMANAGER = "publishmanager";
 
+    /** The node name for the number of publish jobs that are published at the same time. */
+    public static final String N_PUBLISHTHREADS = "publish-threads";
+
     /** The node name for the "publishhistory" section. */
     public static final String N_QUEUEPERSISTANCE = "queue-persistance";
 
@@ -530,6 +548,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the workplace-server node. */
     public static final String N_WORKPLACE_SERVER = "workplace-server";
 
+    /** The node name for the XML contents cache node. */
+    public static final String N_XMLCONTENTS = "xmlcontents";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSystemConfiguration.class);
 
@@ -578,6 +599,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The configured OpenCms event manager. */
     private CmsEventManager m_eventManager;
 
+    /** The parameters of the configured OpenCms event manager. */
+    private CmsParameterConfiguration m_eventManagerParameters;
+
     /** Indicates if the version history is enabled. */
     private boolean m_historyEnabled;
 
@@ -688,7 +712,17 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     public void addEventManager(String clazz) {
 
         try {
-            m_eventManager = (CmsEventManager)Class.forName(clazz).newInstance();
+            CmsEventManager eventManager = (CmsEventManager)Class.forName(clazz).newInstance();
+            if (eventManager instanceof I_CmsConfigurationParameterHandler) {
+                I_CmsConfigurationParameterHandler handler = (I_CmsConfigurationParameterHandler)eventManager;
+                for (String name : m_eventManagerParameters.keySet()) {
+                    for (String value : m_eventManagerParameters.getList(name)) {
+                        handler.addConfigurationParameter(name, value);
+                    }
+                }
+                handler.initConfiguration();
+            }
+            m_eventManager = eventManager;
             if (CmsLog.INIT.isInfoEnabled()) {
                 CmsLog.INIT.info(Messages.get().getBundle().key(
                     Messages.INIT_EVENTMANAGER_CLASS_SUCCESS_1,
@@ -700,6 +734,19 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
     }
 
+    /**
+     * Adds a parameter for the event manager.<p>
+     *
+     * The parameters are passed to the event manager if it implements {@link I_CmsConfigurationParameterHandler}.<p>
+     *
+     * @param name the name of the parameter
+     * @param value the value of the parameter
+     */
+    public void addEventManagerParameter(String name, String value) {
+
+        m_eventManagerParameters.add(name, value);
+    }
+
     /**
      * Adds a new job description for the scheduler.<p>
      *
@@ -932,6 +979,13 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         // add event classes
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_EVENTS + "/" + N_EVENTMANAGER, "addEventManager", 1);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_EVENTS + "/" + N_EVENTMANAGER, 0, A_CLASS);
+        // the event manager is created after its parameters have been read
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_EVENTS + "/" + N_EVENTMANAGER + "/" + N_PARAM,
+            "addEventManagerParameter",
+            2);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_EVENTS + "/" + N_EVENTMANAGER + "/" + N_PARAM, 0, A_NAME);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_EVENTS + "/" + N_EVENTMANAGER + "/" + N_PARAM, 1);
 
         // add resource init classes
         digester.addCallMethod(
@@ -1091,6 +1145,7 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         // cache rules
         digester.addObjectCreate("*/" + N_SYSTEM + "/" + N_RESULTCACHE, CmsCacheSettings.class);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_KEYGENERATOR, "setCacheKeyGenerator", 0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHEFACTORY, "setCacheFactory", 0);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_USERS, "setUserCacheSize", 0);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_GROUPS, "setGroupCacheSize", 0);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_ORGUNITS, "setOrgUnitCacheSize", 0);
@@ -1167,6 +1222,14 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER + "/" + N_QUEUESHUTDOWNTIME,
             "setPublishQueueShutdowntime",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER + "/" + N_PUBLISHTHREADS,
+            "setPublishThreads",
+            0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER + "/" + N_PUBLISH_BATCH_SIZE,
+            "setPublishBatchSize",
+            0);
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_PUBLISHMANAGER, "setPublishManager");
 
         // add rule for session storage provider
@@ -1206,6 +1269,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_OFFLINE);
         digester.addCallMethod(adeCachePath + "/" + N_GROUPCONTAINERS, "setGroupContainerOnlineSize", 1);
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_ONLINE);
+        // XML content cache
+        digester.addCallMethod(adeCachePath + "/" + N_XMLCONTENTS, "setXmlContentOnlineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_XMLCONTENTS, 0, A_ONLINE);
         // set the settings
         digester.addSetNext(adeCachePath, "setAdeCacheSettings");
 
@@ -1222,6 +1288,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, 0, A_POOLNAME);
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, "setMaxVisitedCount", 1);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, 0, A_MAXVISITED);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, "setVisitQueueSize", 1);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, 0, A_VISITQUEUE);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, "setVisitFlushInterval", 1);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, 0, A_VISITFLUSHINTERVAL);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, "setVisitFlushOnShutdown", 1);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, 0, A_VISITFLUSHONSHUTDOWN);
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_SUBSCRIPTIONMANAGER, "setSubscriptionManager");
 
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_PUBLISH_LIST_REMOVE_MODE, "setPublishListRemoveMode", 1);
@@ -1335,6 +1407,13 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         Element eventsElement = systemElement.addElement(N_EVENTS);
         Element eventManagerElement = eventsElement.addElement(N_EVENTMANAGER);
         eventManagerElement.addAttribute(A_CLASS, m_eventManager.getClass().getName());
+        if (m_eventManager instanceof I_CmsConfigurationParameterHandler) {
+            I_CmsConfigurationParameterHandler handler = (I_CmsConfigurationParameterHandler)m_eventManager;
+            CmsParameterConfiguration eventManagerParameters = handler.getConfiguration();
+            if (eventManagerParameters != null) {
+                eventManagerParameters.appendToXml(eventManagerElement);
+            }
+        }
 
         // version history
         Element historyElement = systemElement.addElement(N_VERSIONHISTORY);
@@ -1576,6 +1655,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
         cacheElement.addElement(N_SIZE_ACLS).setText(Integer.toString(m_cacheSettings.getAclCacheSize()));
         cacheElement.addElement(N_SIZE_PERMISSIONS).setText(Integer.toString(m_cacheSettings.getPermissionCacheSize()));
+        if (m_cacheSettings.getCacheFactory() != null) {
+            cacheElement.addElement(N_CACHEFACTORY).setText(m_cacheSettings.getCacheFactory());
+        }
 
         // content notification settings
         if ((m_notificationTime != null) || (m_notificationProject != null)) {
@@ -1603,6 +1685,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 String.valueOf(m_publishManager.isPublishQueuePersistanceEnabled()));
             pubHistElement.addElement(N_QUEUESHUTDOWNTIME).setText(
                 String.valueOf(m_publishManager.getPublishQueueShutdowntime()));
+            pubHistElement.addElement(N_PUBLISHTHREADS).setText(
+                String.valueOf(m_publishManager.getPublishThreads()));
+            if (m_publishManager.getPublishBatchSize() > 0) {
+                pubHistElement.addElement(N_PUBLISH_BATCH_SIZE).setText(
+                    String.valueOf(m_publishManager.getPublishBatchSize()));
+            }
         }
 
         // session storage provider
@@ -1662,6 +1750,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 groupContainerCacheElem.addAttribute(A_OFFLINE, ""
                     + getAdeCacheSettings().getGroupContainerOfflineSize());
                 groupContainerCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getGroupContainerOnlineSize());
+                // XML content cache
+                Element xmlContentCacheElem = cacheElem.addElement(N_XMLCONTENTS);
+                xmlContentCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getXmlContentOnlineSize());
             }
         }
 
@@ -1671,6 +1762,17 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             subscrManElem.addAttribute(A_ENABLED, Boolean.toString(getSubscriptionManager().isEnabled()));
             subscrManElem.addAttribute(A_POOLNAME, getSubscriptionManager().getPoolName());
             subscrManElem.addAttribute(A_MAXVISITED, String.valueOf(getSubscriptionManager().getMaxVisitedCount()));
+            if (getSubscriptionManager().getVisitQueueSize() > 0) {
+                subscrManElem.addAttribute(
+                    A_VISITQUEUE,
+                    String.valueOf(getSubscriptionManager().getVisitQueueSize()));
+                subscrManElem.addAttribute(
+                    A_VISITFLUSHINTERVAL,
+                    String.valueOf(getSubscriptionManager().getVisitFlushInterval()));
+                subscrManElem.addAttribute(
+                    A_VISITFLUSHONSHUTDOWN,
+                    Boolean.toString(getSubscriptionManager().isVisitFlushOnShutdown()));
+            }
         }
 
         I_CmsWorkflowManager workflowMan = getWorkflowManager();
@@ -2735,6 +2837,7 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         m_configuredJobs = new ArrayList<CmsScheduledJobInfo>();
         m_runtimeProperties = new HashMap<String, String>();
         m_eventManager = new CmsEventManager();
+        m_eventManagerParameters = new CmsParameterConfiguration();
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SYSTEM_CONFIG_INIT_0));
         }
@@ -35,6 +35,10 @@ import org.opencms.security.CmsPermissionSet;
 /**
  * Generates the cache keys for the user and permission caches.<p>
  * 
+ * If this class is configured as cache key generator, the permission cache uses the 
+ * {@link CmsCompactCacheKey} keys created by {@link #getCompactKeyForUserPermissions(int, CmsDbContext, CmsResource, CmsPermissionSet)}.
+ * Custom cache key generators keep using the String keys of the {@link I_CmsCacheKey} interface.<p>
+ * 
  * @since 6.0.0
  */
 public class CmsCacheKey implements I_CmsCacheKey {
@@ -48,6 +52,12 @@ public class CmsCacheKey implements I_CmsCacheKey {
     /** Cache key for a list of sub-folders of a folder. */
     public static final String CACHE_KEY_SUBFOLDERS = "_folders_";
 
+    /** Permission check mode flag: the lock state is checked. */
+    public static final int MODE_CHECK_LOCK = 1;
+
+    /** Permission check mode flag: the resource must be visible. */
+    public static final int MODE_REQUIRE_VISIBLE = 2;
+
     /**
      * Constructor to create a new instance of CmsCacheKey.<p>
      */
@@ -56,6 +66,36 @@ public class CmsCacheKey implements I_CmsCacheKey {
         // empty
     }
 
+    /**
+     * Returns the compact cache key for the permission cache.<p>
+     * 
+     * @param mode the permission check mode, a combination of {@link #MODE_CHECK_LOCK} and {@link #MODE_REQUIRE_VISIBLE}
+     * @param context the context
+     * @param resource the resource
+     * @param requiredPermissions the permissions to check
+     * 
+     * @return a cache key that is unique for the set of parameters, 
+     *      or <code>null</code> if the result must not be cached
+     */
+    public CmsCompactCacheKey getCompactKeyForUserPermissions(
+        int mode,
+        CmsDbContext context,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions) {
+
+        if (!context.getProjectId().isNullUUID()) {
+            return null;
+        }
+        int flags = mode;
+        if (context.currentProject().isOnlineProject()) {
+            flags |= CmsCompactCacheKey.FLAG_ONLINE;
+        }
+        // the permission bits are small, so allowed and denied permissions fit into one int
+        int permissions = (requiredPermissions.getDeniedPermissions() << 16)
+            | (requiredPermissions.getAllowedPermissions() & 0xffff);
+        return new CmsCompactCacheKey(context.currentUser().getId(), resource.getStructureId(), flags, permissions);
+    }
+
     /**
      * @see org.opencms.db.I_CmsCacheKey#getCacheKeyForGroupUsers(java.lang.String, org.opencms.db.CmsDbContext, org.opencms.file.CmsGroup)
      */
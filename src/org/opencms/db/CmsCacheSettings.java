@@ -37,6 +37,9 @@ public class CmsCacheSettings {
     /** The size of the memory monitor's cache for ACLs. */
     private int m_aclCacheSize;
 
+    /** The name of the class used to create the memory monitor's caches. */
+    private String m_cacheFactory;
+
     /** The name of the class to generate cache keys. */
     private String m_cacheKeyGenerator;
 
@@ -94,6 +97,18 @@ public class CmsCacheSettings {
         return m_aclCacheSize;
     }
 
+    /**
+     * Returns the name of the class used to create the memory monitor's caches.<p>
+     * 
+     * Might be <code>null</code> if configuration entry is missing.<p>
+     *
+     * @return the name of the class used to create the memory monitor's caches
+     */
+    public String getCacheFactory() {
+
+        return m_cacheFactory;
+    }
+
     /**
      * Returns the name of the class to generate cache keys.<p>
      *
@@ -294,6 +309,16 @@ public class CmsCacheSettings {
         m_aclCacheSize = getIntValue(size, 1024);
     }
 
+    /**
+     * Sets the name of the class used to create the memory monitor's caches.<p>
+     *
+     * @param classname the name of the class used to create the memory monitor's caches
+     */
+    public void setCacheFactory(String classname) {
+
+        m_cacheFactory = classname;
+    }
+
     /**
      * Sets the name of the class to generate cache keys.<p>
      *
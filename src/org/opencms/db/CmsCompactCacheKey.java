@@ -0,0 +1,155 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.util.CmsUUID;
+
+/**
+ * A compact cache key made of two UUIDs and two int values.<p>
+ * 
+ * Compared to String based cache keys, these keys need no String building,
+ * use little memory and have a precomputed hash code.<p>
+ * 
+ * @since 9.5.0
+ * 
+ * @see CmsCacheKey#getCompactKeyForUserPermissions(int, CmsDbContext, org.opencms.file.CmsResource, org.opencms.security.CmsPermissionSet)
+ */
+public final class CmsCompactCacheKey {
+
+    /** Flag for keys generated for the online project. */
+    public static final int FLAG_ONLINE = 1 << 30;
+
+    /** The flags of this key. */
+    private final int m_flags;
+
+    /** The precomputed hash code. */
+    private final int m_hash;
+
+    /** The lower bits of the first UUID. */
+    private final long m_id1Low;
+
+    /** The upper bits of the first UUID. */
+    private final long m_id1High;
+
+    /** The lower bits of the second UUID. */
+    private final long m_id2Low;
+
+    /** The upper bits of the second UUID. */
+    private final long m_id2High;
+
+    /** The additional value of this key. */
+    private final int m_value;
+
+    /**
+     * Creates a new compact cache key.<p>
+     * 
+     * @param id1 the first UUID
+     * @param id2 the second UUID, may be <code>null</code>
+     * @param flags the flags of this key
+     * @param value an additional value, e.g. packed permission bits
+     */
+    public CmsCompactCacheKey(CmsUUID id1, CmsUUID id2, int flags, int value) {
+
+        m_id1High = id1.getMostSignificantBits();
+        m_id1Low = id1.getLeastSignificantBits();
+        if (id2 != null) {
+            m_id2High = id2.getMostSignificantBits();
+            m_id2Low = id2.getLeastSignificantBits();
+        } else {
+            m_id2High = 0;
+            m_id2Low = 0;
+        }
+        m_flags = flags;
+        m_value = value;
+
+        long hash = m_id1High ^ m_id1Low;
+        hash = (31 * hash) + (m_id2High ^ m_id2Low);
+        hash = (31 * hash) + m_flags;
+        hash = (31 * hash) + m_value;
+        m_hash = (int)(hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Checks if one of the UUIDs of this key is the given UUID.<p>
+     * 
+     * @param id the UUID to check
+     * 
+     * @return <code>true</code> if one of the UUIDs of this key is the given UUID
+     */
+    public boolean containsId(CmsUUID id) {
+
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        return ((m_id1High == high) && (m_id1Low == low)) || ((m_id2High == high) && (m_id2Low == low));
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CmsCompactCacheKey)) {
+            return false;
+        }
+        CmsCompactCacheKey other = (CmsCompactCacheKey)obj;
+        return (m_hash == other.m_hash)
+            && (m_id1Low == other.m_id1Low)
+            && (m_id2Low == other.m_id2Low)
+            && (m_id1High == other.m_id1High)
+            && (m_id2High == other.m_id2High)
+            && (m_flags == other.m_flags)
+            && (m_value == other.m_value);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return m_hash;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(96);
+        result.append(Long.toHexString(m_id1High)).append(Long.toHexString(m_id1Low)).append('_');
+        result.append(Long.toHexString(m_id2High)).append(Long.toHexString(m_id2Low)).append('_');
+        result.append(Integer.toHexString(m_flags)).append('_');
+        result.append(Integer.toHexString(m_value));
+        return result.toString();
+    }
+}
@@ -114,6 +114,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.workplace.commons.CmsProgressThread;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -333,6 +334,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The class used for cache key generation. */
     private I_CmsCacheKey m_keyGenerator;
 
+    /** The last publish tag handed out, to keep publish tags unique if several publish jobs run at the same time. */
+    private int m_lastPublishTag;
+
     /** The lock manager. */
     private CmsLockManager m_lockManager;
 
@@ -719,6 +723,90 @@ public final class CmsDriverManager implements I_CmsEventListener {
         OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_USER_MODIFIED, eventData));
     }
 
+    /**
+     * Resolves the access control lists of the given resources and puts them in the cache.<p>
+     *
+     * The resources are grouped by their parent folder. The inherited access control list of
+     * each parent folder is resolved only once, and the access control entries of all resources 
+     * in a group are read with one query. Later permission checks for the resources 
+     * then find the access control lists in the cache.<p>
+     *
+     * Nothing is done if access control lists can not be cached for the given context.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to resolve the access control lists for
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void cacheAccessControlLists(CmsDbContext dbc, Collection<CmsResource> resources) throws CmsException {
+
+        if (!dbc.getProjectId().isNullUUID() || (resources.size() < 2)) {
+            return;
+        }
+        // group the resources without cached access control list by their parent folder
+        Map<String, List<CmsResource>> resourcesByParent = new HashMap<String, List<CmsResource>>();
+        for (CmsResource resource : resources) {
+            String parentPath = CmsResource.getParentFolder(resource.getRootPath());
+            if (parentPath == null) {
+                continue;
+            }
+            CmsCompactCacheKey cacheKey = getAccessControlListCacheKey(dbc, resource, false, resource.isFolder(), 0);
+            if (m_monitor.getCachedACL(cacheKey) != null) {
+                continue;
+            }
+            List<CmsResource> group = resourcesByParent.get(parentPath);
+            if (group == null) {
+                group = new ArrayList<CmsResource>();
+                resourcesByParent.put(parentPath, group);
+            }
+            group.add(resource);
+        }
+
+        for (Map.Entry<String, List<CmsResource>> entry : resourcesByParent.entrySet()) {
+            List<CmsResource> group = entry.getValue();
+            if (group.size() < 2) {
+                // nothing to share, the access control list is resolved by the permission check
+                continue;
+            }
+            CmsResource parentFolder;
+            try {
+                parentFolder = getVfsDriver(dbc).readFolder(dbc, dbc.currentProject().getUuid(), entry.getKey());
+            } catch (CmsVfsResourceNotFoundException e) {
+                // the access control lists are resolved one by one by the permission checks
+                continue;
+            }
+            Set<CmsUUID> resourceIds = new HashSet<CmsUUID>();
+            for (CmsResource resource : group) {
+                resourceIds.add(resource.getResourceId());
+            }
+            Map<CmsUUID, List<CmsAccessControlEntry>> acesByResource = getUserDriver(dbc).readAccessControlEntries(
+                dbc,
+                dbc.currentProject(),
+                new ArrayList<CmsUUID>(resourceIds));
+
+            // the inherited access control lists of the parent folder, for files and for folders
+            CmsAccessControlList[] parentAcls = new CmsAccessControlList[2];
+            for (CmsResource resource : group) {
+                List<CmsAccessControlEntry> aces = acesByResource.get(resource.getResourceId());
+                // copy the entries, since siblings share the same list
+                aces = (aces == null)
+                ? new ArrayList<CmsAccessControlEntry>()
+                : new ArrayList<CmsAccessControlEntry>(aces);
+                CmsAccessControlList parentAcl = null;
+                if (!sortAceList(aces)) {
+                    int index = resource.isFolder() ? 1 : 0;
+                    if (parentAcls[index] == null) {
+                        parentAcls[index] = getAccessControlList(dbc, parentFolder, false, resource.isFolder(), 1);
+                    }
+                    parentAcl = parentAcls[index];
+                }
+                m_monitor.cacheACL(
+                    getAccessControlListCacheKey(dbc, resource, false, resource.isFolder(), 0),
+                    createAccessControlList(aces, parentAcl, false, 0));
+            }
+        }
+    }
+
     /**
      * Changes the lock of a resource to the current user,
      * that is "steals" the lock from another user.<p>
@@ -4102,9 +4190,15 @@ public final class CmsDriverManager implements I_CmsEventListener {
      *
      * @return the next available publish tag
      */
-    public int getNextPublishTag(CmsDbContext dbc) {
+    public synchronized int getNextPublishTag(CmsDbContext dbc) {
 
-        return getHistoryDriver(dbc).readNextPublishTag(dbc);
+        int publishTag = getHistoryDriver(dbc).readNextPublishTag(dbc);
+        if (publishTag <= m_lastPublishTag) {
+            // another publish job is running and has not yet written its history
+            publishTag = m_lastPublishTag + 1;
+        }
+        m_lastPublishTag = publishTag;
+        return publishTag;
     }
 
     /**
@@ -6434,6 +6528,46 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Returns a stream on the content of a file resource.<p>
+     *
+     * Other than {@link #readFile(CmsDbContext, CmsResource)} this does not read the complete
+     * content into memory. The returned stream must always be closed by the caller.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the file resource to read the content for
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     *
+     * @return a stream on the file content
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public InputStream readContentStream(CmsDbContext dbc, CmsResource resource, long offset, long length)
+    throws CmsException {
+
+        if (resource.isFolder()) {
+            throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                Messages.ERR_ACCESS_FOLDER_AS_FILE_1,
+                dbc.removeSiteRoot(resource.getRootPath())));
+        }
+
+        if (resource instanceof I_CmsHistoryResource) {
+            // the history driver only supports reading the complete content
+            byte[] content = getHistoryDriver(dbc).readContent(
+                dbc,
+                resource.getResourceId(),
+                ((I_CmsHistoryResource)resource).getPublishTag());
+            return CmsFileUtil.getRangeStream(content, offset, length);
+        }
+        return getVfsDriver(dbc).readContentStream(
+            dbc,
+            dbc.currentProject().getUuid(),
+            resource.getResourceId(),
+            offset,
+            length);
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -7560,6 +7694,36 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the resources with the given root paths matching the filter criteria.<p>
+     *
+     * All resources are read with one database query per 500 paths. Paths that do not exist, 
+     * or whose resources do not match the filter, are ignored. The resources are returned in 
+     * no particular order.<p>
+     *
+     * @param dbc the current database context
+     * @param resourcePaths the root paths of the resources to read
+     * @param filter the filter
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsDataAccessException if the bare reading of the resources fails
+     */
+    public List<CmsResource> readResourcesByPath(
+        CmsDbContext dbc,
+        List<String> resourcePaths,
+        CmsResourceFilter filter) throws CmsDataAccessException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        List<CmsResource> resourceList = getVfsDriver(dbc).readResourcesByPath(
+            dbc,
+            projectId,
+            resourcePaths,
+            filter.includeDeleted());
+        // apply the result filter and update the context dates
+        return updateContextDates(dbc, resourceList, filter);
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -10550,6 +10714,50 @@ public final class CmsDriverManager implements I_CmsEventListener {
         repairCategories(dbc, getProjectIdForContext(dbc), target);
     }
 
+    /**
+     * Creates the access control list of a resource from its own access control entries 
+     * and the access control list of its parent folder.<p>
+     *
+     * @param aces the sorted access control entries of the resource
+     * @param parentAcl the access control list of the parent folder, 
+     *      or <code>null</code> if nothing is inherited
+     * @param inheritedOnly flag indicates to collect inherited permissions only
+     * @param depth the depth of the resource relative to the resource the list is created for
+     *
+     * @return the access control list of the resource
+     */
+    private CmsAccessControlList createAccessControlList(
+        List<CmsAccessControlEntry> aces,
+        CmsAccessControlList parentAcl,
+        boolean inheritedOnly,
+        int depth) {
+
+        CmsAccessControlList acl;
+        if (parentAcl != null) {
+            acl = (CmsAccessControlList)parentAcl.clone();
+        } else {
+            acl = new CmsAccessControlList();
+        }
+        if (!((depth == 0) && inheritedOnly)) {
+            Iterator<CmsAccessControlEntry> itAces = aces.iterator();
+            while (itAces.hasNext()) {
+                CmsAccessControlEntry acEntry = itAces.next();
+                if (depth > 0) {
+                    acEntry.setFlags(CmsAccessControlEntry.ACCESS_FLAGS_INHERITED);
+                }
+
+                acl.add(acEntry);
+
+                // if the overwrite flag is set, reset the allowed permissions to the permissions of this entry
+                // denied permissions are kept or extended
+                if ((acEntry.getFlags() & CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE) > 0) {
+                    acl.setAllowedPermissions(acEntry);
+                }
+            }
+        }
+        return acl;
+    }
+
     /**
      * Filters the given list of resources, removes all resources where the current user
      * does not have READ permissions, plus the filter is applied.<p>
@@ -10571,6 +10779,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             // never check time range here - this must be done later in #updateContextDates(...)
             filter = filter.addExcludeTimerange();
         }
+        // resolve the access control lists once per parent folder instead of once per resource
+        cacheAccessControlLists(dbc, resourceList);
         ArrayList<CmsResource> result = new ArrayList<CmsResource>(resourceList.size());
         for (int i = 0; i < resourceList.size(); i++) {
             // check the permission of all resources
@@ -10742,19 +10952,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean forFolder,
         int depth) throws CmsException {
 
-        String cacheKey = getCacheKey(
-            new String[] {
-                inheritedOnly ? "+" : "-",
-                forFolder ? "+" : "-",
-                Integer.toString(depth),
-                resource.getStructureId().toString()},
-            dbc);
-
-        CmsAccessControlList acl = m_monitor.getCachedACL(cacheKey);
-
-        // return the cached acl if already available
-        if ((acl != null) && dbc.getProjectId().isNullUUID()) {
-            return acl;
+        CmsCompactCacheKey cacheKey = getAccessControlListCacheKey(dbc, resource, inheritedOnly, forFolder, depth);
+        if (cacheKey != null) {
+            CmsAccessControlList acl = m_monitor.getCachedACL(cacheKey);
+            // return the cached acl if already available
+            if (acl != null) {
+                return acl;
+            }
         }
 
         List<CmsAccessControlEntry> aces = getUserDriver(dbc).readAccessControlEntries(
@@ -10766,6 +10970,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         // sort the list of aces
         boolean overwriteAll = sortAceList(aces);
 
+        CmsAccessControlList parentAcl = null;
         // if no 'overwrite all' ace was found
         if (!overwriteAll) {
             // get the acl of the parent
@@ -10784,39 +10989,42 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 }
             }
             if (parentResource != null) {
-                acl = (CmsAccessControlList)getAccessControlList(
-                    dbc,
-                    parentResource,
-                    inheritedOnly,
-                    forFolder,
-                    depth + 1).clone();
+                parentAcl = getAccessControlList(dbc, parentResource, inheritedOnly, forFolder, depth + 1);
             }
         }
-        if (acl == null) {
-            acl = new CmsAccessControlList();
+        CmsAccessControlList acl = createAccessControlList(aces, parentAcl, inheritedOnly, depth);
+        if (cacheKey != null) {
+            m_monitor.cacheACL(cacheKey, acl);
         }
+        return acl;
+    }
 
-        if (!((depth == 0) && inheritedOnly)) {
-            Iterator<CmsAccessControlEntry> itAces = aces.iterator();
-            while (itAces.hasNext()) {
-                CmsAccessControlEntry acEntry = itAces.next();
-                if (depth > 0) {
-                    acEntry.setFlags(CmsAccessControlEntry.ACCESS_FLAGS_INHERITED);
-                }
-
-                acl.add(acEntry);
+    /**
+     * Returns the key for the access control list cache.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource
+     * @param inheritedOnly flag indicates to collect inherited permissions only
+     * @param forFolder should be true if resource is a folder
+     * @param depth the depth to include non-inherited access entries
+     *
+     * @return the cache key, or <code>null</code> if the access control list must not be cached
+     */
+    private CmsCompactCacheKey getAccessControlListCacheKey(
+        CmsDbContext dbc,
+        CmsResource resource,
+        boolean inheritedOnly,
+        boolean forFolder,
+        int depth) {
 
-                // if the overwrite flag is set, reset the allowed permissions to the permissions of this entry
-                // denied permissions are kept or extended
-                if ((acEntry.getFlags() & CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE) > 0) {
-                    acl.setAllowedPermissions(acEntry);
-                }
-            }
+        if (!dbc.getProjectId().isNullUUID()) {
+            return null;
         }
-        if (dbc.getProjectId().isNullUUID()) {
-            m_monitor.cacheACL(cacheKey, acl);
+        int flags = (inheritedOnly ? 1 : 0) | (forFolder ? 2 : 0);
+        if (dbc.currentProject().isOnlineProject()) {
+            flags |= CmsCompactCacheKey.FLAG_ONLINE;
         }
-        return acl;
+        return new CmsCompactCacheKey(resource.getStructureId(), null, flags, depth);
     }
 
     /**
@@ -92,6 +92,7 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -1819,6 +1820,53 @@ public final class CmsSecurityManager {
         return publishList;
     }
 
+    /**
+     * Returns the subset of the given resources for which the current user has the required permissions.<p>
+     *
+     * This gives the same result as calling {@link #hasPermissions(CmsRequestContext, CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}
+     * for each resource, but the access control lists are resolved once per parent folder instead of 
+     * once per resource. Use this for long lists of resources, e.g. the children of a folder.<p>
+     *
+     * @param context the current request context
+     * @param resources the resources to check
+     * @param requiredPermissions the set of permissions required for the operation
+     * @param checkLock if true, a lock for the current user is required for
+     *      all write operations, if false it's ok to write as long as the resource
+     *      is not locked by another user
+     * @param filter the resource filter to use
+     *
+     * @return the resources for which the permission check result is <code>{@link I_CmsPermissionHandler#PERM_ALLOWED}</code>, 
+     *      in the order of the given resources
+     *
+     * @throws CmsException in case of i/o errors (NOT because of insufficient permissions)
+     */
+    public List<CmsResource> filterPermissions(
+        CmsRequestContext context,
+        Collection<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.cacheAccessControlLists(dbc, resources);
+            for (CmsResource resource : resources) {
+                if (hasPermissions(dbc, resource, requiredPermissions, checkLock, filter).isAllowed()) {
+                    result.add(resource);
+                }
+            }
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_FILTER_PERMISSIONS_1, context.getCurrentUser().getName()),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the list of access control entries of a resource given its name.<p>
      *
@@ -4066,6 +4114,35 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Returns a stream on the binary content of a file resource.<p>
+     *
+     * @param context the current request context
+     * @param resource the file resource to read the content for
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     *
+     * @return a stream on the file content
+     *
+     * @throws CmsException if something goes wrong
+     * 
+     * @see CmsObject#readContentStream(CmsResource, long, long)
+     */
+    public InputStream readContentStream(CmsRequestContext context, CmsResource resource, long offset, long length)
+    throws CmsException {
+
+        InputStream result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readContentStream(dbc, resource, offset, length);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_READ_FILE_1, context.getSitePath(resource)), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -4984,6 +5061,50 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the resources with the given root paths that the current user can read 
+     * with the given filter.<p>
+     *
+     * This gives the same resources as calling {@link #readResource(CmsRequestContext, String, CmsResourceFilter)}
+     * for each path and ignoring the paths that can not be read, but the resources are read with one database query 
+     * per 500 paths and the access control lists are resolved once per parent folder. 
+     * The resources are returned in no particular order.<p>
+     *
+     * @param context the current request context
+     * @param resourcePaths the root paths of the resources to read
+     * @param filter the resource filter to use
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsException if something goes wrong (NOT because of insufficient permissions)
+     */
+    public List<CmsResource> readResourcesByPath(
+        CmsRequestContext context,
+        List<String> resourcePaths,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            List<CmsResource> resources = m_driverManager.readResourcesByPath(dbc, resourcePaths, filter);
+            m_driverManager.cacheAccessControlLists(dbc, resources);
+            result = new ArrayList<CmsResource>(resources.size());
+            for (CmsResource resource : resources) {
+                if (hasPermissions(dbc, resource, CmsPermissionSet.ACCESS_READ, true, filter).isAllowed()) {
+                    result.add(resource);
+                }
+            }
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_BY_PATH_1, String.valueOf(resourcePaths.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -29,11 +29,13 @@ package org.opencms.db;
 
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsPrincipal;
@@ -41,18 +43,58 @@ import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.CmsStringUtil;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
 
 /**
  * Manager that provides methods to subscribe resources to users, read subscribed or unvisited resources and more.<p>
  * 
+ * If a visit queue size is configured, visits are not written on the calling thread. They are collected 
+ * in a bounded queue instead, where repeated visits of the same resource by the same user are merged, 
+ * and written by a background thread in the configured flush interval.
+ * If the queue is full, visits are written on the calling thread again.<p>
+ * 
  * @since 8.0
  */
 public class CmsSubscriptionManager {
 
+    /**
+     * A visit of a resource by a user, waiting in the visit queue.<p>
+     */
+    private static class CmsQueuedVisit {
+
+        /** The visited resource. */
+        protected CmsResource m_resource;
+
+        /** The user that visited the resource. */
+        protected CmsUser m_user;
+
+        /**
+         * Creates a new queued visit.<p>
+         * 
+         * @param resource the visited resource
+         * @param user the user that visited the resource
+         */
+        protected CmsQueuedVisit(CmsResource resource, CmsUser user) {
+
+            m_resource = resource;
+            m_user = user;
+        }
+    }
+
     /** The default maximum number of visited resources to store per user. */
     private static final int DEFAULT_MAX_VISITEDCOUNT = 1000;
 
+    /** The default interval in milliseconds in which queued visits are written. */
+    private static final long DEFAULT_VISIT_FLUSH_INTERVAL = 5000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSubscriptionManager.class);
+
     /** The security manager to access the cms. */
     protected CmsSecurityManager m_securityManager;
 
@@ -68,12 +110,88 @@ public class CmsSubscriptionManager {
     /** The name of the database pool to use. */
     private String m_poolName;
 
+    /** The context used to write queued visits. */
+    private CmsObject m_visitCms;
+
+    /** The duration in milliseconds of the last write of queued visits. */
+    private long m_visitFlushDuration;
+
+    /** The interval in milliseconds in which queued visits are written. */
+    private long m_visitFlushInterval;
+
+    /** Held while queued visits are taken from the queue and written. */
+    private Object m_visitFlushLock;
+
+    /** Indicates if queued visits are written on shutdown, otherwise they are discarded. */
+    private boolean m_visitFlushOnShutdown;
+
+    /** The queued visits, with the user id and the structure id of the resource as key. */
+    private Map<String, CmsQueuedVisit> m_visitQueue;
+
+    /** The maximum number of queued visits, 0 if visits are written on the calling thread. */
+    private int m_visitQueueSize;
+
+    /** The thread that writes the queued visits. */
+    private Thread m_visitWriter;
+
+    /** Indicates if the visit writer thread has been asked to stop. */
+    private boolean m_visitWriterStopped;
+
+    /** The number of queued visits written so far. */
+    private long m_visitsWritten;
+
     /**
      * Initializes a new CmsSubscriptionManager, called from the configuration.<p>
      */
     public CmsSubscriptionManager() {
 
         m_frozen = false;
+        m_visitFlushInterval = DEFAULT_VISIT_FLUSH_INTERVAL;
+        m_visitFlushOnShutdown = true;
+        m_visitFlushLock = new Object();
+        m_visitQueue = new LinkedHashMap<String, CmsQueuedVisit>();
+    }
+
+    /**
+     * Writes all queued visits.<p>
+     * 
+     * This is called by the visit writer thread, and before visits are read.
+     * If another thread is writing queued visits, this waits until that write is finished.<p>
+     */
+    public void flushVisits() {
+
+        // the lock is held from taking the visits until they are written, 
+        // so readers calling this wait for a write that is already in progress
+        synchronized (m_visitFlushLock) {
+            List<CmsQueuedVisit> visits;
+            synchronized (m_visitQueue) {
+                if (m_visitQueue.isEmpty()) {
+                    return;
+                }
+                visits = new ArrayList<CmsQueuedVisit>(m_visitQueue.values());
+                m_visitQueue.clear();
+            }
+            long start = System.currentTimeMillis();
+            for (CmsQueuedVisit visit : visits) {
+                try {
+                    m_securityManager.markResourceAsVisitedBy(
+                        m_visitCms.getRequestContext(),
+                        getPoolName(),
+                        visit.m_resource,
+                        visit.m_user);
+                } catch (Throwable t) {
+                    LOG.error(t.getLocalizedMessage(), t);
+                }
+            }
+            m_visitFlushDuration = System.currentTimeMillis() - start;
+            m_visitsWritten += visits.size();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_SUBSCRIPTION_VISITS_WRITTEN_2,
+                    new Integer(visits.size()),
+                    new Long(m_visitFlushDuration)));
+            }
+        }
     }
 
     /**
@@ -89,6 +207,7 @@ public class CmsSubscriptionManager {
      */
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, CmsResource resource) throws CmsException {
 
+        flushVisits();
         return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
     }
 
@@ -106,6 +225,7 @@ public class CmsSubscriptionManager {
     public long getDateLastVisitedBy(CmsObject cms, CmsUser user, String resourcePath) throws CmsException {
 
         CmsResource resource = cms.readResource(resourcePath, CmsResourceFilter.ALL);
+        flushVisits();
         return m_securityManager.getDateLastVisitedBy(cms.getRequestContext(), getPoolName(), user, resource);
     }
 
@@ -136,6 +256,58 @@ public class CmsSubscriptionManager {
         return m_poolName;
     }
 
+    /**
+     * Returns the duration in milliseconds of the last write of queued visits.<p>
+     * 
+     * @return the duration in milliseconds of the last write of queued visits
+     */
+    public long getVisitFlushDuration() {
+
+        return m_visitFlushDuration;
+    }
+
+    /**
+     * Returns the interval in milliseconds in which queued visits are written.<p>
+     * 
+     * @return the interval in milliseconds in which queued visits are written
+     */
+    public long getVisitFlushInterval() {
+
+        return m_visitFlushInterval;
+    }
+
+    /**
+     * Returns the number of visits currently waiting in the visit queue.<p>
+     * 
+     * @return the number of queued visits
+     */
+    public int getVisitQueueDepth() {
+
+        synchronized (m_visitQueue) {
+            return m_visitQueue.size();
+        }
+    }
+
+    /**
+     * Returns the maximum number of queued visits.<p>
+     * 
+     * @return the maximum number of queued visits, 0 if visits are written on the calling thread
+     */
+    public int getVisitQueueSize() {
+
+        return m_visitQueueSize;
+    }
+
+    /**
+     * Returns the number of queued visits written so far.<p>
+     * 
+     * @return the number of queued visits written so far
+     */
+    public long getVisitsWritten() {
+
+        return m_visitsWritten;
+    }
+
     /**
      * Initializes this subscription manager with the OpenCms system configuration.<p>
      * 
@@ -147,6 +319,41 @@ public class CmsSubscriptionManager {
 
         OpenCms.getRoleManager().checkRole(cms, CmsRole.ROOT_ADMIN);
         m_frozen = true;
+        if ((m_visitQueueSize > 0) && isEnabled()) {
+            try {
+                m_visitCms = OpenCms.initCmsObject(cms);
+                m_visitCms.getRequestContext().setCurrentProject(m_visitCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+            } catch (CmsException e) {
+                // write the visits on the calling thread
+                LOG.error(e.getLocalizedMessage(), e);
+                return;
+            }
+            m_visitWriter = new Thread("OpenCms: subscription visit writer") {
+
+                @Override
+                public void run() {
+
+                    while (true) {
+                        // wait on the queue instead of sleeping, so shutting down does not interrupt a running write
+                        synchronized (m_visitQueue) {
+                            if (!m_visitWriterStopped) {
+                                try {
+                                    m_visitQueue.wait(m_visitFlushInterval);
+                                } catch (InterruptedException e) {
+                                    m_visitWriterStopped = true;
+                                }
+                            }
+                            if (m_visitWriterStopped) {
+                                break;
+                            }
+                        }
+                        flushVisits();
+                    }
+                }
+            };
+            m_visitWriter.setDaemon(true);
+            m_visitWriter.start();
+        }
     }
 
     /**
@@ -159,6 +366,16 @@ public class CmsSubscriptionManager {
         return m_enabled && (m_securityManager != null) && m_securityManager.isSubscriptionDriverAvailable();
     }
 
+    /**
+     * Returns if queued visits are written on shutdown, otherwise they are discarded.<p>
+     * 
+     * @return <code>true</code> if queued visits are written on shutdown
+     */
+    public boolean isVisitFlushOnShutdown() {
+
+        return m_visitFlushOnShutdown;
+    }
+
     /**
      * Mark the given resource as visited by the user.<p>
      * 
@@ -173,6 +390,18 @@ public class CmsSubscriptionManager {
         if (!isEnabled()) {
             throw new CmsRuntimeException(Messages.get().container(Messages.ERR_SUBSCRIPTION_MANAGER_DISABLED_0));
         }
+        if (m_visitWriter != null) {
+            String key = user.getId().toString() + resource.getStructureId().toString();
+            synchronized (m_visitQueue) {
+                // after the shutdown has started, the queue is not written anymore
+                if (!m_visitWriterStopped
+                    && ((m_visitQueue.size() < m_visitQueueSize) || m_visitQueue.containsKey(key))) {
+                    // a repeated visit replaces the queued visit of the same resource by the same user
+                    m_visitQueue.put(key, new CmsQueuedVisit(resource, user));
+                    return;
+                }
+            }
+        }
         m_securityManager.markResourceAsVisitedBy(cms.getRequestContext(), getPoolName(), resource, user);
     }
 
@@ -218,6 +447,7 @@ public class CmsSubscriptionManager {
      */
     public List<CmsResource> readResourcesVisitedBy(CmsObject cms, CmsVisitedByFilter filter) throws CmsException {
 
+        flushVisits();
         return m_securityManager.readResourcesVisitedBy(cms.getRequestContext(), getPoolName(), filter);
     }
 
@@ -277,6 +507,7 @@ public class CmsSubscriptionManager {
      */
     public List<CmsResource> readSubscribedResources(CmsObject cms, CmsSubscriptionFilter filter) throws CmsException {
 
+        flushVisits();
         return m_securityManager.readSubscribedResources(cms.getRequestContext(), getPoolName(), filter);
     }
 
@@ -367,6 +598,94 @@ public class CmsSubscriptionManager {
         m_securityManager.setSubscribedResourceAsDeleted(cms.getRequestContext(), getPoolName(), resource);
     }
 
+    /**
+     * Sets the interval in milliseconds in which queued visits are written.<p>
+     * 
+     * @param visitFlushInterval the interval in milliseconds in which queued visits are written
+     */
+    public void setVisitFlushInterval(String visitFlushInterval) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0));
+        }
+        try {
+            long longValue = Long.parseLong(visitFlushInterval);
+            m_visitFlushInterval = (longValue > 0) ? longValue : DEFAULT_VISIT_FLUSH_INTERVAL;
+        } catch (NumberFormatException e) {
+            // use default value
+            m_visitFlushInterval = DEFAULT_VISIT_FLUSH_INTERVAL;
+        }
+    }
+
+    /**
+     * Sets if queued visits are written on shutdown, otherwise they are discarded.<p>
+     * 
+     * @param visitFlushOnShutdown <code>"false"</code> to discard queued visits on shutdown
+     */
+    public void setVisitFlushOnShutdown(String visitFlushOnShutdown) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0));
+        }
+        m_visitFlushOnShutdown = !Boolean.FALSE.toString().equalsIgnoreCase(visitFlushOnShutdown);
+    }
+
+    /**
+     * Sets the maximum number of queued visits.<p>
+     * 
+     * @param visitQueueSize the maximum number of queued visits, 0 to write visits on the calling thread
+     */
+    public void setVisitQueueSize(String visitQueueSize) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_SUBSCRIPTIONMANAGER_FROZEN_0));
+        }
+        try {
+            m_visitQueueSize = Math.max(Integer.parseInt(visitQueueSize), 0);
+        } catch (NumberFormatException e) {
+            // use default value
+            m_visitQueueSize = 0;
+        }
+    }
+
+    /**
+     * Shuts down the visit writer thread.<p>
+     * 
+     * Waits until a write of the visit writer thread in progress has finished.
+     * Depending on the configuration, the remaining queued visits are written or discarded afterwards.<p>
+     */
+    public void shutDown() {
+
+        Thread visitWriter = m_visitWriter;
+        if (visitWriter == null) {
+            return;
+        }
+        // new visits are written on the calling thread from now on
+        m_visitWriter = null;
+        synchronized (m_visitQueue) {
+            m_visitWriterStopped = true;
+            m_visitQueue.notifyAll();
+        }
+        try {
+            visitWriter.join();
+        } catch (InterruptedException e) {
+            // continue with the remaining visits
+            Thread.currentThread().interrupt();
+        }
+        if (m_visitFlushOnShutdown) {
+            flushVisits();
+        } else {
+            synchronized (m_visitQueue) {
+                if (!m_visitQueue.isEmpty()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_SUBSCRIPTION_VISITS_DISCARDED_1,
+                        new Integer(m_visitQueue.size())));
+                }
+                m_visitQueue.clear();
+            }
+        }
+    }
+
     /**
      * Subscribes the user or group to the resource.<p>
      * 
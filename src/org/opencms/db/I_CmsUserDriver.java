@@ -434,6 +434,26 @@ public interface I_CmsUserDriver extends I_CmsDriver {
         CmsUUID resource,
         boolean inheritedOnly) throws CmsDataAccessException;
 
+    /**
+     * Reads all access control entries for the given resources.<p>
+     * 
+     * This is used to resolve the access control lists of many resources, 
+     * e.g. the children of a folder, without one query for every resource.<p>
+     * 
+     * @param dbc the current database context
+     * @param project the project to read the entries from
+     * @param resourceIds the resource ids of the resources
+     * 
+     * @return a map from the resource id to the list of <code>{@link CmsAccessControlEntry}</code> objects of the resource,
+     *      resources without access control entries are not contained in the map
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, List<CmsAccessControlEntry>> readAccessControlEntries(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsUUID> resourceIds) throws CmsDataAccessException;
+
     //    /**
     //     * Returns all resources subscribed by the given user or group.<p>
     //     * 
@@ -41,6 +41,7 @@ import org.opencms.relations.CmsRelationFilter;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -464,6 +465,26 @@ public interface I_CmsVfsDriver {
      */
     byte[] readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId) throws CmsDataAccessException;
 
+    /**
+     * Returns a stream on the content of a file specified by it's resource ID.<p>
+     *
+     * Other than {@link #readContent(CmsDbContext, CmsUUID, CmsUUID)}, implementations should not 
+     * read the complete content into memory. The returned stream may keep database resources open,
+     * so it must always be closed by the caller.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the current project
+     * @param resourceId the id of the resource
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     *
+     * @return a stream on the file content
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    InputStream readContentStream(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId, long offset, long length)
+    throws CmsDataAccessException;
+
     /**
      * Reads a folder specified by it's structure ID.<p>
      *
@@ -627,6 +648,23 @@ public interface I_CmsVfsDriver {
     List<CmsResource> readResources(CmsDbContext dbc, CmsUUID currentProject, CmsResourceState state, int mode)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given root paths.<p>
+     *
+     * Paths that do not exist are ignored. The resources are returned in no particular order.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project in which the resources will be used
+     * @param paths the root paths of the resources
+     * @param includeDeleted true if already deleted resources are included
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResourcesByPath(CmsDbContext dbc, CmsUUID projectId, List<String> paths, boolean includeDeleted)
+    throws CmsDataAccessException;
+
     /**
      * Returns all resources associated to a given principal via an ACE.<p>
      *
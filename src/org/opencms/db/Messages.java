@@ -243,6 +243,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_ERROR_INITIALIZING_DRIVER_1 = "ERR_ERROR_INITIALIZING_DRIVER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_FILTER_PERMISSIONS_1 = "ERR_FILTER_PERMISSIONS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GET_ACL_ENTRIES_1 = "ERR_GET_ACL_ENTRIES_1";
 
@@ -531,6 +534,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_1 = "ERR_READ_RESOURCES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_RESOURCES_BY_PATH_1 = "ERR_READ_RESOURCES_BY_PATH_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1 = "ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1";
 
@@ -876,6 +882,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NO_EXPORT_POINTS_CONFIGURED_0 = "LOG_NO_EXPORT_POINTS_CONFIGURED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SUBSCRIPTION_VISITS_DISCARDED_1 = "LOG_SUBSCRIPTION_VISITS_DISCARDED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SUBSCRIPTION_VISITS_WRITTEN_2 = "LOG_SUBSCRIPTION_VISITS_WRITTEN_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UPDATE_EXORT_POINTS_ERROR_0 = "LOG_UPDATE_EXORT_POINTS_ERROR_0";
 
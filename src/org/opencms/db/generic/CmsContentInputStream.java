@@ -0,0 +1,112 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db.generic;
+
+import org.opencms.db.CmsDbContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Input stream on the content of a file that is read directly from a JDBC result set.<p>
+ * 
+ * The stream keeps the connection, statement and result set it was read from open
+ * until it is closed, so it must always be closed by the caller.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsContentInputStream extends FilterInputStream {
+
+    /** The connection the content was read with. */
+    private Connection m_conn;
+
+    /** The current database context. */
+    private CmsDbContext m_dbc;
+
+    /** The result set the content was read from. */
+    private ResultSet m_res;
+
+    /** The SQL manager used to release the database resources. */
+    private CmsSqlManager m_sqlManager;
+
+    /** The statement the content was read with. */
+    private Statement m_stmt;
+
+    /**
+     * Creates a new content input stream.<p>
+     * 
+     * @param in the stream to read the content from
+     * @param sqlManager the SQL manager used to release the database resources
+     * @param dbc the current database context
+     * @param conn the connection the content was read with
+     * @param stmt the statement the content was read with
+     * @param res the result set the content was read from
+     */
+    public CmsContentInputStream(
+        InputStream in,
+        CmsSqlManager sqlManager,
+        CmsDbContext dbc,
+        Connection conn,
+        Statement stmt,
+        ResultSet res) {
+
+        super(in);
+        m_sqlManager = sqlManager;
+        m_dbc = dbc;
+        m_conn = conn;
+        m_stmt = stmt;
+        m_res = res;
+    }
+
+    /**
+     * Closes the stream and releases the database resources it holds.<p>
+     * 
+     * @see java.io.FilterInputStream#close()
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        if (m_conn == null) {
+            // already closed
+            return;
+        }
+        try {
+            super.close();
+        } finally {
+            m_sqlManager.closeAll(m_dbc, m_conn, m_stmt, m_res);
+            m_conn = null;
+            m_stmt = null;
+            m_res = null;
+        }
+    }
+}
@@ -1599,17 +1599,30 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         Set<CmsUUID> publishedContentIds = new HashSet<CmsUUID>();
         Set<CmsUUID> publishedIds = new HashSet<CmsUUID>();
 
+        CmsPublishBatch batch = null;
+        int batchSize = OpenCms.getPublishManager().getPublishBatchSize();
+        if (batchSize > 0) {
+            // group the database writes into transactions of batchSize resources
+            batch = new CmsPublishBatch(batchSize);
+            dbc.setAttribute(CmsPublishBatch.ATTR_PUBLISH_BATCH, batch);
+        }
+        long startTime = System.currentTimeMillis();
+        boolean success = false;
+        boolean chunkComplete = false;
+
         try {
 
             ////////////////////////////////////////////////////////////////////////////////////////
             // write the historical project entry
 
             if (OpenCms.getSystemInfo().isHistoryEnabled()) {
+                internalStartPublishBatchResource(batch, dbc.currentProject().getName());
                 try {
                     // write an entry in the publish project log
                     m_driverManager.getHistoryDriver(dbc).writeProject(dbc, publishTag, System.currentTimeMillis());
                     dbc.pop();
                 } catch (Throwable t) {
+                    internalRollbackPublishBatchResource(dbc, batch, publishedIds, dbc.currentProject().getName());
                     dbc.report(
                         report,
                         Messages.get().container(
@@ -1642,6 +1655,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             I_CmsHistoryDriver historyDriver = m_driverManager.getHistoryDriver(dbc);
             while (itFolders.hasNext()) {
                 CmsResource currentFolder = itFolders.next();
+                internalStartPublishBatchResource(batch, currentFolder.getRootPath());
                 try {
                     if (currentFolder.getState().isNew() || currentFolder.getState().isChanged()) {
                         // bounce the current publish task through all project drivers
@@ -1657,7 +1671,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                         dbc.pop();
 
-                        publishedIds.add(currentFolder.getStructureId());
+                        if (batch == null) {
+                            publishedIds.add(currentFolder.getStructureId());
+                        }
                         // log it
                         CmsLogEntryType type = currentFolder.getState().isNew()
                         ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW
@@ -1678,7 +1694,11 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
                         internalResetResourceState(dbc, currentFolder);
 
-                        m_driverManager.unlockResource(dbc, currentFolder, true, true);
+                        if (batch == null) {
+                            m_driverManager.unlockResource(dbc, currentFolder, true, true);
+                        } else if (batch.resourcePublished(currentFolder)) {
+                            chunkComplete = true;
+                        }
                     } else {
                         // state == unchanged !!?? something went really wrong
                         report.print(Messages.get().container(Messages.RPT_PUBLISH_FOLDER_0), I_CmsReport.FORMAT_NOTE);
@@ -1702,11 +1722,18 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                     dbc.pop();
                 } catch (Throwable t) {
+                    chunkComplete = false;
+                    internalRollbackPublishBatchResource(dbc, batch, publishedIds, currentFolder.getRootPath());
                     dbc.report(
                         report,
                         Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FOLDER_1, currentFolder.getRootPath()),
                         t);
                 }
+                if (chunkComplete) {
+                    // commit outside of the error handling of the single resource
+                    chunkComplete = false;
+                    internalCommitPublishBatch(dbc, batch, publishedIds);
+                }
             }
 
             if (foldersSize > 0) {
@@ -1742,6 +1769,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             Iterator<CmsResource> itFiles = publishList.getFileList().iterator();
             while (itFiles.hasNext()) {
                 CmsResource currentResource = itFiles.next();
+                internalStartPublishBatchResource(batch, currentResource.getRootPath());
                 try {
                     // bounce the current publish task through all project drivers
                     projectDriver.publishFile(
@@ -1761,8 +1789,10 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         internalResetResourceState(dbc, currentResource);
                     }
 
-                    // unlock it
-                    m_driverManager.unlockResource(dbc, currentResource, true, true);
+                    if (batch == null) {
+                        // unlock it
+                        m_driverManager.unlockResource(dbc, currentResource, true, true);
+                    }
                     // log it
                     CmsLogEntryType type = state.isNew() ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW : (state.isDeleted()
                     ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
@@ -1773,14 +1803,25 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         type,
                         new String[] {currentResource.getRootPath()}), true);
 
-                    publishedIds.add(currentResource.getStructureId());
                     dbc.pop();
+                    if (batch == null) {
+                        publishedIds.add(currentResource.getStructureId());
+                    } else {
+                        chunkComplete = batch.resourcePublished(currentResource);
+                    }
                 } catch (Throwable t) {
+                    chunkComplete = false;
+                    internalRollbackPublishBatchResource(dbc, batch, publishedIds, currentResource.getRootPath());
                     dbc.report(
                         report,
                         Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, currentResource.getRootPath()),
                         t);
                 }
+                if (chunkComplete) {
+                    // commit outside of the error handling of the single resource
+                    chunkComplete = false;
+                    internalCommitPublishBatch(dbc, batch, publishedIds);
+                }
             }
 
             if (filesSize > 0) {
@@ -1792,6 +1833,8 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             // publish deleted folders
             List<CmsResource> deletedFolders = publishList.getDeletedFolderList();
             if (deletedFolders.isEmpty()) {
+                internalCommitPublishBatch(dbc, batch, publishedIds);
+                success = true;
                 return;
             }
 
@@ -1807,6 +1850,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             while (itDeletedFolders.hasNext()) {
                 CmsResource currentFolder = itDeletedFolders.next();
 
+                internalStartPublishBatchResource(batch, currentFolder.getRootPath());
                 try {
                     // bounce the current publish task through all project drivers
                     projectDriver.publishDeletedFolder(
@@ -1827,9 +1871,11 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion(),
                         -1);
 
-                    publishedIds.add(currentFolder.getStructureId());
-                    // unlock it
-                    m_driverManager.unlockResource(dbc, currentFolder, true, true);
+                    if (batch == null) {
+                        publishedIds.add(currentFolder.getStructureId());
+                        // unlock it
+                        m_driverManager.unlockResource(dbc, currentFolder, true, true);
+                    }
                     // log it
                     m_driverManager.log(dbc, new CmsLogEntry(
                         dbc,
@@ -1838,7 +1884,12 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         new String[] {currentFolder.getRootPath()}), true);
 
                     dbc.pop();
+                    if (batch != null) {
+                        chunkComplete = batch.resourcePublished(currentFolder);
+                    }
                 } catch (Throwable t) {
+                    chunkComplete = false;
+                    internalRollbackPublishBatchResource(dbc, batch, publishedIds, currentFolder.getRootPath());
                     dbc.report(
                         report,
                         Messages.get().container(
@@ -1846,11 +1897,18 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                             currentFolder.getRootPath()),
                         t);
                 }
+                if (chunkComplete) {
+                    // commit outside of the error handling of the single resource
+                    chunkComplete = false;
+                    internalCommitPublishBatch(dbc, batch, publishedIds);
+                }
             }
 
             if (deletedFoldersSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_DELETE_FOLDERS_END_0), I_CmsReport.FORMAT_HEADLINE);
             }
+            internalCommitPublishBatch(dbc, batch, publishedIds);
+            success = true;
         } catch (OutOfMemoryError o) {
             // clear all caches to reclaim memory
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -1876,6 +1934,19 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 LOG.info(message.key());
             }
             report.println(message);
+            if (batch != null) {
+                dbc.removeAttribute(CmsPublishBatch.ATTR_PUBLISH_BATCH);
+                try {
+                    batch.close(success);
+                } catch (SQLException e) {
+                    throw new CmsDbSqlException(Messages.get().container(Messages.ERR_PUBLISH_BATCH_COMMIT_0), e);
+                }
+            }
+            internalReportThroughput(
+                report,
+                publishedFileCount + publishedFolderCount + deletedFolderCount,
+                System.currentTimeMillis() - startTime,
+                batch);
         }
     }
 
@@ -2706,6 +2777,21 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     public void writePublishHistory(CmsDbContext dbc, CmsUUID publishId, CmsPublishedResource resource)
     throws CmsDataAccessException {
 
+        CmsPublishBatch batch = CmsPublishBatch.getPublishBatch(dbc);
+        if (batch != null) {
+            // the publish history is not read during publishing, so it is written with the next commit
+            batch.addBatch(m_sqlManager, "C_RESOURCES_WRITE_PUBLISH_HISTORY", new Object[] {
+                new Integer(resource.getPublishTag()),
+                resource.getStructureId().toString(),
+                resource.getResourceId().toString(),
+                resource.getRootPath(),
+                new Integer(resource.getMovedState().getState()),
+                new Integer(resource.getType()),
+                publishId.toString(),
+                new Integer(resource.getSiblingCount())});
+            return;
+        }
+
         Connection conn = null;
         PreparedStatement stmt = null;
 
@@ -3036,6 +3122,33 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return result;
     }
 
+    /**
+     * Commits the changes of the publish batch and unlocks the resources published in the committed chunk.<p>
+     *
+     * @param dbc the current database context
+     * @param batch the publish batch, or <code>null</code> if the publish writes are not batched
+     * @param publishedIds the structure ids of the published resources, the committed resources are added to
+     *
+     * @throws CmsException if the commit or unlocking a resource fails
+     */
+    protected void internalCommitPublishBatch(CmsDbContext dbc, CmsPublishBatch batch, Set<CmsUUID> publishedIds)
+    throws CmsException {
+
+        if (batch == null) {
+            return;
+        }
+        List<CmsResource> resources;
+        try {
+            resources = batch.commit();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(Messages.ERR_PUBLISH_BATCH_COMMIT_0), e);
+        }
+        for (CmsResource resource : resources) {
+            publishedIds.add(resource.getStructureId());
+            m_driverManager.unlockResource(dbc, resource, true, true);
+        }
+    }
+
     /**
      * Creates a new project from the current row of the given result set.<p>
      *
@@ -3095,6 +3208,41 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return new CmsLogEntry(userId, date, structureId, type, data);
     }
 
+    /**
+     * Writes the publish throughput to the report.<p>
+     *
+     * @param report the report to write to
+     * @param resourceCount the number of published resources
+     * @param duration the publish duration in milliseconds
+     * @param batch the publish batch used, or <code>null</code> if no publish batch was used
+     */
+    protected void internalReportThroughput(I_CmsReport report, int resourceCount, long duration, CmsPublishBatch batch) {
+
+        long perSecond = (resourceCount * 1000L) / Math.max(1L, duration);
+        CmsMessageContainer message = Messages.get().container(
+            Messages.RPT_PUBLISH_THROUGHPUT_3,
+            String.valueOf(resourceCount),
+            String.valueOf(duration),
+            String.valueOf(perSecond));
+        if (LOG.isInfoEnabled()) {
+            LOG.info(message.key());
+        }
+        report.println(message);
+        if (batch != null) {
+            message = Messages.get().container(
+                Messages.RPT_PUBLISH_BATCH_STAT_4,
+                new Object[] {
+                    String.valueOf(batch.getBatchSize()),
+                    String.valueOf(batch.getCommitCount()),
+                    String.valueOf(batch.getStatementCount()),
+                    String.valueOf(batch.getBatchCount())});
+            if (LOG.isInfoEnabled()) {
+                LOG.info(message.key());
+            }
+            report.println(message);
+        }
+    }
+
     /**
      * Resets the state to UNCHANGED for a specified resource.<p>
      *
@@ -3126,6 +3274,36 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Rolls back the changes of a resource that could not be published, 
+     * and commits the changes of the resources published before in the same chunk.<p>
+     *
+     * This keeps the resources published before the failed one, like publishing without a publish batch does.<p>
+     *
+     * @param dbc the current database context
+     * @param batch the publish batch, or <code>null</code> if the publish writes are not batched
+     * @param publishedIds the structure ids of the published resources, the committed resources are added to
+     * @param resourceName the name of the resource that could not be published
+     *
+     * @throws CmsException if the changes could not be rolled back or committed
+     */
+    protected void internalRollbackPublishBatchResource(
+        CmsDbContext dbc,
+        CmsPublishBatch batch,
+        Set<CmsUUID> publishedIds,
+        String resourceName) throws CmsException {
+
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.resourceFailed();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(Messages.ERR_PUBLISH_BATCH_RESOURCE_1, resourceName), e);
+        }
+        internalCommitPublishBatch(dbc, batch, publishedIds);
+    }
+
     /**
      * Serialize publish list to write it as byte array to the database.<p>
      *
@@ -3143,6 +3321,27 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return bout.toByteArray();
     }
 
+    /**
+     * Starts the changes of a resource in the publish batch, so they can be rolled back separately.<p>
+     *
+     * @param batch the publish batch, or <code>null</code> if the publish writes are not batched
+     * @param resourceName the name of the resource to publish
+     *
+     * @throws CmsDataAccessException if the changes of the resource could not be separated
+     */
+    protected void internalStartPublishBatchResource(CmsPublishBatch batch, String resourceName)
+    throws CmsDataAccessException {
+
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.startResource();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(Messages.ERR_PUBLISH_BATCH_RESOURCE_1, resourceName), e);
+        }
+    }
+
     /**
      * Writes the needed history entries.<p>
      *
@@ -0,0 +1,480 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.generic;
+
+import org.opencms.db.CmsDbContext;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsLog;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Groups the database writes of a publish operation into transactions of a fixed number of resources.<p>
+ * 
+ * While a publish batch is attached to a database context, all drivers using this context share one 
+ * JDBC connection per connection pool. Auto commit is switched off for these connections, 
+ * and the changes are committed every time the configured number of resources has been published.<p>
+ * 
+ * The changes of each resource are separated by savepoints, see {@link #startResource()}. 
+ * If publishing a resource fails, {@link #resourceFailed()} rolls back only the changes of this resource, 
+ * so the changes of the other resources of the chunk can still be committed.<p>
+ * 
+ * Statements whose results are not read again during publishing, like the publish history entries, 
+ * can be deferred with {@link #addBatch(CmsSqlManager, String, Object[])}. They are sent as JDBC batches 
+ * right before the next commit.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsPublishBatch {
+
+    /**
+     * A statement deferred until the end of the current chunk.<p>
+     */
+    private static class CmsDeferredStatement {
+
+        /** The parameters of the deferred executions. */
+        private List<Object[]> m_parameters = new ArrayList<Object[]>();
+
+        /** The key of the query. */
+        private String m_queryKey;
+
+        /** The number of parameters when the current resource was started. */
+        private int m_savedSize;
+
+        /** The SQL manager to read the query from. */
+        private CmsSqlManager m_sqlManager;
+
+        /**
+         * Creates a new deferred statement.<p>
+         * 
+         * @param sqlManager the SQL manager to read the query from
+         * @param queryKey the key of the query
+         */
+        CmsDeferredStatement(CmsSqlManager sqlManager, String queryKey) {
+
+            m_sqlManager = sqlManager;
+            m_queryKey = queryKey;
+        }
+    }
+
+    /** The database context attribute name for the publish batch. */
+    public static final String ATTR_PUBLISH_BATCH = CmsPublishBatch.class.getName();
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsPublishBatch.class);
+
+    /** The number of resources to publish in one transaction. */
+    private final int m_batchSize;
+
+    /** The number of JDBC batches executed so far. */
+    private int m_batchCount;
+
+    /** The number of commits so far. */
+    private int m_commitCount;
+
+    /** The shared connections, by pool URL. */
+    private final Map<String, Connection> m_connections;
+
+    /** The deferred statements, by pool URL and query. */
+    private final Map<String, CmsDeferredStatement> m_deferredStatements;
+
+    /** The resources published since the last commit. */
+    private final List<CmsResource> m_resources;
+
+    /** The number of published resources when the current resource was started. */
+    private int m_savedResourceCount;
+
+    /** The savepoints set when the current resource was started, by pool URL. */
+    private final Map<String, Savepoint> m_savepoints;
+
+    /** The number of deferred statements executed so far. */
+    private int m_statementCount;
+
+    /**
+     * Creates a new publish batch.<p>
+     * 
+     * @param batchSize the number of resources to publish in one transaction
+     */
+    public CmsPublishBatch(int batchSize) {
+
+        m_batchSize = batchSize;
+        m_connections = new HashMap<String, Connection>();
+        m_deferredStatements = new LinkedHashMap<String, CmsDeferredStatement>();
+        m_resources = new ArrayList<CmsResource>();
+        m_savepoints = new HashMap<String, Savepoint>();
+    }
+
+    /**
+     * Returns the publish batch attached to the given database context.<p>
+     * 
+     * @param dbc the current database context
+     * 
+     * @return the publish batch, or <code>null</code> if the database context has no publish batch
+     */
+    public static CmsPublishBatch getPublishBatch(CmsDbContext dbc) {
+
+        if (dbc == null) {
+            return null;
+        }
+        return (CmsPublishBatch)dbc.getAttribute(ATTR_PUBLISH_BATCH);
+    }
+
+    /**
+     * Defers the execution of the given query until the end of the current chunk.<p>
+     * 
+     * The parameters may be of type <code>Integer</code>, <code>Long</code> or <code>String</code>.<p>
+     * 
+     * @param sqlManager the SQL manager to read the query from
+     * @param queryKey the key of the query
+     * @param parameters the statement parameters
+     */
+    public void addBatch(CmsSqlManager sqlManager, String queryKey, Object[] parameters) {
+
+        String key = sqlManager.m_poolUrl + "|" + queryKey;
+        CmsDeferredStatement statement = m_deferredStatements.get(key);
+        if (statement == null) {
+            statement = new CmsDeferredStatement(sqlManager, queryKey);
+            m_deferredStatements.put(key, statement);
+        }
+        statement.m_parameters.add(parameters);
+    }
+
+    /**
+     * Ends the publish batch.<p>
+     * 
+     * If the publish operation was successful, the remaining changes are committed, otherwise they are rolled back.
+     * In both cases the shared connections are returned to their pools. Callers that need the list of 
+     * committed resources have to call {@link #commit()} before.<p>
+     * 
+     * @param success <code>true</code> if the publish operation was successful
+     * 
+     * @throws SQLException if committing the remaining changes fails
+     */
+    public void close(boolean success) throws SQLException {
+
+        try {
+            if (success) {
+                commit();
+            } else {
+                rollback();
+            }
+        } finally {
+            Iterator<Connection> it = m_connections.values().iterator();
+            while (it.hasNext()) {
+                Connection conn = it.next();
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_connections.clear();
+            m_deferredStatements.clear();
+        }
+    }
+
+    /**
+     * Executes the deferred statements and commits all changes made so far.<p>
+     * 
+     * If the commit fails, all changes since the last commit are rolled back. In both cases 
+     * the batch starts a new chunk afterwards.<p>
+     * 
+     * @return the resources published since the last commit
+     * 
+     * @throws SQLException if something goes wrong
+     */
+    public List<CmsResource> commit() throws SQLException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(m_resources);
+        boolean committed = false;
+        try {
+            Iterator<CmsDeferredStatement> itStatements = m_deferredStatements.values().iterator();
+            while (itStatements.hasNext()) {
+                CmsDeferredStatement deferred = itStatements.next();
+                if (deferred.m_parameters.isEmpty()) {
+                    continue;
+                }
+                PreparedStatement stmt = deferred.m_sqlManager.getPreparedStatement(
+                    getConnection(deferred.m_sqlManager),
+                    deferred.m_queryKey);
+                try {
+                    for (Object[] parameters : deferred.m_parameters) {
+                        for (int i = 0; i < parameters.length; i++) {
+                            setParameter(stmt, i + 1, parameters[i]);
+                        }
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    m_batchCount++;
+                    m_statementCount += deferred.m_parameters.size();
+                } finally {
+                    stmt.close();
+                }
+            }
+            Iterator<Connection> itConnections = m_connections.values().iterator();
+            while (itConnections.hasNext()) {
+                itConnections.next().commit();
+            }
+            m_commitCount++;
+            committed = true;
+        } finally {
+            if (!committed) {
+                // do not leave a partially committed chunk behind, and never retry the failed commit
+                rollback();
+            }
+            reset();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of JDBC batches executed so far.<p>
+     * 
+     * @return the number of JDBC batches executed so far
+     */
+    public int getBatchCount() {
+
+        return m_batchCount;
+    }
+
+    /**
+     * Returns the number of resources to publish in one transaction.<p>
+     * 
+     * @return the number of resources to publish in one transaction
+     */
+    public int getBatchSize() {
+
+        return m_batchSize;
+    }
+
+    /**
+     * Returns the number of commits so far.<p>
+     * 
+     * @return the number of commits so far
+     */
+    public int getCommitCount() {
+
+        return m_commitCount;
+    }
+
+    /**
+     * Returns the shared connection for the pool of the given SQL manager.<p>
+     * 
+     * The returned connection ignores calls to <code>close()</code>, so the drivers can use it 
+     * like a connection they got from the pool themselves.<p>
+     * 
+     * @param sqlManager the SQL manager requesting the connection
+     * 
+     * @return the shared connection for the pool of the given SQL manager
+     * 
+     * @throws SQLException if no connection could be obtained
+     */
+    public Connection getConnection(CmsSqlManager sqlManager) throws SQLException {
+
+        Connection conn = m_connections.get(sqlManager.m_poolUrl);
+        if (conn == null) {
+            conn = sqlManager.getConnectionByUrl(sqlManager.m_poolUrl);
+            conn.setAutoCommit(false);
+            m_connections.put(sqlManager.m_poolUrl, conn);
+        }
+        final Connection target = conn;
+        return (Connection)Proxy.newProxyInstance(
+            CmsPublishBatch.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                    String name = method.getName();
+                    if ("close".equals(name)
+                        || "commit".equals(name)
+                        || "rollback".equals(name)
+                        || "setAutoCommit".equals(name)) {
+                        // the transaction is controlled by the publish batch
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            });
+    }
+
+    /**
+     * Returns the number of deferred statements executed so far.<p>
+     * 
+     * @return the number of deferred statements executed so far
+     */
+    public int getStatementCount() {
+
+        return m_statementCount;
+    }
+
+    /**
+     * Rolls back the changes made since the current resource was started with {@link #startResource()}.<p>
+     * 
+     * The changes of the resources published before in the same chunk are kept.<p>
+     * 
+     * @throws SQLException if the changes could not be rolled back
+     */
+    public void resourceFailed() throws SQLException {
+
+        while (m_resources.size() > m_savedResourceCount) {
+            m_resources.remove(m_resources.size() - 1);
+        }
+        Iterator<CmsDeferredStatement> itStatements = m_deferredStatements.values().iterator();
+        while (itStatements.hasNext()) {
+            CmsDeferredStatement deferred = itStatements.next();
+            while (deferred.m_parameters.size() > deferred.m_savedSize) {
+                deferred.m_parameters.remove(deferred.m_parameters.size() - 1);
+            }
+        }
+        try {
+            Iterator<Map.Entry<String, Connection>> itConnections = m_connections.entrySet().iterator();
+            while (itConnections.hasNext()) {
+                Map.Entry<String, Connection> entry = itConnections.next();
+                Savepoint savepoint = m_savepoints.get(entry.getKey());
+                if (savepoint != null) {
+                    entry.getValue().rollback(savepoint);
+                } else {
+                    // the connection was opened for the current resource
+                    entry.getValue().rollback();
+                }
+            }
+        } finally {
+            m_savepoints.clear();
+        }
+    }
+
+    /**
+     * Notifies the batch that a resource has been published.<p>
+     * 
+     * The resource is returned by the next {@link #commit()}.<p>
+     * 
+     * @param resource the published resource
+     * 
+     * @return <code>true</code> if the configured number of resources has been reached and the changes should be committed
+     */
+    public boolean resourcePublished(CmsResource resource) {
+
+        m_resources.add(resource);
+        m_savepoints.clear();
+        return m_resources.size() >= m_batchSize;
+    }
+
+    /**
+     * Discards the deferred statements and rolls back all changes made since the last commit.<p>
+     */
+    public void rollback() {
+
+        Iterator<Connection> itConnections = m_connections.values().iterator();
+        while (itConnections.hasNext()) {
+            try {
+                itConnections.next().rollback();
+            } catch (SQLException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        reset();
+    }
+
+    /**
+     * Starts the changes of a new resource by setting a savepoint on all shared connections.<p>
+     * 
+     * @throws SQLException if a savepoint could not be set
+     */
+    public void startResource() throws SQLException {
+
+        m_savepoints.clear();
+        m_savedResourceCount = m_resources.size();
+        Iterator<CmsDeferredStatement> itStatements = m_deferredStatements.values().iterator();
+        while (itStatements.hasNext()) {
+            CmsDeferredStatement deferred = itStatements.next();
+            deferred.m_savedSize = deferred.m_parameters.size();
+        }
+        Iterator<Map.Entry<String, Connection>> itConnections = m_connections.entrySet().iterator();
+        while (itConnections.hasNext()) {
+            Map.Entry<String, Connection> entry = itConnections.next();
+            m_savepoints.put(entry.getKey(), entry.getValue().setSavepoint());
+        }
+    }
+
+    /**
+     * Starts a new chunk by discarding the deferred statements, the published resources and the savepoints.<p>
+     */
+    private void reset() {
+
+        Iterator<CmsDeferredStatement> itStatements = m_deferredStatements.values().iterator();
+        while (itStatements.hasNext()) {
+            CmsDeferredStatement deferred = itStatements.next();
+            deferred.m_parameters.clear();
+            deferred.m_savedSize = 0;
+        }
+        m_resources.clear();
+        m_savedResourceCount = 0;
+        m_savepoints.clear();
+    }
+
+    /**
+     * Sets a statement parameter.<p>
+     * 
+     * @param stmt the statement
+     * @param index the parameter index
+     * @param value the parameter value
+     * 
+     * @throws SQLException if something goes wrong
+     */
+    private void setParameter(PreparedStatement stmt, int index, Object value) throws SQLException {
+
+        if (value instanceof Integer) {
+            stmt.setInt(index, ((Integer)value).intValue());
+        } else if (value instanceof Long) {
+            stmt.setLong(index, ((Long)value).longValue());
+        } else {
+            stmt.setString(index, (String)value);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -185,6 +186,25 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Retrieves the value of the designated column in the current row of this ResultSet object as 
+     * a stream of uninterpreted bytes.<p>
+     * 
+     * The stream is only valid as long as the result set is open. Overwrite this method if another 
+     * database server requires a different handling of byte attributes in tables.<p>
+     * 
+     * @param res the result set
+     * @param attributeName the name of the table attribute
+     * 
+     * @return the column value as stream; if the value is SQL NULL, the value returned is null 
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    public InputStream getBinaryStream(ResultSet res, String attributeName) throws SQLException {
+
+        return res.getBinaryStream(attributeName);
+    }
+
     /**
      * Retrieves the value of the designated column in the current row of this ResultSet object as 
      * a byte array in the Java programming language.<p>
@@ -209,6 +229,9 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
      * 
      * Use this method to get a connection for reading/writing project independent data.<p>
      * 
+     * If a {@link CmsPublishBatch} is attached to the database context, the connection shared 
+     * by the publish batch is returned.<p>
+     * 
      * @param dbc the current database context
      * 
      * @return a JDBC connection
@@ -220,6 +243,10 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
         if (dbc == null) {
             LOG.error(Messages.get().getBundle().key(Messages.LOG_NULL_DB_CONTEXT_0));
         }
+        CmsPublishBatch batch = CmsPublishBatch.getPublishBatch(dbc);
+        if (batch != null) {
+            return batch.getConnection(this);
+        }
         // match the ID to a JDBC pool URL of the OpenCms JDBC pools {online|offline|backup}
         return getConnectionByUrl(m_poolUrl);
     }
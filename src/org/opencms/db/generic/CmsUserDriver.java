@@ -107,6 +107,9 @@ public class CmsUserDriver implements I_CmsUserDriver {
     /** The internal request attribute to indicate that the password has not to be digested. */
     public static final String REQ_ATTR_DONT_DIGEST_PASSWORD = "DONT_DIGEST_PASSWORD";
 
+    /** The maximum number of resources for which access control entries are read with one statement. */
+    protected static final int ACE_READ_CHUNK_SIZE = 500;
+
     // TODO: remove all these constants
     /** Attribute WRITE USER_ADDINFO. */
     private static final String ATTRIBUTE_USERADDINFO = "A_USERADDINFO";
@@ -1101,6 +1104,66 @@ public class CmsUserDriver implements I_CmsUserDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsUserDriver#readAccessControlEntries(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsAccessControlEntry>> readAccessControlEntries(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsUUID> resourceIds) throws CmsDataAccessException {
+
+        Map<CmsUUID, List<CmsAccessControlEntry>> result = new HashMap<CmsUUID, List<CmsAccessControlEntry>>();
+        if (resourceIds.isEmpty()) {
+            return result;
+        }
+        PreparedStatement stmt = null;
+        Connection conn = null;
+        ResultSet res = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            // read the entries in chunks, since some databases limit the number of values in an IN list
+            for (int i = 0; i < resourceIds.size(); i += ACE_READ_CHUNK_SIZE) {
+                List<CmsUUID> chunk = resourceIds.subList(i, Math.min(i + ACE_READ_CHUNK_SIZE, resourceIds.size()));
+                StringBuffer placeholders = new StringBuffer(chunk.size() * 2);
+                List<Object> params = new ArrayList<Object>(chunk.size());
+                for (CmsUUID resourceId : chunk) {
+                    if (placeholders.length() > 0) {
+                        placeholders.append(",");
+                    }
+                    placeholders.append("?");
+                    params.add(resourceId.toString());
+                }
+                String query = CmsStringUtil.substitute(
+                    m_sqlManager.readQuery(project, "C_ACCESS_READ_ENTRIES_FOR_RESOURCES"),
+                    "%(RESOURCES)",
+                    placeholders.toString());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                CmsDbUtil.fillParameters(stmt, params);
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsAccessControlEntry ace = internalCreateAce(res);
+                    List<CmsAccessControlEntry> aces = result.get(ace.getResource());
+                    if (aces == null) {
+                        aces = new ArrayList<CmsAccessControlEntry>();
+                        result.put(ace.getResource(), aces);
+                    }
+                    aces.add(ace);
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsUserDriver#readAccessControlEntry(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -34,6 +34,7 @@ import org.opencms.db.CmsAliasFilter;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.db.CmsDbIoException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDbUtil;
 import org.opencms.db.CmsDriverManager;
@@ -80,6 +81,8 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -109,6 +112,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Contains the macro replacement value for the online project. */
     protected static final String ONLINE = "ONLINE";
 
+    /** The maximum number of folders a subtree may contain to be read along the stored parent ids. */
+    protected static final int SUBTREE_FOLDER_LIMIT = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
@@ -125,6 +131,9 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** The sql manager. */
     protected CmsSqlManager m_sqlManager;
 
+    /** Signals if subtrees are read along the stored parent ids instead of by resource path prefix. */
+    protected boolean m_subtreeIndex;
+
     /**
      * This method prepares the SQL conditions for mapping entries for a given URL name mapping filter.<p>
      *
@@ -1315,6 +1324,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         String classname = configuration.get("db.vfs.sqlmanager");
         m_sqlManager = this.initSqlManager(classname);
         m_sqlManager.init(I_CmsVfsDriver.DRIVER_TYPE_ID, poolUrl);
+        m_subtreeIndex = configuration.getBoolean("db.vfs.subtreeindex", false);
 
         m_driverManager = driverManager;
 
@@ -1844,6 +1854,66 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return byteRes;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readContentStream(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID, long, long)
+     */
+    public InputStream readContentStream(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        CmsUUID resourceId,
+        long offset,
+        long length) throws CmsDataAccessException {
+
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        Connection conn = null;
+        InputStream result = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
+                stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_ONLINE_FILES_CONTENT");
+            } else {
+                stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_OFFLINE_FILES_CONTENT");
+            }
+            stmt.setString(1, resourceId.toString());
+            res = stmt.executeQuery();
+
+            if (res.next()) {
+                InputStream content = m_sqlManager.getBinaryStream(
+                    res,
+                    m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
+                if (content == null) {
+                    content = new ByteArrayInputStream(new byte[0]);
+                }
+                // the stream takes over the database resources and releases them when it is closed
+                result = CmsFileUtil.getRangeStream(
+                    new CmsContentInputStream(content, m_sqlManager, dbc, conn, stmt, res),
+                    offset,
+                    length);
+            } else {
+                throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                    Messages.ERR_READ_CONTENT_WITH_RESOURCE_ID_2,
+                    resourceId,
+                    Boolean.valueOf(projectId.equals(CmsProject.ONLINE_PROJECT_ID))));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } catch (IOException e) {
+            throw new CmsDbIoException(Messages.get().container(
+                Messages.ERR_READ_CONTENT_WITH_RESOURCE_ID_2,
+                resourceId,
+                Boolean.valueOf(projectId.equals(CmsProject.ONLINE_PROJECT_ID))), e);
+        } finally {
+            if (result == null) {
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readFolder(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -2211,9 +2281,15 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             if (filter.isTarget()) {
                 List<Object> params = new ArrayList<Object>(7);
 
+                // the relations of a whole folder subtree can be selected by the ids of its folders
+                List<String> folderIds = null;
+                if ((resource != null) && resource.isFolder() && filter.isIncludeSubresources()) {
+                    folderIds = internalReadSubtreeFolderIds(dbc, projectId, resource.getRootPath());
+                }
+
                 StringBuffer queryBuf = new StringBuffer(256);
                 queryBuf.append(m_sqlManager.readQuery(projectId, "C_READ_RELATIONS"));
-                queryBuf.append(prepareRelationConditions(projectId, filter, resource, params, false));
+                queryBuf.append(prepareRelationConditions(projectId, filter, resource, folderIds, params, false));
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(queryBuf.toString());
                 }
@@ -2406,6 +2482,79 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourcesByPath(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List, boolean)
+     */
+    public List<CmsResource> readResourcesByPath(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<String> paths,
+        boolean includeDeleted) throws CmsDataAccessException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(paths.size());
+        // paths with a trailing slash must not match files
+        Set<String> folderPaths = new HashSet<String>();
+        List<String> queryPaths = new ArrayList<String>(paths.size());
+        for (String path : paths) {
+            String queryPath = CmsFileUtil.removeTrailingSeparator(path);
+            if (queryPath.length() != path.length()) {
+                folderPaths.add(queryPath);
+            }
+            queryPaths.add(queryPath);
+        }
+        Set<String> readPaths = new HashSet<String>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            // read at most SUBTREE_FOLDER_LIMIT paths per query, to keep the IN clause within database limits
+            for (int start = 0; start < queryPaths.size(); start += SUBTREE_FOLDER_LIMIT) {
+                List<String> chunk = queryPaths.subList(
+                    start,
+                    Math.min(start + SUBTREE_FOLDER_LIMIT, queryPaths.size()));
+                StringBuffer placeholders = new StringBuffer(chunk.size() * 2);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (i > 0) {
+                        placeholders.append(",");
+                    }
+                    placeholders.append("?");
+                }
+                String query = CmsStringUtil.substitute(
+                    m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_PATHS"),
+                    "%(PATHS)",
+                    placeholders.toString());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    String path = CmsFileUtil.removeTrailingSeparator(resource.getRootPath());
+                    // the rows are ordered by state, so only the first row of a path is used like in readResource
+                    if (!readPaths.add(path)
+                        || (resource.isFile() && folderPaths.contains(path))
+                        || (resource.getState().isDeleted() && !includeDeleted)) {
+                        continue;
+                    }
+                    result.add(resource);
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResourcesForPrincipalACE(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID)
      */
@@ -2488,9 +2637,37 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         PreparedStatement stmt = null;
         Connection conn = null;
 
+        List<String> folderIds = null;
+        if (CmsResource.isFolder(path)) {
+            folderIds = internalReadSubtreeFolderIds(dbc, projectId, path);
+        }
+
         try {
             conn = m_sqlManager.getConnection(dbc);
-            if (value == null) {
+            if (folderIds != null) {
+                // select the subtree by the ids of its folders
+                List<Object> params = new ArrayList<Object>();
+                StringBuffer subtree = new StringBuffer(128);
+                prepareSubtreeCondition(projectId, folderIds, subtree, params);
+                String queryKey = (value == null)
+                ? "C_RESOURCES_GET_RESOURCE_WITH_PROPERTYDEF_SUBTREE"
+                : "C_RESOURCES_GET_RESOURCE_WITH_PROPERTYDEF_VALUE_SUBTREE";
+                String query = CmsStringUtil.substitute(
+                    m_sqlManager.readQuery(projectId, queryKey),
+                    "%(SUBTREE)",
+                    subtree.toString());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                int index = 1;
+                for (int i = 0; i < 2; i++) {
+                    stmt.setString(index++, propertyDef.toString());
+                    for (Object param : params) {
+                        stmt.setString(index++, (String)param);
+                    }
+                    if (value != null) {
+                        stmt.setString(index++, "%" + value + "%");
+                    }
+                }
+            } else if (value == null) {
                 stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_GET_RESOURCE_WITH_PROPERTYDEF");
                 stmt.setString(1, propertyDef.toString());
                 stmt.setString(2, path + "%");
@@ -2554,7 +2731,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         prepareTimeRangeCondition(projectId, lastModifiedAfter, lastModifiedBefore, conditions, params);
         prepareReleasedTimeRangeCondition(projectId, releasedAfter, releasedBefore, conditions, params);
         prepareExpiredTimeRangeCondition(projectId, expiredAfter, expiredBefore, conditions, params);
-        preparePathCondition(projectId, parentPath, mode, conditions, params);
+        prepareTreeCondition(dbc, projectId, parentPath, mode, conditions, params);
         prepareStateCondition(projectId, state, mode, conditions, params);
 
         // now read matching resources within the subtree
@@ -3906,6 +4083,86 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return state;
     }
 
+    /**
+     * Reads the ids of the given folder and of all folders below it.<p>
+     *
+     * The folders are read level by level along the stored parent ids, so the resource paths
+     * of the subtree do not have to be scanned.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the current project id
+     * @param folderPath the root path of the folder
+     *
+     * @return the ids of all folders in the subtree, or <code>null</code> if the subtree index is disabled,
+     *      the folder does not exist or the subtree has more than {@link #SUBTREE_FOLDER_LIMIT} folders
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected List<String> internalReadSubtreeFolderIds(CmsDbContext dbc, CmsUUID projectId, String folderPath)
+    throws CmsDataAccessException {
+
+        if (!m_subtreeIndex || "/".equals(folderPath)) {
+            // a path prefix scan is used, or all resources match anyway
+            return null;
+        }
+
+        List<String> folderIds = new ArrayList<String>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_RESOURCES_READ_PARENT_STRUCTURE_ID");
+            stmt.setString(1, CmsFileUtil.removeTrailingSeparator(folderPath));
+            res = stmt.executeQuery();
+            while (res.next()) {
+                folderIds.add(res.getString(1));
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            stmt = null;
+            res = null;
+            if (folderIds.size() != 1) {
+                return null;
+            }
+
+            List<String> level = new ArrayList<String>(folderIds);
+            while (!level.isEmpty()) {
+                List<Object> params = new ArrayList<Object>(level.size());
+                StringBuffer subtree = new StringBuffer(128);
+                prepareSubtreeCondition(projectId, level, subtree, params);
+                String query = CmsStringUtil.substitute(
+                    m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_SUBFOLDERS"),
+                    "%(SUBTREE)",
+                    subtree.toString());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                CmsDbUtil.fillParameters(stmt, params);
+                res = stmt.executeQuery();
+                List<String> subFolderIds = new ArrayList<String>();
+                while (res.next()) {
+                    subFolderIds.add(res.getString(1));
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                stmt = null;
+                res = null;
+
+                if ((folderIds.size() + subFolderIds.size()) > SUBTREE_FOLDER_LIMIT) {
+                    // too many folders for the IN clause, fall back to the path prefix scan
+                    return null;
+                }
+                folderIds.addAll(subFolderIds);
+                level = subFolderIds;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return folderIds;
+    }
+
     /**
      * Removes a resource physically in the database.<p>
      *
@@ -4178,6 +4435,32 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         List<Object> params,
         boolean checkSource) {
 
+        return prepareRelationConditions(projectId, filter, resource, null, params, checkSource);
+    }
+
+    /**
+     * Build the whole WHERE sql statement part for the given relation filter.<p>
+     *
+     * If the ids of the folders in the subtree of the resource are given, the sources
+     * of the relations are selected by their parent ids instead of by their paths.<p>
+     *
+     * @param projectId the current project id
+     * @param filter the filter
+     * @param resource the resource (may be null, if you want to delete all relations for the resource in the filter)
+     * @param folderIds the ids of the folders in the subtree of the resource (may be null)
+     * @param params the parameter values (return parameter)
+     * @param checkSource if the query is for the source relations
+     *
+     * @return the WHERE sql statement part string
+     */
+    protected String prepareRelationConditions(
+        CmsUUID projectId,
+        CmsRelationFilter filter,
+        CmsResource resource,
+        List<String> folderIds,
+        List<Object> params,
+        boolean checkSource) {
+
         StringBuffer conditions = new StringBuffer(128);
         params.clear(); // be sure the parameters list is clear
 
@@ -4198,6 +4481,13 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                     if (!filter.isIncludeSubresources()) {
                         conditions.append(m_sqlManager.readQuery(projectId, "C_RELATION_FILTER_SOURCE_ID"));
                         params.add(resource.getStructureId().toString());
+                    } else if (folderIds != null) {
+                        StringBuffer subtree = new StringBuffer(128);
+                        prepareSubtreeCondition(projectId, folderIds, subtree, params);
+                        conditions.append(CmsStringUtil.substitute(
+                            m_sqlManager.readQuery(projectId, "C_RELATION_FILTER_SOURCE_SUBTREE"),
+                            "%(SUBTREE)",
+                            subtree.toString()));
                     } else {
                         conditions.append(m_sqlManager.readQuery(projectId, "C_RELATION_FILTER_SOURCE_PATH"));
                         params.add(resource.getRootPath() + '%');
@@ -4358,6 +4648,34 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Appends the selection criteria for all resources directly contained in one of the given folders.<p>
+     *
+     * @param projectId the id of the project of the resources
+     * @param folderIds the ids of the folders of the subtree
+     * @param conditions buffer to append the selection criteria
+     * @param params list to append the selection parameters
+     */
+    protected void prepareSubtreeCondition(
+        CmsUUID projectId,
+        List<String> folderIds,
+        StringBuffer conditions,
+        List<Object> params) {
+
+        StringBuffer placeholders = new StringBuffer(folderIds.size() * 2);
+        for (String folderId : folderIds) {
+            if (placeholders.length() > 0) {
+                placeholders.append(",");
+            }
+            placeholders.append("?");
+            params.add(folderId);
+        }
+        conditions.append(CmsStringUtil.substitute(
+            m_sqlManager.readQuery(projectId, "C_RESOURCES_SELECT_BY_SUBTREE"),
+            "%(FOLDERS)",
+            placeholders.toString()));
+    }
+
     /**
      * Appends the appropriate selection criteria related with the date of the last modification.<p>
      *
@@ -4391,6 +4709,43 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Appends the appropriate selection criteria related with the parent path of a resource tree.<p>
+     *
+     * If enabled, the subtree of the parent folder is selected along the stored parent ids,
+     * otherwise this is the same as {@link #preparePathCondition(CmsUUID, String, int, StringBuffer, List)}.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project of the resources
+     * @param parent the parent path or UUID (if mode is C_READMODE_EXCLUDE_TREE)
+     * @param mode the selection mode
+     * @param conditions buffer to append the selection criteria
+     * @param params list to append the selection parameters
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void prepareTreeCondition(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parent,
+        int mode,
+        StringBuffer conditions,
+        List<Object> params) throws CmsDataAccessException {
+
+        List<String> folderIds = null;
+        if ((parent != CmsDriverManager.READ_IGNORE_PARENT)
+            && ((mode & CmsDriverManager.READMODE_EXCLUDE_TREE) == 0)) {
+            folderIds = internalReadSubtreeFolderIds(dbc, projectId, CmsFileUtil.addTrailingSeparator(parent));
+        }
+        if (folderIds == null) {
+            preparePathCondition(projectId, parent, mode, conditions, params);
+            return;
+        }
+        conditions.append(BEGIN_INCLUDE_CONDITION);
+        prepareSubtreeCondition(projectId, folderIds, conditions, params);
+        conditions.append(END_CONDITION);
+    }
+
     /**
      * Appends the appropriate selection criteria related with the resource type.<p>
      *
@@ -4518,7 +4873,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         prepareTimeRangeCondition(projectId, lastModifiedAfter, lastModifiedBefore, conditions, params);
         prepareReleasedTimeRangeCondition(projectId, releasedAfter, releasedBefore, conditions, params);
         prepareExpiredTimeRangeCondition(projectId, expiredAfter, expiredBefore, conditions, params);
-        preparePathCondition(projectId, parentPath, mode, conditions, params);
+        prepareTreeCondition(dbc, projectId, parentPath, mode, conditions, params);
         prepareStateCondition(projectId, state, mode, conditions, params);
 
         // now read matching resources within the subtree
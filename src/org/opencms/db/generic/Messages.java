@@ -160,6 +160,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_PATH_NOT_IN_PARENT_ORGUNIT_SCOPE_2 = "ERR_PATH_NOT_IN_PARENT_ORGUNIT_SCOPE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_PUBLISH_BATCH_COMMIT_0 = "ERR_PUBLISH_BATCH_COMMIT_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_PUBLISH_BATCH_RESOURCE_1 = "ERR_PUBLISH_BATCH_RESOURCE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_PUBLISHLIST_DESERIALIZATION_FAILED_1 = "ERR_PUBLISHLIST_DESERIALIZATION_FAILED_1";
 
@@ -439,6 +445,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_FOLDERS_END_0 = "RPT_DELETE_FOLDERS_END_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_BATCH_STAT_4 = "RPT_PUBLISH_BATCH_STAT_4";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_FILE_0 = "RPT_PUBLISH_FILE_0";
 
@@ -460,6 +469,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_STAT_4 = "RPT_PUBLISH_STAT_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_THROUGHPUT_3 = "RPT_PUBLISH_THROUGHPUT_3";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.db.generic.messages";
 
@@ -1149,6 +1149,24 @@ public class CmsUserDriver implements I_CmsUserDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsUserDriver#readAccessControlEntries(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsAccessControlEntry>> readAccessControlEntries(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsUUID> resourceIds) throws CmsDataAccessException {
+
+        Map<CmsUUID, List<CmsAccessControlEntry>> result = new HashMap<CmsUUID, List<CmsAccessControlEntry>>();
+        for (CmsUUID resourceId : resourceIds) {
+            List<CmsAccessControlEntry> aces = readAccessControlEntries(dbc, project, resourceId, false);
+            if (!aces.isEmpty()) {
+                result.put(resourceId, aces);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsUserDriver#readAccessControlEntry(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID)
      */
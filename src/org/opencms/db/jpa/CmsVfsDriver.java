@@ -103,6 +103,7 @@ import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -1982,6 +1983,20 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return byteRes == null ? EMPTY_BLOB : byteRes;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readContentStream(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID, long, long)
+     */
+    public InputStream readContentStream(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        CmsUUID resourceId,
+        long offset,
+        long length) throws CmsDataAccessException {
+
+        // the JPA entities always hold the complete content, so there is nothing to gain from streaming here
+        return CmsFileUtil.getRangeStream(readContent(dbc, projectId, resourceId), offset, length);
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readFolder(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -2426,6 +2441,26 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourcesByPath(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List, boolean)
+     */
+    public List<CmsResource> readResourcesByPath(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<String> paths,
+        boolean includeDeleted) throws CmsDataAccessException {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(paths.size());
+        for (String path : paths) {
+            try {
+                result.add(readResource(dbc, projectId, path, includeDeleted));
+            } catch (CmsVfsResourceNotFoundException e) {
+                // paths that do not exist are ignored
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResourcesForPrincipalACE(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID)
      */
@@ -59,13 +59,16 @@ import org.opencms.security.CmsRole;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.security.I_CmsPermissionHandler;
 import org.opencms.security.I_CmsPrincipal;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -1179,6 +1182,32 @@ public final class CmsObject {
         return m_securityManager.existsResource(m_context, addSiteRoot(resourcename), filter);
     }
 
+    /**
+     * Returns the subset of the given resources for which the current user has the required permissions.<p>
+     *
+     * This is faster than calling {@link #hasPermissions(CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}
+     * for each resource, since the access control lists are resolved once per parent folder.<p>
+     *
+     * @param resources the resources to check the permissions for
+     * @param requiredPermissions the set of permissions to check for
+     * @param checkLock if <code>true</code> the lock status of the resources is checked for write operations
+     *      and the resources need to be locked by the current user so that the test is passed,
+     *      if <code>false</code> the lock is not checked at all
+     * @param filter the resource filter to use
+     *
+     * @return the resources for which the required permissions are satisfied
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> filterPermissions(
+        Collection<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        return m_securityManager.filterPermissions(m_context, resources, requiredPermissions, checkLock, filter);
+    }
+
     /**
      * Returns the list of access control entries of a resource given its name.<p>
      *
@@ -2292,6 +2321,61 @@ public final class CmsObject {
         return m_securityManager.readBestUrlName(m_context, id, locale, defaultLocales);
     }
 
+    /**
+     * Returns a stream on the binary content of a file resource.<p>
+     *
+     * Other than {@link #readFile(CmsResource)}, this does not read the complete content into memory, 
+     * so this is the preferred way to deliver the content of large binary files.
+     * The returned stream must always be closed by the caller, since it may keep 
+     * database resources open until then.<p>
+     *
+     * No resource filter is applied when reading the content, since we already have
+     * a full resource instance and assume we just want the content for that instance.<p>
+     *
+     * @param resource the file resource to read the content for
+     *
+     * @return a stream on the file content
+     *
+     * @throws CmsException if the file content could not be read for any reason
+     *
+     * @see #readContentStream(CmsResource, long, long)
+     * @see #readFile(CmsResource)
+     */
+    public InputStream readContentStream(CmsResource resource) throws CmsException {
+
+        return readContentStream(resource, 0, -1);
+    }
+
+    /**
+     * Returns a stream on a byte range of the binary content of a file resource.<p>
+     *
+     * Use this to serve range requests without reading the complete content of the file.
+     * The range is cut to the actual size of the content. 
+     * The returned stream must always be closed by the caller.<p>
+     *
+     * @param resource the file resource to read the content for
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     *
+     * @return a stream on the requested range of the file content
+     *
+     * @throws CmsException if the file content could not be read for any reason
+     *
+     * @see #readContentStream(CmsResource)
+     */
+    public InputStream readContentStream(CmsResource resource, long offset, long length) throws CmsException {
+
+        if (resource instanceof CmsFile) {
+            byte[] contents = ((CmsFile)resource).getContents();
+            if ((contents != null) && (contents.length > 0)) {
+                // file has the contents already available
+                return CmsFileUtil.getRangeStream(contents, offset, length);
+            }
+        }
+
+        return m_securityManager.readContentStream(m_context, resource, offset, length);
+    }
+
     /**
      * Returns the default resource for the given folder.<p>
      * <ol>
@@ -3116,6 +3200,31 @@ public final class CmsObject {
         return m_securityManager.readResources(m_context, resource, filter, readTree);
     }
 
+    /**
+     * Reads the resources with the given paths that the current user can read with the given filter.<p>
+     *
+     * This gives the same resources as calling {@link #readResource(String, CmsResourceFilter)} for each path 
+     * and ignoring the paths that can not be read, but it is much faster for long lists of paths,
+     * since the resources are read and their permissions are checked in bulk.
+     * The resources are returned in no particular order.<p>
+     *
+     * @param resourcenames the paths of the resources to read (full current site relative paths)
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsException if something goes wrong (NOT because of insufficient permissions)
+     */
+    public List<CmsResource> readResourcesByPath(List<String> resourcenames, CmsResourceFilter filter)
+    throws CmsException {
+
+        List<String> rootPaths = new ArrayList<String>(resourcenames.size());
+        for (String resourcename : resourcenames) {
+            rootPaths.add(addSiteRoot(resourcename));
+        }
+        return m_securityManager.readResourcesByPath(m_context, rootPaths, filter);
+    }
+
     /**
      * Reads all resources that have a value set for the specified property.<p>
      *
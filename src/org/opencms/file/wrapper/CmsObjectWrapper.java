@@ -50,8 +50,10 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -526,6 +528,34 @@ public class CmsObjectWrapper {
         }
     }
 
+    /**
+     * Returns a stream on a byte range of the binary content of a file resource.<p>
+     * 
+     * The content is only streamed directly from the VFS if the resource is not handled by any 
+     * of the configured resource wrappers and no UTF-8 byte order mark has to be added. 
+     * Otherwise the content is read with {@link #readFile(String, CmsResourceFilter)} 
+     * and the range is cut from the result.<p>
+     * 
+     * @see CmsObject#readContentStream(CmsResource, long, long)
+     * 
+     * @param resource the file resource to read the content for
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     * 
+     * @return a stream on the requested range of the file content
+     *
+     * @throws CmsException if the file content could not be read for any reason
+     */
+    public InputStream readContentStream(CmsResource resource, long offset, long length) throws CmsException {
+
+        if (!needUtf8Marker(resource) && isVfsResource(resource)) {
+            return m_cms.readContentStream(resource, offset, length);
+        }
+
+        CmsFile file = readFile(getSitePath(resource), CmsResourceFilter.IGNORE_EXPIRATION);
+        return CmsFileUtil.getRangeStream(file.getContents(), offset, length);
+    }
+
     /**
      * Reads a file resource (including it's binary content) from the VFS,
      * using the specified resource filter.<p>
@@ -884,6 +914,29 @@ public class CmsObjectWrapper {
         return null;
     }
 
+    /**
+     * Checks if the given resource is a plain VFS resource, which is neither handled by a 
+     * resource wrapper nor a virtual resource created by one.<p>
+     * 
+     * @param res the resource to check
+     * 
+     * @return <code>true</code> if the resource is a plain VFS resource otherwise <code>false</code> 
+     */
+    private boolean isVfsResource(CmsResource res) {
+
+        if (getResourceTypeWrapper(res) != null) {
+            return false;
+        }
+        try {
+            // virtual resources do not exist in the VFS with the same path
+            CmsResource vfsRes = m_cms.readResource(res.getStructureId(), CmsResourceFilter.ALL);
+            return vfsRes.getRootPath().equals(res.getRootPath());
+        } catch (CmsException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * Checks if the resource type needs an UTF-8 marker.<p>
      *
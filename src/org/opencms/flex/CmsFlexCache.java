@@ -35,22 +35,24 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
 /**
  * This class implements the FlexCache.<p>
  *
@@ -91,6 +93,11 @@ import org.apache.commons.logging.Log;
  * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} 
  * or {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.<p>
  * 
+ * The resource keys are stored in a segmented concurrent map, so cache hits for different
+ * resources do not block each other. A cache hit only marks the entry as used, the LRU list of
+ * all entries is updated when it has to free space. For each cached resource the number
+ * of cache hits, misses and evictions is counted.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.flex.CmsFlexCacheKey
@@ -111,6 +118,15 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         /** Maps variations to CmsFlexCacheEntries. */
         public Map<String, I_CmsLruCacheObject> m_map;
 
+        /** The number of entries of this resource evicted from the cache. */
+        private AtomicLong m_evictions;
+
+        /** The number of cache hits for this resource. */
+        private AtomicLong m_hits;
+
+        /** The number of cache misses for this resource. */
+        private AtomicLong m_misses;
+
         /**
          * Generates a new instance of CmsFlexCacheVariation.<p>
          *
@@ -119,59 +135,105 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         public CmsFlexCacheVariation(CmsFlexCacheKey theKey) {
 
             m_key = theKey;
-            m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            m_map = new ConcurrentHashMap<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            m_evictions = new AtomicLong();
+            m_hits = new AtomicLong();
+            m_misses = new AtomicLong();
         }
-    }
 
-    /**
-     * Extended LRUMap that handles the variations in case a key is removed.<p>
-     */
-    class CmsFlexKeyMap extends LRUMap {
+        /**
+         * Returns the number of entries of this resource evicted from the cache.<p>
+         * 
+         * @return the number of entries of this resource evicted from the cache
+         */
+        public long getEvictions() {
 
-        /** Serial version UID required for safe serialization. */
-        private static final long serialVersionUID = 6931995916013396902L;
+            return m_evictions.get();
+        }
 
         /**
-         * Initialize the map with the given size.<p>
+         * Returns the number of cache hits for this resource.<p>
          * 
-         * @param maxSize the maximum number of key to cache 
+         * @return the number of cache hits for this resource
          */
-        public CmsFlexKeyMap(int maxSize) {
+        public long getHits() {
 
-            super(maxSize);
+            return m_hits.get();
         }
 
         /**
-         * Ensures that all variations that referenced by this key are released
-         * if the key is released.<p>
+         * Returns the number of cache misses for this resource.<p>
          * 
-         * @param entry the entry to remove
-         * 
-         * @return <code>true</code> to actually delete the entry
+         * @return the number of cache misses for this resource
+         */
+        public long getMisses() {
+
+            return m_misses.get();
+        }
+    }
+
+    /**
+     * Releases the variations in case a key is evicted from the key cache.<p>
+     */
+    class CmsFlexKeyRemovalListener implements RemovalListener<String, CmsFlexCacheVariation> {
+
+        /**
+         * Ensures that all variations that referenced by the key are released
+         * if the key is evicted.<p>
          * 
-         * @see LRUMap#removeLRU(LinkEntry)
+         * @see com.google.common.cache.RemovalListener#onRemoval(com.google.common.cache.RemovalNotification)
          */
-        @Override
-        protected boolean removeLRU(LinkEntry entry) {
+        public void onRemoval(RemovalNotification<String, CmsFlexCacheVariation> notification) {
 
-            CmsFlexCacheVariation v = (CmsFlexCacheVariation)entry.getValue();
-            if (v == null) {
-                return true;
+            CmsFlexCacheVariation v = notification.getValue();
+            if (!notification.wasEvicted() || (v == null)) {
+                return;
             }
             Map<String, I_CmsLruCacheObject> m = v.m_map;
-            if ((m == null) || (m.size() == 0)) {
-                return true;
+            if (m == null) {
+                return;
             }
-            Collection<I_CmsLruCacheObject> entries = m.values();
-            synchronized (m_variationCache) {
-                for (I_CmsLruCacheObject e : entries) {
-                    m_variationCache.remove(e);
+            for (I_CmsLruCacheObject e : m.values()) {
+                if (m_variationCache.remove(e) != null) {
+                    countEviction(e);
                 }
-                v.m_map.clear();
-                v.m_map = null;
-                v.m_key = null;
             }
-            return true;
+        }
+    }
+
+    /**
+     * LRU cache for the entries that keeps entries read since they were last moved to the head of the list.<p>
+     */
+    class CmsFlexLruCache extends CmsLruCache {
+
+        /**
+         * Creates a new LRU cache for the entries.<p>
+         * 
+         * @param maxCacheBytes the maximum size of all cached entries in bytes
+         * @param avgCacheBytes the average size of all cached entries in bytes
+         * @param maxEntryBytes the maximum size of a single entry in bytes
+         */
+        CmsFlexLruCache(long maxCacheBytes, long avgCacheBytes, int maxEntryBytes) {
+
+            super(maxCacheBytes, avgCacheBytes, maxEntryBytes);
+        }
+
+        /**
+         * @see org.opencms.cache.CmsLruCache#keepOnEviction(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        @Override
+        protected boolean keepOnEviction(I_CmsLruCacheObject theCacheObject) {
+
+            return ((CmsFlexCacheEntry)theCacheObject).resetAccessed();
+        }
+
+        /**
+         * @see org.opencms.cache.CmsLruCache#onEviction(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        @Override
+        protected void onEviction(I_CmsLruCacheObject theCacheObject) {
+
+            countEviction(theCacheObject);
         }
     }
 
@@ -211,6 +273,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Online repository constant. */
     public static final String REPOSITORY_ONLINE = "online";
 
+    /** The number of segments of the key cache. */
+    private static final int CONCURRENCY_LEVEL = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCache.class);
 
@@ -223,8 +288,17 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Indicates if the cache is enabled or not. */
     private boolean m_enabled;
 
+    /** The number of entries evicted from the cache. */
+    private AtomicLong m_evictions = new AtomicLong();
+
+    /** The number of cache hits. */
+    private AtomicLong m_hits = new AtomicLong();
+
     /** Map to store the entries for fast lookup. */
-    private Map<String, CmsFlexCacheVariation> m_keyCache;
+    private ConcurrentMap<String, CmsFlexCacheVariation> m_keyCache;
+
+    /** The number of cache misses. */
+    private AtomicLong m_misses = new AtomicLong();
 
     /** Counter for the size. */
     private int m_size;
@@ -250,13 +324,16 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         int maxEntryBytes = configuration.getMaxEntryBytes();
         int maxKeys = configuration.getMaxKeys();
 
-        m_variationCache = new CmsLruCache(maxCacheBytes, avgCacheBytes, maxEntryBytes);
+        m_variationCache = new CmsFlexLruCache(maxCacheBytes, avgCacheBytes, maxEntryBytes);
         OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_entryLruCache", m_variationCache);
 
         if (m_enabled) {
-            CmsFlexKeyMap flexKeyMap = new CmsFlexKeyMap(maxKeys);
-            m_keyCache = Collections.synchronizedMap(CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
-            OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
+            // don't use more segments than keys, otherwise each segment would hold less than one key
+            CacheBuilder<String, CmsFlexCacheVariation> builder = CacheBuilder.newBuilder().concurrencyLevel(
+                Math.max(1, Math.min(CONCURRENCY_LEVEL, maxKeys))).maximumSize(maxKeys).removalListener(
+                new CmsFlexKeyRemovalListener());
+            m_keyCache = builder.build().asMap();
+            OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", m_keyCache);
 
             OpenCms.addCmsEventListener(this, new int[] {
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
@@ -402,6 +479,24 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_keyCache.keySet();
     }
 
+    /**
+     * Returns the cached variations of a given resource name, including the cache statistics of the resource.<p>
+     * 
+     * Only users with administrator permissions are allowed
+     * to perform this operation.<p>
+     *
+     * @param key the resource name for which to look up the variations for
+     * @param cms the CmsObject used for user authorization
+     * @return the cached variations of the resource, or <code>null</code> if the resource is not cached
+     */
+    public CmsFlexCacheVariation getCachedVariation(String key, CmsObject cms) {
+
+        if (!isEnabled() || !OpenCms.getRoleManager().hasRole(cms, CmsRole.WORKPLACE_MANAGER)) {
+            return null;
+        }
+        return m_keyCache.get(key);
+    }
+
     /**
      * Returns all variations in the cache for a given resource name.
      * The variations are of type String.<p>
@@ -438,6 +533,36 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache;
     }
 
+    /**
+     * Returns the number of entries evicted from the cache to free space.<p>
+     *
+     * @return the number of entries evicted from the cache
+     */
+    public long getEvictionCount() {
+
+        return m_evictions.get();
+    }
+
+    /**
+     * Returns the number of cache hits.<p>
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+
+        return m_hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses.<p>
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+
+        return m_misses.get();
+    }
+
     /**
      * Indicates if the cache is enabled (i.e. actually
      * caching entries) or not.<p>
@@ -488,29 +613,40 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             // cache is disabled
             return null;
         }
-        Object o = m_keyCache.get(key.getResource());
-        if (o != null) {
+        CmsFlexCacheVariation v = m_keyCache.get(key.getResource());
+        // the key and the map are read once since they may be released concurrently
+        CmsFlexCacheKey cacheKey = (v != null) ? v.m_key : null;
+        Map<String, I_CmsLruCacheObject> m = (v != null) ? v.m_map : null;
+        if ((cacheKey != null) && (m != null)) {
             // found a matching key in the cache
-            CmsFlexCacheVariation v = (CmsFlexCacheVariation)o;
-            String variation = v.m_key.matchRequestKey(key);
+            String variation = cacheKey.matchRequestKey(key);
 
             if (CmsStringUtil.isEmpty(variation)) {
                 // requested resource is not cacheable
                 return null;
             }
-            CmsFlexCacheEntry entry = (CmsFlexCacheEntry)v.m_map.get(variation);
+            CmsFlexCacheEntry entry = (CmsFlexCacheEntry)m.get(variation);
             if (entry == null) {
                 // no cache entry available for variation
+                m_misses.incrementAndGet();
+                v.m_misses.incrementAndGet();
                 return null;
             }
             if (entry.getDateExpires() < System.currentTimeMillis()) {
                 // cache entry avaiable but expired, remove entry
                 m_variationCache.remove(entry);
+                m_misses.incrementAndGet();
+                v.m_misses.incrementAndGet();
                 return null;
             }
+            // the LRU list is not locked on a cache hit, the entry is only marked as used
+            entry.markAccessed();
+            m_hits.incrementAndGet();
+            v.m_hits.incrementAndGet();
             // return the found cache entry
             return entry;
         } else {
+            m_misses.incrementAndGet();
             return null;
         }
     }
@@ -685,7 +821,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                         allEntries.remove();
                         m_variationCache.remove(nextObject);
                     }
-                    v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+                    v.m_map = new ConcurrentHashMap<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
                 } else {
                     // Clear key and entry
                     m_size -= v.m_map.size();
@@ -737,7 +873,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                 allEntries.remove();
                 m_variationCache.remove(nextObject);
             }
-            v.m_map = new Hashtable<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
+            v.m_map = new ConcurrentHashMap<String, I_CmsLruCacheObject>(INITIAL_CAPACITY_VARIATIONS);
         }
         m_size = 0;
     }
@@ -820,6 +956,20 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Counts an entry evicted from this cache for the cache and for the variation of its resource.<p>
+     * 
+     * @param theCacheObject the evicted entry
+     */
+    private void countEviction(I_CmsLruCacheObject theCacheObject) {
+
+        m_evictions.incrementAndGet();
+        CmsFlexCacheVariation variation = ((CmsFlexCacheEntry)theCacheObject).getVariation();
+        if (variation != null) {
+            variation.m_evictions.incrementAndGet();
+        }
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -875,6 +1025,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), m);
+                theCacheEntry.setVariation(o);
                 m.put(key.getVariation(), theCacheEntry);
             }
         } else {
@@ -885,6 +1036,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), list.m_map);
+                theCacheEntry.setVariation(list);
                 list.m_map.put(key.getVariation(), theCacheEntry);
                 m_keyCache.put(key.getResource(), list);
             }
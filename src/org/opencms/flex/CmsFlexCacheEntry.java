@@ -77,6 +77,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCacheEntry.class);
 
+    /** Indicates if this cache entry was read from the cache since it was last moved to the head of the LRU list. */
+    private volatile boolean m_accessed;
+
     /** The CacheEntry's size in bytes. */
     private int m_byteSize;
 
@@ -104,6 +107,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** A redirection target (if redirection is set). */
     private String m_redirectTarget;
 
+    /** The cached resource this entry is a variation of. */
+    private CmsFlexCache.CmsFlexCacheVariation m_variation;
+
     /** The key under which this cache entry is stored in the variation map. */
     private String m_variationKey;
 
@@ -547,4 +553,48 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         }
         return str;
     }
+
+    /**
+     * Returns the cached resource this entry is a variation of.<p>
+     * 
+     * @return the cached resource this entry is a variation of, or <code>null</code> if not set
+     */
+    CmsFlexCache.CmsFlexCacheVariation getVariation() {
+
+        return m_variation;
+    }
+
+    /**
+     * Marks this cache entry as read from the cache.<p>
+     * 
+     * This does not lock the LRU cache, the mark is evaluated when the LRU cache has to free space.<p>
+     */
+    void markAccessed() {
+
+        if (!m_accessed) {
+            m_accessed = true;
+        }
+    }
+
+    /**
+     * Resets the access mark of this cache entry.<p>
+     * 
+     * @return <code>true</code> if this entry was read from the cache since the mark was last reset
+     */
+    boolean resetAccessed() {
+
+        boolean accessed = m_accessed;
+        m_accessed = false;
+        return accessed;
+    }
+
+    /**
+     * Sets the cached resource this entry is a variation of.<p>
+     * 
+     * @param variation the cached resource this entry is a variation of
+     */
+    void setVariation(CmsFlexCache.CmsFlexCacheVariation variation) {
+
+        m_variation = variation;
+    }
 }
@@ -35,12 +35,12 @@ import org.opencms.util.CmsDateUtil;
 import org.opencms.util.CmsRequestUtil;
 
 import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -70,15 +70,43 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
      * This implementation writes to an internal buffer and optionally to another 
      * output stream at the same time.<p>
      * 
+     * The internal buffer is a list of segments, so it never has to be copied when it grows. 
+     * Large byte arrays from cache entries are added to the buffer as shared segments 
+     * without copying them, since the elements of a cache entry are never changed.<p>
+     * 
      * It should be fully transparent to the standard ServletOutputStream.<p>
      */
     private static class CmsServletOutputStream extends ServletOutputStream {
 
+        /** The size of the first segment of the buffer. */
+        private static final int INITIAL_SEGMENT_SIZE = 1024;
+
+        /** The maximum size of a segment of the buffer. */
+        private static final int MAX_SEGMENT_SIZE = 64 * 1024;
+
+        /** The minimum size of byte arrays which are added as shared segments instead of being copied. */
+        private static final int MIN_SHARED_SIZE = 512;
+
+        /** The buffered bytes as one array, or <code>null</code> if this has to be created again. */
+        private byte[] m_bytes;
+
+        /** The segment the buffer currently writes to. */
+        private byte[] m_current;
+
+        /** The end of the written part of the current segment. */
+        private int m_currentEnd;
+
+        /** The start of the part of the current segment that is not yet in the list of segments. */
+        private int m_currentStart;
+
+        /** The completed segments of the buffer. */
+        private List<ByteBuffer> m_segments;
+
         /** The optional output stream to write to. */
         private ServletOutputStream m_servletStream;
 
-        /** The internal stream buffer. */
-        private ByteArrayOutputStream m_stream;
+        /** The number of bytes in the buffer. */
+        private int m_size;
 
         /**
          * Constructor that must be used if the stream should write 
@@ -103,11 +131,16 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         }
 
         /**
-         * Clears the buffer by initializing the buffer with a new stream.<p>
+         * Clears the buffer.<p>
          */
         public void clear() {
 
-            m_stream = new java.io.ByteArrayOutputStream(1024);
+            m_segments = new ArrayList<ByteBuffer>();
+            m_current = null;
+            m_currentStart = 0;
+            m_currentEnd = 0;
+            m_size = 0;
+            m_bytes = null;
         }
 
         /**
@@ -116,9 +149,6 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         @Override
         public void close() throws IOException {
 
-            if (m_stream != null) {
-                m_stream.close();
-            }
             if (m_servletStream != null) {
                 m_servletStream.close();
             }
@@ -141,12 +171,36 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
 
         /**
          * Provides access to the bytes cached in the buffer.<p>
+         * 
+         * The returned array must not be changed, since it may be shared with 
+         * a cache entry or returned again by following calls.<p>
          *
          * @return the cached bytes from the buffer
          */
         public byte[] getBytes() {
 
-            return m_stream.toByteArray();
+            if (m_bytes == null) {
+                addCurrentSegment();
+                if (m_segments.size() == 1) {
+                    ByteBuffer segment = m_segments.get(0);
+                    if ((segment.position() == 0) && (segment.remaining() == segment.array().length)) {
+                        // the buffer consists of one complete array, no need to copy it
+                        m_bytes = segment.array();
+                        return m_bytes;
+                    }
+                }
+                byte[] bytes = new byte[m_size];
+                int pos = 0;
+                for (ByteBuffer segment : m_segments) {
+                    System.arraycopy(segment.array(), segment.position(), bytes, pos, segment.remaining());
+                    pos += segment.remaining();
+                }
+                // replace the segments with the joined array, so it is not joined again
+                m_segments.clear();
+                m_segments.add(ByteBuffer.wrap(bytes));
+                m_bytes = bytes;
+            }
+            return m_bytes;
         }
 
         /**
@@ -155,7 +209,23 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
 
-            m_stream.write(b, off, len);
+            m_bytes = null;
+            int pos = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if ((m_current == null) || (m_currentEnd == m_current.length)) {
+                    addCurrentSegment();
+                    m_current = new byte[Math.max(INITIAL_SEGMENT_SIZE, Math.min(m_size, MAX_SEGMENT_SIZE))];
+                    m_currentStart = 0;
+                    m_currentEnd = 0;
+                }
+                int count = Math.min(remaining, m_current.length - m_currentEnd);
+                System.arraycopy(b, pos, m_current, m_currentEnd, count);
+                m_currentEnd += count;
+                m_size += count;
+                pos += count;
+                remaining -= count;
+            }
             if (m_servletStream != null) {
                 m_servletStream.write(b, off, len);
             }
@@ -167,11 +237,54 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         @Override
         public void write(int b) throws IOException {
 
-            m_stream.write(b);
+            m_bytes = null;
+            if ((m_current == null) || (m_currentEnd == m_current.length)) {
+                addCurrentSegment();
+                m_current = new byte[Math.max(INITIAL_SEGMENT_SIZE, Math.min(m_size, MAX_SEGMENT_SIZE))];
+                m_currentStart = 0;
+                m_currentEnd = 0;
+            }
+            m_current[m_currentEnd++] = (byte)b;
+            m_size++;
+            if (m_servletStream != null) {
+                m_servletStream.write(b);
+            }
+        }
+
+        /**
+         * Writes a byte array that is never changed afterwards, like an element of a cache entry.<p>
+         * 
+         * Large arrays are added to the buffer without copying them.<p>
+         * 
+         * @param b the byte array to write
+         * 
+         * @throws IOException in case something goes wrong while writing to the stream
+         */
+        public void writeShared(byte[] b) throws IOException {
+
+            if (b.length < MIN_SHARED_SIZE) {
+                write(b, 0, b.length);
+                return;
+            }
+            m_bytes = null;
+            addCurrentSegment();
+            m_segments.add(ByteBuffer.wrap(b));
+            m_size += b.length;
             if (m_servletStream != null) {
                 m_servletStream.write(b);
             }
         }
+
+        /**
+         * Adds the not yet added part of the current segment to the list of segments.<p>
+         */
+        private void addCurrentSegment() {
+
+            if ((m_current != null) && (m_currentEnd > m_currentStart)) {
+                m_segments.add(ByteBuffer.wrap(m_current, m_currentStart, m_currentEnd - m_currentStart));
+                m_currentStart = m_currentEnd;
+            }
+        }
     }
 
     /** The cache delimiter char. */
@@ -997,8 +1110,9 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
                 if (m_out == null) {
                     initStream();
                 }
-                // In this case the buffer will not write to the servlet stream, but to it's internal buffer only
-                m_out.write(bytes);
+                // In this case the buffer will not write to the servlet stream, but to it's internal buffer only,
+                // the bytes of the cache entry are not changed, so they can be shared with the buffer
+                m_out.writeShared(bytes);
             }
         } else {
             if (LOG.isDebugEnabled()) {
@@ -99,7 +99,7 @@ public class CmsExport {
     /** Counter for the export. */
     private int m_exportCount;
 
-    /** Set of all exported files, required for preventing redundant sibling export. */
+    /** Set of the resource ids of all exported files with siblings, required for preventing redundant sibling export. */
     private Set<CmsUUID> m_exportedResources;
 
     /** The export writer. */
@@ -158,6 +158,7 @@ public class CmsExport {
 
         m_parameters = parameters;
         m_exportCount = 0;
+        long startTime = System.currentTimeMillis();
 
         // clear all caches
         getReport().println(Messages.get().container(Messages.RPT_CLEARCACHE_0), I_CmsReport.FORMAT_NOTE);
@@ -201,6 +202,20 @@ public class CmsExport {
             }
 
             closeExportFile(exportNode);
+
+            // report the throughput of the export
+            long duration = Math.max(System.currentTimeMillis() - startTime, 1);
+            long bytes = m_exportWriter.getBytesWritten();
+            getReport().println(
+                Messages.get().container(
+                    Messages.RPT_EXPORT_THROUGHPUT_5,
+                    new Object[] {
+                        new Integer(m_exportCount),
+                        new Long(bytes),
+                        new Long(duration),
+                        new Long((m_exportCount * 1000L) / duration),
+                        new Long((bytes * 1000L) / duration)}),
+                I_CmsReport.FORMAT_NOTE);
         } catch (SAXException se) {
             getReport().println(se);
 
@@ -223,6 +238,11 @@ public class CmsExport {
             }
 
             throw new CmsImportExportException(message, ioe);
+        } finally {
+            if (m_exportWriter != null) {
+                // remove the temporary manifest file also if the export failed
+                m_exportWriter.deleteManifestFile();
+            }
         }
     }
 
@@ -261,7 +281,8 @@ public class CmsExport {
                         String export = getCms().getSitePath(file);
                         if (checkExportResource(export)) {
                             if (isInExportableProject(file)) {
-                                exportFile(getCms().readFile(export, CmsResourceFilter.IGNORE_EXPIRATION));
+                                // the content is streamed, so there is no need to read the file with the content
+                                exportFile(file);
                             }
                         }
                     }
@@ -821,6 +842,23 @@ public class CmsExport {
      */
     protected void exportFile(CmsFile file) throws CmsImportExportException, SAXException, IOException {
 
+        exportFile((CmsResource)file);
+    }
+
+    /**
+     * Exports one single file with all its data and content.<p>
+     *
+     * The content of the file is streamed to the export, 
+     * so the file content is never held in memory completely.<p>
+     *
+     * @param file the file to be exported
+     * 
+     * @throws CmsImportExportException if something goes wrong
+     * @throws SAXException if something goes wrong processing the manifest.xml
+     * @throws IOException if the ZIP entry for the file could be appended to the ZIP archive
+     */
+    protected void exportFile(CmsResource file) throws CmsImportExportException, SAXException, IOException {
+
         String source = trimResourceName(getCms().getSitePath(file));
         I_CmsReport report = getReport();
         m_exportCount++;
@@ -839,9 +877,22 @@ public class CmsExport {
         // check if the content of this resource was not already exported
         if (!m_exportedResources.contains(file.getResourceId())) {
             // write the file using the export writer 
-            m_exportWriter.writeFile(file, source);
-            // add the resource id to the storage to mark that this resource was already exported
-            m_exportedResources.add(file.getResourceId());
+            try {
+                m_exportWriter.writeFile(file, getCms().readContentStream(file), source);
+            } catch (CmsException e) {
+                CmsMessageContainer message = Messages.get().container(
+                    Messages.ERR_IMPORTEXPORT_ERROR_ADDING_FILE_1,
+                    getCms().getSitePath(file));
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(message.key(), e);
+                }
+                throw new CmsImportExportException(message, e);
+            }
+            if (file.getSiblingCount() > 1) {
+                // add the resource id to the storage to mark that this resource was already exported,
+                // files without siblings are not stored to keep the memory use independent from the export size
+                m_exportedResources.add(file.getResourceId());
+            }
             // create the manifest-entries
             appendResourceToManifest(file, true);
         } else {
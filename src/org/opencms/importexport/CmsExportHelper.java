@@ -29,32 +29,45 @@ package org.opencms.importexport;
 
 import org.opencms.configuration.CmsConfigurationManager;
 import org.opencms.file.CmsFile;
+import org.opencms.file.CmsResource;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsXmlSaxWriter;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.dom4j.io.SAXWriter;
 import org.xml.sax.SAXException;
 
 /**
  * Wrapper to write exported OpenCms resources either to a .ZIP file or to the file system.<p>
  * 
+ * File contents are streamed to the export, and the manifest of a .ZIP export is written 
+ * to a temporary file first, so the memory use does not grow with the size of the export.<p>
+ * 
  * @since 7.5.1
  */
 public class CmsExportHelper {
 
-    /** Length that can be safely written to ZIP output. */
+    /** Buffer size for writing the export output. */
     private static final int SUB_LENGTH = 4096;
 
+    /** The number of content bytes written to the export. */
+    private long m_bytesWritten;
+
     /** The main export path. */
     private String m_exportPath;
 
@@ -64,6 +77,9 @@ public class CmsExportHelper {
     /** Indicates if the resources are exported in one export .ZIP file or as individual files. */
     private boolean m_isExportAsFiles;
 
+    /** The temporary file the manifest of a .ZIP export is written to. */
+    private File m_manifestFile;
+
     /** The SAX writer for the Manifest file. */
     private SAXWriter m_saxWriter;
 
@@ -96,9 +112,15 @@ public class CmsExportHelper {
             writer = new FileWriter(rfsFile);
         } else {
             // create the export ZIP stream
-            m_exportZipStream = new ZipOutputStream(new FileOutputStream(m_exportPath));
-            // delegate writing to a String writer
-            writer = new StringWriter(SUB_LENGTH);
+            m_exportZipStream = new ZipOutputStream(new BufferedOutputStream(
+                new FileOutputStream(m_exportPath),
+                SUB_LENGTH * 16));
+            // delegate writing to a temporary file next to the export file, which is copied to the ZIP at the end
+            File exportFile = new File(m_exportPath);
+            m_manifestFile = File.createTempFile(exportFile.getName() + "_", ".xml", exportFile.getParentFile());
+            writer = new OutputStreamWriter(new BufferedOutputStream(
+                new FileOutputStream(m_manifestFile),
+                SUB_LENGTH * 4), OpenCms.getSystemInfo().getDefaultEncoding());
         }
 
         // generate the SAX XML writer
@@ -118,6 +140,26 @@ public class CmsExportHelper {
         m_saxWriter = new SAXWriter(saxHandler, saxHandler);
     }
 
+    /**
+     * Deletes the temporary file the manifest of a .ZIP export is written to, if it still exists.<p>
+     */
+    public void deleteManifestFile() {
+
+        if ((m_manifestFile != null) && m_manifestFile.exists() && !m_manifestFile.delete()) {
+            m_manifestFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Returns the number of content bytes written to the export so far.<p>
+     *
+     * @return the number of content bytes written to the export so far
+     */
+    public long getBytesWritten() {
+
+        return m_bytesWritten;
+    }
+
     /**
      * Returns the SAX writer for the Manifest file.<p>
      *
@@ -138,10 +180,30 @@ public class CmsExportHelper {
      */
     public void writeFile(CmsFile file, String name) throws IOException {
 
-        if (m_isExportAsFiles) {
-            writeFile2Rfs(file, name);
-        } else {
-            writeFile2Zip(file, name);
+        writeFile(file, new ByteArrayInputStream(file.getContents()), name);
+    }
+
+    /**
+     * Writes a single OpenCms VFS file to the export, streaming the content from the given input stream.<p>
+     * 
+     * The input stream is closed after the content has been written.<p>
+     * 
+     * @param resource the OpenCms VFS file to write 
+     * @param content the stream on the file content
+     * @param name the name of the file in the export
+     * 
+     * @throws IOException in case of file access issues
+     */
+    public void writeFile(CmsResource resource, InputStream content, String name) throws IOException {
+
+        try {
+            if (m_isExportAsFiles) {
+                writeFile2Rfs(resource, content, name);
+            } else {
+                writeFile2Zip(resource, content, name);
+            }
+        } finally {
+            content.close();
         }
     }
 
@@ -208,15 +270,32 @@ public class CmsExportHelper {
      */
     protected void writeFile2Rfs(CmsFile file, String name) throws IOException {
 
+        writeFile2Rfs(file, new ByteArrayInputStream(file.getContents()), name);
+    }
+
+    /**
+     * Writes a single OpenCms VFS file to the RFS export, streaming the content from the given input stream.<p>
+     * 
+     * @param resource the OpenCms VFS file to write 
+     * @param content the stream on the file content
+     * @param name the name of the file in the export
+     * 
+     * @throws IOException in case of file access issues
+     */
+    protected void writeFile2Rfs(CmsResource resource, InputStream content, String name) throws IOException {
+
         String fileName = getRfsFileName(name);
         File rfsFile = new File(fileName);
         if (!rfsFile.getParentFile().exists()) {
             rfsFile.getParentFile().mkdirs();
         }
         rfsFile.createNewFile();
-        FileOutputStream rfsFileOut = new FileOutputStream(rfsFile);
-        rfsFileOut.write(file.getContents());
-        rfsFileOut.close();
+        OutputStream rfsFileOut = new FileOutputStream(rfsFile);
+        try {
+            m_bytesWritten += IOUtils.copyLarge(content, rfsFileOut);
+        } finally {
+            rfsFileOut.close();
+        }
     }
 
     /**
@@ -229,11 +308,25 @@ public class CmsExportHelper {
      */
     protected void writeFile2Zip(CmsFile file, String name) throws IOException {
 
+        writeFile2Zip(file, new ByteArrayInputStream(file.getContents()), name);
+    }
+
+    /**
+     * Writes a single OpenCms VFS file to the ZIP export, streaming the content from the given input stream.<p>
+     * 
+     * @param resource the OpenCms VFS file to write 
+     * @param content the stream on the file content
+     * @param name the name of the file in the export
+     * 
+     * @throws IOException in case of file access issues
+     */
+    protected void writeFile2Zip(CmsResource resource, InputStream content, String name) throws IOException {
+
         ZipEntry entry = new ZipEntry(name);
         // save the time of the last modification in the zip
-        entry.setTime(file.getDateLastModified());
+        entry.setTime(resource.getDateLastModified());
         m_exportZipStream.putNextEntry(entry);
-        m_exportZipStream.write(file.getContents());
+        m_bytesWritten += IOUtils.copyLarge(content, m_exportZipStream);
         m_exportZipStream.closeEntry();
     }
 
@@ -258,8 +351,8 @@ public class CmsExportHelper {
     /**
      * Writes the OpenCms manifest.xml file to the ZIP export.<p>
      * 
-     * In case of the ZIP export the manifest is written to an internal StringBuffer 
-     * first, which is then stored in the ZIP file when this method is called.<p>
+     * In case of the ZIP export the manifest is written to a temporary file 
+     * first, which is then copied to the ZIP file and deleted when this method is called.<p>
      * 
      * @param xmlSaxWriter the SAX writer to use
      * 
@@ -276,19 +369,13 @@ public class CmsExportHelper {
         ZipEntry entry = new ZipEntry(CmsImportExportManager.EXPORT_MANIFEST);
         m_exportZipStream.putNextEntry(entry);
 
-        // complex substring operation is required to ensure handling for very large export manifest files
-        StringBuffer result = ((StringWriter)xmlSaxWriter.getWriter()).getBuffer();
-        int steps = result.length() / SUB_LENGTH;
-        int rest = result.length() % SUB_LENGTH;
-        int pos = 0;
-        for (int i = 0; i < steps; i++) {
-            String sub = result.substring(pos, pos + SUB_LENGTH);
-            m_exportZipStream.write(sub.getBytes(OpenCms.getSystemInfo().getDefaultEncoding()));
-            pos += SUB_LENGTH;
-        }
-        if (rest > 0) {
-            String sub = result.substring(pos, pos + rest);
-            m_exportZipStream.write(sub.getBytes(OpenCms.getSystemInfo().getDefaultEncoding()));
+        // copy the manifest from the temporary file, which has already been written in the right encoding
+        InputStream manifestIn = new FileInputStream(m_manifestFile);
+        try {
+            IOUtils.copyLarge(manifestIn, m_exportZipStream);
+        } finally {
+            manifestIn.close();
+            deleteManifestFile();
         }
 
         // close the zip entry for the manifest XML document
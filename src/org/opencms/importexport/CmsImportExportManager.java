@@ -379,6 +379,9 @@ public class CmsImportExportManager {
     /** Import principal group translations. */
     private Map<String, String> m_importGroupTranslations;
 
+    /** The number of threads used to import resources. */
+    private int m_importThreads;
+
     /** Import principal user translations. */
     private Map<String, String> m_importUserTranslations;
 
@@ -410,6 +413,7 @@ public class CmsImportExportManager {
         m_importGroupTranslations = new HashMap<String, String>();
         m_importUserTranslations = new HashMap<String, String>();
         m_overwriteCollidingResources = true;
+        m_importThreads = 1;
         m_importVersionClasses = new ArrayList<I_CmsImport>();
     }
 
@@ -654,6 +658,18 @@ public class CmsImportExportManager {
         return m_importGroupTranslations;
     }
 
+    /**
+     * Returns the number of threads used to import resources.<p>
+     * 
+     * With only one thread, all resources are imported in the order of the manifest.<p>
+     * 
+     * @return the number of threads used to import resources
+     */
+    public int getImportThreads() {
+
+        return m_importThreads;
+    }
+
     /**
      * Returns the configured principal user translations.<p>
      * 
@@ -808,6 +824,25 @@ public class CmsImportExportManager {
         m_extendedHtmlImportDefault = extendedHtmlImportDefault;
     }
 
+    /**
+     * Sets the number of threads used to import resources.<p>
+     * 
+     * @param importThreads the number of threads used to import resources
+     */
+    public void setImportThreads(String importThreads) {
+
+        try {
+            m_importThreads = Math.max(Integer.parseInt(importThreads.trim()), 1);
+        } catch (NumberFormatException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_IMPORTEXPORT_IMPORT_THREADS_1,
+                new Integer(m_importThreads)));
+        }
+    }
+
     /**
      * Sets the URL of a 4.x OpenCms app. (e.g. http://localhost:8080/opencms/opencms/)
      * from which content was exported.<p>
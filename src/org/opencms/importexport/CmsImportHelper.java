@@ -273,6 +273,26 @@ public class CmsImportHelper {
         return m_zipFile;
     }
 
+    /**
+     * Checks if the import contains a file with the given name, without reading the file content.<p>
+     * 
+     * @param filename the name of the file to check
+     * 
+     * @return <code>true</code> if the import contains the file
+     */
+    public boolean hasFile(String filename) {
+
+        if (getZipFile() != null) {
+            ZipEntry entry = getZipFile().getEntry(filename);
+            // path to file might be relative, too
+            if ((entry == null) && filename.startsWith("/")) {
+                entry = getZipFile().getEntry(filename.substring(1));
+            }
+            return entry != null;
+        }
+        return new File(getFolder(), filename).isFile();
+    }
+
     /**
      * Opens the import file.<p>
      * 
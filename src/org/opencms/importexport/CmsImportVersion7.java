@@ -81,6 +81,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.ZipFile;
 
 import org.apache.commons.codec.binary.Base64;
@@ -276,9 +280,45 @@ public class CmsImportVersion7 implements I_CmsImport {
     /** Value for the "shared" property type attribute value. */
     public static final String PROPERTY_ATTRIB_TYPE_SHARED = "shared";
 
+    /**
+     * The data of a resource to import, collected from the manifest for the import threads.<p>
+     */
+    private static class CmsImportResourceJob {
+
+        /** The access control entries of the resource. */
+        List<CmsAccessControlEntry> m_aces;
+
+        /** The destination of the resource in the manifest. */
+        String m_destination;
+
+        /** The number of the resource in the manifest. */
+        int m_fileCounter;
+
+        /** The properties of the resource. */
+        List<CmsProperty> m_properties;
+
+        /** The resource to import, without the content size. */
+        CmsResource m_resource;
+
+        /** Indicates if the resource id was newly created. */
+        boolean m_resourceIdWasNull;
+
+        /** The source of the content in the import, or <code>null</code>. */
+        String m_source;
+
+        /** The site relative name of the resource. */
+        String m_translatedName;
+
+        /** The resource type of the resource. */
+        I_CmsResourceType m_type;
+    }
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsImportVersion7.class);
 
+    /** The number of pending resource imports per import thread. */
+    private static final int PENDING_IMPORTS_PER_THREAD = 32;
+
     /** The ACE flags value. */
     private int m_aceFlags;
 
@@ -348,6 +388,15 @@ public class CmsImportVersion7 implements I_CmsImport {
     /** The flag to import ACEs. */
     private boolean m_importACEs;
 
+    /** The prepared import of the current resource, if the import is pipelined. */
+    private CmsImportResourceJob m_importJob;
+
+    /** The cms contexts of the import threads. */
+    private CmsObject[] m_importWorkerCms;
+
+    /** The import threads, or <code>null</code> if the import is not pipelined. */
+    private ExecutorService[] m_importWorkers;
+
     /** The membership structure. */
     private Map<String, Map<String, Map<String, String>>> m_membership;
 
@@ -372,6 +421,9 @@ public class CmsImportVersion7 implements I_CmsImport {
     /** The list of resource to be parsed, this is a global list, which will be handled at the end of the import. */
     private List<CmsResource> m_parseables;
 
+    /** Limits the number of resource imports waiting for the import threads. */
+    private Semaphore m_pendingImports;
+
     /** The project description. */
     private String m_projectDescription;
 
@@ -530,10 +582,10 @@ public class CmsImportVersion7 implements I_CmsImport {
     public void addContentFile(String source, String resourceId) {
 
         if ((source != null) && (resourceId != null)) {
-            try {
-                m_helper.getFileBytes(source);
+            // only check if the file exists, reading the content here would read the complete import twice
+            if (m_helper.hasFile(source)) {
                 m_contentFiles.add(new CmsUUID(resourceId));
-            } catch (CmsImportExportException e) {
+            } else {
                 LOG.info("File not found in import: " + source);
             }
         }
@@ -699,6 +751,8 @@ public class CmsImportVersion7 implements I_CmsImport {
         addResourceRelationRules(digester, xpath);
         addResourceAceRules(digester, xpath);
         digester.addCallMethod(CmsImportExportManager.N_EXPORT + "/" + N_FILES + "/" + N_FILE, "increaseCounter");
+        // end rules are called in reverse order, so the job is submitted before the counter is increased
+        digester.addCallMethod(CmsImportExportManager.N_EXPORT + "/" + N_FILES + "/" + N_FILE, "submitImportJob");
         digester.addCallMethod(CmsImportExportManager.N_EXPORT + "/" + N_FILES, "importRelations");
         digester.addCallMethod(CmsImportExportManager.N_EXPORT + "/" + N_FILES, "rewriteParseables");
 
@@ -1297,6 +1351,14 @@ public class CmsImportVersion7 implements I_CmsImport {
      */
     public void importAccessControlEntries() {
 
+        if (m_importWorkers != null) {
+            // the access control entries are imported together with the resource by the import threads
+            if (m_importJob != null) {
+                m_importJob.m_aces = m_aces;
+            }
+            m_aces = null;
+            return;
+        }
         // only set permissions if the resource did not exists or if the keep permissions flag is not set
         if ((m_resource == null) || !m_importACEs) {
             return;
@@ -1345,6 +1407,7 @@ public class CmsImportVersion7 implements I_CmsImport {
             m_helper.openFile();
             m_helper.cacheDtdSystemId(DTD_LOCATION, DTD_FILENAME, CmsConfigurationManager.DEFAULT_DTD_PREFIX);
             findContentFiles();
+            startImportWorkers();
             // start the parsing process
             stream = m_helper.getFileStream(CmsImportExportManager.EXPORT_MANIFEST);
             digester.parse(stream);
@@ -1365,6 +1428,8 @@ public class CmsImportVersion7 implements I_CmsImport {
             } catch (Exception e) {
                 // noop
             }
+            // the import threads read from the import file, so they must be finished before it is closed
+            stopImportWorkers();
             m_helper.closeFile();
         }
     }
@@ -1670,6 +1735,7 @@ public class CmsImportVersion7 implements I_CmsImport {
      */
     public void importRelations() {
 
+        waitForImportJobs();
         if ((m_relations == null) || m_relations.isEmpty()) {
             // no relations to add
             return;
@@ -1750,6 +1816,11 @@ public class CmsImportVersion7 implements I_CmsImport {
      */
     public void importResource() {
 
+        if (m_importWorkers != null) {
+            // the resource is imported by the import threads
+            prepareImportJob();
+            return;
+        }
         boolean resourceIdWasNull = false;
 
         try {
@@ -1835,7 +1906,7 @@ public class CmsImportVersion7 implements I_CmsImport {
                     m_properties = new HashMap<String, CmsProperty>();
                 }
 
-                if (m_type.isFolder() || resourceIdWasNull || hasContentInVfsOrImport(resource)) {
+                if (m_type.isFolder() || resourceIdWasNull || hasContentInVfsOrImport(getCms(), resource)) {
                     // import this resource in the VFS
                     m_resource = getCms().importResource(
                         translatedName,
@@ -1915,20 +1986,7 @@ public class CmsImportVersion7 implements I_CmsImport {
 
             return;
         } finally {
-            m_structureId = null;
-            m_resourceId = null;
-            m_destination = null;
-            m_source = null;
-            m_type = null;
-            m_flags = 0;
-            m_dateCreated = 0;
-            m_dateLastModified = 0;
-            m_dateReleased = CmsResource.DATE_RELEASED_DEFAULT;
-            m_dateExpired = CmsResource.DATE_EXPIRED_DEFAULT;
-            m_properties = null;
-            m_throwable = null;
-            m_aces = null;
-            m_properties = null;
+            resetResourceData();
         }
     }
 
@@ -2230,6 +2288,7 @@ public class CmsImportVersion7 implements I_CmsImport {
      */
     public void rewriteParseables() {
 
+        waitForImportJobs();
         if (m_parseables.isEmpty()) {
             return;
         }
@@ -2954,6 +3013,44 @@ public class CmsImportVersion7 implements I_CmsImport {
         m_version = Integer.parseInt(version);
     }
 
+    /**
+     * Submits the prepared import of the current resource to the import threads, if the import is pipelined.<p>
+     * 
+     * Folders are imported directly, so they exist before the import of the resources they contain starts.
+     * Resources with the same resource id are always imported by the same import thread in the order 
+     * of the manifest, since the import of a sibling depends on the content of the first sibling.<p>
+     * 
+     * @see #addXmlDigesterRules(Digester)
+     */
+    public void submitImportJob() {
+
+        final CmsImportResourceJob job = m_importJob;
+        m_importJob = null;
+        m_resource = null;
+        m_importACEs = false;
+        if (job == null) {
+            // no pipelined import, or the resource is not imported
+            return;
+        }
+        if (job.m_resource.isFolder()) {
+            importResource(getCms(), job);
+            return;
+        }
+        final int worker = (job.m_resource.getResourceId().hashCode() & Integer.MAX_VALUE) % m_importWorkers.length;
+        m_pendingImports.acquireUninterruptibly();
+        m_importWorkers[worker].execute(new Runnable() {
+
+            public void run() {
+
+                try {
+                    importResource(m_importWorkerCms[worker], job);
+                } finally {
+                    m_pendingImports.release();
+                }
+            }
+        });
+    }
+
     /**
      * Adds the XML digester rules for groups.<p>
      * 
@@ -3309,17 +3406,18 @@ public class CmsImportVersion7 implements I_CmsImport {
     /**
      * Checks whether the content for the resource being imported exists either in the VFS or in the import file.<p>
      * 
+     * @param cms the CMS context to use 
      * @param resource the resource which should be checked 
      * 
      * @return true if the content exists in the VFS or import file 
      */
-    private boolean hasContentInVfsOrImport(CmsResource resource) {
+    private boolean hasContentInVfsOrImport(CmsObject cms, CmsResource resource) {
 
         if (m_contentFiles.contains(resource.getResourceId())) {
             return true;
         }
         try {
-            List<CmsResource> resources = getCms().readSiblings(resource, CmsResourceFilter.ALL);
+            List<CmsResource> resources = cms.readSiblings(resource, CmsResourceFilter.ALL);
             if (!resources.isEmpty()) {
                 return true;
             }
@@ -3330,6 +3428,140 @@ public class CmsImportVersion7 implements I_CmsImport {
 
     }
 
+    /**
+     * Imports a resource prepared from the manifest, this is called by the import threads.<p>
+     * 
+     * The report output for the resource is written at once after the import, 
+     * so the output of the import threads is not mixed up.<p>
+     * 
+     * @param cms the CMS context to use 
+     * @param job the prepared resource import
+     */
+    private void importResource(CmsObject cms, CmsImportResourceJob job) {
+
+        CmsResource importedResource = null;
+        boolean aceImportFailed = false;
+        Exception error = null;
+        try {
+            boolean exists = cms.existsResource(job.m_translatedName, CmsResourceFilter.ALL);
+
+            // get the file content
+            byte[] content = null;
+            if (job.m_source != null) {
+                content = m_helper.getFileBytes(job.m_source);
+            }
+            CmsResource prepared = job.m_resource;
+            CmsResource resource = new CmsResource(
+                prepared.getStructureId(),
+                prepared.getResourceId(),
+                job.m_translatedName,
+                job.m_type.getTypeId(),
+                job.m_type.isFolder(),
+                prepared.getFlags(),
+                prepared.getProjectLastModified(),
+                prepared.getState(),
+                prepared.getDateCreated(),
+                prepared.getUserCreated(),
+                prepared.getDateLastModified(),
+                prepared.getUserLastModified(),
+                prepared.getDateReleased(),
+                prepared.getDateExpired(),
+                1,
+                (content != null) ? content.length : 0,
+                prepared.getDateContent(),
+                0);
+
+            if (resource.isFolder() || job.m_resourceIdWasNull || hasContentInVfsOrImport(cms, resource)) {
+                // import this resource in the VFS
+                importedResource = cms.importResource(job.m_translatedName, resource, content, job.m_properties);
+            }
+            if (importedResource != null) {
+                if (OpenCms.getResourceManager().getResourceType(importedResource.getTypeId()) instanceof I_CmsLinkParseable) {
+                    // store for later use
+                    m_parseables.add(importedResource);
+                }
+                // only set permissions if the resource did not exists or if the keep permissions flag is not set
+                if ((job.m_aces != null) && !job.m_aces.isEmpty() && (!exists || !m_parameters.isKeepPermissions())) {
+                    List<CmsAccessControlEntry> aces = new ArrayList<CmsAccessControlEntry>(job.m_aces.size());
+                    for (CmsAccessControlEntry ace : job.m_aces) {
+                        aces.add(new CmsAccessControlEntry(
+                            importedResource.getResourceId(),
+                            ace.getPrincipal(),
+                            ace.getAllowedPermissions(),
+                            ace.getDeniedPermissions(),
+                            ace.getFlags()));
+                    }
+                    try {
+                        cms.importAccessControlEntries(importedResource, aces);
+                    } catch (CmsException e) {
+                        aceImportFailed = true;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            importedResource = null;
+            error = e;
+        }
+
+        I_CmsReport report = getReport();
+        synchronized (report) {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    String.valueOf(job.m_fileCounter),
+                    String.valueOf(m_totalFiles)),
+                I_CmsReport.FORMAT_NOTE);
+            if (error != null) {
+                report.println(error);
+                report.addError(error);
+            } else if (importedResource != null) {
+                report.print(Messages.get().container(Messages.RPT_IMPORTING_0), I_CmsReport.FORMAT_NOTE);
+                report.print(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    job.m_translatedName));
+                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+                if (aceImportFailed) {
+                    report.println(
+                        Messages.get().container(Messages.RPT_IMPORT_ACL_DATA_FAILED_0),
+                        I_CmsReport.FORMAT_WARNING);
+                }
+            } else {
+                // resource import failed, since no CmsResource was created
+                report.print(Messages.get().container(Messages.RPT_SKIPPING_0), I_CmsReport.FORMAT_NOTE);
+                report.println(org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                    job.m_translatedName));
+            }
+        }
+
+        if (error != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    Messages.get().getBundle().key(Messages.ERR_IMPORTEXPORT_ERROR_IMPORTING_RESOURCES_0),
+                    error);
+            }
+        } else if (importedResource != null) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_IMPORTING_4,
+                    new Object[] {
+                        String.valueOf(job.m_fileCounter),
+                        String.valueOf(m_totalFiles),
+                        job.m_translatedName,
+                        job.m_destination}));
+            }
+        } else if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_SKIPPING_3,
+                String.valueOf(job.m_fileCounter),
+                String.valueOf(m_totalFiles),
+                job.m_translatedName));
+        }
+    }
+
     /**
      * Parses the links.<p>
      * 
@@ -3389,4 +3621,203 @@ public class CmsImportVersion7 implements I_CmsImport {
         }
         cms.getRequestContext().removeAttribute(CmsLogEntry.ATTR_LOG_ENTRY);
     }
+
+    /**
+     * Prepares the import of a resource from the current xml data for the import threads.<p>
+     * 
+     * The resource which is set as current resource is only used to collect the 
+     * relations and access control entries, it is not yet imported.<p>
+     * 
+     * @see #submitImportJob()
+     */
+    private void prepareImportJob() {
+
+        try {
+            if (m_throwable != null) {
+                getReport().println(m_throwable);
+                getReport().addError(m_throwable);
+
+                CmsMessageContainer message = Messages.get().container(
+                    Messages.ERR_IMPORTEXPORT_ERROR_IMPORTING_RESOURCES_0);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(message.key(), m_throwable);
+                }
+                m_importACEs = false;
+                m_resource = null;
+                return;
+            }
+
+            // apply name translation and import path   
+            String rootPath = getCms().getRequestContext().addSiteRoot(
+                m_parameters.getDestinationPath() + m_destination);
+            boolean resourceImmutable = checkImmutable(rootPath);
+            String translatedName = getCms().getRequestContext().removeSiteRoot(rootPath);
+            if (resourceImmutable) {
+                m_resource = null;
+                m_importACEs = false;
+                // skip the file import, just print out the information to the report
+                synchronized (getReport()) {
+                    getReport().print(Messages.get().container(Messages.RPT_SKIPPING_0), I_CmsReport.FORMAT_NOTE);
+                    getReport().println(
+                        org.opencms.report.Messages.get().container(
+                            org.opencms.report.Messages.RPT_ARGUMENT_1,
+                            translatedName));
+                }
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_SKIPPING_3,
+                        String.valueOf(m_fileCounter),
+                        String.valueOf(m_totalFiles),
+                        translatedName));
+                }
+                return;
+            }
+
+            CmsImportResourceJob job = new CmsImportResourceJob();
+            // get UUID for the structure
+            if (m_structureId == null) {
+                // if null generate a new structure id
+                m_structureId = new CmsUUID();
+            }
+            // get UUIDs for the resource
+            if ((m_resourceId == null) || (m_type.isFolder())) {
+                // folders get always a new resource UUID
+                m_resourceId = new CmsUUID();
+                job.m_resourceIdWasNull = true;
+            }
+            m_resource = new CmsResource(
+                m_structureId,
+                m_resourceId,
+                rootPath,
+                m_type.getTypeId(),
+                m_type.isFolder(),
+                m_flags,
+                getCms().getRequestContext().getCurrentProject().getUuid(),
+                CmsResource.STATE_NEW,
+                m_dateCreated,
+                m_userCreated,
+                m_dateLastModified,
+                m_userLastModified,
+                m_dateReleased,
+                m_dateExpired,
+                1,
+                0,
+                System.currentTimeMillis(),
+                0);
+            // the import threads check if the ACEs are imported
+            m_importACEs = true;
+
+            job.m_resource = m_resource;
+            job.m_translatedName = translatedName;
+            job.m_type = m_type;
+            job.m_destination = m_destination;
+            job.m_source = m_source;
+            job.m_fileCounter = m_fileCounter;
+            job.m_properties = (m_properties == null)
+            ? new ArrayList<CmsProperty>()
+            : new ArrayList<CmsProperty>(m_properties.values());
+            m_importJob = job;
+        } catch (Exception e) {
+            m_resource = null;
+            m_importACEs = false;
+
+            getReport().println(e);
+            getReport().addError(e);
+
+            CmsMessageContainer message = Messages.get().container(
+                Messages.ERR_IMPORTEXPORT_ERROR_IMPORTING_RESOURCES_0);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(message.key(), e);
+            }
+        } finally {
+            resetResourceData();
+        }
+    }
+
+    /**
+     * Resets the data of the current resource after it has been imported.<p>
+     */
+    private void resetResourceData() {
+
+        m_structureId = null;
+        m_resourceId = null;
+        m_destination = null;
+        m_source = null;
+        m_type = null;
+        m_flags = 0;
+        m_dateCreated = 0;
+        m_dateLastModified = 0;
+        m_dateReleased = CmsResource.DATE_RELEASED_DEFAULT;
+        m_dateExpired = CmsResource.DATE_EXPIRED_DEFAULT;
+        m_properties = null;
+        m_throwable = null;
+        m_aces = null;
+    }
+
+    /**
+     * Starts the import threads if more than one import thread is configured.<p>
+     * 
+     * @throws CmsException if the cms contexts for the import threads could not be created
+     */
+    private void startImportWorkers() throws CmsException {
+
+        int threads = OpenCms.getImportExportManager().getImportThreads();
+        if (threads <= 1) {
+            return;
+        }
+        CmsObject[] workerCms = new CmsObject[threads];
+        for (int i = 0; i < threads; i++) {
+            workerCms[i] = OpenCms.initCmsObject(getCms());
+        }
+        ExecutorService[] workers = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            final String threadName = "OpenCms: VFS import worker " + (i + 1);
+            workers[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+
+                    Thread thread = new Thread(r, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        if (m_parseables == null) {
+            m_parseables = new ArrayList<CmsResource>();
+        }
+        m_parseables = Collections.synchronizedList(m_parseables);
+        m_pendingImports = new Semaphore(threads * PENDING_IMPORTS_PER_THREAD);
+        m_importWorkerCms = workerCms;
+        m_importWorkers = workers;
+    }
+
+    /**
+     * Waits for the pending resource imports and stops the import threads.<p>
+     */
+    private void stopImportWorkers() {
+
+        if (m_importWorkers == null) {
+            return;
+        }
+        waitForImportJobs();
+        for (int i = 0; i < m_importWorkers.length; i++) {
+            m_importWorkers[i].shutdown();
+        }
+        m_importWorkers = null;
+        m_importWorkerCms = null;
+        m_pendingImports = null;
+    }
+
+    /**
+     * Waits until all resource imports submitted to the import threads are finished.<p>
+     */
+    private void waitForImportJobs() {
+
+        if (m_importWorkers == null) {
+            return;
+        }
+        int permits = m_importWorkers.length * PENDING_IMPORTS_PER_THREAD;
+        m_pendingImports.acquireUninterruptibly(permits);
+        m_pendingImports.release(permits);
+    }
 }
@@ -142,6 +142,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_IMPORTEXPORT_ADDED_USER_TRANSLATION_2 = "INIT_IMPORTEXPORT_ADDED_USER_TRANSLATION_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_IMPORTEXPORT_IMPORT_THREADS_1 = "INIT_IMPORTEXPORT_IMPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_IMPORTEXPORT_INITIALIZING_0 = "INIT_IMPORTEXPORT_INITIALIZING_0";
 
@@ -301,6 +304,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_EXPORT_PROJECT_0 = "RPT_EXPORT_PROJECT_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_EXPORT_THROUGHPUT_5 = "RPT_EXPORT_THROUGHPUT_5";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_EXPORT_USER_0 = "RPT_EXPORT_USER_0";
 
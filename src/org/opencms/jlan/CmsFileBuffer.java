@@ -27,28 +27,100 @@
 
 package org.opencms.jlan;
 
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
  * 
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * Small contents are held in memory in a CmsByteBuffer instance. As soon as the contents grow beyond 
+ * {@link #MEMORY_THRESHOLD} bytes, they are moved to a temporary file, which is then accessed with 
+ * positional reads and writes, so that large files do not have to be kept on the heap while they are open.
+ * Together with the contents, the buffer keeps a 'position' index which marks the next write position.<p>
+ * 
+ * Buffers should be closed with {@link #close()} to delete the temporary file.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
+    /** The size in bytes above which the contents are moved from memory to a temporary file. */
+    public static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+    /** The size of the chunks used for copying contents. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFileBuffer.class);
+
+    /** The buffer used to store the file contents in memory, or null if the contents are stored in the temporary file. */
     CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
 
+    /** The channel of the temporary file, or null if the contents are stored in memory. */
+    FileChannel m_channel;
+
+    /** The length of the contents stored in the temporary file. */
+    long m_length;
+
     /** The current write position. */
     long m_position;
 
+    /** The random access file for the temporary file. */
+    RandomAccessFile m_randomAccessFile;
+
+    /** The temporary file, or null if the contents are stored in memory. */
+    File m_tempFile;
+
+    /**
+     * Releases the temporary file used by this buffer, if any.<p>
+     * 
+     * The buffer is empty after it has been closed.<p>
+     */
+    public void close() {
+
+        if (m_channel != null) {
+            try {
+                m_randomAccessFile.close();
+            } catch (IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            if (!m_tempFile.delete()) {
+                LOG.warn("Couldn't delete temporary file: " + m_tempFile.getAbsolutePath());
+            }
+            m_channel = null;
+            m_randomAccessFile = null;
+            m_tempFile = null;
+            m_length = 0;
+        }
+        m_buffer = new CmsByteBuffer(8192);
+        m_position = 0;
+    }
+
     /**
      * Gets the contents of this buffer as a byte array.<p>
      * 
      * @return the file content 
+     * 
+     * @throws IOException if the contents could not be read from the temporary file 
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
-        byte[] contents = new byte[m_buffer.size()];
-        m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+        if (m_channel == null) {
+            byte[] contents = new byte[m_buffer.size()];
+            m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+            return contents;
+        }
+        if (m_length > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + m_length + " bytes");
+        }
+        byte[] contents = new byte[(int)m_length];
+        readFully(contents, 0, contents.length, 0);
         return contents;
     }
 
@@ -60,7 +132,7 @@ public class CmsFileBuffer {
      */
     public long getLength() {
 
-        return m_buffer.size();
+        return m_channel == null ? m_buffer.size() : m_length;
     }
 
     /** 
@@ -77,11 +149,47 @@ public class CmsFileBuffer {
      * Initializes the file content data.<p>
      * 
      * @param data the file content data 
+     * 
+     * @throws IOException if writing to the temporary file fails 
      */
-    public void init(byte[] data) {
+    public void init(byte[] data) throws IOException {
 
         m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        write(data, 0, data.length);
+    }
+
+    /** 
+     * Initializes the file content data from a stream, which is closed afterwards.<p>
+     * 
+     * @param in the stream to read the file content data from 
+     * 
+     * @throws IOException if reading the stream or writing to the temporary file fails 
+     */
+    public void init(InputStream in) throws IOException {
+
+        try {
+            byte[] chunk = new byte[CHUNK_SIZE];
+            long offset = 0;
+            int count;
+            while ((count = in.read(chunk)) != -1) {
+                m_position = offset;
+                write(chunk, 0, count);
+                offset += count;
+            }
+            m_position = 0;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Checks whether the contents of this buffer are stored in a temporary file.<p>
+     * 
+     * @return true if the contents are stored in a temporary file 
+     */
+    public boolean isOnDisk() {
+
+        return m_channel != null;
     }
 
     /**
@@ -94,17 +202,24 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance 
      * 
      * @return the number of bytes read, or -1 if we are at the end of the file 
+     * 
+     * @throws IOException if reading from the temporary file fails 
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, long fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        long size = getLength();
+        if (fileOffset >= size) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        long readEnd = fileOffset + length;
+        if (readEnd > size) {
+            length = (int)(size - fileOffset);
+        }
+        if (m_channel == null) {
+            m_buffer.readBytes(dest, (int)fileOffset, bufferOffset, length);
+        } else {
+            readFully(dest, bufferOffset, length, fileOffset);
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
         return length;
     }
 
@@ -121,11 +236,28 @@ public class CmsFileBuffer {
     /**
      * Changes the size of this buffer.<p>
      * 
+     * If the size is larger than the current size, the new space will be filled with 0s.<p>
+     * 
      * @param size the new size 
+     * 
+     * @throws IOException if the temporary file could not be changed 
      */
-    public void truncate(int size) {
+    public void truncate(long size) throws IOException {
 
-        m_buffer.truncate(size);
+        if ((m_channel == null) && (size > MEMORY_THRESHOLD)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.truncate((int)size);
+        } else {
+            if (size < m_length) {
+                m_channel.truncate(size);
+            } else if (size > m_length) {
+                // writing the last byte extends the file, the space in between reads as 0s 
+                writeFully(new byte[1], 0, 1, size - 1);
+            }
+            m_length = size;
+        }
         m_position = Math.min(size, m_position);
     }
 
@@ -133,9 +265,110 @@ public class CmsFileBuffer {
      * Writes the data to the internal buffer.<p>
      * 
      * @param data the data to write 
+     * 
+     * @throws IOException if writing to the temporary file fails 
+     */
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Writes a range of a byte array to the internal buffer at the current write position.<p>
+     * 
+     * @param data the array containing the data to write 
+     * @param start the start index of the data in the array
+     * @param len the number of bytes to write 
+     * 
+     * @throws IOException if writing to the temporary file fails 
+     */
+    public void write(byte[] data, int start, int len) throws IOException {
+
+        long end = m_position + len;
+        if ((m_channel == null) && (end > MEMORY_THRESHOLD)) {
+            spill();
+        }
+        if (m_channel == null) {
+            m_buffer.writeBytes(data, start, (int)m_position, len);
+        } else {
+            writeFully(data, start, len, m_position);
+            m_length = Math.max(m_length, end);
+        }
+    }
+
+    /**
+     * Reads bytes from the temporary file until the requested number of bytes has been read.<p>
+     * 
+     * @param dest the target byte array
+     * @param destStart the start index in the target array
+     * @param len the number of bytes to read 
+     * @param fileOffset the position in the temporary file to read from 
+     * 
+     * @throws IOException if reading fails 
+     */
+    private void readFully(byte[] dest, int destStart, int len, long fileOffset) throws IOException {
+
+        ByteBuffer target = ByteBuffer.wrap(dest, destStart, len);
+        long position = fileOffset;
+        while (target.hasRemaining()) {
+            int count = m_channel.read(target, position);
+            if (count < 0) {
+                throw new IOException("Unexpected end of temporary file: " + m_tempFile.getAbsolutePath());
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * Moves the contents from the memory buffer to a new temporary file.<p>
+     * 
+     * @throws IOException if the temporary file could not be created or written 
      */
-    public void write(byte[] data) {
+    private void spill() throws IOException {
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+        File tempFile = File.createTempFile("opencms-jlan", ".tmp");
+        tempFile.deleteOnExit();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw");
+        m_tempFile = tempFile;
+        m_randomAccessFile = randomAccessFile;
+        m_channel = randomAccessFile.getChannel();
+        int size = m_buffer.size();
+        try {
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(size, 1))];
+            for (int offset = 0; offset < size; offset += chunk.length) {
+                int len = Math.min(chunk.length, size - offset);
+                m_buffer.readBytes(chunk, offset, 0, len);
+                writeFully(chunk, 0, len, offset);
+            }
+        } catch (IOException e) {
+            // keep the contents in memory
+            m_channel = null;
+            m_randomAccessFile = null;
+            m_tempFile = null;
+            randomAccessFile.close();
+            tempFile.delete();
+            throw e;
+        }
+        m_length = size;
+        m_buffer = null;
+    }
+
+    /**
+     * Writes bytes to the temporary file until all bytes have been written.<p>
+     * 
+     * @param src the source byte array 
+     * @param srcStart the start index in the source array
+     * @param len the number of bytes to write 
+     * @param fileOffset the position in the temporary file to write to 
+     * 
+     * @throws IOException if writing fails 
+     */
+    private void writeFully(byte[] src, int srcStart, int len, long fileOffset) throws IOException {
+
+        ByteBuffer source = ByteBuffer.wrap(src, srcStart, len);
+        long position = fileOffset;
+        while (source.hasRemaining()) {
+            position += m_channel.write(source, position);
+        }
     }
 }
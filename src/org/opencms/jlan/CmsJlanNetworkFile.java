@@ -38,7 +38,6 @@ import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -97,17 +96,22 @@ public class CmsJlanNetworkFile extends NetworkFile {
     @Override
     public void closeFile() throws IOException {
 
-        if (hasDeleteOnClose()) {
-            delete();
-        } else {
-            flushFile();
-            if (getWriteCount() > 0) {
-                try {
-                    m_cms.unlockResource(m_cms.getSitePath(m_resource));
-                } catch (CmsException e) {
-                    LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+        try {
+            if (hasDeleteOnClose()) {
+                delete();
+            } else {
+                flushFile();
+                if (getWriteCount() > 0) {
+                    try {
+                        m_cms.unlockResource(m_cms.getSitePath(m_resource));
+                    } catch (CmsException e) {
+                        LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+                    }
                 }
             }
+        } finally {
+            // release the temporary file of the buffer 
+            m_buffer.close();
         }
     }
 
@@ -245,7 +249,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            int result = m_buffer.read(buffer, length, bufferOffset, (int)fileOffset);
+            int result = m_buffer.read(buffer, length, bufferOffset, fileOffset);
             return result;
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -349,7 +353,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            m_buffer.truncate((int)size);
+            m_buffer.truncate(size);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -368,8 +372,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
             }
             load(true);
             m_buffer.seek(offset);
-            byte[] dataToWrite = Arrays.copyOfRange(data, pos, pos + len);
-            m_buffer.write(dataToWrite);
+            m_buffer.write(data, pos, len);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -431,7 +434,13 @@ public class CmsJlanNetworkFile extends NetworkFile {
                 throw new AccessDeniedException("Operation not supported for directories!");
             }
             if (m_resource.isFile() && needContent && (!(m_resource instanceof CmsFile))) {
-                m_resource = m_cms.readFile(m_cms.getSitePath(m_resource), CmsJlanDiskInterface.STANDARD_FILTER);
+                // stream the content into the buffer, so large files are not read into memory as a whole
+                m_resource = m_cms.readResource(m_cms.getSitePath(m_resource), CmsJlanDiskInterface.STANDARD_FILTER);
+                if (!(m_resource instanceof CmsFile)) {
+                    m_buffer.init(m_cms.readContentStream(m_resource, 0, -1));
+                    m_bufferInitialized = true;
+                    m_resource = new CmsFile(m_resource);
+                }
             }
             if (!m_bufferInitialized && (getFile() != null)) {
                 // readResource may already have returned a CmsFile, this is why we need to initialize the buffer
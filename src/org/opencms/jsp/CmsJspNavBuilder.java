@@ -34,10 +34,12 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
 import org.opencms.util.CmsFileUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +57,9 @@ import org.apache.commons.logging.Log;
  * of all items in the navigation of the current folder. Then use a simple scriptlet to 
  * iterate over these items and create a HTML navigation.<p>
  * 
+ * In the online project, the navigation data is read from the {@link CmsJspNavigationIndex}
+ * instead of the VFS.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.jsp.CmsJspNavElement
@@ -425,7 +430,7 @@ public class CmsJspNavBuilder {
         List<CmsResource> resources = null;
         try {
 
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+            resources = readChildren(folder, resourceFilter);
         } catch (Exception e) {
             // should never happen
             LOG.error(e.getLocalizedMessage(), e);
@@ -635,7 +640,7 @@ public class CmsJspNavBuilder {
 
         List<CmsResource> resources;
         try {
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+            resources = readChildren(folder, resourceFilter);
         } catch (Exception e) {
             // should never happen
             LOG.error(e.getLocalizedMessage(), e);
@@ -671,9 +676,8 @@ public class CmsJspNavBuilder {
             level--;
         }
         try {
-            resource = m_cms.readResource(sitePath, resourceFilter);
-            List<CmsProperty> properties = m_cms.readPropertyObjects(resource, false);
-            propertiesMap = CmsProperty.toMap(properties);
+            resource = readResource(sitePath, resourceFilter);
+            propertiesMap = readProperties(resource);
             if (resource.isFolder()) {
                 if (!sitePath.endsWith("/")) {
                     sitePath = sitePath + "/";
@@ -697,4 +701,61 @@ public class CmsJspNavBuilder {
 
         return new CmsJspNavElement(sitePath, resource, propertiesMap, level);
     }
+
+    /**
+     * Reads the children of the given folder, from the navigation index if possible.<p>
+     * 
+     * @param folder the site path of the folder
+     * @param resourceFilter the filter to use reading the resources
+     * 
+     * @return the children of the folder
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsResource> readChildren(String folder, CmsResourceFilter resourceFilter) throws CmsException {
+
+        CmsJspNavigationIndex index = OpenCms.getNavigationIndex();
+        if ((index != null) && index.isAvailable(m_cms)) {
+            return index.readChildren(m_cms, folder, resourceFilter);
+        }
+        return m_cms.getResourcesInFolder(folder, resourceFilter);
+    }
+
+    /**
+     * Reads the properties of the given resource, from the navigation index if possible.<p>
+     * 
+     * @param resource the resource
+     * 
+     * @return the properties of the resource, without inherited properties
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private Map<String, String> readProperties(CmsResource resource) throws CmsException {
+
+        CmsJspNavigationIndex index = OpenCms.getNavigationIndex();
+        if ((index != null) && index.isAvailable(m_cms)) {
+            // the navigation element exposes the map, so the indexed map must not be passed on
+            return new HashMap<String, String>(index.readProperties(m_cms, resource));
+        }
+        return CmsProperty.toMap(m_cms.readPropertyObjects(resource, false));
+    }
+
+    /**
+     * Reads the given resource, from the navigation index if possible.<p>
+     * 
+     * @param sitePath the site path of the resource
+     * @param resourceFilter the filter to use reading the resource
+     * 
+     * @return the resource
+     * 
+     * @throws CmsException if the resource can not be read
+     */
+    private CmsResource readResource(String sitePath, CmsResourceFilter resourceFilter) throws CmsException {
+
+        CmsJspNavigationIndex index = OpenCms.getNavigationIndex();
+        if ((index != null) && index.isAvailable(m_cms)) {
+            return index.readResource(m_cms, sitePath, resourceFilter);
+        }
+        return m_cms.readResource(sitePath, resourceFilter);
+    }
 }
@@ -0,0 +1,407 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.util.CmsRequestUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Index of the online navigation data used by the {@link CmsJspNavBuilder}.<p>
+ *
+ * For every folder the index holds the children of the folder, sorted by navigation position,
+ * together with their properties. The data is read once with the admin user in the online project,
+ * and is never changed afterwards. The least recently used folders are removed if the index is full.
+ * After a publish, only the folders containing published resources are removed from the index,
+ * and are read again on the next access.<p>
+ *
+ * Permissions and the resource filter are checked for the current user every time the index is read.<p>
+ *
+ * @since 9.5.0
+ */
+public class CmsJspNavigationIndex implements I_CmsEventListener {
+
+    /**
+     * The indexed children of a folder.<p>
+     */
+    private static class CmsNavigationFolder {
+
+        /** The children of the folder, with the root path as key, sorted by navigation position. */
+        protected Map<String, CmsResource> m_children;
+
+        /** The properties of the children, with the root path as key. */
+        protected Map<String, Map<String, String>> m_properties;
+
+        /**
+         * Creates a new indexed folder.<p>
+         *
+         * @param children the children of the folder, sorted by navigation position
+         * @param properties the properties of the children, with the root path as key
+         */
+        protected CmsNavigationFolder(List<CmsResource> children, Map<String, Map<String, String>> properties) {
+
+            Map<String, CmsResource> childMap = new LinkedHashMap<String, CmsResource>();
+            for (CmsResource child : children) {
+                childMap.put(child.getRootPath(), child);
+            }
+            m_children = Collections.unmodifiableMap(childMap);
+            m_properties = Collections.unmodifiableMap(properties);
+        }
+    }
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavigationIndex.class);
+
+    /** The maximum number of indexed folders. */
+    private static final int MAX_FOLDERS = 10000;
+
+    /** The indexed folders, with the root path of the folder as key, bounded to the most recently used folders. */
+    private Map<String, CmsNavigationFolder> m_folders;
+
+    /** Counter that is increased every time folders are removed from the index. */
+    private long m_generation;
+
+    /** The admin context in the online project, copied for every folder that is read. */
+    private CmsObject m_onlineCms;
+
+    /**
+     * Creates a new navigation index and registers it as event listener.<p>
+     *
+     * @param adminCms a context with admin permissions
+     *
+     * @throws CmsException if reading the online project fails
+     */
+    public CmsJspNavigationIndex(CmsObject adminCms)
+    throws CmsException {
+
+        m_onlineCms = OpenCms.initCmsObject(adminCms);
+        m_onlineCms.getRequestContext().setCurrentProject(m_onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        m_onlineCms.getRequestContext().setSiteRoot("");
+        m_folders = CacheBuilder.newBuilder().maximumSize(MAX_FOLDERS).<String, CmsNavigationFolder> build().asMap();
+        OpenCms.addCmsEventListener(this, new int[] {
+            I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+            I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES});
+    }
+
+    /**
+     * Parses the navigation position from the given properties, like {@link CmsJspNavElement} does.<p>
+     *
+     * @param properties the properties
+     *
+     * @return the navigation position, or {@link Float#MAX_VALUE} if not set
+     */
+    private static float getNavPosition(Map<String, String> properties) {
+
+        String navPos = properties.get(CmsPropertyDefinition.PROPERTY_NAVPOS);
+        if (navPos != null) {
+            try {
+                return Float.parseFloat(navPos);
+            } catch (NumberFormatException e) {
+                // use the default position
+            }
+        }
+        return Float.MAX_VALUE;
+    }
+
+    /**
+     * Removes all folders from the index.<p>
+     */
+    public synchronized void clear() {
+
+        m_folders.clear();
+        m_generation++;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+                if (publishIdStr == null) {
+                    clear();
+                    break;
+                }
+                try {
+                    List<CmsPublishedResource> publishedResources = m_onlineCms.readPublishedResources(new CmsUUID(
+                        publishIdStr));
+                    if (publishedResources.isEmpty()) {
+                        // not a normal publish process, so be on the safe side
+                        clear();
+                    } else {
+                        removeFolders(publishedResources);
+                    }
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                    clear();
+                }
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES:
+                clear();
+                break;
+            default:
+                // noop
+                break;
+        }
+    }
+
+    /**
+     * Returns the number of indexed folders.<p>
+     *
+     * @return the number of indexed folders
+     */
+    public int getFolderCount() {
+
+        return m_folders.size();
+    }
+
+    /**
+     * Returns if the index can be used for the given context, which is only the case in the online project.<p>
+     *
+     * @param cms the current users context
+     *
+     * @return <code>true</code> if the index can be used for the given context
+     */
+    public boolean isAvailable(CmsObject cms) {
+
+        return cms.getRequestContext().getCurrentProject().isOnlineProject();
+    }
+
+    /**
+     * Returns the children of the given folder the current user may read, sorted by navigation position.<p>
+     *
+     * This is the index based equivalent of {@link CmsObject#getResourcesInFolder(String, CmsResourceFilter)}.<p>
+     *
+     * @param cms the current users context
+     * @param folder the site path of the folder
+     * @param filter the resource filter to use
+     *
+     * @return the children of the folder
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readChildren(CmsObject cms, String folder, CmsResourceFilter filter)
+    throws CmsException {
+
+        // check the folder itself, so missing folders or folders without permissions behave like in the VFS
+        CmsResource parent = readResource(cms, folder, filter);
+        Map<String, CmsResource> children = getFolder(parent.getRootPath()).m_children;
+        List<CmsResource> resources = new ArrayList<CmsResource>(children.values());
+        updateContextDates(cms, resources);
+        return cms.filterPermissions(resources, CmsPermissionSet.ACCESS_READ, false, filter);
+    }
+
+    /**
+     * Returns the properties of the given resource, without inherited properties.<p>
+     *
+     * The returned map must not be changed.<p>
+     *
+     * @param cms the current users context
+     * @param resource the resource, as returned by this index
+     *
+     * @return the properties of the resource
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<String, String> readProperties(CmsObject cms, CmsResource resource) throws CmsException {
+
+        String parentPath = CmsResource.getParentFolder(resource.getRootPath());
+        if (parentPath != null) {
+            Map<String, String> properties = getFolder(parentPath).m_properties.get(resource.getRootPath());
+            if (properties != null) {
+                return properties;
+            }
+        }
+        return CmsProperty.toMap(cms.readPropertyObjects(resource, false));
+    }
+
+    /**
+     * Reads the given resource from the index, if the current user may read it.<p>
+     *
+     * This is the index based equivalent of {@link CmsObject#readResource(String, CmsResourceFilter)}.<p>
+     *
+     * @param cms the current users context
+     * @param sitePath the site path of the resource
+     * @param filter the resource filter to use
+     *
+     * @return the resource
+     *
+     * @throws CmsException if the resource can not be read
+     */
+    public CmsResource readResource(CmsObject cms, String sitePath, CmsResourceFilter filter) throws CmsException {
+
+        String rootPath = cms.getRequestContext().addSiteRoot(sitePath);
+        String parentPath = CmsResource.getParentFolder(rootPath);
+        if (parentPath != null) {
+            Map<String, CmsResource> children = getFolder(parentPath).m_children;
+            CmsResource resource = children.get(rootPath);
+            if ((resource == null) && !rootPath.endsWith("/")) {
+                resource = children.get(rootPath + "/");
+            }
+            if ((resource != null) && cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, filter)) {
+                updateContextDates(cms, Collections.singletonList(resource));
+                return resource;
+            }
+        }
+        // let the VFS create the appropriate exception
+        return cms.readResource(sitePath, filter);
+    }
+
+    /**
+     * Returns the indexed folder for the given root path, reading it if required.<p>
+     *
+     * @param rootPath the root path of the folder
+     *
+     * @return the indexed folder
+     *
+     * @throws CmsException if reading the folder fails
+     */
+    private CmsNavigationFolder getFolder(String rootPath) throws CmsException {
+
+        CmsNavigationFolder folder = m_folders.get(rootPath);
+        if (folder != null) {
+            return folder;
+        }
+        long generation;
+        synchronized (this) {
+            generation = m_generation;
+        }
+        // use a context of its own, so different folders can be read in parallel
+        CmsObject cms = OpenCms.initCmsObject(m_onlineCms);
+        List<CmsResource> children = cms.readResources(rootPath, CmsResourceFilter.ALL, false);
+        Map<String, Map<String, String>> properties = new HashMap<String, Map<String, String>>();
+        for (CmsResource child : children) {
+            // the property lists are cached by the driver manager, so this only reads from the database once per child
+            properties.put(
+                child.getRootPath(),
+                Collections.unmodifiableMap(CmsProperty.toMap(cms.readPropertyObjects(child, false))));
+        }
+        final Map<String, Map<String, String>> sortProperties = properties;
+        children = new ArrayList<CmsResource>(children);
+        Collections.sort(children, new Comparator<CmsResource>() {
+
+            public int compare(CmsResource first, CmsResource second) {
+
+                return Float.compare(
+                    getNavPosition(sortProperties.get(first.getRootPath())),
+                    getNavPosition(sortProperties.get(second.getRootPath())));
+            }
+        });
+        folder = new CmsNavigationFolder(children, properties);
+        synchronized (this) {
+            // don't store the folder if it has been published while reading it
+            if (generation == m_generation) {
+                m_folders.put(rootPath, folder);
+            }
+        }
+        return folder;
+    }
+
+    /**
+     * Removes the folders affected by the given published resources from the index.<p>
+     *
+     * @param publishedResources the published resources
+     */
+    private synchronized void removeFolders(List<CmsPublishedResource> publishedResources) {
+
+        for (CmsPublishedResource published : publishedResources) {
+            if (published.isMoved() || (published.getSiblingCount() > 1)) {
+                // the old parent folder or the shared properties of siblings are not known here
+                clear();
+                return;
+            }
+            String rootPath = published.getRootPath();
+            String parentPath = CmsResource.getParentFolder(rootPath);
+            if (parentPath != null) {
+                m_folders.remove(parentPath);
+            }
+            if (published.isFolder()) {
+                // a deleted folder removes the complete sub tree
+                for (String folderPath : new ArrayList<String>(m_folders.keySet())) {
+                    if (folderPath.startsWith(rootPath)) {
+                        m_folders.remove(folderPath);
+                    }
+                }
+            }
+        }
+        m_generation++;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_NAVIGATION_INDEX_UPDATED_2,
+                new Integer(publishedResources.size()),
+                new Integer(m_folders.size())));
+        }
+    }
+
+    /**
+     * Updates the date information of the current request with the given resources,
+     * like reading the resources from the VFS does.<p>
+     *
+     * @param cms the current users context
+     * @param resources the resources
+     */
+    private void updateContextDates(CmsObject cms, List<CmsResource> resources) {
+
+        CmsFlexRequestContextInfo info = (CmsFlexRequestContextInfo)cms.getRequestContext().getAttribute(
+            CmsRequestUtil.HEADER_LAST_MODIFIED);
+        if (info != null) {
+            for (CmsResource resource : resources) {
+                info.updateFromResource(resource);
+            }
+        }
+    }
+}
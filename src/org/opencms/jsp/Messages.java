@@ -217,6 +217,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MAXELEMENTS_NOT_SET_2 = "LOG_MAXELEMENTS_NOT_SET_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_NAVIGATION_INDEX_UPDATED_2 = "LOG_NAVIGATION_INDEX_UPDATED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_WRONG_CONTAINER_MAXELEMENTS_3 = "LOG_WRONG_CONTAINER_MAXELEMENTS_3";
 
@@ -838,15 +838,13 @@ public class CmsJspContentAccessBean {
 
         if (m_content == null) {
             // content has not been provided, must unmarshal XML first
-            CmsFile file;
             try {
-                file = m_cms.readFile(m_resource);
-                if (CmsResourceTypeXmlPage.isXmlPage(file)) {
+                if (CmsResourceTypeXmlPage.isXmlPage(m_resource)) {
                     // this is an XML page
-                    m_content = CmsXmlPageFactory.unmarshal(m_cms, file);
+                    m_content = CmsXmlPageFactory.unmarshal(m_cms, m_cms.readFile(m_resource));
                 } else {
-                    // this is an XML content
-                    m_content = CmsXmlContentFactory.unmarshal(m_cms, file);
+                    // this is an XML content, which is created from the cached document in the online project
+                    m_content = CmsXmlContentFactory.unmarshal(m_cms, m_resource);
                 }
             } catch (CmsException e) {
                 // this usually should not happen, as the resource already has been read by the current user 
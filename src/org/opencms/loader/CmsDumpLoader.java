@@ -40,6 +40,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.workplace.CmsWorkplaceManager;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -48,6 +49,8 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.io.IOUtils;
+
 /**
  * Dump loader for binary or other unprocessed resource types.<p>
  * 
@@ -229,13 +232,32 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             return;
         }
 
-        // make sure we have the file contents available
-        CmsFile file = cms.readFile(resource);
+        long size = resource.getLength();
+        long[] range = null;
+        if (!(resource instanceof CmsFile)) {
+            // byte ranges are only supported for resources whose content has not been read yet
+            res.setHeader(CmsRequestUtil.HEADER_ACCEPT_RANGES, "bytes");
+            range = getByteRange(resource, req);
+        }
 
-        // set response status to "200 - OK" (required for static export "on-demand")
-        res.setStatus(HttpServletResponse.SC_OK);
-        // set content length header
-        res.setContentLength(file.getContents().length);
+        if ((range != null) && (range.length == 0)) {
+            // set response status to "416 - requested range not satisfiable"
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes */" + size);
+            res.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        if (range != null) {
+            // set response status to "206 - partial content"
+            res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + size);
+            res.setContentLength((int)((range[1] - range[0]) + 1));
+        } else {
+            // set response status to "200 - OK" (required for static export "on-demand")
+            res.setStatus(HttpServletResponse.SC_OK);
+            // set content length header
+            res.setContentLength((int)size);
+        }
 
         if (CmsWorkplaceManager.isWorkplaceUser(req)) {
             // prevent caching for Workplace users
@@ -243,7 +265,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             CmsRequestUtil.setNoCacheHeaders(res);
         } else {
             // set date last modified header
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, file.getDateLastModified());
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, resource.getDateLastModified());
 
             // set "Expires" only if cache control is not already set
             if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
@@ -257,7 +279,11 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             }
         }
 
-        service(cms, file, req, res);
+        if (range != null) {
+            writeContent(cms, resource, range[0], (range[1] - range[0]) + 1, res);
+        } else {
+            service(cms, resource, req, res);
+        }
     }
 
     /**
@@ -266,7 +292,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
     public void service(CmsObject cms, CmsResource resource, ServletRequest req, ServletResponse res)
     throws CmsException, IOException {
 
-        res.getOutputStream().write(cms.readFile(resource).getContents());
+        writeContent(cms, resource, 0, -1, res);
     }
 
     /**
@@ -301,4 +327,97 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         }
         return false;
     }
+
+    /**
+     * Returns the byte range requested with the "Range" http header.<p>
+     * 
+     * Only a single range is supported. In case multiple ranges are requested, 
+     * or the "If-Range" header does not match the date of last modification of the resource, 
+     * <code>null</code> is returned and the complete content should be sent.<p>
+     * 
+     * @param resource the requested resource
+     * @param req the current request
+     * 
+     * @return the positions of the first and the last byte of the requested range, <code>null</code> 
+     *      if the complete content should be sent, or an empty array if the requested range can not be satisfied 
+     */
+    protected long[] getByteRange(CmsResource resource, HttpServletRequest req) {
+
+        String header = req.getHeader(CmsRequestUtil.HEADER_RANGE);
+        if ((header == null) || !header.startsWith("bytes=") || (header.indexOf(',') >= 0)) {
+            return null;
+        }
+        if (req.getHeader(CmsRequestUtil.HEADER_IF_RANGE) != null) {
+            // we send no ETag, so only the date validator can match 
+            try {
+                long ifRange = req.getDateHeader(CmsRequestUtil.HEADER_IF_RANGE);
+                if ((ifRange / 1000) != (resource.getDateLastModified() / 1000)) {
+                    return null;
+                }
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        long size = resource.getLength();
+        long start;
+        long end;
+        try {
+            if (first.length() == 0) {
+                // suffix range, e.g. "bytes=-500" for the last 500 bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(size - suffix, 0);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = (last.length() == 0) ? (size - 1) : Long.parseLong(last);
+                if (end < start) {
+                    // syntactically invalid range, must be ignored 
+                    return null;
+                }
+                end = Math.min(end, size - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (start >= size) {
+            return new long[0];
+        }
+        return new long[] {start, end};
+    }
+
+    /**
+     * Writes the given range of the content of the resource to the output stream of the response.<p>
+     * 
+     * The content is streamed in chunks, so it does not need to be read into memory completely.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the resource to write the content for
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to write, or <code>-1</code> to write up to the end of the content
+     * @param res the current response
+     * 
+     * @throws CmsException if the content could not be read
+     * @throws IOException if writing to the response fails
+     */
+    protected void writeContent(CmsObject cms, CmsResource resource, long offset, long length, ServletResponse res)
+    throws CmsException, IOException {
+
+        InputStream in = cms.readContentStream(resource, offset, length);
+        try {
+            IOUtils.copyLarge(in, res.getOutputStream());
+        } finally {
+            in.close();
+        }
+    }
 }
\ No newline at end of file
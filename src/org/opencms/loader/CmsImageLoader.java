@@ -29,9 +29,12 @@ package org.opencms.loader;
 
 import org.opencms.cache.CmsVfsNameBasedDiskCache;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeImage;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -39,9 +42,15 @@ import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.jobs.CmsImageCacheCleanupJob;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -77,6 +86,18 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The configuration parameter for the OpenCms XML configuration to enable the image scaling. */
     public static final String CONFIGURATION_SCALING_ENABLED = "image.scaling.enabled";
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum number of waiting scale operations. */
+    public static final String CONFIGURATION_SCALING_QUEUE_SIZE = "image.scaling.queuesize";
+
+    /** The configuration parameter for the OpenCms XML configuration to set the number of image scaling threads. */
+    public static final String CONFIGURATION_SCALING_THREADS = "image.scaling.threads";
+
+    /** The configuration parameter for the OpenCms XML configuration to set the scale parameters pre-generated after publishing, separated by '|'. */
+    public static final String CONFIGURATION_SCALING_WARMUP = "image.scaling.warmup";
+
+    /** The default maximum number of waiting scale operations. */
+    public static final int DEFAULT_SCALING_QUEUE_SIZE = 64;
+
     /** Default name for the image cache repository. */
     public static final String IMAGE_REPOSITORY_DEFAULT = "/WEB-INF/imagecache/";
 
@@ -107,6 +128,18 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The maximum image size (width or height) to allow when up scaling an image using request parameters. */
     protected int m_maxScaleSize = CmsImageScaler.SCALE_DEFAULT_MAX_SIZE;
 
+    /** The executor for the image scale operations. */
+    protected CmsImageScalingExecutor m_scalingExecutor;
+
+    /** The maximum number of waiting scale operations. */
+    protected int m_scalingQueueSize = DEFAULT_SCALING_QUEUE_SIZE;
+
+    /** The number of image scaling threads. */
+    protected int m_scalingThreads = Runtime.getRuntime().availableProcessors();
+
+    /** The scale parameters pre-generated after publishing. */
+    protected List<String> m_scalingWarmUp = Collections.emptyList();
+
     /**
      * Creates a new image loader.<p>
      */
@@ -197,6 +230,15 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             if (CONFIGURATION_DOWNSCALE.equals(paramName)) {
                 m_downScaleParams = paramValue.trim();
             }
+            if (CONFIGURATION_SCALING_THREADS.equals(paramName)) {
+                m_scalingThreads = CmsStringUtil.getIntValue(paramValue, m_scalingThreads, paramName);
+            }
+            if (CONFIGURATION_SCALING_QUEUE_SIZE.equals(paramName)) {
+                m_scalingQueueSize = CmsStringUtil.getIntValue(paramValue, DEFAULT_SCALING_QUEUE_SIZE, paramName);
+            }
+            if (CONFIGURATION_SCALING_WARMUP.equals(paramName)) {
+                m_scalingWarmUp = CmsStringUtil.splitAsList(paramValue, '|', true);
+            }
         }
         super.addConfigurationParameter(paramName, paramValue);
     }
@@ -209,16 +251,23 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         if (event == null) {
             return;
         }
-        // only react on the clear caches event
+        Map<String, ?> data = event.getData();
+        if (data == null) {
+            return;
+        }
         int type = event.getType();
-        if (type != I_CmsEventListener.EVENT_CLEAR_CACHES) {
+        if ((type == I_CmsEventListener.EVENT_PUBLISH_PROJECT) && !m_scalingWarmUp.isEmpty()) {
+            Object publishId = data.get(I_CmsEventListener.KEY_PUBLISHID);
+            if (publishId != null) {
+                warmUp(new CmsUUID(publishId.toString()));
+            }
             return;
         }
-        // only react if the clear images cache parameter is set
-        Map<String, ?> data = event.getData();
-        if (data == null) {
+        // otherwise only react on the clear caches event
+        if (type != I_CmsEventListener.EVENT_CLEAR_CACHES) {
             return;
         }
+        // only react if the clear images cache parameter is set
         Object param = data.get(PARAM_CLEAR_IMAGES_CACHE);
         if (param == null) {
             return;
@@ -241,6 +290,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         m_enabled = false;
         m_imageRepositoryFolder = null;
         m_vfsDiskCache = null;
+        if (m_scalingExecutor != null) {
+            m_scalingExecutor.shutDown();
+            m_scalingExecutor = null;
+        }
     }
 
     /**
@@ -256,6 +309,11 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         }
         result.put(CONFIGURATION_SCALING_ENABLED, String.valueOf(m_enabled));
         result.put(CONFIGURATION_IMAGE_FOLDER, m_imageRepositoryFolder);
+        result.put(CONFIGURATION_SCALING_THREADS, String.valueOf(m_scalingThreads));
+        result.put(CONFIGURATION_SCALING_QUEUE_SIZE, String.valueOf(m_scalingQueueSize));
+        if (!m_scalingWarmUp.isEmpty()) {
+            result.put(CONFIGURATION_SCALING_WARMUP, CmsStringUtil.listAsString(m_scalingWarmUp, "|"));
+        }
         return result;
     }
 
@@ -283,6 +341,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
                 OpenCms.getSystemInfo().getWebApplicationRfsPath(),
                 m_imageRepositoryFolder);
         }
+        if (m_scalingExecutor == null) {
+            m_scalingExecutor = new CmsImageScalingExecutor(m_scalingThreads, m_scalingQueueSize);
+        }
         OpenCms.addCmsEventListener(this);
         // output setup information
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -292,6 +353,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             CmsLog.INIT.info(Messages.get().getBundle().key(
                 Messages.INIT_IMAGE_SCALING_ENABLED_1,
                 Boolean.valueOf(m_enabled)));
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_IMAGE_SCALING_THREADS_2,
+                new Integer(m_scalingExecutor.getThreads()),
+                new Integer(m_scalingQueueSize)));
         }
     }
 
@@ -310,7 +375,14 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             // get the scale information from the request
             CmsImageScaler scaler = new CmsImageScaler(req, m_maxScaleSize, m_maxBlurSize);
             // load the file from the cache
-            CmsFile file = getScaledImage(cms, resource, scaler);
+            CmsFile file;
+            try {
+                file = getScaledImage(cms, resource, scaler);
+            } catch (RejectedExecutionException e) {
+                // too many images are waiting to be scaled, shed the load instead of piling up requests
+                res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
             // now perform standard load operation inherited from dump loader
             super.load(cms, file, req, res);
         } else {
@@ -326,6 +398,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
      * If the scaled version does not exist in the cache, it is created. 
      * Unscaled versions of the images are also stored in the cache.<p>
      * 
+     * Scaled versions are created by the image scaling threads, concurrent 
+     * requests for the same scaled version wait for the same scale operation.<p>
+     * 
      * @param cms the current users OpenCms context
      * @param resource the base VFS resource for the image
      * @param scaler the configured image scaler
@@ -334,6 +409,7 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
      * 
      * @throws IOException in case of errors accessing the disk based cache
      * @throws CmsException in case of errors accessing the OpenCms VFS
+     * @throws RejectedExecutionException if too many images are waiting to be scaled
      */
     protected CmsFile getScaledImage(CmsObject cms, CmsResource resource, CmsImageScaler scaler)
     throws IOException, CmsException {
@@ -341,6 +417,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         String cacheParam = scaler.isValid() ? scaler.toString() : null;
         String cacheName = m_vfsDiskCache.getCacheName(resource, cacheParam);
         byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
+        if ((content == null) && scaler.isValid() && (m_scalingExecutor != null)) {
+            content = m_scalingExecutor.scale(cacheName, createScaleOperation(cms, resource, scaler, cacheName));
+        }
 
         CmsFile file;
         if (content != null) {
@@ -368,4 +447,87 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         }
         return file;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the operation that scales the given image and saves the result in the image cache.<p>
+     * 
+     * @param cms the OpenCms context to read the image with
+     * @param resource the base VFS resource for the image
+     * @param scaler the configured image scaler
+     * @param cacheName the name of the scaled image in the image cache
+     * 
+     * @return the scale operation
+     */
+    protected Callable<byte[]> createScaleOperation(
+        final CmsObject cms,
+        final CmsResource resource,
+        final CmsImageScaler scaler,
+        final String cacheName) {
+
+        return new Callable<byte[]>() {
+
+            /**
+             * @see java.util.concurrent.Callable#call()
+             */
+            public byte[] call() throws Exception {
+
+                // another operation may have finished this image while this one was waiting
+                byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
+                if (content == null) {
+                    content = scaler.scaleImage(cms.readFile(resource));
+                    m_vfsDiskCache.saveCacheFile(cacheName, content);
+                }
+                return content;
+            }
+        };
+    }
+
+    /**
+     * Pre-generates the configured scaled versions of all images changed by a publish operation.<p>
+     * 
+     * Images are only scaled as long as the image scaling queue has spare capacity.<p>
+     * 
+     * @param publishHistoryId the publish history id of the publish operation
+     */
+    protected void warmUp(CmsUUID publishHistoryId) {
+
+        CmsImageScalingExecutor executor = m_scalingExecutor;
+        if (!m_enabled || (executor == null) || (m_vfsDiskCache == null)) {
+            return;
+        }
+        try {
+            // this will always use the root site
+            CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserExport());
+            List<CmsPublishedResource> publishedResources = cms.readPublishedResources(publishHistoryId);
+            for (CmsPublishedResource pubRes : publishedResources) {
+                if ((pubRes.getType() != CmsResourceTypeImage.getStaticTypeId())
+                    || pubRes.getState().isDeleted()
+                    || pubRes.getState().isUnchanged()) {
+                    continue;
+                }
+                if (!cms.existsResource(pubRes.getStructureId(), CmsResourceFilter.DEFAULT)) {
+                    continue;
+                }
+                CmsResource resource = cms.readResource(pubRes.getStructureId(), CmsResourceFilter.DEFAULT);
+                for (String params : m_scalingWarmUp) {
+                    CmsImageScaler scaler = new CmsImageScaler(params);
+                    if (!scaler.isValid()) {
+                        continue;
+                    }
+                    String cacheName = m_vfsDiskCache.getCacheName(resource, scaler.toString());
+                    if (new File(cacheName).exists()) {
+                        continue;
+                    }
+                    if (!executor.scaleInBackground(
+                        cacheName,
+                        createScaleOperation(cms, resource, scaler, cacheName))) {
+                        // the queue is busy with requests, skip the remaining images
+                        return;
+                    }
+                }
+            }
+        } catch (CmsException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_IMAGE_WARMUP_FAILED_1, publishHistoryId), e);
+        }
+    }
+}
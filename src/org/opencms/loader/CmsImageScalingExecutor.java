@@ -0,0 +1,247 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Runs the image scale operations of the image loader in a bounded pool of worker threads.<p>
+ * 
+ * Scale operations are coalesced by the name of the scaled image in the image cache,
+ * so if many requests ask for the same missing image, the image is scaled only once
+ * and all requests wait for the result.<p>
+ * 
+ * If the queue of waiting scale operations is full, new operations are rejected
+ * with a {@link RejectedExecutionException}. Background operations, like the 
+ * pre-generation of images after publishing, only use the free half of the queue.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsImageScalingExecutor {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsImageScalingExecutor.class);
+
+    /** The pool of worker threads. */
+    private ThreadPoolExecutor m_executor;
+
+    /** The maximum number of waiting scale operations. */
+    private int m_queueSize;
+
+    /** The running scale operations by the name of the scaled image. */
+    private ConcurrentHashMap<String, FutureTask<byte[]>> m_running;
+
+    /**
+     * Creates a new image scaling executor.<p>
+     * 
+     * @param threads the number of worker threads
+     * @param queueSize the maximum number of waiting scale operations
+     */
+    public CmsImageScalingExecutor(int threads, int queueSize) {
+
+        m_queueSize = Math.max(1, queueSize);
+        m_running = new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+        ThreadFactory factory = new ThreadFactory() {
+
+            /** The number of the next worker thread. */
+            private int m_count;
+
+            /**
+             * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+             */
+            public synchronized Thread newThread(Runnable r) {
+
+                m_count++;
+                Thread thread = new Thread(r, "OpenCms: Image scaling worker " + m_count);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        m_executor = new ThreadPoolExecutor(
+            Math.max(1, threads),
+            Math.max(1, threads),
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(m_queueSize),
+            factory);
+        m_executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the number of waiting scale operations.<p>
+     * 
+     * @return the number of waiting scale operations
+     */
+    public int getQueueLength() {
+
+        return m_executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of worker threads.<p>
+     * 
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+
+        return m_executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Scales an image in the background, if it is not already being scaled.<p>
+     * 
+     * The operation is skipped if more than half of the queue is used, so background 
+     * operations never cause request operations to be rejected.<p>
+     * 
+     * @param cacheName the name of the scaled image in the image cache
+     * @param operation the scale operation
+     * 
+     * @return <code>true</code> if the operation was started or is already running
+     */
+    public boolean scaleInBackground(String cacheName, Callable<byte[]> operation) {
+
+        if (getQueueLength() > (m_queueSize / 2)) {
+            return false;
+        }
+        try {
+            start(cacheName, operation);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Scales an image and waits for the result.<p>
+     * 
+     * If the same image is already being scaled, no new operation is started,
+     * instead the result of the running operation is returned.<p>
+     * 
+     * @param cacheName the name of the scaled image in the image cache
+     * @param operation the scale operation
+     * 
+     * @return the scaled image content
+     * 
+     * @throws IOException in case of errors accessing the disk based cache
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     * @throws RejectedExecutionException if the queue of waiting scale operations is full
+     */
+    public byte[] scale(String cacheName, Callable<byte[]> operation) throws IOException, CmsException {
+
+        FutureTask<byte[]> task = start(cacheName, operation);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof CmsException) {
+                throw (CmsException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(String.valueOf(cause));
+        }
+    }
+
+    /**
+     * Shuts down the worker threads, waiting scale operations are discarded.<p>
+     */
+    public void shutDown() {
+
+        m_executor.shutdownNow();
+        m_running.clear();
+    }
+
+    /**
+     * Returns the running operation for the given image, or starts a new one.<p>
+     * 
+     * @param cacheName the name of the scaled image in the image cache
+     * @param operation the scale operation
+     * 
+     * @return the running operation
+     * 
+     * @throws RejectedExecutionException if the queue of waiting scale operations is full
+     */
+    private FutureTask<byte[]> start(final String cacheName, Callable<byte[]> operation) {
+
+        FutureTask<byte[]> running = m_running.get(cacheName);
+        if (running != null) {
+            return running;
+        }
+        final FutureTask<byte[]> task = new FutureTask<byte[]>(operation) {
+
+            /**
+             * @see java.util.concurrent.FutureTask#done()
+             */
+            @Override
+            protected void done() {
+
+                // the result is in the image cache now, so later requests don't need to wait
+                m_running.remove(cacheName, this);
+            }
+        };
+        running = m_running.putIfAbsent(cacheName, task);
+        if (running != null) {
+            return running;
+        }
+        try {
+            m_executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            m_running.remove(cacheName, task);
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_SCALING_REJECTED_1, cacheName));
+            }
+            throw e;
+        }
+        return task;
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.lock;
+
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Stores the locks of the lock manager, indexed by resource path, by user and by project.<p>
+ * 
+ * The locks are kept in a map sorted by root path, so that all locks in a subtree can be enumerated 
+ * with a range query, and the lock of a parent folder is found by looking up each parent path, 
+ * i.e. in O(depth) instead of scanning all locks.<p>
+ * 
+ * The secondary indexes by user and by project contain the root paths of all locks where the 
+ * edition or system lock belongs to the given user or project. Since locks are mutable, these 
+ * indexes may contain stale paths, so callers always have to check the returned locks.<p>
+ * 
+ * Reads are lock-free, modifications are serialized on the index instance.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsLockIndex {
+
+    /** The locks, sorted by root path. */
+    private final ConcurrentSkipListMap<String, CmsLock> m_locks;
+
+    /** The root paths of the locks, indexed by project id. */
+    private final ConcurrentHashMap<CmsUUID, Set<String>> m_locksByProject;
+
+    /** The root paths of the locks, indexed by user id. */
+    private final ConcurrentHashMap<CmsUUID, Set<String>> m_locksByUser;
+
+    /**
+     * Creates a new, empty lock index.<p>
+     */
+    public CmsLockIndex() {
+
+        m_locks = new ConcurrentSkipListMap<String, CmsLock>();
+        m_locksByProject = new ConcurrentHashMap<CmsUUID, Set<String>>();
+        m_locksByUser = new ConcurrentHashMap<CmsUUID, Set<String>>();
+    }
+
+    /**
+     * Creates a new lock index containing the given locks.<p>
+     * 
+     * @param locks the locks to index, with the root paths as keys
+     */
+    public CmsLockIndex(Map<String, CmsLock> locks) {
+
+        this();
+        for (CmsLock lock : locks.values()) {
+            put(lock);
+        }
+    }
+
+    /**
+     * Removes all locks from the index.<p>
+     */
+    public synchronized void clear() {
+
+        m_locks.clear();
+        m_locksByProject.clear();
+        m_locksByUser.clear();
+    }
+
+    /**
+     * Returns the lock for the given root path.<p>
+     * 
+     * @param rootPath the root path of the locked resource
+     * 
+     * @return the lock, or <code>null</code> if the resource is not locked directly
+     */
+    public CmsLock get(String rootPath) {
+
+        if (rootPath == null) {
+            return null;
+        }
+        return m_locks.get(rootPath);
+    }
+
+    /**
+     * Returns all locks in this index.<p>
+     * 
+     * @return a new list with all locks
+     */
+    public List<CmsLock> getAll() {
+
+        return new ArrayList<CmsLock>(m_locks.values());
+    }
+
+    /**
+     * Returns the root paths of all locks in this index.<p>
+     * 
+     * @return a new list with the root paths of all locks
+     */
+    public List<String> getAllPaths() {
+
+        return new ArrayList<String>(m_locks.keySet());
+    }
+
+    /**
+     * Returns the underlying map from root paths to locks, used for memory monitoring.<p>
+     * 
+     * @return an unmodifiable view of the locks
+     */
+    public Map<String, CmsLock> getLockMap() {
+
+        return Collections.unmodifiableMap(m_locks);
+    }
+
+    /**
+     * Returns the locks of all parent folders of the given root path, starting with the direct parent folder.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * 
+     * @return the locks of the parent folders, nearest parent first
+     */
+    public List<CmsLock> getParentLocks(String rootPath) {
+
+        List<CmsLock> result = new ArrayList<CmsLock>();
+        String parent = CmsResource.getParentFolder(rootPath);
+        while (parent != null) {
+            CmsLock lock = m_locks.get(parent);
+            if (lock != null) {
+                result.add(lock);
+            }
+            parent = CmsResource.getParentFolder(parent);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all locks which may belong to the given project.<p>
+     * 
+     * The edition or system lock of each returned lock belonged to the project at the time it was indexed.<p>
+     * 
+     * @param projectId the project id
+     * 
+     * @return the candidate locks for the project
+     */
+    public List<CmsLock> getProjectLocks(CmsUUID projectId) {
+
+        return getIndexedLocks(m_locksByProject, projectId);
+    }
+
+    /**
+     * Returns all locks for resources whose root path starts with the given path, 
+     * i.e. the locks of the resource itself and all its sub-resources in case of a folder.<p>
+     * 
+     * @param rootPath the root path
+     * 
+     * @return the locks in the subtree
+     */
+    public List<CmsLock> getSubtreeLocks(String rootPath) {
+
+        if (rootPath.length() == 0) {
+            return getAll();
+        }
+        // the highest character is never used in resource names, 
+        // so this is an upper bound for all paths starting with the given prefix
+        return new ArrayList<CmsLock>(m_locks.subMap(rootPath, true, rootPath + Character.MAX_VALUE, false).values());
+    }
+
+    /**
+     * Returns all locks which may belong to the given user.<p>
+     * 
+     * The edition or system lock of each returned lock belonged to the user at the time it was indexed.<p>
+     * 
+     * @param userId the user id
+     * 
+     * @return the candidate locks for the user
+     */
+    public List<CmsLock> getUserLocks(CmsUUID userId) {
+
+        return getIndexedLocks(m_locksByUser, userId);
+    }
+
+    /**
+     * Adds a lock to the index, replacing any lock stored for the same root path.<p>
+     * 
+     * This also has to be called if the related lock of an already indexed lock has been changed.<p>
+     * 
+     * @param lock the lock to add
+     */
+    public synchronized void put(CmsLock lock) {
+
+        String path = lock.getResourceName();
+        CmsLock oldLock = m_locks.put(path, lock);
+        if ((oldLock != null) && (oldLock != lock)) {
+            removeFromIndexes(oldLock);
+        }
+        addToIndex(m_locksByUser, lock.getEditionLock().getUserId(), path);
+        addToIndex(m_locksByUser, lock.getSystemLock().getUserId(), path);
+        addToIndex(m_locksByProject, lock.getEditionLock().getProjectId(), path);
+        addToIndex(m_locksByProject, lock.getSystemLock().getProjectId(), path);
+    }
+
+    /**
+     * Removes the lock for the given root path.<p>
+     * 
+     * @param rootPath the root path of the locked resource
+     * 
+     * @return the removed lock, or <code>null</code> if there was no lock for the path
+     */
+    public synchronized CmsLock remove(String rootPath) {
+
+        if (rootPath == null) {
+            return null;
+        }
+        CmsLock lock = m_locks.remove(rootPath);
+        if (lock != null) {
+            removeFromIndexes(lock);
+        }
+        return lock;
+    }
+
+    /**
+     * Returns the number of locks in this index.<p>
+     * 
+     * @return the number of locks
+     */
+    public int size() {
+
+        return m_locks.size();
+    }
+
+    /**
+     * Adds a root path to a secondary index.<p>
+     * 
+     * @param index the secondary index
+     * @param id the index key
+     * @param path the root path to add
+     */
+    private void addToIndex(Map<CmsUUID, Set<String>> index, CmsUUID id, String path) {
+
+        if (id == null) {
+            return;
+        }
+        Set<String> paths = index.get(id);
+        if (paths == null) {
+            paths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            index.put(id, paths);
+        }
+        paths.add(path);
+    }
+
+    /**
+     * Returns the currently stored locks for the paths of a secondary index entry.<p>
+     * 
+     * @param index the secondary index
+     * @param id the index key
+     * 
+     * @return the stored locks
+     */
+    private List<CmsLock> getIndexedLocks(Map<CmsUUID, Set<String>> index, CmsUUID id) {
+
+        List<CmsLock> result = new ArrayList<CmsLock>();
+        if (id == null) {
+            return result;
+        }
+        Set<String> paths = index.get(id);
+        if (paths != null) {
+            Iterator<String> it = paths.iterator();
+            while (it.hasNext()) {
+                CmsLock lock = m_locks.get(it.next());
+                if (lock != null) {
+                    result.add(lock);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes a root path from a secondary index.<p>
+     * 
+     * @param index the secondary index
+     * @param id the index key
+     * @param path the root path to remove
+     */
+    private void removeFromIndex(Map<CmsUUID, Set<String>> index, CmsUUID id, String path) {
+
+        if (id == null) {
+            return;
+        }
+        Set<String> paths = index.get(id);
+        if (paths != null) {
+            paths.remove(path);
+            if (paths.isEmpty()) {
+                index.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Removes a lock from the secondary indexes.<p>
+     * 
+     * @param lock the lock to remove
+     */
+    private void removeFromIndexes(CmsLock lock) {
+
+        String path = lock.getResourceName();
+        removeFromIndex(m_locksByUser, lock.getEditionLock().getUserId(), path);
+        removeFromIndex(m_locksByUser, lock.getSystemLock().getUserId(), path);
+        removeFromIndex(m_locksByProject, lock.getEditionLock().getProjectId(), path);
+        removeFromIndex(m_locksByProject, lock.getSystemLock().getProjectId(), path);
+    }
+}
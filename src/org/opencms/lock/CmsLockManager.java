@@ -126,7 +126,7 @@ public final class CmsLockManager {
         // handle collisions with exclusive locked sub-resources in case of a folder
         if (resource.isFolder() && newLock.getSystemLock().isUnlocked()) {
             String resourceName = resource.getRootPath();
-            Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+            Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksInSubtree(resourceName).iterator();
             while (itLocks.hasNext()) {
                 CmsLock lock = itLocks.next();
                 String lockedPath = lock.getResourceName();
@@ -147,7 +147,7 @@ public final class CmsLockManager {
     public int countExclusiveLocksInProject(CmsProject project) {
 
         int count = 0;
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksOfProject(project.getUuid()).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             if (lock.getEditionLock().isInProject(project)) {
@@ -231,7 +231,7 @@ public final class CmsLockManager {
     throws CmsException {
 
         List<CmsResource> lockedResources = new ArrayList<CmsResource>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resource.getRootPath(), filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             CmsResource lockedResource;
@@ -283,7 +283,7 @@ public final class CmsLockManager {
         Map<String, CmsResource> cache) throws CmsException {
 
         List<CmsResource> lockedResources = new ArrayList<CmsResource>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resource.getRootPath(), filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             CmsResource lockedResource;
@@ -358,7 +358,7 @@ public final class CmsLockManager {
     public List<CmsLock> getLocks(CmsDbContext dbc, String resourceName, CmsLockFilter filter) throws CmsException {
 
         List<CmsLock> locks = new ArrayList<CmsLock>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resourceName, filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             if (filter.isSharedExclusive()) {
@@ -404,7 +404,8 @@ public final class CmsLockManager {
         if (resource == null) {
             return false;
         }
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksInSubtree(
+            resource.getRootPath()).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             if (lock.getSystemLock().isUnlocked()) {
@@ -518,7 +519,7 @@ public final class CmsLockManager {
      */
     public void removeLocks(CmsUUID userId) {
 
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksOfUser(userId).iterator();
         while (itLocks.hasNext()) {
             CmsLock currentLock = itLocks.next();
             boolean editLock = currentLock.getEditionLock().getUserId().equals(userId);
@@ -577,7 +578,8 @@ public final class CmsLockManager {
             if (resource.isFolder()) {
                 // in case of a folder, remove any exclusive locks on sub-resources that probably have
                 // been upgraded from an inherited lock when the user edited a resource                
-                Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+                Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksInSubtree(
+                    resourcename).iterator();
                 while (itLocks.hasNext()) {
                     String lockedPath = (itLocks.next()).getResourceName();
                     if (lockedPath.startsWith(resourcename) && !lockedPath.equals(resourcename)) {
@@ -594,13 +596,12 @@ public final class CmsLockManager {
         }
 
         if (lock.getType().isSharedExclusive()) {
-            List<String> locks = OpenCms.getMemoryMonitor().getAllCachedLockPaths();
             // when a resource with a shared lock gets unlocked, fetch all siblings of the resource 
             // to the same content record to identify the exclusive locked sibling
             List<CmsResource> siblings = internalReadSiblings(dbc, resource);
             for (int i = 0; i < siblings.size(); i++) {
                 CmsResource sibling = siblings.get(i);
-                if (locks.contains(sibling.getRootPath())) {
+                if (getDirectLock(sibling.getRootPath()) != null) {
                     // remove the exclusive locked sibling
                     if (removeSystemLock) {
                         unlockResource(sibling.getRootPath(), true);
@@ -627,7 +628,7 @@ public final class CmsLockManager {
      */
     public void removeResourcesInProject(CmsUUID projectId, boolean removeSystemLocks) {
 
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksOfProject(projectId).iterator();
         while (itLocks.hasNext()) {
             CmsLock currentLock = itLocks.next();
             if (removeSystemLocks && currentLock.getSystemLock().getProjectId().equals(projectId)) {
@@ -648,7 +649,7 @@ public final class CmsLockManager {
      */
     public void removeTempLocks(CmsUUID userId) {
 
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocksOfUser(userId).iterator();
         while (itLocks.hasNext()) {
             CmsLock currentLock = itLocks.next();
             if (currentLock.isTemporary() && currentLock.getUserId().equals(userId)) {
@@ -746,6 +747,40 @@ public final class CmsLockManager {
         }
     }
 
+    /**
+     * Returns the cached locks which can match the given resource name and filter.<p>
+     * 
+     * Uses the lock index to restrict the returned locks to the subtree and / or the parent folders 
+     * of the given resource. If the filter includes shared exclusive locks, all locks have to be 
+     * checked, since a matching sibling of a locked resource may be located anywhere.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * @param filter the lock filter
+     * 
+     * @return the candidate locks, the filter still has to be applied to each of them
+     */
+    private List<CmsLock> getCandidateLocks(String rootPath, CmsLockFilter filter) {
+
+        if (filter.isSharedExclusive()) {
+            return OpenCms.getMemoryMonitor().getAllCachedLocks();
+        }
+        List<CmsLock> result = new ArrayList<CmsLock>();
+        if (filter.isIncludeChildren()) {
+            result.addAll(OpenCms.getMemoryMonitor().getAllCachedLocksInSubtree(rootPath));
+        }
+        if (filter.isIncludeParent()) {
+            if (!filter.isIncludeChildren()) {
+                // a lock on the resource itself is matched as parent lock as well
+                CmsLock lock = getDirectLock(rootPath);
+                if ((lock != null) && rootPath.endsWith("/")) {
+                    result.add(lock);
+                }
+            }
+            result.addAll(OpenCms.getMemoryMonitor().getCachedParentLocks(rootPath));
+        }
+        return result;
+    }
+
     /**
      * Returns the direct lock of a resource.<p>
      * 
@@ -767,7 +802,8 @@ public final class CmsLockManager {
      */
     private CmsLock getParentFolderLock(String resourceName) {
 
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        // the lock index returns the locks of all parent folders, without scanning all locks
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getCachedParentLocks(resourceName).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             if (lock.getResourceName().endsWith("/")
@@ -855,6 +891,10 @@ public final class CmsLockManager {
                 }
             } else if (currentLock.getSystemLock().isUnlocked() && !lock.getSystemLock().isUnlocked()) {
                 currentLock.setRelatedLock(lock);
+                if (locks == null) {
+                    // update the lock index with the owner of the new related lock
+                    OpenCms.getMemoryMonitor().cacheLock(currentLock);
+                }
             } else {
                 throw new CmsLockException(Messages.get().container(
                     Messages.ERR_LOCK_ILLEGAL_STATE_2,
@@ -990,10 +1030,8 @@ public final class CmsLockManager {
                     CmsLock tmp = lock.getEditionLock();
                     CmsLock sysLock = lock.getSystemLock();
                     sysLock.setRelatedLock(null);
-                    if (!sysLock.equals(lock)) {
-                        // replace the lock entry if needed
-                        OpenCms.getMemoryMonitor().cacheLock(sysLock);
-                    }
+                    // replace the lock entry, this also updates the lock index
+                    OpenCms.getMemoryMonitor().cacheLock(sysLock);
                     return tmp;
                 } else {
                     // if there is no edition lock, only a system lock, do nothing
@@ -0,0 +1,758 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.configuration.CmsConfigurationException;
+import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.configuration.I_CmsConfigurationParameterHandler;
+import org.opencms.db.CmsCompactCacheKey;
+import org.opencms.db.CmsDbContext;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.i18n.CmsLocaleManager;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.report.CmsLogReport;
+import org.opencms.util.CmsUUID;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Event manager that forwards selected events to the other OpenCms servers of a cluster.<p>
+ *
+ * All events are delivered to the local listeners as usual. In addition, the configured events are
+ * converted to compact messages and sent to the other servers with an {@link I_CmsEventTransport}.
+ * Resources in the event data are sent as structure id and root path, other data is only sent
+ * if it is a String, a number, a boolean or a UUID.<p>
+ *
+ * Every server numbers the messages it sends. A receiving server drops messages it has already seen,
+ * and clears all caches if it detects that messages of a sender have been lost.
+ * A lost message is only detected when the next message of the same sender is received,
+ * so failed sends are retried a few times.
+ * Before a received resource event is delivered to the local listeners, the cached resources, properties
+ * and permissions of the received resources are removed, and the resources are read again from the database.
+ * Events fired by the local listeners while a received event is processed are not forwarded again.<p>
+ *
+ * The event manager is configured in <code>opencms-system.xml</code>:<pre>
+ * &lt;eventmanager class="org.opencms.main.CmsClusterEventManager"&gt;
+ *     &lt;param name="transport"&gt;org.opencms.main.CmsLoopbackEventTransport&lt;/param&gt;
+ *     &lt;param name="transport.channel"&gt;default&lt;/param&gt;
+ * &lt;/eventmanager&gt;</pre>
+ *
+ * The optional parameter <code>events</code> is a comma separated list of the event types to forward.<p>
+ *
+ * @since 9.5.0
+ */
+public class CmsClusterEventManager extends CmsEventManager implements I_CmsConfigurationParameterHandler {
+
+    /** The event types forwarded if no events are configured. */
+    public static final int[] DEFAULT_EVENTS = {
+        I_CmsEventListener.EVENT_CLEAR_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES,
+        I_CmsEventListener.EVENT_FLEX_CACHE_CLEAR,
+        I_CmsEventListener.EVENT_FLEX_PURGE_JSP_REPOSITORY,
+        I_CmsEventListener.EVENT_GROUP_MODIFIED,
+        I_CmsEventListener.EVENT_OU_MODIFIED,
+        I_CmsEventListener.EVENT_PROPERTY_MODIFIED,
+        I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+        I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED,
+        I_CmsEventListener.EVENT_RESOURCE_DELETED,
+        I_CmsEventListener.EVENT_RESOURCE_MODIFIED,
+        I_CmsEventListener.EVENT_RESOURCE_MOVED,
+        I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED,
+        I_CmsEventListener.EVENT_RESOURCES_MODIFIED,
+        I_CmsEventListener.EVENT_USER_MODIFIED};
+
+    /** The parameter for the forwarded event types. */
+    public static final String PARAM_EVENTS = "events";
+
+    /** The parameter for the transport class. */
+    public static final String PARAM_TRANSPORT = "transport";
+
+    /** The prefix of the parameters passed to the transport. */
+    public static final String PARAM_TRANSPORT_PREFIX = "transport.";
+
+    /** The encoding used for the message values. */
+    private static final String ENCODING = CmsEncoder.ENCODING_UTF_8;
+
+    /** The static log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsClusterEventManager.class);
+
+    /** The maximum number of received resources whose cache entries are removed one by one, instead of flushing the caches. */
+    private static final int MAX_UNCACHED_RESOURCES = 100;
+
+    /** The number of attempts to send a message. */
+    private static final int SEND_ATTEMPTS = 3;
+
+    /** The separator between the parts of a message. */
+    private static final char SEPARATOR = '|';
+
+    /** The type character for a Boolean value. */
+    private static final char TYPE_BOOLEAN = 'b';
+
+    /** The type character for an Integer value. */
+    private static final char TYPE_INTEGER = 'i';
+
+    /** The type character for a Long value. */
+    private static final char TYPE_LONG = 'l';
+
+    /** The type character for a resource. */
+    private static final char TYPE_RESOURCE = 'r';
+
+    /** The type character for a list of resources. */
+    private static final char TYPE_RESOURCES = 'R';
+
+    /** The type character for a String value. */
+    private static final char TYPE_STRING = 's';
+
+    /** The type character for a UUID value. */
+    private static final char TYPE_UUID = 'u';
+
+    /** The admin cms context, used to read the resources of received events. */
+    private CmsObject m_cms;
+
+    /** The configuration of this event manager. */
+    private CmsParameterConfiguration m_configuration;
+
+    /** The types of the events to forward. */
+    private Set<Integer> m_events;
+
+    /** The cms context in an offline project, initialized on demand. */
+    private CmsObject m_offlineCms;
+
+    /** The last received sequence number, with the sender id as key. */
+    private Map<String, Long> m_received;
+
+    /** Indicates if the current thread delivers a received event. */
+    private ThreadLocal<Boolean> m_receiving;
+
+    /** The single thread that sends the messages in order. */
+    private ExecutorService m_sender;
+
+    /** The lock for assigning the sequence numbers. */
+    private Object m_senderLock;
+
+    /** The id of this server. */
+    private String m_senderId;
+
+    /** The sequence number of the last sent message. */
+    private long m_sequence;
+
+    /** The transport used to exchange the messages. */
+    private I_CmsEventTransport m_transport;
+
+    /**
+     * Creates a new cluster event manager.<p>
+     */
+    public CmsClusterEventManager() {
+
+        m_configuration = new CmsParameterConfiguration();
+        m_events = new HashSet<Integer>();
+        m_received = new HashMap<String, Long>();
+        m_receiving = new ThreadLocal<Boolean>();
+        m_senderLock = new Object();
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#addConfigurationParameter(java.lang.String, java.lang.String)
+     */
+    public void addConfigurationParameter(String paramName, String paramValue) {
+
+        m_configuration.add(paramName, paramValue);
+    }
+
+    /**
+     * @see org.opencms.main.CmsEventManager#fireEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void fireEvent(CmsEvent event) {
+
+        super.fireEvent(event);
+        if ((m_sender != null) && m_events.contains(event.getTypeInteger()) && (m_receiving.get() == null)) {
+            send(event);
+        }
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#getConfiguration()
+     */
+    public CmsParameterConfiguration getConfiguration() {
+
+        return m_configuration;
+    }
+
+    /**
+     * Returns the id of this server, or <code>null</code> if the transport has not been started.<p>
+     *
+     * @return the id of this server
+     */
+    public String getSenderId() {
+
+        return m_senderId;
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#initConfiguration()
+     */
+    public void initConfiguration() throws CmsConfigurationException {
+
+        String transportClass = m_configuration.getString(PARAM_TRANSPORT, null);
+        try {
+            m_transport = (I_CmsEventTransport)Class.forName(transportClass).newInstance();
+        } catch (Throwable t) {
+            throw new CmsConfigurationException(Messages.get().container(
+                Messages.ERR_CLUSTER_EVENT_TRANSPORT_INVALID_1,
+                transportClass), t);
+        }
+        for (String key : m_configuration.keySet()) {
+            if (key.startsWith(PARAM_TRANSPORT_PREFIX)) {
+                for (String value : m_configuration.getList(key)) {
+                    m_transport.addConfigurationParameter(key.substring(PARAM_TRANSPORT_PREFIX.length()), value);
+                }
+            }
+        }
+        m_transport.initConfiguration();
+
+        m_events.clear();
+        List<String> events = m_configuration.getList(PARAM_EVENTS);
+        if (events.isEmpty()) {
+            for (int i = 0; i < DEFAULT_EVENTS.length; i++) {
+                m_events.add(new Integer(DEFAULT_EVENTS[i]));
+            }
+        } else {
+            for (String event : events) {
+                m_events.add(Integer.valueOf(event.trim()));
+            }
+        }
+    }
+
+    /**
+     * Starts the transport, after this events are sent to and received from the other servers.<p>
+     *
+     * @see org.opencms.main.CmsEventManager#initializeCms(org.opencms.file.CmsObject)
+     */
+    @Override
+    public void initializeCms(CmsObject adminCms) {
+
+        if (m_transport == null) {
+            return;
+        }
+        m_cms = adminCms;
+        m_senderId = new CmsUUID().toString();
+        try {
+            m_transport.start(this);
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(
+                Messages.LOG_CLUSTER_EVENT_START_FAILED_1,
+                m_transport.getClass().getName()), e);
+            return;
+        }
+        m_sender = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: cluster event sender");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_CLUSTER_EVENTS_STARTED_2,
+                m_transport.getClass().getName(),
+                m_senderId));
+        }
+    }
+
+    /**
+     * Delivers a message received from another server to the local event listeners.<p>
+     *
+     * Messages sent by this server and messages that have already been received are ignored.<p>
+     *
+     * @param message the received message
+     */
+    public synchronized void receiveMessage(String message) {
+
+        String[] parts = message.split("\\" + SEPARATOR);
+        String sender;
+        long sequence;
+        int type;
+        try {
+            sender = parts[0];
+            sequence = Long.parseLong(parts[1]);
+            type = Integer.parseInt(parts[2]);
+        } catch (RuntimeException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_INVALID_1, message), e);
+            return;
+        }
+        if (sender.equals(m_senderId)) {
+            return;
+        }
+        Long last = m_received.get(sender);
+        if ((last != null) && (sequence <= last.longValue())) {
+            // duplicate message
+            return;
+        }
+        m_received.put(sender, new Long(sequence));
+        if ((last != null) && (sequence > (last.longValue() + 1))) {
+            LOG.warn(Messages.get().getBundle().key(
+                Messages.LOG_CLUSTER_EVENTS_MISSED_3,
+                new Long(sequence - last.longValue() - 1),
+                sender,
+                new Long(sequence)));
+            fireReceivedEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, new HashMap<String, Object>()));
+        }
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        boolean resolved = true;
+        for (int i = 3; i < parts.length; i++) {
+            int pos = parts[i].indexOf('=');
+            if ((pos < 1) || (pos == (parts[i].length() - 1))) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_INVALID_1, message));
+                return;
+            }
+            String key = CmsEncoder.decode(parts[i].substring(0, pos), ENCODING);
+            char valueType = parts[i].charAt(pos + 1);
+            String value = parts[i].substring(pos + 2);
+            if ((valueType == TYPE_RESOURCE) || (valueType == TYPE_RESOURCES)) {
+                List<CmsResource> resources = readResources(value);
+                if (resources == null) {
+                    resolved = false;
+                } else if (valueType == TYPE_RESOURCE) {
+                    data.put(key, resources.get(0));
+                } else {
+                    data.put(key, resources);
+                }
+            } else {
+                data.put(key, decodeValue(valueType, CmsEncoder.decode(value, ENCODING)));
+            }
+        }
+
+        switch (type) {
+            case I_CmsEventListener.EVENT_GROUP_MODIFIED:
+            case I_CmsEventListener.EVENT_OU_MODIFIED:
+            case I_CmsEventListener.EVENT_USER_MODIFIED:
+                OpenCms.getMemoryMonitor().clearPrincipalsCache();
+                break;
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                // the listeners expect a report and a database context for the publish event
+                data.put(I_CmsEventListener.KEY_REPORT, new CmsLogReport(
+                    CmsLocaleManager.getDefaultLocale(),
+                    CmsClusterEventManager.class));
+                data.put(I_CmsEventListener.KEY_DBCONTEXT, new CmsDbContext());
+                break;
+            default:
+                // nothing to prepare
+        }
+        if (resolved) {
+            fireReceivedEvent(new CmsEvent(type, data));
+        } else {
+            fireReceivedEvent(new CmsEvent(
+                I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES,
+                new HashMap<String, Object>()));
+        }
+    }
+
+    /**
+     * Stops the transport after all pending messages have been sent.<p>
+     *
+     * @see org.opencms.main.CmsEventManager#shutDown()
+     */
+    @Override
+    public void shutDown() {
+
+        if (m_sender == null) {
+            return;
+        }
+        ExecutorService sender;
+        synchronized (m_senderLock) {
+            sender = m_sender;
+            m_sender = null;
+        }
+        sender.shutdown();
+        try {
+            sender.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        m_transport.shutDown();
+    }
+
+    /**
+     * Decodes a simple event data value.<p>
+     *
+     * @param type the type character of the value
+     * @param value the decoded value string
+     *
+     * @return the value
+     */
+    private Object decodeValue(char type, String value) {
+
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return Boolean.valueOf(value);
+            case TYPE_INTEGER:
+                return Integer.valueOf(value);
+            case TYPE_LONG:
+                return Long.valueOf(value);
+            case TYPE_UUID:
+                return new CmsUUID(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Appends an event data value to the message, if its type can be sent.<p>
+     *
+     * @param message the message to append the value to
+     * @param key the key of the value
+     * @param value the value
+     */
+    private void encodeValue(StringBuffer message, String key, Object value) {
+
+        char type;
+        String encoded;
+        if (value instanceof String) {
+            type = TYPE_STRING;
+            encoded = CmsEncoder.encode((String)value, ENCODING);
+        } else if (value instanceof Integer) {
+            type = TYPE_INTEGER;
+            encoded = value.toString();
+        } else if (value instanceof Long) {
+            type = TYPE_LONG;
+            encoded = value.toString();
+        } else if (value instanceof Boolean) {
+            type = TYPE_BOOLEAN;
+            encoded = value.toString();
+        } else if (value instanceof CmsUUID) {
+            type = TYPE_UUID;
+            encoded = value.toString();
+        } else if (value instanceof CmsResource) {
+            type = TYPE_RESOURCE;
+            encoded = encodeResource((CmsResource)value);
+        } else if ((value instanceof List) && !((List<?>)value).isEmpty()) {
+            type = TYPE_RESOURCES;
+            StringBuffer resources = new StringBuffer();
+            for (Object resource : (List<?>)value) {
+                if (!(resource instanceof CmsResource)) {
+                    return;
+                }
+                if (resources.length() > 0) {
+                    resources.append(',');
+                }
+                resources.append(encodeResource((CmsResource)resource));
+            }
+            encoded = resources.toString();
+        } else {
+            // reports, database contexts and other objects are not sent
+            return;
+        }
+        message.append(SEPARATOR);
+        message.append(CmsEncoder.encode(key, ENCODING));
+        message.append('=');
+        message.append(type);
+        message.append(encoded);
+    }
+
+    /**
+     * Encodes a resource as structure id and root path.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the encoded resource, which contains no separator characters
+     */
+    private String encodeResource(CmsResource resource) {
+
+        return CmsEncoder.encode(resource.getStructureId() + ":" + resource.getRootPath(), ENCODING);
+    }
+
+    /**
+     * Delivers a received event to the local listeners without forwarding the events fired by the listeners.<p>
+     *
+     * @param event the event to deliver
+     */
+    private void fireReceivedEvent(CmsEvent event) {
+
+        m_receiving.set(Boolean.TRUE);
+        try {
+            super.fireEvent(event);
+        } finally {
+            m_receiving.remove();
+        }
+    }
+
+    /**
+     * Flushes the cached resources, resource lists, properties and permissions.<p>
+     */
+    private void flushResourceCaches() {
+
+        OpenCms.getMemoryMonitor().flushCache(
+            CmsMemoryMonitor.CacheType.ACL,
+            CmsMemoryMonitor.CacheType.PERMISSION,
+            CmsMemoryMonitor.CacheType.PROPERTY,
+            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+            CmsMemoryMonitor.CacheType.RESOURCE,
+            CmsMemoryMonitor.CacheType.RESOURCE_LIST);
+    }
+
+    /**
+     * Reads the encoded resources of a received message from the database.<p>
+     *
+     * The cached resources, properties and permissions of the resources are removed first, since they may have been
+     * changed by the sending server.<p>
+     *
+     * @param value the comma separated encoded resources
+     *
+     * @return the resources, or <code>null</code> if a resource could not be read
+     */
+    private List<CmsResource> readResources(String value) {
+
+        String[] encodedResources = value.split(",");
+        List<CmsUUID> structureIds = new ArrayList<CmsUUID>(encodedResources.length);
+        List<String> rootPaths = new ArrayList<String>(encodedResources.length);
+        for (String encoded : encodedResources) {
+            String resource = CmsEncoder.decode(encoded, ENCODING);
+            int pos = resource.indexOf(':');
+            try {
+                structureIds.add(new CmsUUID(resource.substring(0, pos)));
+            } catch (Exception e) {
+                LOG.info(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_RESOURCE_UNREADABLE_1, resource), e);
+                return null;
+            }
+            rootPaths.add(resource.substring(pos + 1));
+        }
+        uncacheResources(structureIds, rootPaths);
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        for (int i = 0; i < structureIds.size(); i++) {
+            try {
+                if (m_offlineCms == null) {
+                    CmsObject cms = OpenCms.initCmsObject(m_cms);
+                    for (CmsProject project : OpenCms.getOrgUnitManager().getAllAccessibleProjects(cms, "", true)) {
+                        if (!project.isOnlineProject()) {
+                            // all offline projects share the same offline resources
+                            cms.getRequestContext().setCurrentProject(project);
+                            m_offlineCms = cms;
+                            break;
+                        }
+                    }
+                }
+                CmsObject cms = m_offlineCms != null ? m_offlineCms : m_cms;
+                result.add(cms.readResource(structureIds.get(i), CmsResourceFilter.ALL));
+            } catch (Exception e) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_CLUSTER_EVENT_RESOURCE_UNREADABLE_1,
+                        structureIds.get(i) + ":" + rootPaths.get(i)),
+                    e);
+                return null;
+            }
+        }
+        for (CmsResource resource : result) {
+            if (resource.getSiblingCount() > 1) {
+                // siblings share their resource data and permissions, but their paths are not known here
+                flushResourceCaches();
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends an event to the other servers.<p>
+     *
+     * The message is created on the calling thread, since the event data may be changed later.<p>
+     *
+     * @param event the event to send
+     */
+    private void send(CmsEvent event) {
+
+        final StringBuffer message = new StringBuffer(128);
+        message.append(SEPARATOR);
+        message.append(event.getType());
+        for (Map.Entry<String, Object> entry : event.getData().entrySet()) {
+            encodeValue(message, entry.getKey(), entry.getValue());
+        }
+        synchronized (m_senderLock) {
+            ExecutorService sender = m_sender;
+            if (sender == null) {
+                // the sender has been shut down
+                return;
+            }
+            // the sequence number is assigned in the order the messages are queued
+            m_sequence++;
+            message.insert(0, m_sequence);
+            message.insert(0, SEPARATOR);
+            message.insert(0, m_senderId);
+            sender.execute(new Runnable() {
+
+                public void run() {
+
+                    for (int attempt = 1; attempt <= SEND_ATTEMPTS; attempt++) {
+                        try {
+                            m_transport.send(message.toString());
+                            return;
+                        } catch (IOException e) {
+                            if (attempt == SEND_ATTEMPTS) {
+                                // the receivers detect the gap in the sequence numbers only with the next message
+                                // of this server, until then they may work with outdated caches
+                                LOG.error(
+                                    Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_SEND_FAILED_1, message),
+                                    e);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the cached resources, resource lists, properties and permissions of the given resources.<p>
+     *
+     * The cached entries of the resources, of the resources in the sub tree of changed folders, and
+     * the cached resource lists of their parent folders are removed. If a folder has changed, the access control lists
+     * and permissions are flushed completely, since they are inherited by resources that are not known here.<p>
+     *
+     * @param structureIds the structure ids of the resources
+     * @param rootPaths the root paths of the resources
+     */
+    private void uncacheResources(final List<CmsUUID> structureIds, List<String> rootPaths) {
+
+        if (structureIds.size() > MAX_UNCACHED_RESOURCES) {
+            // checking every cache key for all resources would be slower than reading the resources again
+            flushResourceCaches();
+            return;
+        }
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        final Set<String> files = new HashSet<String>();
+        final Set<String> folders = new HashSet<String>();
+        final Set<String> parentFolders = new HashSet<String>();
+        for (String rootPath : rootPaths) {
+            if (CmsResource.isFolder(rootPath)) {
+                folders.add(rootPath);
+            } else {
+                files.add(rootPath);
+            }
+            String parentFolder = CmsResource.getParentFolder(rootPath);
+            while (parentFolder != null) {
+                parentFolders.add(parentFolder);
+                parentFolder = CmsResource.getParentFolder(parentFolder);
+            }
+        }
+
+        // the keys of resources and properties end with the root path, which is the only part starting with '/'
+        Predicate<Object> pathKeys = new Predicate<Object>() {
+
+            public boolean apply(Object key) {
+
+                String keyString = key.toString();
+                int pos = keyString.indexOf('/');
+                if (pos < 0) {
+                    return false;
+                }
+                String rootPath = keyString.substring(pos);
+                if (files.contains(rootPath)) {
+                    return true;
+                }
+                for (String folder : folders) {
+                    if (rootPath.startsWith(folder)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.RESOURCE, pathKeys);
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.PROPERTY, pathKeys);
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.PROPERTY_LIST, pathKeys);
+
+        // the keys of resource lists contain the root path of the folder the list was read from, enclosed in '_'
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.RESOURCE_LIST, new Predicate<Object>() {
+
+            public boolean apply(Object key) {
+
+                String keyString = key.toString();
+                for (String folder : folders) {
+                    if (keyString.contains("_" + folder)) {
+                        return true;
+                    }
+                }
+                for (String parentFolder : parentFolders) {
+                    if (keyString.contains("_" + parentFolder + "_")) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+
+        if (!folders.isEmpty()) {
+            monitor.flushCache(CmsMemoryMonitor.CacheType.ACL, CmsMemoryMonitor.CacheType.PERMISSION);
+            return;
+        }
+        // the keys of access control lists and permissions contain the structure id of the resource
+        Predicate<Object> structureIdKeys = new Predicate<Object>() {
+
+            public boolean apply(Object key) {
+
+                for (CmsUUID structureId : structureIds) {
+                    if (key instanceof CmsCompactCacheKey) {
+                        if (((CmsCompactCacheKey)key).containsId(structureId)) {
+                            return true;
+                        }
+                    } else if (key.toString().endsWith(structureId.toString())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.ACL, structureIdKeys);
+        monitor.uncacheMatching(CmsMemoryMonitor.CacheType.PERMISSION, structureIdKeys);
+    }
+}
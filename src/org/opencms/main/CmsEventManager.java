@@ -27,6 +27,8 @@
 
 package org.opencms.main;
 
+import org.opencms.file.CmsObject;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -139,6 +141,18 @@ public class CmsEventManager {
         fireEvent(new CmsEvent(type, data));
     }
 
+    /**
+     * Initializes this event manager with an admin cms context, after all other managers have been initialized.<p>
+     *
+     * The default implementation does nothing.<p>
+     *
+     * @param adminCms an admin cms context
+     */
+    public void initializeCms(CmsObject adminCms) {
+
+        // noop
+    }
+
     /**
      * Removes a cms event listener.<p>
      *
@@ -155,6 +169,16 @@ public class CmsEventManager {
         }
     }
 
+    /**
+     * Shuts down this event manager.<p>
+     *
+     * The default implementation does nothing.<p>
+     */
+    public void shutDown() {
+
+        // noop
+    }
+
     /**
      * Returns the map of all configured event listeners.<p>
      * 
@@ -0,0 +1,149 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.configuration.CmsParameterConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event transport that connects event managers inside the same JVM.<p>
+ *
+ * Messages are delivered synchronously to all other transports with the same channel name.
+ * This is intended for testing the cluster event handling without a network.<p>
+ *
+ * @since 9.5.0
+ */
+public class CmsLoopbackEventTransport implements I_CmsEventTransport {
+
+    /** The name of the default channel. */
+    public static final String DEFAULT_CHANNEL = "default";
+
+    /** The parameter for the channel name. */
+    public static final String PARAM_CHANNEL = "channel";
+
+    /** The started transports, with the channel name as key. */
+    private static final Map<String, List<CmsLoopbackEventTransport>> CHANNELS = new HashMap<String, List<CmsLoopbackEventTransport>>();
+
+    /** The name of the channel of this transport. */
+    private String m_channel;
+
+    /** The parameters of this transport. */
+    private CmsParameterConfiguration m_configuration;
+
+    /** The event manager to pass the received messages to. */
+    private CmsClusterEventManager m_eventManager;
+
+    /**
+     * Creates a new loopback transport.<p>
+     */
+    public CmsLoopbackEventTransport() {
+
+        m_channel = DEFAULT_CHANNEL;
+        m_configuration = new CmsParameterConfiguration();
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#addConfigurationParameter(java.lang.String, java.lang.String)
+     */
+    public void addConfigurationParameter(String paramName, String paramValue) {
+
+        m_configuration.add(paramName, paramValue);
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#getConfiguration()
+     */
+    public CmsParameterConfiguration getConfiguration() {
+
+        return m_configuration;
+    }
+
+    /**
+     * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#initConfiguration()
+     */
+    public void initConfiguration() {
+
+        m_channel = m_configuration.getString(PARAM_CHANNEL, DEFAULT_CHANNEL);
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventTransport#send(java.lang.String)
+     */
+    public void send(String message) {
+
+        List<CmsLoopbackEventTransport> transports;
+        synchronized (CHANNELS) {
+            List<CmsLoopbackEventTransport> channel = CHANNELS.get(m_channel);
+            if (channel == null) {
+                return;
+            }
+            transports = new ArrayList<CmsLoopbackEventTransport>(channel);
+        }
+        for (CmsLoopbackEventTransport transport : transports) {
+            if (transport != this) {
+                transport.m_eventManager.receiveMessage(message);
+            }
+        }
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventTransport#shutDown()
+     */
+    public void shutDown() {
+
+        synchronized (CHANNELS) {
+            List<CmsLoopbackEventTransport> channel = CHANNELS.get(m_channel);
+            if (channel != null) {
+                channel.remove(this);
+                if (channel.isEmpty()) {
+                    CHANNELS.remove(m_channel);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventTransport#start(org.opencms.main.CmsClusterEventManager)
+     */
+    public void start(CmsClusterEventManager eventManager) {
+
+        m_eventManager = eventManager;
+        synchronized (CHANNELS) {
+            List<CmsLoopbackEventTransport> channel = CHANNELS.get(m_channel);
+            if (channel == null) {
+                channel = new ArrayList<CmsLoopbackEventTransport>();
+                CHANNELS.put(m_channel, channel);
+            }
+            channel.add(this);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the startup tasks of the OpenCms core, respecting the declared dependencies between the tasks.<p>
+ *
+ * A task can only depend on tasks that have been added before it, so the order in which the tasks
+ * are added is always a valid sequential order. With one thread, the tasks run in exactly this order
+ * on the calling thread. With more threads, every task is started as soon as all of its dependencies
+ * are finished.<p>
+ *
+ * The duration of every task is written to the initialization log.<p>
+ *
+ * @since 9.5.0
+ */
+public class CmsStartupTaskRunner {
+
+    /**
+     * A single startup task.<p>
+     */
+    public interface I_CmsStartupTask {
+
+        /**
+         * Executes the task.<p>
+         *
+         * @throws CmsException if something goes wrong
+         */
+        void run() throws CmsException;
+    }
+
+    /**
+     * A startup task together with its dependencies.<p>
+     */
+    private static class CmsTaskEntry {
+
+        /** The names of the tasks this task depends on. */
+        protected List<String> m_dependencies;
+
+        /** The name of the task. */
+        protected String m_name;
+
+        /** The task. */
+        protected I_CmsStartupTask m_task;
+
+        /**
+         * Creates a new task entry.<p>
+         *
+         * @param name the name of the task
+         * @param task the task
+         * @param dependencies the names of the tasks this task depends on
+         */
+        protected CmsTaskEntry(String name, I_CmsStartupTask task, List<String> dependencies) {
+
+            m_name = name;
+            m_task = task;
+            m_dependencies = dependencies;
+        }
+    }
+
+    /** The tasks, with the task name as key, in the order they were added. */
+    private Map<String, CmsTaskEntry> m_tasks;
+
+    /** The number of threads used to run the tasks. */
+    private int m_threads;
+
+    /**
+     * Creates a new startup task runner.<p>
+     *
+     * @param threads the number of threads used to run the tasks, 1 to run the tasks on the calling thread
+     */
+    public CmsStartupTaskRunner(int threads) {
+
+        m_threads = Math.max(threads, 1);
+        m_tasks = new LinkedHashMap<String, CmsTaskEntry>();
+    }
+
+    /**
+     * Adds a task.<p>
+     *
+     * @param name the unique name of the task, used in the log
+     * @param task the task
+     * @param dependencies the names of the tasks that must be finished before this task starts
+     */
+    public void addTask(String name, I_CmsStartupTask task, String... dependencies) {
+
+        if (m_tasks.containsKey(name)) {
+            throw new IllegalArgumentException(name);
+        }
+        for (String dependency : dependencies) {
+            if (!m_tasks.containsKey(dependency)) {
+                // this also makes dependency cycles impossible
+                throw new IllegalArgumentException(dependency);
+            }
+        }
+        m_tasks.put(name, new CmsTaskEntry(name, task, Arrays.asList(dependencies)));
+    }
+
+    /**
+     * Runs all tasks and waits until they are finished.<p>
+     *
+     * If a task fails, no further tasks are started, and the error of the first failed task is thrown
+     * after all running tasks have finished.<p>
+     *
+     * @throws CmsException if a task fails
+     */
+    public void run() throws CmsException {
+
+        long start = System.currentTimeMillis();
+        if (m_threads == 1) {
+            for (CmsTaskEntry entry : m_tasks.values()) {
+                runTask(entry);
+            }
+        } else {
+            runParallel();
+        }
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_STARTUP_TASKS_FINISHED_3,
+                new Integer(m_tasks.size()),
+                new Integer(m_threads),
+                new Long(System.currentTimeMillis() - start)));
+        }
+    }
+
+    /**
+     * Runs the tasks with a thread pool.<p>
+     *
+     * @throws CmsException if a task fails
+     */
+    private void runParallel() throws CmsException {
+
+        ExecutorService executor = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+
+            private int m_count;
+
+            public synchronized Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms: startup worker " + (++m_count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+        List<CmsTaskEntry> pending = new ArrayList<CmsTaskEntry>(m_tasks.values());
+        Set<String> finished = new HashSet<String>();
+        Throwable error = null;
+        int running = 0;
+        try {
+            while (!pending.isEmpty() || (running > 0)) {
+                if (error == null) {
+                    // start all tasks with finished dependencies
+                    for (int i = 0; i < pending.size(); i++) {
+                        final CmsTaskEntry entry = pending.get(i);
+                        if (finished.containsAll(entry.m_dependencies)) {
+                            completion.submit(new Callable<String>() {
+
+                                public String call() throws Exception {
+
+                                    runTask(entry);
+                                    return entry.m_name;
+                                }
+                            });
+                            pending.remove(i--);
+                            running++;
+                        }
+                    }
+                } else {
+                    pending.clear();
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<String> done;
+                try {
+                    done = completion.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = e;
+                    break;
+                }
+                running--;
+                try {
+                    finished.add(done.get());
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = e;
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (error instanceof CmsException) {
+            throw (CmsException)error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException)error;
+        } else if (error instanceof Error) {
+            throw (Error)error;
+        } else if (error != null) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_STARTUP_TASKS_0), error);
+        }
+    }
+
+    /**
+     * Runs a single task and logs its duration.<p>
+     *
+     * @param entry the task to run
+     *
+     * @throws CmsException if the task fails
+     */
+    private void runTask(CmsTaskEntry entry) throws CmsException {
+
+        long start = System.currentTimeMillis();
+        entry.m_task.run();
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_STARTUP_TASK_FINISHED_2,
+                entry.m_name,
+                new Long(System.currentTimeMillis() - start)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.configuration.I_CmsConfigurationParameterHandler;
+
+import java.io.IOException;
+
+/**
+ * Transport used by the {@link CmsClusterEventManager} to exchange events with the other OpenCms servers
+ * of a cluster.<p>
+ *
+ * A transport delivers the messages sent by one server to all other servers, and passes
+ * the received messages to {@link CmsClusterEventManager#receiveMessage(String)}.
+ * The messages of one sender must be delivered in the order they have been sent.
+ * Lost or duplicate messages are detected by the event manager.<p>
+ *
+ * The transport is configured with the <code>transport.*</code> parameters of the event manager,
+ * without the <code>transport.</code> prefix.<p>
+ *
+ * @since 9.5.0
+ */
+public interface I_CmsEventTransport extends I_CmsConfigurationParameterHandler {
+
+    /**
+     * Sends a message to all other servers of the cluster.<p>
+     *
+     * @param message the message to send
+     *
+     * @throws IOException if sending the message fails
+     */
+    void send(String message) throws IOException;
+
+    /**
+     * Stops this transport.<p>
+     */
+    void shutDown();
+
+    /**
+     * Starts this transport.<p>
+     *
+     * @param eventManager the event manager to pass the received messages to
+     *
+     * @throws IOException if starting the transport fails
+     */
+    void start(CmsClusterEventManager eventManager) throws IOException;
+}
@@ -51,6 +51,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_ALREADY_INITIALIZED_0 = "ERR_ALREADY_INITIALIZED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_CLUSTER_EVENT_TRANSPORT_INVALID_1 = "ERR_CLUSTER_EVENT_TRANSPORT_INVALID_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_CONTEXT_INFO_FROZEN_0 = "ERR_CONTEXT_INFO_FROZEN_0";
 
@@ -141,6 +144,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_SHOW_ERR_HANDLER_RESOURCE_2 = "ERR_SHOW_ERR_HANDLER_RESOURCE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_STARTUP_TASKS_0 = "ERR_STARTUP_TASKS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_UNKNOWN_MODULE_1 = "ERR_UNKNOWN_MODULE_1";
 
@@ -261,6 +267,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_ADDED_REQUEST_HANDLER_2 = "INIT_ADDED_REQUEST_HANDLER_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_CLUSTER_EVENTS_STARTED_2 = "INIT_CLUSTER_EVENTS_STARTED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_CURRENT_RUNLEVEL_1 = "INIT_CURRENT_RUNLEVEL_1";
 
@@ -330,6 +339,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SHUTDOWN_TIME_1 = "INIT_SHUTDOWN_TIME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_TASKS_FINISHED_3 = "INIT_STARTUP_TASKS_FINISHED_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_TASK_FINISHED_2 = "INIT_STARTUP_TASK_FINISHED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_STARTUP_TIME_1 = "INIT_STARTUP_TIME_1";
 
@@ -342,6 +357,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_WEBINF_PATH_1 = "INIT_WEBINF_PATH_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENTS_MISSED_3 = "LOG_CLUSTER_EVENTS_MISSED_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENT_INVALID_1 = "LOG_CLUSTER_EVENT_INVALID_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENT_RESOURCE_UNREADABLE_1 = "LOG_CLUSTER_EVENT_RESOURCE_UNREADABLE_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENT_SEND_FAILED_1 = "LOG_CLUSTER_EVENT_SEND_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENT_START_FAILED_1 = "LOG_CLUSTER_EVENT_START_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CONSOLE_TOTAL_RUNTIME_1 = "LOG_CONSOLE_TOTAL_RUNTIME_1";
 
@@ -378,6 +408,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_DERIGISTERING_JDBC_DRIVER_1 = "LOG_ERROR_DERIGISTERING_JDBC_DRIVER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1 = "LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_EXPORT_1 = "LOG_ERROR_EXPORT_1";
 
@@ -420,6 +453,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_SITEMAP_MANAGER_SHUTDOWN_1 = "LOG_ERROR_SITEMAP_MANAGER_SHUTDOWN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_SUBSCRIPTION_MANAGER_SHUTDOWN_1 = "LOG_ERROR_SUBSCRIPTION_MANAGER_SHUTDOWN_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_THREAD_SHUTDOWN_1 = "LOG_ERROR_THREAD_SHUTDOWN_1";
 
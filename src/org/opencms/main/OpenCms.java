@@ -38,6 +38,7 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavigationIndex;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.loader.CmsTemplateContextManager;
 import org.opencms.module.CmsModuleManager;
@@ -338,6 +339,16 @@ public final class OpenCms {
         return OpenCmsCore.getInstance().getModuleManager();
     }
 
+    /**
+     * Returns the navigation index.<p>
+     * 
+     * @return the navigation index
+     */
+    public static CmsJspNavigationIndex getNavigationIndex() {
+
+        return OpenCmsCore.getInstance().getNavigationIndex();
+    }
+
     /**
      * Returns the organizational unit manager.<p>
      * 
@@ -65,6 +65,7 @@ import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavigationIndex;
 import org.opencms.jsp.util.CmsErrorBean;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.loader.CmsTemplateContextManager;
@@ -220,6 +221,9 @@ public final class OpenCmsCore {
     /** The module manager. */
     private CmsModuleManager m_moduleManager;
 
+    /** The navigation index. */
+    private CmsJspNavigationIndex m_navigationIndex;
+
     /** The organizational unit manager. */
     private CmsOrgUnitManager m_orgUnitManager;
 
@@ -567,6 +571,16 @@ public final class OpenCmsCore {
         return m_moduleManager;
     }
 
+    /**
+     * Returns the navigation index.<p>
+     *
+     * @return the navigation index
+     */
+    protected CmsJspNavigationIndex getNavigationIndex() {
+
+        return m_navigationIndex;
+    }
+
     /**
      * Returns the organizational unit manager.<p>
      *
@@ -1133,7 +1147,7 @@ public final class OpenCmsCore {
         }
 
         // get the system configuration
-        CmsSystemConfiguration systemConfiguration = (CmsSystemConfiguration)m_configurationManager.getConfiguration(CmsSystemConfiguration.class);
+        final CmsSystemConfiguration systemConfiguration = (CmsSystemConfiguration)m_configurationManager.getConfiguration(CmsSystemConfiguration.class);
 
         // initialize the memory monitor
         CmsMemoryMonitorConfiguration memoryMonitorConfiguration = systemConfiguration.getCmsMemoryMonitorConfiguration();
@@ -1318,10 +1332,10 @@ public final class OpenCmsCore {
         m_runtimeProperties.putAll(systemConfiguration.getRuntimeProperties());
 
         // initialize the session storage provider
-        I_CmsSessionStorageProvider sessionStorageProvider = systemConfiguration.getSessionStorageProvider();
+        final I_CmsSessionStorageProvider sessionStorageProvider = systemConfiguration.getSessionStorageProvider();
 
         // get an Admin cms context object with site root set to "/"
-        CmsObject adminCms;
+        final CmsObject adminCms;
         try {
             adminCms = initCmsObject(null, null, getDefaultUsers().getUserAdmin(), (String)null, (String)null);
         } catch (CmsException e) {
@@ -1329,68 +1343,147 @@ public final class OpenCmsCore {
         }
 
         m_repositoryManager.initializeCms(adminCms);
-        // now initialize the other managers
-        try {
-            // initialize the scheduler
-            m_scheduleManager.initialize(initCmsObject(adminCms));
+        // now initialize the other managers, tasks without dependencies between them may run in parallel
+        CmsStartupTaskRunner startupTasks = new CmsStartupTaskRunner(configuration.getInteger("startup.threads", 1));
+        startupTasks.addTask("scheduler", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize the scheduler
+                m_scheduleManager.initialize(initCmsObject(adminCms));
+            }
+        });
+        startupTasks.addTask("locales", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
 
-            // initialize the locale manager
-            m_localeManager = systemConfiguration.getLocaleManager();
-            m_localeManager.initialize(initCmsObject(adminCms));
+                // initialize the locale manager
+                m_localeManager = systemConfiguration.getLocaleManager();
+                m_localeManager.initialize(initCmsObject(adminCms));
+            }
+        }, "scheduler");
+        startupTasks.addTask("sites", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the site manager
-            m_siteManager.initialize(initCmsObject(adminCms));
+            public void run() throws CmsException {
 
-            // initialize the static export manager
-            m_staticExportManager.initialize(initCmsObject(adminCms));
+                // initialize the site manager
+                m_siteManager.initialize(initCmsObject(adminCms));
+            }
+        }, "locales");
+        startupTasks.addTask("staticexport", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the XML content type manager
-            m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
+            public void run() throws CmsException {
 
-            m_orgUnitManager.initialize(initCmsObject(adminCms));
+                // initialize the static export manager
+                m_staticExportManager.initialize(initCmsObject(adminCms));
+            }
+        }, "sites");
+        startupTasks.addTask("xmlcontenttypes", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the module manager
-            m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
+            public void run() throws CmsException {
 
-            // initialize the resource manager
-            m_resourceManager.initialize(initCmsObject(adminCms));
+                // initialize the XML content type manager
+                m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
+            }
+        }, "staticexport");
+        startupTasks.addTask("orgunits", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the publish manager
-            m_publishManager.setPublishEngine(m_publishEngine);
-            m_publishManager.setSecurityManager(m_securityManager);
-            m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
-            m_publishManager.initialize(initCmsObject(adminCms));
+            public void run() throws CmsException {
 
-            // initialize the search manager
-            m_searchManager.initialize(initCmsObject(adminCms));
+                m_orgUnitManager.initialize(initCmsObject(adminCms));
+            }
+        }, "xmlcontenttypes");
+        startupTasks.addTask("modules", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the VFS bundle manager
-            m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
+            public void run() throws CmsException {
 
-            // initialize the workplace manager
-            m_workplaceManager.initialize(initCmsObject(adminCms));
+                // initialize the module manager
+                m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
+            }
+        }, "orgunits");
+        startupTasks.addTask("resources", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize the session manager
-            m_sessionManager.initialize(sessionStorageProvider);
-            m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+            public void run() throws CmsException {
 
-            // initialize the subscription manager
-            m_subscriptionManager.setSecurityManager(m_securityManager);
-            m_subscriptionManager.initialize(adminCms);
+                // initialize the resource manager
+                m_resourceManager.initialize(initCmsObject(adminCms));
+            }
+        }, "modules");
+        startupTasks.addTask("publish", new CmsStartupTaskRunner.I_CmsStartupTask() {
 
-            // initialize ade manager
-            // initialize the formatter configuration
-            CmsFormatterConfiguration.initialize(adminCms);
-            CmsPersistentLoginTokenHandler.setAdminCms(adminCms);
-            //m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
-            m_adeManager = new CmsADEManager(adminCms, m_memoryMonitor, systemConfiguration);
-            m_templateContextManager = new CmsTemplateContextManager(adminCms);
-            m_workflowManager = systemConfiguration.getWorkflowManager();
-            if (m_workflowManager == null) {
-                m_workflowManager = new CmsDefaultWorkflowManager();
-                m_workflowManager.setParameters(new HashMap<String, String>());
+            public void run() throws CmsException {
+
+                // initialize the publish manager
+                m_publishManager.setPublishEngine(m_publishEngine);
+                m_publishManager.setSecurityManager(m_securityManager);
+                m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
+                m_publishManager.initialize(initCmsObject(adminCms));
+            }
+        }, "resources");
+        startupTasks.addTask("search", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize the search manager, this includes loading the Solr cores
+                m_searchManager.initialize(initCmsObject(adminCms));
             }
-            m_workflowManager.initialize(adminCms);
+        }, "publish");
+        startupTasks.addTask("vfsbundles", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() {
+
+                // initialize the VFS bundle manager
+                m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
+            }
+        }, "publish");
+        startupTasks.addTask("workplace", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize the workplace manager
+                m_workplaceManager.initialize(initCmsObject(adminCms));
+            }
+        }, "publish");
+        startupTasks.addTask("sessions", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize the session manager
+                m_sessionManager.initialize(sessionStorageProvider);
+                m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+            }
+        }, "publish");
+        startupTasks.addTask("subscriptions", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize the subscription manager
+                m_subscriptionManager.setSecurityManager(m_securityManager);
+                m_subscriptionManager.initialize(adminCms);
+            }
+        }, "publish");
+        startupTasks.addTask("ade", new CmsStartupTaskRunner.I_CmsStartupTask() {
+
+            public void run() throws CmsException {
+
+                // initialize ade manager
+                // initialize the formatter configuration
+                CmsFormatterConfiguration.initialize(adminCms);
+                CmsPersistentLoginTokenHandler.setAdminCms(adminCms);
+                //m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
+                m_adeManager = new CmsADEManager(adminCms, m_memoryMonitor, systemConfiguration);
+                m_templateContextManager = new CmsTemplateContextManager(adminCms);
+                m_navigationIndex = new CmsJspNavigationIndex(adminCms);
+                m_workflowManager = systemConfiguration.getWorkflowManager();
+                if (m_workflowManager == null) {
+                    m_workflowManager = new CmsDefaultWorkflowManager();
+                    m_workflowManager.setParameters(new HashMap<String, String>());
+                }
+                m_workflowManager.initialize(adminCms);
+            }
+        }, "vfsbundles", "workplace", "sessions", "subscriptions");
+        try {
+            startupTasks.run();
         } catch (CmsException e) {
             throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
         }
@@ -1400,6 +1493,9 @@ public final class OpenCmsCore {
         } catch (Exception e) {
             CmsLog.INIT.error("Problem with clearing caches after initialization: " + e.getLocalizedMessage(), e);
         }
+
+        // events from other servers must only be processed after all managers have been initialized
+        m_eventManager.initializeCms(adminCms);
     }
 
     /**
@@ -1767,6 +1863,14 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_PUBLISH_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                try {
+                    // stop exchanging events with the other servers before the managers are shut down
+                    m_eventManager.shutDown();
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
                 try {
                     // search manager must be shut down early since there may be background indexing still ongoing
                     if (m_searchManager != null) {
@@ -1787,6 +1891,16 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_VFSBUNDLE_MANAGER_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                try {
+                    // queued visits must be written before the database pools are closed
+                    if (m_subscriptionManager != null) {
+                        m_subscriptionManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_SUBSCRIPTION_MANAGER_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
                 try {
                     if (m_staticExportManager != null) {
                         m_staticExportManager.shutDown();
@@ -0,0 +1,100 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * The default cache factory, creates lock striped concurrent caches.<p>
+ * 
+ * Bounded caches are segmented Guava caches with size based eviction. Each segment evicts 
+ * its least recently used entries, and reads do not block on a shared monitor since 
+ * access order updates are buffered and applied in batches. Unbounded caches are plain 
+ * {@link ConcurrentHashMap} instances.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsConcurrentCacheFactory implements I_CmsMemoryCacheFactory {
+
+    /** The number of segments used for each cache. */
+    private final int m_concurrencyLevel;
+
+    /**
+     * Default constructor, uses a concurrency level based on the number of available processors.<p>
+     */
+    public CmsConcurrentCacheFactory() {
+
+        this(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a new cache factory with the given concurrency level.<p>
+     * 
+     * @param concurrencyLevel the number of segments used for each cache
+     */
+    public CmsConcurrentCacheFactory(int concurrencyLevel) {
+
+        m_concurrencyLevel = Math.max(1, concurrencyLevel);
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryCacheFactory#createCache(org.opencms.monitor.CmsMemoryMonitor.CacheType, int)
+     */
+    public <K, V> Map<K, V> createCache(CacheType type, int maxSize) {
+
+        ConcurrentMap<K, V> map;
+        if (maxSize > 0) {
+            // don't use more segments than entries, otherwise each segment would hold less than one entry
+            CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(
+                Math.min(m_concurrencyLevel, maxSize)).maximumSize(maxSize);
+            map = builder.<K, V> build().asMap();
+        } else {
+            map = new ConcurrentHashMap<K, V>(16, 0.75f, m_concurrencyLevel);
+            maxSize = -1;
+        }
+        return new CmsConcurrentCacheMap<K, V>(map, maxSize);
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryCacheFactory#getMaxSize(java.util.Map)
+     */
+    public int getMaxSize(Map<?, ?> cache) {
+
+        if (cache instanceof CmsConcurrentCacheMap) {
+            return ((CmsConcurrentCacheMap<?, ?>)cache).getMaxSize();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ForwardingConcurrentMap;
+
+/**
+ * A concurrent map used as cache by the {@link CmsConcurrentCacheFactory}.<p>
+ * 
+ * Decorates a concurrent map so that it tolerates <code>null</code> keys and values like the 
+ * {@link org.apache.commons.collections.map.LRUMap} previously used for the system caches: 
+ * <code>null</code> keys are never found, and putting a <code>null</code> value removes the entry.<p>
+ * 
+ * @param <K> the type of the cache keys
+ * @param <V> the type of the cached values
+ * 
+ * @since 9.5.0
+ */
+public class CmsConcurrentCacheMap<K, V> extends ForwardingConcurrentMap<K, V> {
+
+    /** The decorated concurrent map. */
+    private final ConcurrentMap<K, V> m_delegate;
+
+    /** The maximum number of entries, or -1 for an unbounded map. */
+    private final int m_maxSize;
+
+    /**
+     * Creates a new cache map.<p>
+     * 
+     * @param delegate the concurrent map to decorate
+     * @param maxSize the maximum number of entries of the decorated map, or -1 if it is unbounded
+     */
+    public CmsConcurrentCacheMap(ConcurrentMap<K, V> delegate, int maxSize) {
+
+        m_delegate = delegate;
+        m_maxSize = maxSize;
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        return (key != null) && super.containsKey(key);
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingMap#get(java.lang.Object)
+     */
+    @Override
+    public V get(Object key) {
+
+        if (key == null) {
+            return null;
+        }
+        return super.get(key);
+    }
+
+    /**
+     * Returns the maximum number of entries of this cache.<p>
+     * 
+     * @return the maximum number of entries, or <code>-1</code> if this cache is unbounded
+     */
+    public int getMaxSize() {
+
+        return m_maxSize;
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+
+        if (key == null) {
+            return null;
+        }
+        if (value == null) {
+            return super.remove(key);
+        }
+        return super.put(key, value);
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingMap#putAll(java.util.Map)
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingMap#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Object key) {
+
+        if (key == null) {
+            return null;
+        }
+        return super.remove(key);
+    }
+
+    /**
+     * @see com.google.common.collect.ForwardingConcurrentMap#delegate()
+     */
+    @Override
+    protected ConcurrentMap<K, V> delegate() {
+
+        return m_delegate;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+import org.opencms.util.CmsCollectionsGenericWrapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.commons.collections.map.LRUMap;
+
+/**
+ * A cache factory that creates synchronized {@link LRUMap} based caches.<p>
+ * 
+ * This was the only cache implementation available before the {@link CmsConcurrentCacheFactory} 
+ * was introduced. All access to a cache is serialized on a single monitor, so this factory 
+ * should only be configured if strict LRU eviction is required.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsLruMapCacheFactory implements I_CmsMemoryCacheFactory {
+
+    /** The maximum sizes of the created caches, since the synchronized wrapper hides the {@link LRUMap}. */
+    private final Map<Map<?, ?>, Integer> m_maxSizes = Collections.synchronizedMap(new IdentityHashMap<Map<?, ?>, Integer>());
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryCacheFactory#createCache(org.opencms.monitor.CmsMemoryMonitor.CacheType, int)
+     */
+    public <K, V> Map<K, V> createCache(CacheType type, int maxSize) {
+
+        Map<K, V> map;
+        if (maxSize > 0) {
+            map = CmsCollectionsGenericWrapper.createLRUMap(maxSize);
+        } else {
+            map = new HashMap<K, V>();
+        }
+        Map<K, V> result = Collections.synchronizedMap(map);
+        if (maxSize > 0) {
+            m_maxSizes.put(result, Integer.valueOf(maxSize));
+        }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryCacheFactory#getMaxSize(java.util.Map)
+     */
+    public int getMaxSize(Map<?, ?> cache) {
+
+        Integer maxSize = m_maxSizes.get(cache);
+        return maxSize != null ? maxSize.intValue() : -1;
+    }
+}
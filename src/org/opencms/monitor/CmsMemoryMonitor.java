@@ -46,6 +46,7 @@ import org.opencms.file.CmsUser;
 import org.opencms.flex.CmsFlexCache.CmsFlexCacheVariation;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.lock.CmsLock;
+import org.opencms.lock.CmsLockIndex;
 import org.opencms.lock.CmsLockManager;
 import org.opencms.mail.CmsMailTransport;
 import org.opencms.mail.CmsSimpleMail;
@@ -63,7 +64,6 @@ import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.CmsPermissionSet;
 import org.opencms.security.CmsRole;
 import org.opencms.security.I_CmsPermissionHandler;
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsDateUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
@@ -88,6 +88,8 @@ import org.apache.commons.collections.buffer.SynchronizedBuffer;
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 
+import com.google.common.base.Predicate;
+
 /**
  * Monitors OpenCms memory consumption.<p>
  * 
@@ -164,11 +166,14 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private static final int MAX_DEPTH = 5;
 
     /** Cache for access control lists. */
-    private Map<String, CmsAccessControlList> m_cacheAccessControlList;
+    private Map<Object, CmsAccessControlList> m_cacheAccessControlList;
 
     /** A temporary cache for XML content definitions. */
     private Map<String, CmsXmlContentDefinition> m_cacheContentDefinitions;
 
+    /** The factory used to create the caches. */
+    private I_CmsMemoryCacheFactory m_cacheFactory;
+
     /** Cache for groups. */
     private Map<String, CmsGroup> m_cacheGroup;
 
@@ -179,7 +184,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, Locale> m_cacheLocale;
 
     /** Cache for the resource locks. */
-    private Map<String, CmsLock> m_cacheLock;
+    private CmsLockIndex m_cacheLock;
 
     /** The memory object cache map. */
     private Map<String, Object> m_cacheMemObject;
@@ -188,7 +193,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, CmsOrganizationalUnit> m_cacheOrgUnit;
 
     /** Cache for permission checks. */
-    private Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
+    private Map<Object, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
 
     /** Cache for offline projects. */
     private Map<String, CmsProject> m_cacheProject;
@@ -528,7 +533,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param acl the acl to cache
      */
-    public void cacheACL(String key, CmsAccessControlList acl) {
+    public void cacheACL(Object key, CmsAccessControlList acl) {
 
         if (m_disabled.get(CacheType.ACL) != null) {
             return;
@@ -593,7 +598,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.LOCK) != null) {
             return;
         }
-        m_cacheLock.put(lock.getResourceName(), lock);
+        m_cacheLock.put(lock);
     }
 
     /**
@@ -630,7 +635,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param permission the permission check result to cache
      */
-    public void cachePermission(String key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+    public void cachePermission(Object key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
 
         if (m_disabled.get(CacheType.PERMISSION) != null) {
             return;
@@ -1121,11 +1126,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             return;
         }
         // initialize new lock cache
-        Map<String, CmsLock> newLockCache = Collections.synchronizedMap(newLocks);
+        CmsLockIndex newLockCache = new CmsLockIndex(newLocks);
         // register it
-        register(CmsLockManager.class.getName(), newLockCache);
+        register(CmsLockManager.class.getName(), newLockCache.getLockMap());
         // save the old cache
-        Map<String, CmsLock> oldCache = m_cacheLock;
+        CmsLockIndex oldCache = m_cacheLock;
         // replace the old by the new cache
         m_cacheLock = newLockCache;
         // clean up the old cache
@@ -1349,7 +1354,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<String> getAllCachedLockPaths() {
 
-        return new ArrayList<String>(m_cacheLock.keySet());
+        return m_cacheLock.getAllPaths();
     }
 
     /**
@@ -1359,7 +1364,49 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsLock> getAllCachedLocks() {
 
-        return new ArrayList<CmsLock>(m_cacheLock.values());
+        return m_cacheLock.getAll();
+    }
+
+    /**
+     * Returns all cached locks of the given resource and its sub-resources.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * 
+     * @return the cached locks of all resources whose root path starts with the given path
+     */
+    public List<CmsLock> getAllCachedLocksInSubtree(String rootPath) {
+
+        return m_cacheLock.getSubtreeLocks(rootPath);
+    }
+
+    /**
+     * Returns all cached locks which may belong to the given project.<p>
+     * 
+     * The returned list may contain locks which have been moved to another project in the meantime, 
+     * so callers have to check the project of each lock.<p>
+     * 
+     * @param projectId the project id
+     * 
+     * @return the cached locks which may belong to the given project
+     */
+    public List<CmsLock> getAllCachedLocksOfProject(CmsUUID projectId) {
+
+        return m_cacheLock.getProjectLocks(projectId);
+    }
+
+    /**
+     * Returns all cached locks which may belong to the given user.<p>
+     * 
+     * The returned list may contain locks which have been taken over by another user in the meantime, 
+     * so callers have to check the owner of each lock.<p>
+     * 
+     * @param userId the user id
+     * 
+     * @return the cached locks which may belong to the given user
+     */
+    public List<CmsLock> getAllCachedLocksOfUser(CmsUUID userId) {
+
+        return m_cacheLock.getUserLocks(userId);
     }
 
     /**
@@ -1391,7 +1438,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the ACL cached with the given cache key
      */
-    public CmsAccessControlList getCachedACL(String key) {
+    public CmsAccessControlList getCachedACL(Object key) {
 
         return m_cacheAccessControlList.get(key);
     }
@@ -1472,6 +1519,18 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return m_cacheOrgUnit.get(key);
     }
 
+    /**
+     * Returns the cached locks of all parent folders of the given resource.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * 
+     * @return the cached locks of the parent folders, nearest parent first
+     */
+    public List<CmsLock> getCachedParentLocks(String rootPath) {
+
+        return m_cacheLock.getParentLocks(rootPath);
+    }
+
     /**
      * Returns the permission check result cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1479,7 +1538,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the permission check result cached with the given cache key
      */
-    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
+    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(Object key) {
 
         return m_cachePermission.get(key);
     }
@@ -1821,71 +1880,61 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         }
 
         // create and register all system caches
+        m_cacheFactory = createCacheFactory(cacheSettings);
 
         // temporary xml entities cache
-        Map<String, byte[]> xmlTemporaryCache = CmsCollectionsGenericWrapper.createLRUMap(128);
-        m_cacheXmlTemporaryEntity = Collections.synchronizedMap(xmlTemporaryCache);
+        m_cacheXmlTemporaryEntity = m_cacheFactory.createCache(CacheType.XML_ENTITY_TEMP, 128);
         register(CmsXmlEntityResolver.class.getName() + ".xmlEntityTemporaryCache", m_cacheXmlTemporaryEntity);
 
         // permanent xml entities cache
-        Map<String, byte[]> xmlPermanentCache = new HashMap<String, byte[]>(32);
-        m_cacheXmlPermanentEntity = Collections.synchronizedMap(xmlPermanentCache);
+        m_cacheXmlPermanentEntity = m_cacheFactory.createCache(CacheType.XML_ENTITY_PERM, -1);
         register(CmsXmlEntityResolver.class.getName() + ".xmlEntityPermanentCache", m_cacheXmlPermanentEntity);
 
         // xml content definitions cache
-        Map<String, CmsXmlContentDefinition> contentDefinitionsCache = CmsCollectionsGenericWrapper.createLRUMap(64);
-        m_cacheContentDefinitions = Collections.synchronizedMap(contentDefinitionsCache);
+        m_cacheContentDefinitions = m_cacheFactory.createCache(CacheType.CONTENT_DEFINITION, 64);
         register(CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache", m_cacheContentDefinitions);
 
         // lock cache
-        Map<String, CmsLock> lockCache = new HashMap<String, CmsLock>();
-        m_cacheLock = Collections.synchronizedMap(lockCache);
-        register(CmsLockManager.class.getName(), lockCache);
+        m_cacheLock = new CmsLockIndex();
+        register(CmsLockManager.class.getName(), m_cacheLock.getLockMap());
 
         // locale cache
-        Map<String, Locale> map = new HashMap<String, Locale>();
-        m_cacheLocale = Collections.synchronizedMap(map);
-        register(CmsLocaleManager.class.getName(), map);
+        m_cacheLocale = m_cacheFactory.createCache(CacheType.LOCALE, -1);
+        register(CmsLocaleManager.class.getName(), m_cacheLocale);
 
         // permissions cache
-        Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> lruPermissions = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPermissionCacheSize());
-        m_cachePermission = Collections.synchronizedMap(lruPermissions);
-        register(CmsSecurityManager.class.getName(), lruPermissions);
+        m_cachePermission = m_cacheFactory.createCache(CacheType.PERMISSION, cacheSettings.getPermissionCacheSize());
+        register(CmsSecurityManager.class.getName(), m_cachePermission);
 
         // user cache
-        Map<String, CmsUser> lruUsers = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUser = Collections.synchronizedMap(lruUsers);
-        register(CmsDriverManager.class.getName() + ".userCache", lruUsers);
+        m_cacheUser = m_cacheFactory.createCache(CacheType.USER, cacheSettings.getUserCacheSize());
+        register(CmsDriverManager.class.getName() + ".userCache", m_cacheUser);
 
         // user list cache
-        Map<String, List<CmsUser>> lruUserList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUserList = Collections.synchronizedMap(lruUserList);
-        register(CmsDriverManager.class.getName() + ".userListCache", lruUserList);
+        m_cacheUserList = m_cacheFactory.createCache(CacheType.USER_LIST, cacheSettings.getUserCacheSize());
+        register(CmsDriverManager.class.getName() + ".userListCache", m_cacheUserList);
 
         // group cache
-        Map<String, CmsGroup> lruGroup = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupCacheSize());
-        m_cacheGroup = Collections.synchronizedMap(lruGroup);
-        register(CmsDriverManager.class.getName() + ".groupCache", lruGroup);
+        m_cacheGroup = m_cacheFactory.createCache(CacheType.GROUP, cacheSettings.getGroupCacheSize());
+        register(CmsDriverManager.class.getName() + ".groupCache", m_cacheGroup);
 
         // organizational unit cache
-        Map<String, CmsOrganizationalUnit> lruOrgUnit = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getOrgUnitCacheSize());
-        m_cacheOrgUnit = Collections.synchronizedMap(lruOrgUnit);
-        register(CmsDriverManager.class.getName() + ".orgUnitCache", lruOrgUnit);
+        m_cacheOrgUnit = m_cacheFactory.createCache(CacheType.ORG_UNIT, cacheSettings.getOrgUnitCacheSize());
+        register(CmsDriverManager.class.getName() + ".orgUnitCache", m_cacheOrgUnit);
 
         // user groups list cache
-        Map<String, List<CmsGroup>> lruUserGroups = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserGroupsCacheSize());
-        m_cacheUserGroups = Collections.synchronizedMap(lruUserGroups);
-        register(CmsDriverManager.class.getName() + ".userGroupsCache", lruUserGroups);
+        m_cacheUserGroups = m_cacheFactory.createCache(CacheType.USERGROUPS, cacheSettings.getUserGroupsCacheSize());
+        register(CmsDriverManager.class.getName() + ".userGroupsCache", m_cacheUserGroups);
 
         // project cache
-        Map<String, CmsProject> lruProjects = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectCacheSize());
-        m_cacheProject = Collections.synchronizedMap(lruProjects);
-        register(CmsDriverManager.class.getName() + ".projectCache", lruProjects);
+        m_cacheProject = m_cacheFactory.createCache(CacheType.PROJECT, cacheSettings.getProjectCacheSize());
+        register(CmsDriverManager.class.getName() + ".projectCache", m_cacheProject);
 
         // project resources cache cache
-        Map<String, List<CmsResource>> lruProjectResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectResourcesCacheSize());
-        m_cacheProjectResources = Collections.synchronizedMap(lruProjectResources);
-        register(CmsDriverManager.class.getName() + ".projectResourcesCache", lruProjectResources);
+        m_cacheProjectResources = m_cacheFactory.createCache(
+            CacheType.PROJECT_RESOURCES,
+            cacheSettings.getProjectResourcesCacheSize());
+        register(CmsDriverManager.class.getName() + ".projectResourcesCache", m_cacheProjectResources);
 
         // publish history
         int size = configuration.getPublishManager().getPublishHistorySize();
@@ -1899,54 +1948,48 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsPublishQueue.class.getName() + ".publishQueue", buffer);
 
         // resource cache
-        Map<String, CmsResource> lruResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
-        m_cacheResource = Collections.synchronizedMap(lruResources);
-        register(CmsDriverManager.class.getName() + ".resourceCache", lruResources);
+        m_cacheResource = m_cacheFactory.createCache(CacheType.RESOURCE, cacheSettings.getResourceCacheSize());
+        register(CmsDriverManager.class.getName() + ".resourceCache", m_cacheResource);
 
         // roles cache
-        Map<String, Boolean> lruHasRoles = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheHasRoles = Collections.synchronizedMap(lruHasRoles);
-        register(CmsDriverManager.class.getName() + ".rolesCache", lruHasRoles);
+        m_cacheHasRoles = m_cacheFactory.createCache(CacheType.HAS_ROLE, cacheSettings.getRolesCacheSize());
+        register(CmsDriverManager.class.getName() + ".rolesCache", m_cacheHasRoles);
 
         // role lists cache
-        Map<String, List<CmsRole>> lruRoleLists = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheRoleLists = Collections.synchronizedMap(lruRoleLists);
-        register(CmsDriverManager.class.getName() + ".roleListsCache", lruRoleLists);
+        m_cacheRoleLists = m_cacheFactory.createCache(CacheType.ROLE_LIST, cacheSettings.getRolesCacheSize());
+        register(CmsDriverManager.class.getName() + ".roleListsCache", m_cacheRoleLists);
 
         // resource list cache
-        Map<String, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
-        m_cacheResourceList = Collections.synchronizedMap(lruResourceList);
-        register(CmsDriverManager.class.getName() + ".resourceListCache", lruResourceList);
+        m_cacheResourceList = m_cacheFactory.createCache(
+            CacheType.RESOURCE_LIST,
+            cacheSettings.getResourcelistCacheSize());
+        register(CmsDriverManager.class.getName() + ".resourceListCache", m_cacheResourceList);
 
         // property cache
-        Map<String, CmsProperty> lruProperty = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyCacheSize());
-        m_cacheProperty = Collections.synchronizedMap(lruProperty);
-        register(CmsDriverManager.class.getName() + ".propertyCache", lruProperty);
+        m_cacheProperty = m_cacheFactory.createCache(CacheType.PROPERTY, cacheSettings.getPropertyCacheSize());
+        register(CmsDriverManager.class.getName() + ".propertyCache", m_cacheProperty);
 
         // property list cache
-        Map<String, List<CmsProperty>> lruPropertyList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyListsCacheSize());
-        m_cachePropertyList = Collections.synchronizedMap(lruPropertyList);
-        register(CmsDriverManager.class.getName() + ".propertyListCache", lruPropertyList);
+        m_cachePropertyList = m_cacheFactory.createCache(
+            CacheType.PROPERTY_LIST,
+            cacheSettings.getPropertyListsCacheSize());
+        register(CmsDriverManager.class.getName() + ".propertyListCache", m_cachePropertyList);
 
         // published resources list cache
-        Map<String, List<CmsPublishedResource>> lruPublishedResources = CmsCollectionsGenericWrapper.createLRUMap(5);
-        m_cachePublishedResources = Collections.synchronizedMap(lruPublishedResources);
-        register(CmsDriverManager.class.getName() + ".publishedResourcesCache", lruPublishedResources);
+        m_cachePublishedResources = m_cacheFactory.createCache(CacheType.PUBLISHED_RESOURCES, 5);
+        register(CmsDriverManager.class.getName() + ".publishedResourcesCache", m_cachePublishedResources);
 
         // acl cache
-        Map<String, CmsAccessControlList> lruAcl = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getAclCacheSize());
-        m_cacheAccessControlList = Collections.synchronizedMap(lruAcl);
-        register(CmsDriverManager.class.getName() + ".accessControlListCache", lruAcl);
+        m_cacheAccessControlList = m_cacheFactory.createCache(CacheType.ACL, cacheSettings.getAclCacheSize());
+        register(CmsDriverManager.class.getName() + ".accessControlListCache", m_cacheAccessControlList);
 
         // vfs object cache
-        Map<String, Object> vfsObjectCache = new HashMap<String, Object>();
-        m_cacheVfsObject = Collections.synchronizedMap(vfsObjectCache);
-        register(CmsVfsMemoryObjectCache.class.getName(), vfsObjectCache);
+        m_cacheVfsObject = m_cacheFactory.createCache(CacheType.VFS_OBJECT, -1);
+        register(CmsVfsMemoryObjectCache.class.getName(), m_cacheVfsObject);
 
         // memory object cache
-        Map<String, Object> memObjectCache = new HashMap<String, Object>();
-        m_cacheMemObject = Collections.synchronizedMap(memObjectCache);
-        register(CmsMemoryObjectCache.class.getName(), memObjectCache);
+        m_cacheMemObject = m_cacheFactory.createCache(CacheType.MEMORY_OBJECT, -1);
+        register(CmsMemoryObjectCache.class.getName(), m_cacheMemObject);
 
         if (LOG.isDebugEnabled()) {
             // this will happen only once during system startup
@@ -2224,6 +2267,52 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheLock.remove(rootPath);
     }
 
+    /**
+     * Removes all entries with a key accepted by the given predicate from the given cache.<p>
+     * 
+     * This is used to remove the entries of single resources from the resource related caches, 
+     * without knowing their exact keys. The other caches are flushed completely.<p>
+     * 
+     * @param type the cache type, one of ACL, PERMISSION, PROPERTY, PROPERTY_LIST, RESOURCE or RESOURCE_LIST
+     * @param keyPredicate the predicate that accepts the keys of the entries to remove
+     */
+    public void uncacheMatching(CacheType type, Predicate<Object> keyPredicate) {
+
+        Map<?, ?> cache;
+        switch (type) {
+            case ACL:
+                cache = m_cacheAccessControlList;
+                break;
+            case PERMISSION:
+                cache = m_cachePermission;
+                break;
+            case PROPERTY:
+                cache = m_cacheProperty;
+                break;
+            case PROPERTY_LIST:
+                cache = m_cachePropertyList;
+                break;
+            case RESOURCE:
+                cache = m_cacheResource;
+                break;
+            case RESOURCE_LIST:
+                cache = m_cacheResourceList;
+                break;
+            default:
+                flushCache(type);
+                return;
+        }
+        // synchronized maps must be locked while iterating, concurrent maps are not affected by this
+        synchronized (cache) {
+            Iterator<?> keys = cache.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keyPredicate.apply(keys.next())) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
     /**
      * Removes the given organizational unit from the cache.<p>
      * 
@@ -2324,6 +2413,38 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         System.gc();
     }
 
+    /**
+     * Creates the cache factory configured in the given cache settings.<p>
+     * 
+     * Falls back to the {@link CmsConcurrentCacheFactory} if no factory is configured 
+     * or the configured class can not be instantiated.<p>
+     * 
+     * @param cacheSettings the cache settings
+     * 
+     * @return the cache factory to use
+     */
+    protected I_CmsMemoryCacheFactory createCacheFactory(CmsCacheSettings cacheSettings) {
+
+        I_CmsMemoryCacheFactory factory = null;
+        String className = cacheSettings.getCacheFactory();
+        if (className != null) {
+            try {
+                factory = (I_CmsMemoryCacheFactory)Class.forName(className).newInstance();
+            } catch (Exception e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_MM_CACHE_FACTORY_INIT_FAILED_1, className), e);
+            }
+        }
+        if (factory == null) {
+            factory = new CmsConcurrentCacheFactory();
+        }
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.LOG_MM_CACHE_FACTORY_1,
+                factory.getClass().getName()));
+        }
+        return factory;
+    }
+
     /**
      * Returns the cache costs of a monitored object.<p>
      * 
@@ -2435,7 +2556,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Returns the max costs for all items within a monitored object.<p>
      * 
-     * <code>obj</code> must be of type {@link CmsLruCache} or {@link LRUMap}.<p>
+     * <code>obj</code> must be of type {@link CmsLruCache}, {@link LRUMap} or a map created by the 
+     * configured {@link I_CmsMemoryCacheFactory}.<p>
      * 
      * @param obj the object
      * 
@@ -2449,6 +2571,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (obj instanceof LRUMap) {
             return Integer.toString(((LRUMap)obj).maxSize());
         }
+        if ((obj instanceof Map) && (m_cacheFactory != null)) {
+            int maxSize = m_cacheFactory.getMaxSize((Map<?, ?>)obj);
+            if (maxSize > 0) {
+                return Integer.toString(maxSize);
+            }
+        }
 
         return "-";
     }
@@ -0,0 +1,72 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.Map;
+
+/**
+ * Creates the maps used by the {@link CmsMemoryMonitor} to store the system caches.<p>
+ * 
+ * All maps created by an implementation must be safe for concurrent access by multiple threads
+ * without additional external synchronization, since the memory monitor does not lock them.<p>
+ * 
+ * The implementation to use is configured with the <code>cachefactory</code> node of the 
+ * <code>resultcache</code> settings in <code>opencms-system.xml</code>.<p>
+ * 
+ * @since 9.5.0
+ */
+public interface I_CmsMemoryCacheFactory {
+
+    /**
+     * Creates a new thread safe cache map.<p>
+     * 
+     * If <code>maxSize</code> is greater than zero, the returned map must not hold more 
+     * than (approximately) the given number of entries, and evicts the least valuable 
+     * entries according to the policy of the implementation. Otherwise the returned map is unbounded.<p>
+     * 
+     * @param <K> the type of the cache keys
+     * @param <V> the type of the cached values
+     * @param type the type of the cache to create
+     * @param maxSize the maximum number of entries, or a value <code>&lt;= 0</code> for an unbounded cache
+     * 
+     * @return a new thread safe cache map
+     */
+    <K, V> Map<K, V> createCache(CacheType type, int maxSize);
+
+    /**
+     * Returns the maximum number of entries of a map created by this factory.<p>
+     * 
+     * @param cache the cache map 
+     * 
+     * @return the maximum number of entries, or <code>-1</code> if the map is unbounded or unknown to this factory
+     */
+    int getMaxSize(Map<?, ?> cache);
+}
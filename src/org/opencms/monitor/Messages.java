@@ -43,6 +43,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLEAR_CACHE_MEM_CONS_0 = "LOG_CLEAR_CACHE_MEM_CONS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_CACHE_FACTORY_1 = "LOG_MM_CACHE_FACTORY_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_CACHE_FACTORY_INIT_FAILED_1 = "LOG_MM_CACHE_FACTORY_INIT_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_CONNECTIONS_3 = "LOG_MM_CONNECTIONS_3";
 
@@ -50,16 +50,22 @@ import org.opencms.security.CmsAuthentificationException;
 import org.opencms.security.CmsRole;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.logging.Log;
 
 /**
  * This class is responsible for the publish process.<p>
  * 
+ * Publish jobs are taken from the publish queue in the order they have been enqueued. 
+ * Up to the configured number of publish jobs are published at the same time, as long as their
+ * publish lists do not conflict. Conflicting publish jobs are published one after the other.<p>
+ * 
  * @since 6.5.5
  */
 public final class CmsPublishEngine {
@@ -70,9 +76,6 @@ public final class CmsPublishEngine {
     /** The id of the admin user. */
     private CmsUUID m_adminUserId;
 
-    /** The current running publish job. */
-    private CmsPublishThread m_currentPublishThread;
-
     /** The runtime info factory used during publishing. */
     private final I_CmsDbContextFactory m_dbContextFactory;
 
@@ -85,6 +88,9 @@ public final class CmsPublishEngine {
     /** The publish listeners. */
     private final CmsPublishListenerCollection m_listeners;
 
+    /** The maximum number of publish jobs that are published at the same time. */
+    private int m_maxPublishThreads;
+
     /** The publish history list with already published jobs. */
     private final CmsPublishHistory m_publishHistory;
 
@@ -94,6 +100,9 @@ public final class CmsPublishEngine {
     /** The amount of time the system will wait for a running publish job during shutdown. */
     private int m_publishQueueShutdowntime;
 
+    /** The running publish threads, in the order they have been started. */
+    private final List<CmsPublishThread> m_publishThreads;
+
     /** Is set during shutdown. */
     private boolean m_shuttingDown;
 
@@ -124,6 +133,9 @@ public final class CmsPublishEngine {
         m_publishHistory = new CmsPublishHistory(this);
         // initialize event handling
         m_listeners = new CmsPublishListenerCollection(this);
+        // initialize the running publish threads
+        m_publishThreads = new CopyOnWriteArrayList<CmsPublishThread>();
+        m_maxPublishThreads = 1;
         // set engine state to normal processing
         m_engineState = CmsPublishEngineState.ENGINE_STARTED;
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -132,33 +144,23 @@ public final class CmsPublishEngine {
     }
 
     /**
-     * Abandons the given publish thread.<p>
+     * Abandons the current publish thread, that is the publish thread that has been running the longest.<p>
      */
     public void abandonThread() {
 
-        if (!m_currentPublishThread.isAlive()) {
-            // thread is dead
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_PUBLISH_ENGINE_DEAD_JOB_0));
-            }
-        } else {
-            // thread is not dead, and we suppose it hangs :(
-            if (LOG.isWarnEnabled()) {
-                LOG.warn(Messages.get().getBundle().key(
-                    Messages.LOG_THREADSTORE_PUBLISH_THREAD_INTERRUPT_2,
-                    m_currentPublishThread.getName(),
-                    m_currentPublishThread.getUUID()));
-            }
-            m_currentPublishThread.interrupt();
+        CmsPublishThread thread = getCurrentPublishJob();
+        if (thread != null) {
+            abandonThread(thread);
         }
-        // just throw it away
-        m_currentPublishThread = null;
         // and try again
         checkCurrentPublishJobThread();
     }
 
     /**
      * Controls the publish process.<p>
+     * 
+     * Dead publish threads are removed and waiting publish jobs are started 
+     * as long as the maximum number of concurrent publish jobs is not reached.<p>
      */
     public synchronized void checkCurrentPublishJobThread() {
 
@@ -185,31 +187,36 @@ public final class CmsPublishEngine {
             return;
         }
 
-        // there is no running publish job
-        if (m_currentPublishThread == null) {
-            // but something is waiting in the queue
-            if (!m_publishQueue.isEmpty()) {
-                // start the next waiting publish job
-                CmsPublishJobInfoBean publishJob = m_publishQueue.next();
-                m_currentPublishThread = new CmsPublishThread(this, publishJob);
-                m_currentPublishThread.start();
-            } else {
-                // nothing to do
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_PUBLISH_ENGINE_NO_RUNNING_JOB_0));
-                }
+        // clean up dead threads
+        for (CmsPublishThread thread : m_publishThreads) {
+            if (!thread.isAlive()) {
+                abandonThread(thread);
             }
-            return;
         }
-        if (m_currentPublishThread.isAlive()) {
-            // normal running
-            // wait until it is finished
-            if (LOG.isDebugEnabled()) {
+
+        // start as many waiting publish jobs as possible
+        while (m_publishThreads.size() < m_maxPublishThreads) {
+            List<CmsPublishJobInfoBean> runningJobs = new ArrayList<CmsPublishJobInfoBean>();
+            for (CmsPublishThread thread : m_publishThreads) {
+                runningJobs.add(thread.getPublishJob());
+            }
+            CmsPublishJobInfoBean publishJob = m_publishQueue.next(runningJobs);
+            if (publishJob == null) {
+                // nothing to do, or all waiting jobs conflict with a running job
+                break;
+            }
+            CmsPublishThread thread = new CmsPublishThread(this, publishJob);
+            m_publishThreads.add(thread);
+            thread.start();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            if (m_publishThreads.isEmpty()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_PUBLISH_ENGINE_NO_RUNNING_JOB_0));
+            } else {
+                // normal running, wait until the jobs are finished
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_PUBLISH_ENGINE_WAITING_0));
             }
-        } else {
-            // clean up the dead thread
-            abandonThread();
         }
     }
 
@@ -271,10 +278,11 @@ public final class CmsPublishEngine {
      */
     public CmsPublishJobBase getJobByPublishHistoryId(CmsUUID publishHistoryId) {
 
-        // try current running job
-        if ((m_currentPublishThread != null)
-            && m_currentPublishThread.getPublishJob().getPublishHistoryId().equals(publishHistoryId)) {
-            return new CmsPublishJobRunning(m_currentPublishThread.getPublishJob());
+        // try running jobs
+        for (CmsPublishThread thread : m_publishThreads) {
+            if (thread.getPublishJob().getPublishHistoryId().equals(publishHistoryId)) {
+                return new CmsPublishJobRunning(thread.getPublishJob());
+            }
         }
         // try enqueued jobs
         Iterator<CmsPublishJobEnqueued> itEnqueuedJobs = getPublishQueue().asList().iterator();
@@ -332,10 +340,10 @@ public final class CmsPublishEngine {
         // prevent new publish jobs are accepted
         m_shuttingDown = true;
 
-        // if a job is currently running, 
+        // if jobs are currently running, 
         // wait the specified amount of time,
-        // then write an abort message to the report
-        if (m_currentPublishThread != null) {
+        // then write an abort message to the reports
+        if (!m_publishThreads.isEmpty()) {
 
             // if a shutdown time is defined, wait  if a publish process is running
             if (m_publishQueueShutdowntime > 0) {
@@ -348,8 +356,8 @@ public final class CmsPublishEngine {
                 }
             }
 
-            if (m_currentPublishThread != null) {
-                CmsPublishJobInfoBean publishJob = m_currentPublishThread.getPublishJob();
+            for (CmsPublishThread thread : m_publishThreads) {
+                CmsPublishJobInfoBean publishJob = thread.getPublishJob();
                 try {
                     abortPublishJob(m_adminUserId, new CmsPublishJobEnqueued(publishJob), false);
                 } catch (CmsException e) {
@@ -395,8 +403,9 @@ public final class CmsPublishEngine {
         // abort event should be raised before the job is removed implicitly
         m_listeners.fireAbort(userId, publishJob);
 
-        if ((m_currentPublishThread == null) || !publishJob.m_publishJob.equals(m_currentPublishThread.getPublishJob())) {
-            // engine is currently publishing another job or is not publishing
+        CmsPublishThread publishThread = getPublishThread(publishJob.m_publishJob);
+        if (publishThread == null) {
+            // engine is currently publishing other jobs or is not publishing
             if (!m_publishQueue.abortPublishJob(publishJob.m_publishJob)) {
                 // job not found
                 throw new CmsPublishException(Messages.get().container(
@@ -404,10 +413,10 @@ public final class CmsPublishEngine {
             }
         } else if (!m_shuttingDown) {
             // engine is currently publishing the job to abort
-            m_currentPublishThread.abort();
-        } else if (m_shuttingDown && (m_currentPublishThread != null)) {
-            // aborting the current job during shut down
-            I_CmsReport report = m_currentPublishThread.getReport();
+            publishThread.abort();
+        } else {
+            // aborting a running job during shut down
+            I_CmsReport report = publishThread.getReport();
             report.println();
             report.println();
             report.println(
@@ -455,19 +464,20 @@ public final class CmsPublishEngine {
 
         m_engineState = CmsPublishEngineState.ENGINE_STARTED;
         // start publish job if jobs waiting
-        if ((m_currentPublishThread == null) && !m_publishQueue.isEmpty()) {
+        if (!m_publishQueue.isEmpty()) {
             checkCurrentPublishJobThread();
         }
     }
 
     /**
-     * Returns the current running publish job.<p>
+     * Returns the current running publish job, that is the publish job that has been running the longest.<p>
      * 
-     * @return the current running publish job
+     * @return the current running publish job, or <code>null</code> if no job is running
      */
     protected CmsPublishThread getCurrentPublishJob() {
 
-        return m_currentPublishThread;
+        Iterator<CmsPublishThread> it = m_publishThreads.iterator();
+        return it.hasNext() ? it.next() : null;
     }
 
     /**
@@ -512,6 +522,16 @@ public final class CmsPublishEngine {
         return m_publishQueue;
     }
 
+    /**
+     * Returns the threads of the running publish jobs, in the order they have been started.<p>
+     * 
+     * @return the threads of the running publish jobs
+     */
+    protected List<CmsPublishThread> getRunningPublishJobs() {
+
+        return new ArrayList<CmsPublishThread>(m_publishThreads);
+    }
+
     /**
      * Returns the content of the publish report assigned to the given publish job.<p>
      * 
@@ -563,11 +583,15 @@ public final class CmsPublishEngine {
      * @param adminCms the admin cms
      * @param publishQueuePersistance flag if the queue is persisted
      * @param publishQueueShutdowntime amount of time to wait for a publish job during shutdown
+     * @param maxPublishThreads the maximum number of publish jobs that are published at the same time
      * 
      * @throws CmsException if something goes wrong
      */
-    protected void initialize(CmsObject adminCms, boolean publishQueuePersistance, int publishQueueShutdowntime)
-    throws CmsException {
+    protected void initialize(
+        CmsObject adminCms,
+        boolean publishQueuePersistance,
+        int publishQueueShutdowntime,
+        int maxPublishThreads) throws CmsException {
 
         // check the driver manager
         if ((m_driverManager == null) || (m_dbContextFactory == null)) {
@@ -575,6 +599,7 @@ public final class CmsPublishEngine {
         }
 
         m_publishQueueShutdowntime = publishQueueShutdowntime;
+        m_maxPublishThreads = Math.max(1, maxPublishThreads);
 
         // initially the engine is stopped, must be restartet after full system initialization
         m_engineState = CmsPublishEngineState.ENGINE_STOPPED;
@@ -593,7 +618,7 @@ public final class CmsPublishEngine {
      */
     protected boolean isRunning() {
 
-        return (((m_engineState == CmsPublishEngineState.ENGINE_STARTED) && !m_publishQueue.isEmpty()) || (m_currentPublishThread != null));
+        return (((m_engineState == CmsPublishEngineState.ENGINE_STARTED) && !m_publishQueue.isEmpty()) || !m_publishThreads.isEmpty());
     }
 
     /**
@@ -688,10 +713,8 @@ public final class CmsPublishEngine {
             // log failure, most likely a database problem
             LOG.error(t.getLocalizedMessage(), t);
         }
-        if (Thread.currentThread() == m_currentPublishThread) {
-            // wipe the dead thread, only if this thread has not been abandoned
-            m_currentPublishThread = null;
-        }
+        // wipe the dead thread, does nothing if this thread has been abandoned
+        m_publishThreads.remove(Thread.currentThread());
         // clear the published resources cache
         OpenCms.getMemoryMonitor().flushCache(CmsMemoryMonitor.CacheType.PUBLISHED_RESOURCES);
         // try to start a new publish job
@@ -766,7 +789,7 @@ public final class CmsPublishEngine {
         if (m_engineState != CmsPublishEngineState.ENGINE_STARTED) {
             m_engineState = CmsPublishEngineState.ENGINE_STARTED;
             // start publish job if jobs waiting
-            if ((m_currentPublishThread == null) && !m_publishQueue.isEmpty()) {
+            if (!m_publishQueue.isEmpty()) {
                 checkCurrentPublishJobThread();
             }
         }
@@ -807,6 +830,49 @@ public final class CmsPublishEngine {
         }
     }
 
+    /**
+     * Abandons the given publish thread.<p>
+     * 
+     * @param thread the publish thread to abandon
+     */
+    private void abandonThread(CmsPublishThread thread) {
+
+        if (!thread.isAlive()) {
+            // thread is dead
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_PUBLISH_ENGINE_DEAD_JOB_0));
+            }
+        } else {
+            // thread is not dead, and we suppose it hangs :(
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_THREADSTORE_PUBLISH_THREAD_INTERRUPT_2,
+                    thread.getName(),
+                    thread.getUUID()));
+            }
+            thread.interrupt();
+        }
+        // just throw it away
+        m_publishThreads.remove(thread);
+    }
+
+    /**
+     * Returns the running publish thread for the given publish job.<p>
+     * 
+     * @param publishJob the publish job
+     * 
+     * @return the running publish thread for the given publish job, or <code>null</code> if the job is not running
+     */
+    private CmsPublishThread getPublishThread(CmsPublishJobInfoBean publishJob) {
+
+        for (CmsPublishThread thread : m_publishThreads) {
+            if (publishJob.equals(thread.getPublishJob())) {
+                return thread;
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns <code>true</code> if the login manager allows login.<p>
      * 
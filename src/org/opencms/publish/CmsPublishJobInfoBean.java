@@ -30,6 +30,7 @@ package org.opencms.publish;
 import org.opencms.db.CmsPublishList;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.main.CmsContextInfo;
 import org.opencms.main.CmsException;
@@ -38,7 +39,9 @@ import org.opencms.main.OpenCms;
 import org.opencms.report.I_CmsReport;
 import org.opencms.util.CmsUUID;
 
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Publish job information bean.<p>
@@ -83,6 +86,12 @@ public final class CmsPublishJobInfoBean {
     /** Report to log the publish job to, will be set to <code>null</code> after publishing. */
     private I_CmsReport m_report;
 
+    /** The structure and resource ids of the resources to publish, used to detect conflicts with other publish jobs. */
+    private Set<CmsUUID> m_resourceIds;
+
+    /** The root paths of the resources to publish, used to detect conflicts with other publish jobs. */
+    private Set<String> m_resourcePaths;
+
     /** Number of resources to publish. */
     private int m_size;
 
@@ -349,6 +358,7 @@ public final class CmsPublishJobInfoBean {
 
         m_publishList = publishList;
         m_publishList.revive(m_cms);
+        initResourceIndex();
     }
 
     /**
@@ -395,6 +405,7 @@ public final class CmsPublishJobInfoBean {
         if (m_enqueueTime == 0L) {
             m_enqueueTime = System.currentTimeMillis();
         }
+        initResourceIndex();
     }
 
     /**
@@ -410,6 +421,8 @@ public final class CmsPublishJobInfoBean {
         m_report = null;
         m_size = m_publishList.size();
         m_publishList = null;
+        m_resourceIds = null;
+        m_resourcePaths = null;
         if (m_publishReport instanceof CmsPublishReport) {
             ((CmsPublishReport)m_publishReport).finish();
         }
@@ -437,6 +450,40 @@ public final class CmsPublishJobInfoBean {
         return m_directPublish;
     }
 
+    /**
+     * Checks if this publish job conflicts with the given publish job, 
+     * so that both jobs must not be published at the same time.<p>
+     * 
+     * Two publish jobs conflict if they share a resource or a sibling of a resource,
+     * or if one of them contains a resource below a folder contained in the other one.
+     * If the resources of one of the jobs are not known, e.g. because the job has already finished, 
+     * the jobs are considered conflicting, so they are never published at the same time by mistake.<p>
+     * 
+     * @param publishJob the publish job to check
+     * 
+     * @return <code>true</code> if this publish job conflicts with the given publish job
+     */
+    protected boolean isConflicting(CmsPublishJobInfoBean publishJob) {
+
+        Set<CmsUUID> ids = m_resourceIds;
+        Set<String> paths = m_resourcePaths;
+        Set<CmsUUID> otherIds = publishJob.m_resourceIds;
+        Set<String> otherPaths = publishJob.m_resourcePaths;
+        if ((ids == null) || (otherIds == null)) {
+            // without the resources, no conflict can be ruled out
+            return true;
+        }
+        // iterate the smaller set, lookup in the larger one
+        Set<CmsUUID> smallIds = ids.size() < otherIds.size() ? ids : otherIds;
+        Set<CmsUUID> largeIds = ids.size() < otherIds.size() ? otherIds : ids;
+        for (CmsUUID id : smallIds) {
+            if (largeIds.contains(id)) {
+                return true;
+            }
+        }
+        return containsParentFolder(paths, otherPaths) || containsParentFolder(otherPaths, paths);
+    }
+
     /**
      * Returns if the publish job is already finished.<p>
      * 
@@ -474,4 +521,50 @@ public final class CmsPublishJobInfoBean {
             ((CmsPublishReport)m_publishReport).start();
         }
     }
+
+    /**
+     * Checks if one of the given paths is below or equal to one of the given folders.<p>
+     * 
+     * @param paths the root paths to check
+     * @param folders the root paths of the folders, other paths are ignored
+     * 
+     * @return <code>true</code> if one of the given paths is below or equal to one of the given folders
+     */
+    private boolean containsParentFolder(Set<String> paths, Set<String> folders) {
+
+        for (String path : paths) {
+            String parent = path;
+            while (parent != null) {
+                if (folders.contains(parent)) {
+                    return true;
+                }
+                parent = CmsResource.getParentFolder(parent);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the ids and root paths of all resources to publish, 
+     * required to check for conflicts with other publish jobs.<p>
+     * 
+     * The data is collected before publishing starts, because the publish list 
+     * is modified by the publish thread.<p>
+     */
+    private void initResourceIndex() {
+
+        if (m_publishList == null) {
+            return;
+        }
+        Set<CmsUUID> ids = new HashSet<CmsUUID>();
+        Set<String> paths = new HashSet<String>();
+        for (CmsResource resource : m_publishList.getAllResources()) {
+            ids.add(resource.getStructureId());
+            // siblings share the resource id
+            ids.add(resource.getResourceId());
+            paths.add(resource.getRootPath());
+        }
+        m_resourceIds = ids;
+        m_resourcePaths = paths;
+    }
 }
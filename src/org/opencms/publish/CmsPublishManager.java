@@ -67,12 +67,18 @@ public class CmsPublishManager {
         currentUser
     }
 
+    /** The default number of resources published in one database transaction, 0 means no publish batches. */
+    public static final int DEFAULT_PUBLISH_BATCH_SIZE = 0;
+
     /** The default history size. */
     public static final int DEFAULT_HISTORY_SIZE = 100;
 
     /** The default persistence setting for the publish queue. */
     public static final boolean DEFAULT_QUEUE_PERSISTANCE = false;
 
+    /** The default number of publish jobs that are published at the same time. */
+    public static final int DEFAULT_PUBLISH_THREADS = 1;
+
     /** The default shutdown time for the running publish job. */
     public static final int DEFAULT_QUEUE_SHUTDOWNTIME = 1;
 
@@ -82,6 +88,9 @@ public class CmsPublishManager {
     /** Indicates if the configuration can be modified. */
     private boolean m_frozen;
 
+    /** The number of resources published in one database transaction. */
+    private int m_publishBatchSize = DEFAULT_PUBLISH_BATCH_SIZE;
+
     /** The underlying publish engine. */
     private CmsPublishEngine m_publishEngine;
 
@@ -97,6 +106,9 @@ public class CmsPublishManager {
     /** The amount of time to wait for a publish job during shutdown. */
     private int m_publishQueueShutdowntime;
 
+    /** The maximum number of publish jobs that are published at the same time. */
+    private int m_publishThreads = DEFAULT_PUBLISH_THREADS;
+
     /** The security manager. */
     private CmsSecurityManager m_securityManager;
 
@@ -199,10 +211,11 @@ public class CmsPublishManager {
      */
     public CmsPublishJobRunning getCurrentPublishJob() {
 
-        if (m_publishEngine.getCurrentPublishJob() == null) {
+        CmsPublishThread thread = m_publishEngine.getCurrentPublishJob();
+        if (thread == null) {
             return null;
         }
-        return new CmsPublishJobRunning(m_publishEngine.getCurrentPublishJob().getPublishJob());
+        return new CmsPublishJobRunning(thread.getPublishJob());
     }
 
     /**
@@ -219,6 +232,18 @@ public class CmsPublishManager {
         return m_publishEngine.getJobByPublishHistoryId(publishHistoryId);
     }
 
+    /**
+     * Returns the number of resources published in one database transaction.<p>
+     *
+     * A value of 0 means every database write is committed on its own.<p>
+     *
+     * @return the number of resources published in one database transaction
+     */
+    public int getPublishBatchSize() {
+
+        return m_publishBatchSize;
+    }
+
     /**
      * Returns the publish history list with already publish jobs.<p>
      *
@@ -398,6 +423,16 @@ public class CmsPublishManager {
         return m_publishQueueShutdowntime;
     }
 
+    /**
+     * Returns the maximum number of publish jobs that are published at the same time.<p>
+     *
+     * @return the maximum number of publish jobs that are published at the same time
+     */
+    public int getPublishThreads() {
+
+        return m_publishThreads;
+    }
+
     /**
      * Returns a new publish list that contains the unpublished resources related
      * to all resources in the given publish list, the related resources exclude
@@ -431,6 +466,20 @@ public class CmsPublishManager {
         return m_publishEngine.getReportContents(publishJob);
     }
 
+    /**
+     * Returns all running publish jobs, in the order they have been started.<p>
+     *
+     * @return a list of {@link CmsPublishJobRunning} objects
+     */
+    public List<CmsPublishJobRunning> getRunningPublishJobs() {
+
+        List<CmsPublishJobRunning> result = new ArrayList<CmsPublishJobRunning>();
+        for (CmsPublishThread thread : m_publishEngine.getRunningPublishJobs()) {
+            result.add(new CmsPublishJobRunning(thread.getPublishJob()));
+        }
+        return result;
+    }
+
     /**
      * Returns the current user's publish list.<p>
      *
@@ -454,7 +503,7 @@ public class CmsPublishManager {
      */
     public void initialize(CmsObject cms) throws CmsException {
 
-        m_publishEngine.initialize(cms, m_publishQueuePersistance, m_publishQueueShutdowntime);
+        m_publishEngine.initialize(cms, m_publishQueuePersistance, m_publishQueueShutdowntime, m_publishThreads);
         m_frozen = true;
     }
 
@@ -632,6 +681,19 @@ public class CmsPublishManager {
         m_securityManager.removeResourceFromUsersPubList(cms.getRequestContext(), structureIds);
     }
 
+    /**
+     * Sets the number of resources published in one database transaction.<p>
+     *
+     * @param publishBatchSize the number of resources to set, parsed as <code>int</code>
+     */
+    public void setPublishBatchSize(String publishBatchSize) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_FROZEN_0));
+        }
+        m_publishBatchSize = Math.max(0, Integer.parseInt(publishBatchSize));
+    }
+
     /**
      * Sets the publish engine during initialization.<p>
      *
@@ -697,6 +759,19 @@ public class CmsPublishManager {
         m_publishQueueShutdowntime = Integer.parseInt(publishQueueShutdowntime);
     }
 
+    /**
+     * Sets the maximum number of publish jobs that are published at the same time.<p>
+     *
+     * @param publishThreads the number of publish threads to set, parsed as <code>int</code>
+     */
+    public void setPublishThreads(String publishThreads) {
+
+        if (m_frozen) {
+            throw new CmsRuntimeException(Messages.get().container(Messages.ERR_CONFIG_FROZEN_0));
+        }
+        m_publishThreads = Math.max(1, Integer.parseInt(publishThreads));
+    }
+
     /**
      * Sets the security manager during initialization.<p>
      *
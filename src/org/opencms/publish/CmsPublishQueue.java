@@ -282,6 +282,40 @@ public class CmsPublishQueue {
         return publishJob;
     }
 
+    /**
+     * Returns the next publish job that can be published concurrently to the given running publish jobs,
+     * removing it from the queue, or <code>null</code> if there is no such job.<p>
+     * 
+     * A job can be published if it neither conflicts with one of the running jobs nor with a job 
+     * that has been enqueued before it, so conflicting jobs are always published in the order they were enqueued.<p>
+     * 
+     * @param runningJobs the publish jobs currently running
+     * 
+     * @return the next publish job that can be published, or <code>null</code>
+     * 
+     * @see CmsPublishJobInfoBean#isConflicting(CmsPublishJobInfoBean)
+     */
+    protected CmsPublishJobInfoBean next(List<CmsPublishJobInfoBean> runningJobs) {
+
+        List<CmsPublishJobInfoBean> blockingJobs = new ArrayList<CmsPublishJobInfoBean>(runningJobs);
+        Iterator<CmsPublishJobInfoBean> it = OpenCms.getMemoryMonitor().getAllCachedPublishJobs().iterator();
+        while (it.hasNext()) {
+            CmsPublishJobInfoBean publishJob = it.next();
+            boolean conflicting = false;
+            Iterator<CmsPublishJobInfoBean> itBlocking = blockingJobs.iterator();
+            while (!conflicting && itBlocking.hasNext()) {
+                conflicting = publishJob.isConflicting(itBlocking.next());
+            }
+            if (!conflicting) {
+                OpenCms.getMemoryMonitor().uncachePublishJob(publishJob);
+                return publishJob;
+            }
+            // jobs enqueued later must wait for this job if they conflict with it
+            blockingJobs.add(publishJob);
+        }
+        return null;
+    }
+
     /**
      * Removes the given job from the list.<p>
      * 
@@ -35,6 +35,10 @@ import org.opencms.file.wrapper.CmsObjectWrapper;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Represents a single entry in the repository. In the context of OpenCms
@@ -102,6 +106,27 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_resource.getLength();
     }
 
+    /**
+     * @see org.opencms.repository.I_CmsRepositoryItem#getContentStream(long, long)
+     */
+    public InputStream getContentStream(long offset, long length) throws IOException {
+
+        if (!m_resource.isFile()) {
+            return null;
+        }
+
+        if (m_content != null) {
+            // the content has already been read completely
+            return CmsFileUtil.getRangeStream(m_content, offset, length);
+        }
+
+        try {
+            return m_cms.readContentStream(m_resource, offset, length);
+        } catch (CmsException ex) {
+            throw new IOException(ex.getLocalizedMessage(), ex);
+        }
+    }
+
     /**
      * @see org.opencms.repository.I_CmsRepositoryItem#getCreationDate()
      */
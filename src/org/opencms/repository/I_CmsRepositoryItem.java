@@ -27,6 +27,9 @@
 
 package org.opencms.repository;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * This class represents items in the repository interface. That can be
  * files or folders (collections). <p>
@@ -49,6 +52,21 @@ public interface I_CmsRepositoryItem {
      */
     long getContentLength();
 
+    /**
+     * Returns a stream on a byte range of the content of this item.<p>
+     * 
+     * Other than {@link #getContent()} this does not need to read the complete content into memory.
+     * The returned stream must always be closed by the caller.<p>
+     * 
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to read, or <code>-1</code> to read up to the end of the content
+     * 
+     * @return a stream on the requested range of the content, or <code>null</code> if this item is a collection
+     * 
+     * @throws IOException if the content could not be read
+     */
+    InputStream getContentStream(long offset, long length) throws IOException;
+
     /**
      * Returns the date of the creation of this item.<p>
      * 
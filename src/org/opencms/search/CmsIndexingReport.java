@@ -0,0 +1,320 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.report.I_CmsReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report that collects the output of a single indexing job, so that it can be written 
+ * to the report of the indexer as one block.<p>
+ * 
+ * Since documents are extracted by several threads in parallel, writing to the indexer report 
+ * directly would mix up the output of different documents.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsIndexingReport implements I_CmsReport {
+
+    /** Recorded call of {@link #addError(Object)}. */
+    private static final int ADD_ERROR = 0;
+
+    /** Recorded call of {@link #addWarning(Object)}. */
+    private static final int ADD_WARNING = 1;
+
+    /** Recorded call of {@link #print(CmsMessageContainer, int)}. */
+    private static final int PRINT = 2;
+
+    /** Recorded call of {@link #printMessageWithParam(int, int, CmsMessageContainer, Object)}. */
+    private static final int PRINT_PARAM = 3;
+
+    /** Recorded call of {@link #println(CmsMessageContainer, int)}. */
+    private static final int PRINTLN = 4;
+
+    /** Recorded call of {@link #println()}. */
+    private static final int PRINTLN_EMPTY = 5;
+
+    /** Recorded call of {@link #println(Throwable)}. */
+    private static final int PRINTLN_THROWABLE = 6;
+
+    /** The recorded calls, each an array of the call type and its arguments. */
+    private List<Object[]> m_entries;
+
+    /** The report the recorded output is written to. */
+    private I_CmsReport m_report;
+
+    /**
+     * Creates a new indexing report.<p>
+     * 
+     * @param report the report the recorded output is finally written to
+     */
+    public CmsIndexingReport(I_CmsReport report) {
+
+        m_report = report;
+        m_entries = new ArrayList<Object[]>();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#addError(java.lang.Object)
+     */
+    public void addError(Object obj) {
+
+        record(ADD_ERROR, obj);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#addWarning(java.lang.Object)
+     */
+    public void addWarning(Object obj) {
+
+        record(ADD_WARNING, obj);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#formatRuntime()
+     */
+    public String formatRuntime() {
+
+        return m_report.formatRuntime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getErrors()
+     */
+    public List<Object> getErrors() {
+
+        return m_report.getErrors();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getLastEntryTime()
+     */
+    public long getLastEntryTime() {
+
+        return m_report.getLastEntryTime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getLocale()
+     */
+    public Locale getLocale() {
+
+        return m_report.getLocale();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getReportUpdate()
+     */
+    public String getReportUpdate() {
+
+        return m_report.getReportUpdate();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getRuntime()
+     */
+    public long getRuntime() {
+
+        return m_report.getRuntime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getSiteRoot()
+     */
+    public String getSiteRoot() {
+
+        return m_report.getSiteRoot();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getWarnings()
+     */
+    public List<Object> getWarnings() {
+
+        return m_report.getWarnings();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#hasError()
+     */
+    public boolean hasError() {
+
+        return m_report.hasError();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#hasWarning()
+     */
+    public boolean hasWarning() {
+
+        return m_report.hasWarning();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer)
+     */
+    public void print(CmsMessageContainer container) {
+
+        print(container, FORMAT_DEFAULT);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    public void print(CmsMessageContainer container, int format) {
+
+        record(PRINT, container, new Integer(format));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println()
+     */
+    public void println() {
+
+        record(PRINTLN_EMPTY);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer)
+     */
+    public void println(CmsMessageContainer container) {
+
+        println(container, FORMAT_DEFAULT);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    public void println(CmsMessageContainer container, int format) {
+
+        record(PRINTLN, container, new Integer(format));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
+     */
+    public void println(Throwable t) {
+
+        record(PRINTLN_THROWABLE, t);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#printMessageWithParam(org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+     */
+    public void printMessageWithParam(CmsMessageContainer container, Object param) {
+
+        record(PRINT_PARAM, null, null, container, param);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#printMessageWithParam(int, int, org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+     */
+    public void printMessageWithParam(int m, int n, CmsMessageContainer container, Object param) {
+
+        record(PRINT_PARAM, new Integer(m), new Integer(n), container, param);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#removeSiteRoot(java.lang.String)
+     */
+    public String removeSiteRoot(String resourcename) {
+
+        return m_report.removeSiteRoot(resourcename);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#resetRuntime()
+     */
+    public void resetRuntime() {
+
+        m_report.resetRuntime();
+    }
+
+    /**
+     * Writes the output recorded so far to the report of the indexer and clears it.<p>
+     */
+    public void write() {
+
+        List<Object[]> entries;
+        synchronized (this) {
+            entries = m_entries;
+            m_entries = new ArrayList<Object[]>();
+        }
+        for (Object[] entry : entries) {
+            switch (((Integer)entry[0]).intValue()) {
+                case ADD_ERROR:
+                    m_report.addError(entry[1]);
+                    break;
+                case ADD_WARNING:
+                    m_report.addWarning(entry[1]);
+                    break;
+                case PRINT:
+                    m_report.print((CmsMessageContainer)entry[1], ((Integer)entry[2]).intValue());
+                    break;
+                case PRINT_PARAM:
+                    if (entry[1] != null) {
+                        m_report.printMessageWithParam(
+                            ((Integer)entry[1]).intValue(),
+                            ((Integer)entry[2]).intValue(),
+                            (CmsMessageContainer)entry[3],
+                            entry[4]);
+                    } else {
+                        m_report.printMessageWithParam((CmsMessageContainer)entry[3], entry[4]);
+                    }
+                    break;
+                case PRINTLN:
+                    m_report.println((CmsMessageContainer)entry[1], ((Integer)entry[2]).intValue());
+                    break;
+                case PRINTLN_THROWABLE:
+                    m_report.println((Throwable)entry[1]);
+                    break;
+                case PRINTLN_EMPTY:
+                default:
+                    m_report.println();
+            }
+        }
+    }
+
+    /**
+     * Records a call to this report.<p>
+     * 
+     * @param type the type of the call
+     * @param args the arguments of the call
+     */
+    private synchronized void record(int type, Object... args) {
+
+        Object[] entry = new Object[args.length + 1];
+        entry[0] = new Integer(type);
+        System.arraycopy(args, 0, entry, 1, args.length);
+        m_entries.add(entry);
+    }
+}
@@ -43,6 +43,9 @@ import org.apache.commons.logging.Log;
  * The indexing of a single resource is wrapped into a thread
  * in order to prevent the overall indexer from hanging.<p>
  * 
+ * The {@link CmsIndexingThreadManager} does not start this thread, but executes it 
+ * as a task in a pool of worker threads.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThread extends Thread {
@@ -117,8 +120,8 @@ public class CmsIndexingThread extends Thread {
             m_result = createIndexDocument(m_cms, m_res, m_index, m_count, m_report);
             docOk = true;
 
-            // check if the thread was interrupted
-            if (isInterrupted() && LOG.isDebugEnabled()) {
+            // check if the thread was interrupted, this may also be a pooled worker thread running this indexing thread
+            if (Thread.currentThread().isInterrupted() && LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_ABANDONED_THREAD_FINISHED_1, m_res.getRootPath()));
             }
 
@@ -28,29 +28,85 @@
 package org.opencms.search;
 
 import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Implements the management of indexing threads.<p>
  * 
+ * The documents are extracted in parallel by a bounded pool of worker threads.
+ * The extracted documents are written to the index by the thread that calls 
+ * {@link #createIndexingThread(CmsVfsIndexer, I_CmsIndexWriter, CmsResource)}, 
+ * in the order in which the resources have been passed to this manager.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThreadManager {
 
+    /**
+     * A single indexing thread executed by the worker pool, together with the data 
+     * required to write the result to the index.<p>
+     */
+    private static class CmsIndexingJob implements Runnable {
+
+        /** The future of this job in the worker pool. */
+        protected Future<?> m_future;
+
+        /** The indexer that created this job. */
+        protected CmsVfsIndexer m_indexer;
+
+        /** The report this job writes to, or <code>null</code>. */
+        protected CmsIndexingReport m_report;
+
+        /** The resource to index. */
+        protected CmsResource m_resource;
+
+        /** The time the job was started by a worker, or 0 if it is still waiting. */
+        protected volatile long m_startTime;
+
+        /** The indexing thread, executed by a worker of the pool. */
+        protected CmsIndexingThread m_thread;
+
+        /** The index writer to write the result to. */
+        protected I_CmsIndexWriter m_writer;
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            m_startTime = System.currentTimeMillis();
+            m_thread.run();
+        }
+    }
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsIndexingThreadManager.class);
 
     /** Number of threads abandoned. */
     private int m_abandonedCounter;
 
+    /** The pool of worker threads, created when the first resource is indexed. */
+    private ThreadPoolExecutor m_executor;
+
     /** The time the last error was written to the log. */
     private long m_lastLogErrorTime;
 
@@ -60,6 +116,12 @@ public class CmsIndexingThreadManager {
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
+    /** The number of worker threads extracting documents in parallel. */
+    private int m_maxThreads;
+
+    /** The jobs that have not been written to the index yet, in the order they were created. */
+    private LinkedList<CmsIndexingJob> m_pendingJobs;
+
     /** Number of thread returned. */
     private int m_returnedCounter;
 
@@ -69,25 +131,46 @@ public class CmsIndexingThreadManager {
     /** Timeout for abandoning threads. */
     private long m_timeout;
 
+    /** Number of documents written or deleted in the index. */
+    private int m_writtenCounter;
+
     /**
      * Creates and starts a thread manager for indexing threads.<p>
      * 
+     * The number of worker threads is the number of available processors.<p>
+     * 
      * @param timeout timeout after a thread is abandoned
      * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
      */
     public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit) {
 
+        this(timeout, maxModificationsBeforeCommit, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates and starts a thread manager for indexing threads.<p>
+     * 
+     * @param timeout timeout after a thread is abandoned
+     * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
+     * @param maxThreads the number of worker threads extracting documents in parallel
+     */
+    public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit, int maxThreads) {
+
         m_timeout = timeout;
         m_maxModificationsBeforeCommit = maxModificationsBeforeCommit;
+        m_maxThreads = Math.max(1, maxThreads);
+        m_pendingJobs = new LinkedList<CmsIndexingJob>();
     }
 
     /**
-     * Creates and starts a new indexing thread for a resource.<p>
+     * Creates a new indexing thread for a resource and hands it to the pool of worker threads.<p>
      * 
-     * After an indexing thread was started, the manager suspends itself 
-     * and waits for an amount of time specified by the <code>timeout</code>
-     * value. If the timeout value is reached, the indexing thread is
-     * aborted by an interrupt signal.<p>
+     * If more than twice as many resources as there are worker threads are waiting to be written,
+     * this method blocks until the oldest of them is finished or has reached the timeout.
+     * If the timeout value is reached, the indexing thread is abandoned and aborted by an interrupt signal.<p>
+     * 
+     * All documents that have been finished are written to the index by this method, 
+     * the remaining ones are written by {@link #isRunning()}.<p>
      * 
      * @param indexer the VFS indexer to create the index thread for 
      * @param writer the index writer that can update the index
@@ -95,71 +178,58 @@ public class CmsIndexingThreadManager {
      */
     public void createIndexingThread(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res) {
 
-        I_CmsReport report = indexer.getReport();
+        if (m_executor == null) {
+            m_executor = createExecutor();
+        }
         m_startedCounter++;
-        CmsIndexingThread thread = new CmsIndexingThread(
-            indexer.getCms(),
+        CmsIndexingJob job = new CmsIndexingJob();
+        job.m_indexer = indexer;
+        job.m_writer = writer;
+        job.m_resource = res;
+        if (indexer.getReport() != null) {
+            job.m_report = new CmsIndexingReport(indexer.getReport());
+        }
+        CmsObject cms = indexer.getCms();
+        try {
+            // the workers run in parallel, so every job needs its own context 
+            cms = OpenCms.initCmsObject(cms);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        job.m_thread = new CmsIndexingThread(
+            cms,
             res,
             indexer.getIndex(),
             m_startedCounter,
-            report);
-        thread.setPriority(Thread.MIN_PRIORITY);
-        thread.start();
-        try {
-            thread.join(m_timeout);
-        } catch (InterruptedException e) {
-            // ignore
-        }
-        if (thread.isAlive()) {
-            // the thread has not finished - so it must be marked as an abandoned thread 
-            m_abandonedCounter++;
-            thread.interrupt();
-            if (LOG.isWarnEnabled()) {
-                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
-            }
-            if (report != null) {
-                report.println();
-                report.print(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_WARNING);
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
-                    I_CmsReport.FORMAT_WARNING);
-            }
-        } else {
-            // the thread finished normally
-            m_returnedCounter++;
-        }
-        I_CmsSearchDocument doc = thread.getResult();
-        if (doc != null) {
-            // write the document to the index
-            indexer.updateResource(writer, res.getRootPath(), doc);
-        } else {
-            indexer.deleteResource(writer, new CmsPublishedResource(res));
-        }
-        if ((m_startedCounter % m_maxModificationsBeforeCommit) == 0) {
-            try {
-                writer.commit();
-            } catch (IOException e) {
-                if (LOG.isWarnEnabled()) {
-                    LOG.warn(
-                        Messages.get().getBundle().key(
-                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                            indexer.getIndex().getName(),
-                            indexer.getIndex().getPath()),
-                        e);
-                }
-            }
+            job.m_report);
+        job.m_future = m_executor.submit(job);
+        m_pendingJobs.add(job);
+
+        // wait until there is space for new jobs, and write all finished documents to the index
+        while (!m_pendingJobs.isEmpty()
+            && ((m_pendingJobs.size() > (2 * m_maxThreads)) || isFinished(m_pendingJobs.getFirst()))) {
+            finishJob(m_pendingJobs.removeFirst());
         }
     }
 
     /**
      * Returns if the indexing manager still have indexing threads.<p>
      * 
+     * All documents that have been finished in the meantime are written to the index.<p>
+     * 
      * @return true if the indexing manager still have indexing threads
      */
     public boolean isRunning() {
 
+        while (!m_pendingJobs.isEmpty() && isFinished(m_pendingJobs.getFirst())) {
+            finishJob(m_pendingJobs.removeFirst());
+        }
+        if (m_pendingJobs.isEmpty() && (m_executor != null)) {
+            // all jobs are done, abandoned threads are not waited for 
+            m_executor.shutdown();
+            m_executor = null;
+        }
+
         if (m_lastLogErrorTime <= 0) {
             m_lastLogErrorTime = System.currentTimeMillis();
             m_lastLogWarnTime = m_lastLogErrorTime;
@@ -221,4 +291,140 @@ public class CmsIndexingThreadManager {
             }
         }
     }
+
+    /**
+     * Creates the pool of worker threads.<p>
+     * 
+     * @return the pool of worker threads
+     */
+    private ThreadPoolExecutor createExecutor() {
+
+        ThreadFactory factory = new ThreadFactory() {
+
+            /** The number of the next worker thread. */
+            private int m_count;
+
+            /**
+             * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+             */
+            public synchronized Thread newThread(Runnable r) {
+
+                m_count++;
+                Thread thread = new Thread(r, "OpenCms: Indexing worker " + m_count);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                // abandoned workers must not prevent the JVM from shutting down
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            m_maxThreads,
+            m_maxThreads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            factory);
+        // idle workers end by themselves in case the manager is not asked for the end of indexing
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Waits until the given job is finished or has reached the timeout, 
+     * and writes the result to the index.<p>
+     * 
+     * @param job the job to finish
+     */
+    private void finishJob(CmsIndexingJob job) {
+
+        boolean finished = false;
+        try {
+            while (!finished) {
+                long startTime = job.m_startTime;
+                // the timeout only starts once a worker thread has picked up the job 
+                long wait = (startTime == 0) ? m_timeout : (startTime + m_timeout) - System.currentTimeMillis();
+                if (wait <= 0) {
+                    break;
+                }
+                try {
+                    job.m_future.get(wait, TimeUnit.MILLISECONDS);
+                    finished = true;
+                } catch (TimeoutException e) {
+                    // check the start time again
+                }
+            }
+        } catch (InterruptedException e) {
+            // ignore
+            finished = job.m_future.isDone();
+        } catch (ExecutionException e) {
+            // the indexing thread handles all exceptions itself, so this is caused by an error
+            finished = true;
+        }
+
+        CmsResource res = job.m_resource;
+        I_CmsReport report = job.m_indexer.getReport();
+        if (job.m_report != null) {
+            job.m_report.write();
+        }
+        if (!finished) {
+            // the thread has not finished - so it must be marked as an abandoned thread 
+            m_abandonedCounter++;
+            job.m_future.cancel(true);
+            // the worker may be blocked for good, so replace it to keep the number of working threads
+            m_executor.setMaximumPoolSize(m_executor.getMaximumPoolSize() + 1);
+            m_executor.setCorePoolSize(m_executor.getCorePoolSize() + 1);
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
+            }
+            if (report != null) {
+                report.println();
+                report.print(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                    I_CmsReport.FORMAT_WARNING);
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
+                    I_CmsReport.FORMAT_WARNING);
+            }
+        } else {
+            // the thread finished normally
+            m_returnedCounter++;
+        }
+        I_CmsSearchDocument doc = finished ? job.m_thread.getResult() : null;
+        if (doc != null) {
+            // write the document to the index
+            job.m_indexer.updateResource(job.m_writer, res.getRootPath(), doc);
+        } else {
+            job.m_indexer.deleteResource(job.m_writer, new CmsPublishedResource(res));
+        }
+        m_writtenCounter++;
+        if ((m_writtenCounter % m_maxModificationsBeforeCommit) == 0) {
+            try {
+                job.m_writer.commit();
+            } catch (IOException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                            job.m_indexer.getIndex().getName(),
+                            job.m_indexer.getIndex().getPath()),
+                        e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the given job can be finished without waiting, 
+     * either because it is done or because it has reached the timeout.<p>
+     * 
+     * @param job the job to check
+     * 
+     * @return <code>true</code> if the given job can be finished without waiting
+     */
+    private boolean isFinished(CmsIndexingJob job) {
+
+        long startTime = job.m_startTime;
+        return job.m_future.isDone()
+            || ((startTime > 0) && ((System.currentTimeMillis() - startTime) >= m_timeout));
+    }
 }
\ No newline at end of file
@@ -66,6 +66,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -245,7 +246,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     private boolean m_createExcerpt;
 
     /** Map of display query filters to use. */
-    private Map<String, Filter> m_displayFilters;
+    private volatile Map<String, Filter> m_displayFilters;
 
     /** Document types of folders/channels. */
     private Map<String, List<String>> m_documenttypes;
@@ -268,8 +269,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
+    /** The Lucene index searcher to use, replaced atomically whenever the index is reopened. */
+    private volatile IndexSearcher m_indexSearcher;
 
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
@@ -678,11 +679,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
-        try {
-            IndexSearcher searcher = getSearcher();
-            return new CmsLuceneDocument(searcher.doc(docId));
-        } catch (IOException e) {
-            // ignore, return null and assume document was not found
+        IndexSearcher searcher = indexSearcherAcquire();
+        if (searcher != null) {
+            try {
+                return new CmsLuceneDocument(searcher.doc(docId));
+            } catch (IOException e) {
+                // ignore, return null and assume document was not found
+            } finally {
+                indexSearcherRelease(searcher);
+            }
         }
         return null;
     }
@@ -715,10 +720,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @return the first document where the given term matches the selected index field
      */
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = indexSearcherAcquire();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -729,6 +734,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                indexSearcherRelease(searcher);
             }
         }
         if (result != null) {
@@ -950,6 +957,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
     /**
      * Returns the Lucene index searcher used for this search index.<p>
+     * 
+     * The returned searcher is not protected against being closed by a concurrent index update.
+     * Code that performs more than a single short operation should use {@link #indexSearcherAcquire()} 
+     * and {@link #indexSearcherRelease(IndexSearcher)} instead.<p>
      *
      * @return the Lucene index searcher used for this search index
      */
@@ -1242,7 +1253,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
         long timeLucene;
@@ -1260,6 +1271,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the searcher used for this search, released in the finally block
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -1296,9 +1310,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             // store separate fields query for excerpt highlighting  
             Query fieldsQuery = null;
 
-            // get an index searcher that is certainly up to date
-            indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            // the searcher is updated by the search manager after every change of the index,
+            // so it only has to be opened here if this has not happened yet
+            if (m_indexSearcher == null) {
+                indexSearcherUpdate();
+            }
+            searcher = indexSearcherAcquire();
+            if (searcher == null) {
+                throw new CmsSearchException(Messages.get().container(Messages.ERR_INDEX_SEARCHER_1, getName()));
+            }
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -1469,6 +1489,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } finally {
 
+            // release the searcher so that it can be closed after an index update
+            indexSearcherRelease(searcher);
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
@@ -2096,7 +2118,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             }
             termsStr = buf.toString();
         }
-        Filter result = m_displayFilters.get((new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
+        Map<String, Filter> displayFilters = m_displayFilters;
+        String key = (new StringBuffer(64)).append(field).append('|').append(termsStr).toString();
+        Filter result = displayFilters.get(key);
         if (result == null) {
             List<Term> terms = new ArrayList<Term>();
             if (termsList == null) {
@@ -2106,7 +2130,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 terms.add(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(new TermsFilter(terms));
-            m_displayFilters.put(field + termsStr, result);
+            displayFilters.put(key, result);
         }
         return result;
     }
@@ -2125,6 +2149,32 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     protected CmsResource getResource(CmsObject cms, I_CmsSearchDocument doc) {
 
+        return getResources(cms, Collections.singletonList(doc)).get(0);
+    }
+
+    /**
+     * Checks if the OpenCms resources referenced by the given result documents can be read 
+     * by the user of the given OpenCms context.<p>
+     * 
+     * Returns a list containing the referenced <code>CmsResource</code> for every document, 
+     * or <code>null</code> in case the user is not permitted to read the resource. 
+     * Use this to check a batch of documents instead of calling 
+     * {@link #getResource(CmsObject, I_CmsSearchDocument)} for each of them, 
+     * since all resources are read with one database query and their permissions 
+     * are checked in bulk, see {@link CmsObject#readResourcesByPath(List, CmsResourceFilter)}.<p>
+     * 
+     * @param cms the OpenCms user context to use for permission testing
+     * @param docs the search result documents to check
+     * 
+     * @return the referenced resources, in the order of the given documents
+     */
+    protected List<CmsResource> getResources(CmsObject cms, List<? extends I_CmsSearchDocument> docs) {
+
+        List<CmsResource> result = new ArrayList<CmsResource>(docs.size());
+        if (docs.isEmpty()) {
+            return result;
+        }
+
         // check if the resource exits in the VFS, 
         // this will implicitly check read permission and if the resource was deleted
         CmsResourceFilter filter = CmsResourceFilter.DEFAULT;
@@ -2134,15 +2184,28 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             filter = CmsResourceFilter.IGNORE_EXPIRATION;
         }
 
+        List<String> paths = new ArrayList<String>(docs.size());
+        for (I_CmsSearchDocument doc : docs) {
+            if (doc.getPath() != null) {
+                paths.add(doc.getPath());
+            }
+        }
+        Map<String, CmsResource> resources = new HashMap<String, CmsResource>();
         try {
             CmsObject clone = OpenCms.initCmsObject(cms);
             clone.getRequestContext().setSiteRoot("");
-            return clone.readResource(doc.getPath(), filter);
+            for (CmsResource resource : clone.readResourcesByPath(paths, filter)) {
+                resources.put(CmsFileUtil.removeTrailingSeparator(resource.getRootPath()), resource);
+            }
         } catch (CmsException e) {
-            // Do nothing 
+            // the resources can not be read, so no document is readable
+            LOG.debug(e.getLocalizedMessage(), e);
         }
-
-        return null;
+        for (I_CmsSearchDocument doc : docs) {
+            String path = doc.getPath();
+            result.add(path == null ? null : resources.get(CmsFileUtil.removeTrailingSeparator(path)));
+        }
+        return result;
     }
 
     /**
@@ -2173,6 +2236,34 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return !needsPermissionCheck(doc) ? true : (null != getResource(cms, doc));
     }
 
+    /**
+     * Returns the current index searcher of this index with an incremented reference count, 
+     * or <code>null</code> if no searcher is available.<p>
+     * 
+     * Any number of threads may use acquired searchers concurrently. The underlying index reader 
+     * is not closed before all threads that acquired it have called {@link #indexSearcherRelease(IndexSearcher)}, 
+     * even if the searcher is replaced by {@link #indexSearcherUpdate()} in the meantime.<p>
+     * 
+     * @return the current index searcher with an incremented reference count, or <code>null</code>
+     */
+    protected IndexSearcher indexSearcherAcquire() {
+
+        while (true) {
+            IndexSearcher searcher = m_indexSearcher;
+            if ((searcher == null) || (searcher.getIndexReader() == null)) {
+                return null;
+            }
+            if (searcher.getIndexReader().tryIncRef()) {
+                return searcher;
+            }
+            if (searcher == m_indexSearcher) {
+                // the searcher was closed but has not been replaced, e.g. during shutdown
+                return null;
+            }
+            // the searcher was closed because it has just been replaced, try again with the new one
+        }
+    }
+
     /**
      * Closes the index searcher for this index.<p>
      * 
@@ -2186,6 +2277,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /**
      * Closes the given Lucene index searcher.<p>
      * 
+     * Searches that have acquired the searcher with {@link #indexSearcherAcquire()} can finish,
+     * the index reader is closed by Lucene once the last of them has released it.<p>
+     * 
      * @param searcher the searcher to close
      */
     protected synchronized void indexSearcherClose(IndexSearcher searcher) {
@@ -2222,9 +2316,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                     // store old searcher instance to close it later
                     oldSearcher = m_indexSearcher;
                 }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<String, Filter>();
+                IndexSearcher newSearcher = new IndexSearcher(reader);
+                newSearcher.setSimilarity(m_sim);
+                m_displayFilters = new ConcurrentHashMap<String, Filter>();
+                m_indexSearcher = newSearcher;
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
@@ -2235,9 +2330,28 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         }
     }
 
+    /**
+     * Releases an index searcher that has been obtained from {@link #indexSearcherAcquire()}.<p>
+     * 
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    protected void indexSearcherRelease(IndexSearcher searcher) {
+
+        if ((searcher != null) && (searcher.getIndexReader() != null)) {
+            try {
+                searcher.getIndexReader().decRef();
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
+
     /**
      * Reopens the index search reader for this index, required after the index has been changed.<p>
      * 
+     * The new searcher replaces the old one atomically, searches still running on the old searcher 
+     * are not affected.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherUpdate() {
@@ -2249,8 +2363,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 if (oldSearcher.getIndexReader() instanceof DirectoryReader) {
                     IndexReader newReader = DirectoryReader.openIfChanged((DirectoryReader)oldSearcher.getIndexReader());
                     if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
+                        IndexSearcher newSearcher = new IndexSearcher(newReader);
+                        newSearcher.setSimilarity(m_sim);
+                        m_indexSearcher = newSearcher;
                         indexSearcherClose(oldSearcher);
                     }
                 }
@@ -610,6 +610,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default value used for keeping the extraction results in the cache (672 hours = 4 weeks). */
     public static final float DEFAULT_EXTRACTION_CACHE_MAX_AGE = 672.0f;
 
+    /** Default for the maximum number of indexing threads (0 = number of available processors). */
+    public static final int DEFAULT_MAX_INDEXING_THREADS = 0;
+
     /** Default for the maximum number of modifications before a commit in the search index is triggered (500). */
     public static final int DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT = 500;
 
@@ -682,6 +685,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The max. char. length of the excerpt in the search result. */
     private int m_maxExcerptLength;
 
+    /** The maximum number of threads extracting documents in parallel, 0 for the number of available processors. */
+    private int m_maxIndexingThreads;
+
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
@@ -715,6 +721,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
         m_maxModificationsBeforeCommit = DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT;
+        m_maxIndexingThreads = DEFAULT_MAX_INDEXING_THREADS;
 
         m_fieldConfigurations = new HashMap<String, CmsSearchFieldConfiguration>();
         // make sure we have a "standard" field configuration
@@ -1385,6 +1392,18 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_maxExcerptLength;
     }
 
+    /**
+     * Returns the maximum number of threads extracting documents in parallel.<p>
+     * 
+     * A value of 0 means the number of available processors is used.<p>
+     *
+     * @return the maximum number of threads extracting documents in parallel
+     */
+    public int getMaxIndexingThreads() {
+
+        return m_maxIndexingThreads;
+    }
+
     /**
      * Returns the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -2099,6 +2118,33 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the maximum number of threads extracting documents in parallel.<p>
+     * 
+     * A value of 0 means the number of available processors is used.<p>
+     *
+     * @param maxIndexingThreads the maximum number of threads to set
+     */
+    public void setMaxIndexingThreads(int maxIndexingThreads) {
+
+        m_maxIndexingThreads = maxIndexingThreads;
+    }
+
+    /**
+     * Sets the maximum number of threads extracting documents in parallel as a string.<p>
+     *
+     * @param value the maximum number of threads to set
+     */
+    public void setMaxIndexingThreads(String value) {
+
+        try {
+            setMaxIndexingThreads(Integer.parseInt(value));
+        } catch (Exception e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_PARSE_MAXTHREADS_FAILED_1, value), e);
+            setMaxIndexingThreads(DEFAULT_MAX_INDEXING_THREADS);
+        }
+    }
+
     /**
      * Sets the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -2378,7 +2424,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      */
     protected CmsIndexingThreadManager getThreadManager() {
 
-        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit);
+        int maxThreads = m_maxIndexingThreads > 0
+        ? m_maxIndexingThreads
+        : Runtime.getRuntime().availableProcessors();
+        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit, maxThreads);
     }
 
     /**
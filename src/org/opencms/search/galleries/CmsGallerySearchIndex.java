@@ -271,7 +271,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsGallerySearchResultList searchGallery(CmsObject cms, CmsGallerySearchParameters params)
+    public CmsGallerySearchResultList searchGallery(CmsObject cms, CmsGallerySearchParameters params)
     throws CmsSearchException {
 
         // the hits found during the search
@@ -280,6 +280,9 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
         // storage for the results found
         CmsGallerySearchResultList searchResults = new CmsGallerySearchResultList();
 
+        // the searcher used for this search, released in the finally block
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -359,9 +362,15 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
             // store separate fields query for excerpt highlighting  
             Query fieldsQuery = null;
 
-            // get an index searcher that is certainly up to date
-            indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            // the searcher is updated by the search manager after every change of the index,
+            // so it only has to be opened here if this has not happened yet
+            if (getSearcher() == null) {
+                indexSearcherUpdate();
+            }
+            searcher = indexSearcherAcquire();
+            if (searcher == null) {
+                throw new CmsSearchException(Messages.get().container(Messages.ERR_INDEX_SEARCHER_1, getName()));
+            }
 
             Locale locale = params.getLocale() == null ? null : CmsLocaleManager.getLocale(params.getLocale());
             if (params.getSearchWords() != null) {
@@ -415,7 +424,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                 int visibleHitCount = hitCount;
                 for (int i = 0, cnt = 0; (i < hitCount) && (cnt < end); i++) {
                     try {
-                        doc = getSearcher().doc(hits.scoreDocs[i].doc);
+                        doc = searcher.doc(hits.scoreDocs[i].doc);
                         I_CmsSearchDocument searchDoc = new CmsLuceneDocument(doc);
                         if (hasReadPermission(searchCms, searchDoc)) {
                             // user has read permission
@@ -461,6 +470,9 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } catch (Exception e) {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
+        } finally {
+            // release the searcher so that it can be closed after an index update
+            indexSearcherRelease(searcher);
         }
 
         return searchResults;
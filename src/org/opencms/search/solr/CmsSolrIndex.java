@@ -68,8 +68,10 @@ import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletResponse;
 
@@ -85,6 +87,7 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.HighlightParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.ContentStreamBase;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.CoreContainer;
@@ -104,6 +107,9 @@ import org.apache.solr.search.DocSlice;
 import org.apache.solr.search.QParser;
 import org.apache.solr.util.FastWriter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Implements the search within an Solr index.<p>
  *
@@ -129,6 +135,18 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** A constant for debug formatting output. */
     protected static final int DEBUG_PADDING_RIGHT = 50;
 
+    /** The maximum number of documents read from Solr at once during the permission check. */
+    private static final int CHUNK_ROWS_MAX = 500;
+
+    /** The minimum number of documents read from Solr at once during the permission check. */
+    private static final int CHUNK_ROWS_MIN = 20;
+
+    /** The maximum number of result cursors to keep. */
+    private static final int CURSOR_CACHE_SIZE = 2000;
+
+    /** The number of minutes an unused result cursor is kept. */
+    private static final int CURSOR_TIMEOUT_MINUTES = 10;
+
     /** The name for the parameters key of the response header. */
     private static final String HEADER_PARAMS_NAME = "params";
 
@@ -171,6 +189,10 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The post document manipulator. */
     private I_CmsSolrPostSearchProcessor m_postProcessor;
 
+    /** The result cursors of the users, to continue paging where the previous page stopped. */
+    private Cache<String, CmsSolrResultCursor> m_resultCursors = CacheBuilder.newBuilder().maximumSize(
+        CURSOR_CACHE_SIZE).expireAfterAccess(CURSOR_TIMEOUT_MINUTES, TimeUnit.MINUTES).build();
+
     /**
      * Default constructor.<p>
      */
@@ -660,7 +682,8 @@ public class CmsSolrIndex extends CmsSearchIndex {
     @Override
     protected void indexSearcherUpdate() {
 
-        // nothing to do here
+        // the index has changed, so the positions remembered by the result cursors are no longer valid
+        m_resultCursors.invalidateAll();
     }
 
     /**
@@ -710,6 +733,28 @@ public class CmsSolrIndex extends CmsSearchIndex {
         }
     }
 
+    /**
+     * Returns the key of the result cursor for the given query and the user of the given context.<p>
+     * 
+     * The key does not depend on the requested page.<p>
+     * 
+     * @param cms the current OpenCms context
+     * @param query the query
+     * 
+     * @return the key of the result cursor
+     */
+    private String getResultCursorKey(CmsObject cms, SolrQuery query) {
+
+        ModifiableSolrParams params = new ModifiableSolrParams(query);
+        params.remove(CommonParams.START);
+        params.remove(CommonParams.ROWS);
+        return cms.getRequestContext().getCurrentUser().getId()
+            + "_"
+            + cms.getRequestContext().getCurrentProject().getUuid()
+            + "_"
+            + params.toString();
+    }
+
     /**
      * <h4>Performs a search on the Solr index</h4>
      *
@@ -728,14 +773,13 @@ public class CmsSolrIndex extends CmsSearchIndex {
      * the requested amount of search results and to provide a working pagination with
      * security check.</li>
      *
-     * <li>To be sure we get enough documents left even the permission check reduces the amount
-     * of found documents, the rows are multiplied by <code>'5'</code> and the current page
-     * additionally the offset is added. The count of documents we don't have enough
-     * permissions for grows with increasing page number, that's why we also multiply
-     * the rows by the current page count.</li>
+     * <li>To be sure we get enough documents even if the permission check reduces the amount
+     * of found documents, the documents are read from Solr in chunks that grow as long as 
+     * the requested page is not complete. The permissions are checked for each chunk at once.</li>
      *
-     * <li>Also make sure we perform the permission check for all found documents, so start with
-     * the first found doc.</li>
+     * <li>The positions where the pages start in the Solr result are remembered for the current user 
+     * with a {@link CmsSolrResultCursor}, so the next page continues where the previous one stopped
+     * and the documents of the previous pages don't have to be checked again.</li>
      * </ul>
      *
      * <b>NOTE:</b> If latter pages than the current one are containing protected documents the
@@ -790,64 +834,108 @@ public class CmsSolrIndex extends CmsSearchIndex {
             List<CmsSearchResource> resourceDocumentList = new ArrayList<CmsSearchResource>();
             SolrDocumentList solrDocumentList = new SolrDocumentList();
 
-            // Initialize rows, offset, end and the current page.
+            // Initialize rows, offset and the current page.
             int rows = query.getRows() != null ? query.getRows().intValue() : CmsSolrQuery.DEFAULT_ROWS.intValue();
             if (!ignoreMaxRows && (rows > ROWS_MAX)) {
                 rows = ROWS_MAX;
             }
             int start = query.getStart() != null ? query.getStart().intValue() : 0;
-            int end = start + rows;
             int page = 0;
             if (rows > 0) {
                 page = Math.round(start / rows) + 1;
-            }
-
-            // set the start to '0' and expand the rows before performing the query
-            query.setStart(new Integer(0));
-            query.setRows(new Integer((5 * rows * page) + start));
-
-            // perform the Solr query and remember the original Solr response
-            QueryResponse queryResponse = m_solr.query(query);
-            long solrTime = System.currentTimeMillis() - startTime;
-
-            // initialize the counts
-            long hitCount = queryResponse.getResults().getNumFound();
-            start = -1;
-            end = -1;
-            if ((rows > 0) && (page > 0) && (hitCount > 0)) {
-                // calculate the final size of the search result
+                // always start at the first document of the page
                 start = rows * (page - 1);
-                end = start + rows;
-                // ensure that both i and n are inside the range of foundDocuments.size()
-                start = new Long((start > hitCount) ? hitCount : start).intValue();
-                end = new Long((end > hitCount) ? hitCount : end).intValue();
-            } else {
-                // return all found documents in the search result
-                start = 0;
-                end = new Long(hitCount).intValue();
             }
-            long visibleHitCount = hitCount;
-            float maxScore = 0;
 
             // If we're using a postprocessor, (re-)initialize it before using it 
             if (m_postProcessor != null) {
                 m_postProcessor.init();
             }
 
-            // process found documents
-            List<CmsSearchResource> allDocs = new ArrayList<CmsSearchResource>();
-            int cnt = 0;
-            for (int i = 0; (i < queryResponse.getResults().size()) && (cnt < end); i++) {
-                try {
-                    SolrDocument doc = queryResponse.getResults().get(i);
-                    CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
-                    if (needsPermissionCheck(searchDoc)) {
-                        // only if the document is an OpenCms internal resource perform the permission check
-                        CmsResource resource = getResource(searchCms, searchDoc);
-                        if (resource != null) {
-                            // permission check performed successfully: the user has read permissions!
-                            if (cnt >= start) {
-                                if (m_postProcessor != null) {
+            // the cursor of the current user for this query, to continue where the previous page stopped
+            String cursorKey = getResultCursorKey(cms, query);
+            CmsSolrResultCursor cursor = m_resultCursors.getIfPresent(cursorKey);
+
+            SolrQuery chunkQuery = query;
+            QueryResponse queryResponse = null;
+            long hitCount = 0;
+            long solrTime = 0;
+            int skipped = 0;
+            int visible = 0;
+            float maxScore = 0;
+            boolean lastPageChecked = false;
+            while (true) {
+                resourceDocumentList.clear();
+                solrDocumentList.clear();
+                maxScore = 0;
+
+                // continue at the last known position before the requested page
+                int[] position = (cursor != null) ? cursor.getPosition(start) : new int[] {0, 0, 0};
+                visible = position[0];
+                int offset = position[1];
+                skipped = position[2];
+
+                // read the documents in chunks, growing as long as the permission check removes documents
+                int chunkRows = (rows > 0) ? Math.max((start - visible) + rows, CHUNK_ROWS_MIN) : 0;
+                boolean exhausted = false;
+                do {
+                    long queryStartTime = System.currentTimeMillis();
+                    chunkQuery.setStart(new Integer(offset));
+                    chunkQuery.setRows(new Integer(chunkRows));
+                    QueryResponse chunkResponse = m_solr.query(chunkQuery);
+                    solrTime += System.currentTimeMillis() - queryStartTime;
+                    if (queryResponse == null) {
+                        // the first response is returned, the following queries only have to deliver documents
+                        queryResponse = chunkResponse;
+                        hitCount = queryResponse.getResults().getNumFound();
+                        chunkQuery = query.clone();
+                        chunkQuery.setFacet(false);
+                        if ((cursor == null) || (cursor.getNumFound() != hitCount)) {
+                            // the result has changed, so the known positions are no longer valid
+                            boolean resumed = (cursor != null) && (offset > 0);
+                            cursor = new CmsSolrResultCursor(hitCount);
+                            m_resultCursors.put(cursorKey, cursor);
+                            if (resumed) {
+                                visible = 0;
+                                offset = 0;
+                                skipped = 0;
+                                chunkRows = Math.max(start + rows, CHUNK_ROWS_MIN);
+                                continue;
+                            }
+                        }
+                    }
+                    SolrDocumentList chunk = chunkResponse.getResults();
+                    exhausted = (chunkRows == 0) || (chunk.size() < chunkRows);
+
+                    // check the permissions for all documents of the chunk at once
+                    List<CmsSolrDocument> searchDocs = new ArrayList<CmsSolrDocument>(chunk.size());
+                    List<CmsSolrDocument> checkDocs = new ArrayList<CmsSolrDocument>(chunk.size());
+                    boolean[] needsCheck = new boolean[chunk.size()];
+                    for (SolrDocument doc : chunk) {
+                        CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
+                        if (needsPermissionCheck(searchDoc)) {
+                            needsCheck[searchDocs.size()] = true;
+                            checkDocs.add(searchDoc);
+                        }
+                        searchDocs.add(searchDoc);
+                    }
+                    Iterator<CmsResource> checkedResources = getResources(searchCms, checkDocs).iterator();
+
+                    for (int i = 0; i < searchDocs.size(); i++) {
+                        CmsSolrDocument searchDoc = searchDocs.get(i);
+                        offset++;
+                        // if permission check is not required for this document,
+                        // add a pseudo resource together with document to the results
+                        CmsResource resource = needsCheck[i] ? checkedResources.next() : PSEUDO_RES;
+                        if (resource == null) {
+                            // the user has no read permissions
+                            skipped++;
+                            continue;
+                        }
+                        if (visible >= start) {
+                            try {
+                                SolrDocument doc = searchDoc.getSolrDocument();
+                                if ((m_postProcessor != null) && (resource != PSEUDO_RES)) {
                                     doc = m_postProcessor.process(
                                         searchCms,
                                         resource,
@@ -858,39 +946,42 @@ public class CmsSolrIndex extends CmsSearchIndex {
                                     solrDocumentList.add(doc);
                                 }
                                 maxScore = maxScore < searchDoc.getScore() ? searchDoc.getScore() : maxScore;
+                            } catch (Exception e) {
+                                // should not happen, but if it does we want to go on with the next result nevertheless
+                                LOG.warn(
+                                    Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_RESULT_ITERATION_FAILED_0),
+                                    e);
                             }
-                            allDocs.add(new CmsSearchResource(resource, searchDoc));
-                            cnt++;
-                        } else {
-                            visibleHitCount--;
                         }
-                    } else {
-                        // if permission check is not required for this index,
-                        // add a pseudo resource together with document to the results
-                        resourceDocumentList.add(new CmsSearchResource(PSEUDO_RES, searchDoc));
-                        solrDocumentList.add(doc);
-                        maxScore = maxScore < searchDoc.getScore() ? searchDoc.getScore() : maxScore;
+                        visible++;
+                        if ((visible % rows) == 0) {
+                            // remember where the next page starts
+                            cursor.setPosition(visible, offset, skipped);
+                        }
+                        if (resourceDocumentList.size() >= rows) {
+                            break;
+                        }
                     }
-                } catch (Exception e) {
-                    // should not happen, but if it does we want to go on with the next result nevertheless
-                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_RESULT_ITERATION_FAILED_0), e);
+                    chunkRows = Math.min(chunkRows * 2, CHUNK_ROWS_MAX);
+                } while (!exhausted && (resourceDocumentList.size() < rows));
+
+                if (resourceDocumentList.isEmpty() && (visible > 0) && (start > 0) && !lastPageChecked) {
+                    // the requested page is behind the last visible document, so let's take the last page
+                    start = ((visible - 1) / rows) * rows;
+                    page = (start / rows) + 1;
+                    lastPageChecked = true;
+                } else {
+                    break;
                 }
             }
-            // the last documents were all secret so let's take the last found docs
-            if (resourceDocumentList.isEmpty() && (allDocs.size() > 0)) {
-                page = Math.round(allDocs.size() / rows) + 1;
-                int showCount = allDocs.size() % rows;
-                showCount = showCount == 0 ? rows : showCount;
-                start = allDocs.size() - new Long(showCount).intValue();
-                end = allDocs.size();
-                if (allDocs.size() > start) {
-                    resourceDocumentList = allDocs.subList(start, end);
-                    for (CmsSearchResource r : resourceDocumentList) {
-                        maxScore = maxScore < r.getDocument().getScore() ? r.getDocument().getScore() : maxScore;
-                        solrDocumentList.add(((CmsSolrDocument)r.getDocument()).getSolrDocument());
-                    }
-                }
+            int end = start + resourceDocumentList.size();
+            if (rows <= 0) {
+                // no page was requested, only the number of found documents is returned
+                end = new Long(hitCount).intValue();
             }
+            // documents not checked yet are assumed to be visible
+            long visibleHitCount = hitCount - skipped;
+
             long processTime = System.currentTimeMillis() - startTime - solrTime;
 
             // create and return the result
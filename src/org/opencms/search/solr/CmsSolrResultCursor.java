@@ -0,0 +1,112 @@
+/*
+ * File   : $Source$
+ * Date   : $Date$
+ * Version: $Revision$
+ *
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (C) 2002 - 2009 Alkacon Software (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search.solr;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Remembers where the result pages of a Solr query start for a single user.<p>
+ * 
+ * Since the permission check removes documents from the Solr result, the position of a 
+ * document in the visible result differs from its offset in the Solr result. 
+ * The cursor stores both positions for every page boundary reached so far, so that 
+ * the next page can be read starting at the Solr offset where the previous page stopped,
+ * instead of checking all documents starting from the first one again.<p>
+ * 
+ * A cursor is only valid as long as the Solr result does not change, 
+ * this is approximated by comparing the number of found documents.<p>
+ * 
+ * @since 9.5.0
+ */
+public class CmsSolrResultCursor {
+
+    /** The number of documents found by the Solr query when the cursor was created. */
+    private long m_numFound;
+
+    /** The known positions, mapping the visible position to the Solr offset and the number of skipped documents. */
+    private TreeMap<Integer, int[]> m_positions;
+
+    /**
+     * Creates a new cursor.<p>
+     * 
+     * @param numFound the number of documents found by the Solr query
+     */
+    public CmsSolrResultCursor(long numFound) {
+
+        m_numFound = numFound;
+        m_positions = new TreeMap<Integer, int[]>();
+    }
+
+    /**
+     * Returns the number of documents found by the Solr query when the cursor was created.<p>
+     * 
+     * @return the number of documents found by the Solr query when the cursor was created
+     */
+    public long getNumFound() {
+
+        return m_numFound;
+    }
+
+    /**
+     * Returns the known position closest before the given visible position.<p>
+     * 
+     * The result is an array containing the visible position, the Solr offset of the 
+     * document at that position and the number of documents before that offset that 
+     * have been skipped because of missing permissions.<p>
+     * 
+     * @param visiblePosition the visible position to start reading at
+     * 
+     * @return the known position closest before the given visible position
+     */
+    public synchronized int[] getPosition(int visiblePosition) {
+
+        Map.Entry<Integer, int[]> entry = m_positions.floorEntry(Integer.valueOf(visiblePosition));
+        if (entry == null) {
+            return new int[] {0, 0, 0};
+        }
+        int[] position = entry.getValue();
+        return new int[] {entry.getKey().intValue(), position[0], position[1]};
+    }
+
+    /**
+     * Stores a position of the result.<p>
+     * 
+     * @param visiblePosition the visible position
+     * @param offset the Solr offset of the document at the visible position
+     * @param skipped the number of documents before the Solr offset skipped because of missing permissions
+     */
+    public synchronized void setPosition(int visiblePosition, int offset, int skipped) {
+
+        m_positions.put(Integer.valueOf(visiblePosition), new int[] {offset, skipped});
+    }
+}
@@ -28,6 +28,7 @@
 package org.opencms.security;
 
 import org.opencms.configuration.CmsSystemConfiguration;
+import org.opencms.db.CmsCacheKey;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
@@ -64,6 +65,9 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
     /** Security Manager instance. */
     protected CmsSecurityManager m_securityManager;
 
+    /** Indicates if the compact permission cache keys of the default key generator are used. */
+    private boolean m_compactKeys;
+
     /** The class used for cache key generation. */
     private I_CmsCacheKey m_keyGenerator;
 
@@ -85,16 +89,29 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
 
         // checking the filter is less cost intensive then checking the cache,
         // this is why basic filter results are not cached
-        String cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
-            filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
-            ? "01"
-            : (filter.requireVisible() && !checkLock ? "10" : "00")),
-            dbc,
-            resource,
-            requiredPermissions);
-        CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
-        if (cacheResult != null) {
-            return cacheResult;
+        Object cacheKey;
+        if (m_compactKeys) {
+            int mode = (filter.requireVisible() ? CmsCacheKey.MODE_REQUIRE_VISIBLE : 0)
+                | (checkLock ? CmsCacheKey.MODE_CHECK_LOCK : 0);
+            cacheKey = ((CmsCacheKey)m_keyGenerator).getCompactKeyForUserPermissions(
+                mode,
+                dbc,
+                resource,
+                requiredPermissions);
+        } else {
+            cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
+                filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
+                ? "01"
+                : (filter.requireVisible() && !checkLock ? "10" : "00")),
+                dbc,
+                resource,
+                requiredPermissions);
+        }
+        if (cacheKey != null) {
+            CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
+            if (cacheResult != null) {
+                return cacheResult;
+            }
         }
 
         int denied = 0;
@@ -211,7 +228,7 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
                         permissions.getPermissionString()}));
             }
         }
-        if (dbc.getProjectId().isNullUUID()) {
+        if ((cacheKey != null) && dbc.getProjectId().isNullUUID()) {
             OpenCms.getMemoryMonitor().cachePermission(cacheKey, result);
         }
 
@@ -232,6 +249,8 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
         try {
             // initialize the key generator
             m_keyGenerator = (I_CmsCacheKey)Class.forName(className).newInstance();
+            // only the default generator uses compact keys, custom generators keep their String keys
+            m_compactKeys = m_keyGenerator.getClass() == CmsCacheKey.class;
         } catch (Exception e) {
             throw new CmsInitException(org.opencms.main.Messages.get().container(
                 org.opencms.main.Messages.ERR_CRITICAL_CLASS_CREATION_1,
@@ -57,6 +57,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -594,9 +598,85 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
         return status;
     }
 
+    /**
+     * Exports a template resource together with its detail pages and writes the result to the report.<p>
+     * 
+     * The report output for the resource is written in one block, so that the output 
+     * is not mixed up if several resources are rendered in parallel.<p>
+     * 
+     * @param data the export data of the resource
+     * @param detailData the export data of the detail pages of the resource
+     * @param cookies cookies to keep the session
+     * @param report an I_CmsReport instance to print output message
+     * @param count the number of the resource in the report
+     * @param size the total number of resources in the report
+     */
+    protected void exportTemplateResource(
+        CmsStaticExportData data,
+        List<CmsStaticExportData> detailData,
+        StringBuffer cookies,
+        I_CmsReport report,
+        int count,
+        int size) {
+
+        int status = -1;
+        IOException exception = null;
+        try {
+            for (CmsStaticExportData detail : detailData) {
+                exportTemplateResource(detail, cookies);
+            }
+            status = exportTemplateResource(data, cookies);
+        } catch (IOException e) {
+            exception = e;
+        }
+
+        synchronized (report) {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    new Integer(count),
+                    new Integer(size)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                data.getRfsName()));
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+            // write the report
+            if (exception != null) {
+                report.println(exception);
+            } else if (status == HttpServletResponse.SC_OK) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
+                    I_CmsReport.FORMAT_NOTE);
+            } else if (status == HttpServletResponse.SC_SEE_OTHER) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                    I_CmsReport.FORMAT_NOTE);
+            } else {
+                report.println(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        new Integer(status)),
+                    I_CmsReport.FORMAT_OK);
+            }
+        }
+    }
+
     /**
      * Exports all template resources found in a list of published resources.<p>
      * 
+     * The VFS data of all resources is collected first, and every RFS name is rendered only once,
+     * even if it is also the detail page of another resource. If more than one export thread 
+     * is configured, the resources are then rendered in parallel by that number of threads.
+     * The first resource is always rendered alone, to obtain the session cookie used 
+     * for the following requests.<p>
+     * 
      * @param cms the cms context, in the root site as Export user
      * @param publishedTemplateResources list of potential candidates to export
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file    
@@ -605,7 +685,6 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         CmsStaticExportManager manager = OpenCms.getStaticExportManager();
         int size = publishedTemplateResources.size();
-        int count = 1;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_EXPORT_TEMPLATES_1, new Integer(size)));
@@ -614,8 +693,10 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
-        StringBuffer cookies = new StringBuffer();
-        // now loop through all of them and request them from the server
+        // collect the export data of all resources and their detail pages
+        List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>(size);
+        List<List<CmsStaticExportData>> detailPagesToExport = new ArrayList<List<CmsStaticExportData>>(size);
+        Set<String> rfsNames = new HashSet<String>(publishedTemplateResources);
         Iterator<String> i = publishedTemplateResources.iterator();
         while (i.hasNext()) {
             String rfsName = i.next();
@@ -638,68 +719,97 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                     }
                 }
             }
-            if (data != null) {
-                data.setRfsName(rfsName);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        new Integer(count++),
-                        new Integer(size)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    rfsName));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            } else {
+            if (data == null) {
                 // no valid resource found for rfs name (already deleted), skip it
                 continue;
             }
-
+            data.setRfsName(rfsName);
+            List<CmsStaticExportData> detailData = new ArrayList<CmsStaticExportData>();
             try {
                 CmsResource resource = data.getResource();
-                try {
-                    Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
-                    for (String detailPageUri : detailPages) {
-                        String altRfsName = manager.getRfsName(cms, detailPageUri);
-                        CmsStaticExportData detailData = new CmsStaticExportData(
+                Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
+                for (String detailPageUri : detailPages) {
+                    String altRfsName = manager.getRfsName(cms, detailPageUri);
+                    if (rfsNames.add(altRfsName)) {
+                        detailData.add(new CmsStaticExportData(
                             data.getVfsName(),
                             altRfsName,
                             data.getResource(),
-                            data.getParameters());
-                        exportTemplateResource(detailData, cookies);
+                            data.getParameters()));
                     }
-                } catch (CmsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
                 }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            resourcesToExport.add(data);
+            detailPagesToExport.add(detailData);
+        }
 
-                int status = exportTemplateResource(data, cookies);
-
-                // write the report
-                if (status == HttpServletResponse.SC_OK) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else if (status == HttpServletResponse.SC_SEE_OTHER) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else {
-                    report.println(
-                        org.opencms.report.Messages.get().container(
-                            org.opencms.report.Messages.RPT_ARGUMENT_1,
-                            new Integer(status)),
-                        I_CmsReport.FORMAT_OK);
+        // now request all of them from the server
+        StringBuffer cookies = new StringBuffer();
+        size = resourcesToExport.size();
+        int threads = Math.min(manager.getExportThreads(), size - 1);
+        if (threads <= 1) {
+            for (int j = 0; j < size; j++) {
+                exportTemplateResource(
+                    resourcesToExport.get(j),
+                    detailPagesToExport.get(j),
+                    cookies,
+                    report,
+                    j + 1,
+                    size);
+                //don't lock up the CPU exclusively - allow other Threads to run as well 
+                Thread.yield();
+            }
+        } else {
+            exportTemplateResource(resourcesToExport.get(0), detailPagesToExport.get(0), cookies, report, 1, size);
+            ExecutorService renderers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                /** The number of the next thread. */
+                private int m_count;
+
+                public synchronized Thread newThread(Runnable r) {
+
+                    m_count++;
+                    Thread thread = new Thread(r, "OpenCms: static export render worker " + m_count);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            try {
+                for (int j = 1; j < size; j++) {
+                    final CmsStaticExportData data = resourcesToExport.get(j);
+                    final List<CmsStaticExportData> detailData = detailPagesToExport.get(j);
+                    final StringBuffer renderCookies = cookies;
+                    final I_CmsReport renderReport = report;
+                    final int count = j + 1;
+                    final int total = size;
+                    renderers.execute(new Runnable() {
+
+                        public void run() {
+
+                            try {
+                                exportTemplateResource(data, detailData, renderCookies, renderReport, count, total);
+                            } catch (Throwable t) {
+                                LOG.error(t.getLocalizedMessage(), t);
+                            }
+                        }
+                    });
+                }
+            } finally {
+                renderers.shutdown();
+                boolean interrupted = false;
+                while (!renderers.isTerminated()) {
+                    try {
+                        renderers.awaitTermination(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
                 }
-            } catch (IOException e) {
-                report.println(e);
             }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
         }
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_END_0),
@@ -190,6 +190,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** List of export suffixes where the "export" property default is always <code>true</code>. */
     private List<String> m_exportSuffixes;
 
+    /** The number of threads used to render template resources in the after publish static export. */
+    private int m_exportThreads;
+
     /** Temporary variable for reading the xml config file. */
     private CmsStaticExportExportRule m_exportTmpRule;
 
@@ -278,6 +281,7 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_lockScrubExportFolders = new Object();
         m_lockSetExportnames = new Object();
         m_exportSuffixes = new ArrayList<String>();
+        m_exportThreads = 1;
         m_exportFolders = new ArrayList<String>();
         m_exportHeaders = new ArrayList<String>();
         m_rfsRules = new ArrayList<CmsStaticExportRfsRule>();
@@ -1068,6 +1072,19 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_exportSuffixes;
     }
 
+    /**
+     * Returns the number of threads used to render template resources in the after publish static export.<p>
+     * 
+     * All render requests are sent to the export url, so this is also the maximum number
+     * of concurrent requests to the server.<p>
+     * 
+     * @return the number of render threads
+     */
+    public int getExportThreads() {
+
+        return m_exportThreads;
+    }
+
     /**
      * Returns the export URL used for internal requests for exporting resources that require a 
      * request / response (like JSP).<p>
@@ -1717,6 +1734,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
                     Messages.INIT_EXPORT_OPTIMIZATION_1,
                     getPlainExportOptimization()));
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_EXPORT_TESTRESOURCE_1, getTestResource()));
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_EXPORT_THREADS_1,
+                    new Integer(getExportThreads())));
                 CmsLog.INIT.info(Messages.get().getBundle().key(
                     Messages.INIT_LINKSUBSTITUTION_HANDLER_1,
                     getLinkSubstitutionHandler().getClass().getName()));
@@ -2101,6 +2121,20 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportSuffixes.add(suffix.toLowerCase());
     }
 
+    /**
+     * Sets the number of threads used to render template resources in the after publish static export.<p>
+     * 
+     * @param threads the number of render threads
+     */
+    public void setExportThreads(String threads) {
+
+        try {
+            m_exportThreads = Math.max(Integer.parseInt(threads.trim()), 1);
+        } catch (NumberFormatException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     /**
      * Sets the export url.<p>
      * 
@@ -2792,11 +2826,36 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         createExportFolder(exportPath, rfsName);
         // generate export file instance and output stream
         File exportFile = new File(exportFileName);
-        // write new exported file content
+        // write new exported file content to a temporary file first, 
+        // so that the export file is replaced only with the complete new content
+        File tempFile = null;
         try {
-            FileOutputStream exportStream = new FileOutputStream(exportFile);
-            exportStream.write(content);
-            exportStream.close();
+            String tempPrefix = "." + exportFile.getName();
+            if (tempPrefix.length() < 3) {
+                // temporary file names require a prefix of at least 3 characters
+                tempPrefix += "_export";
+            }
+            tempFile = File.createTempFile(tempPrefix, ".tmp", exportFile.getParentFile());
+            FileOutputStream exportStream = new FileOutputStream(tempFile);
+            try {
+                exportStream.write(content);
+            } finally {
+                exportStream.close();
+            }
+            if (!tempFile.renameTo(exportFile)) {
+                // on some platforms an existing file can not be replaced by renaming,
+                // so the export file is missing for a short time
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_STATIC_EXPORT_DELETE_BEFORE_RENAME_1,
+                        exportFileName));
+                }
+                exportFile.delete();
+                if (!tempFile.renameTo(exportFile)) {
+                    throw new IOException(tempFile.getAbsolutePath());
+                }
+            }
+            tempFile = null;
 
             // log export success 
             if (LOG.isInfoEnabled()) {
@@ -2810,6 +2869,10 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             throw new CmsStaticExportException(
                 Messages.get().container(Messages.ERR_OUTPUT_STREAM_1, exportFileName),
                 t);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
         }
         // update the file with the modification date from the server
         if (req != null) {
@@ -97,6 +97,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_TESTRESOURCE_1 = "INIT_EXPORT_TESTRESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_EXPORT_THREADS_1 = "INIT_EXPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_URL_1 = "INIT_EXPORT_URL_1";
 
@@ -271,6 +274,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SET_LAST_MODIFIED_2 = "LOG_SET_LAST_MODIFIED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_STATIC_EXPORT_DELETE_BEFORE_RENAME_1 = "LOG_STATIC_EXPORT_DELETE_BEFORE_RENAME_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STATIC_EXPORT_DISABLED_0 = "LOG_STATIC_EXPORT_DISABLED_0";
 
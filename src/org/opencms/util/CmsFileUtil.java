@@ -58,6 +58,7 @@ import java.util.ListIterator;
 import java.util.Locale;
 
 import org.apache.commons.collections.Closure;
+import org.apache.commons.io.input.BoundedInputStream;
 
 /**
  * Provides File utility functions.<p>
@@ -378,6 +379,62 @@ public final class CmsFileUtil {
         return ret;
     }
 
+    /**
+     * Returns a stream on the given byte range of the given content.<p>
+     * 
+     * The range is cut to the bounds of the content, so an offset beyond the end of 
+     * the content results in an empty stream.<p>
+     * 
+     * @param content the content to read the range from
+     * @param offset the number of bytes to skip at the start of the content
+     * @param length the maximum number of bytes to return, or a negative value to return all remaining bytes
+     * 
+     * @return a stream on the given range of the content
+     */
+    public static InputStream getRangeStream(byte[] content, long offset, long length) {
+
+        int start = (int)Math.min(Math.max(offset, 0), content.length);
+        int count = content.length - start;
+        if ((length >= 0) && (length < count)) {
+            count = (int)length;
+        }
+        return new ByteArrayInputStream(content, start, count);
+    }
+
+    /**
+     * Returns a stream that only returns the given byte range of the given input stream.<p>
+     * 
+     * The first <code>offset</code> bytes of the input stream are skipped before this method returns.
+     * Closing the returned stream also closes the given input stream.<p>
+     * 
+     * @param in the input stream to read the range from
+     * @param offset the number of bytes to skip at the start of the input stream
+     * @param length the maximum number of bytes to return, or a negative value to return all remaining bytes
+     * 
+     * @return a stream only returning the given range of the input stream
+     * 
+     * @throws IOException in case of errors in the underlying java.io methods used
+     */
+    public static InputStream getRangeStream(InputStream in, long offset, long length) throws IOException {
+
+        long skipped = 0;
+        while (skipped < offset) {
+            long count = in.skip(offset - skipped);
+            if (count <= 0) {
+                // skip() may return 0 before the end of the stream is reached, so read a single byte to check for EOF 
+                if (in.read() < 0) {
+                    break;
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+        if (length < 0) {
+            return in;
+        }
+        return new BoundedInputStream(in, length);
+    }
+
     /**
      * Returns the file name for a given VFS name that has to be written to a repository in the "real" file system, 
      * by appending the VFS root path to the given base repository path, also adding an 
@@ -79,6 +79,9 @@ public final class CmsRequestUtil {
     /** HTTP Accept-Language Header for internal requests used during static export. */
     public static final String HEADER_ACCEPT_LANGUAGE = "Accept-Language";
 
+    /** HTTP Header "Accept-Ranges". */
+    public static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+
     /** HTTP Header "Cache-Control". */
     public static final String HEADER_CACHE_CONTROL = "Cache-Control";
 
@@ -88,6 +91,9 @@ public final class CmsRequestUtil {
     /** The "Content-Disposition" http header. */
     public static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
 
+    /** HTTP Header "Content-Range". */
+    public static final String HEADER_CONTENT_RANGE = "Content-Range";
+
     /** The "Content-Type" http header. */
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
 
@@ -97,6 +103,9 @@ public final class CmsRequestUtil {
     /** HTTP Header "If-Modified-Since". */
     public static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
 
+    /** HTTP Header "If-Range". */
+    public static final String HEADER_IF_RANGE = "If-Range";
+
     /** The Header that stores the session id (used by OpenCms upload applet). */
     public static final String HEADER_JSESSIONID = "JSESSIONID";
 
@@ -112,6 +121,9 @@ public final class CmsRequestUtil {
     /** HTTP Header "Pragma". */
     public static final String HEADER_PRAGMA = "Pragma";
 
+    /** HTTP Header "Range". */
+    public static final String HEADER_RANGE = "Range";
+
     /** HTTP Header "Server". */
     public static final String HEADER_SERVER = "Server";
 
@@ -82,6 +82,15 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
     /** Serial version UID required for safe serialization. */
     private static final long serialVersionUID = 1736324454709298676L;
 
+    /** Indicates if the 64 bit halves of this UUID have been computed. */
+    private transient volatile boolean m_hasBits;
+
+    /** The lower 64 bits of this UUID. */
+    private transient long m_leastSigBits;
+
+    /** The upper 64 bits of this UUID. */
+    private transient long m_mostSigBits;
+
     /** Internal UUID implementation. */
     private transient UUID m_uuid;
 
@@ -284,6 +293,37 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         return false;
     }
 
+    /**
+     * Returns the lower 64 bits of this UUID.<p>
+     * 
+     * Together with {@link #getMostSignificantBits()} this allows to use the UUID 
+     * in compact cache keys without creating a String representation.<p>
+     * 
+     * @return the lower 64 bits of this UUID
+     */
+    public long getLeastSignificantBits() {
+
+        if (!m_hasBits) {
+            computeBits();
+        }
+        return m_leastSigBits;
+    }
+
+    /**
+     * Returns the upper 64 bits of this UUID.<p>
+     * 
+     * @return the upper 64 bits of this UUID
+     * 
+     * @see #getLeastSignificantBits()
+     */
+    public long getMostSignificantBits() {
+
+        if (!m_hasBits) {
+            computeBits();
+        }
+        return m_mostSigBits;
+    }
+
     /**
      * Returns the String representation of this UUID, same as {@link #toString()}.<p>
      * 
@@ -389,4 +429,21 @@ public final class CmsUUID extends Object implements Cloneable, Comparable<CmsUU
         }
         out.writeObject(toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Computes the 64 bit halves of this UUID.<p>
+     */
+    private void computeBits() {
+
+        byte[] data = m_uuid.asByteArray();
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 8; i++) {
+            most = (most << 8) | (data[i] & 0xff);
+            least = (least << 8) | (data[i + 8] & 0xff);
+        }
+        m_mostSigBits = most;
+        m_leastSigBits = least;
+        m_hasBits = true;
+    }
+}
@@ -234,9 +234,21 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the header "ETag". */
     private static final String HEADER_ETAG = "ETag";
 
+    /** The name of the header "If-Match". */
+    private static final String HEADER_IFMATCH = "If-Match";
+
+    /** The name of the header "If-Modified-Since". */
+    private static final String HEADER_IFMODIFIEDSINCE = "If-Modified-Since";
+
+    /** The name of the header "If-None-Match". */
+    private static final String HEADER_IFNONEMATCH = "If-None-Match";
+
     /** The name of the header "If-Range". */
     private static final String HEADER_IFRANGE = "If-Range";
 
+    /** The name of the header "If-Unmodified-Since". */
+    private static final String HEADER_IFUNMODIFIEDSINCE = "If-Unmodified-Since";
+
     /** The name of the header "Last-Modified". */
     private static final String HEADER_LASTMODIFIED = "Last-Modified";
 
@@ -506,6 +518,67 @@ public class CmsWebdavServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Checks the conditional request headers "If-Match", "If-Unmodified-Since",
+     * "If-None-Match" and "If-Modified-Since" against the ETag and the last 
+     * modification date of the item.<p>
+     * 
+     * If a condition fails, the matching status is set to the response and the 
+     * content of the item must not be served.<p>
+     *
+     * @param request the servlet request we are processing
+     * @param response the servlet response we are creating
+     * @param item the RepositoryItem
+     * 
+     * @return true if the item should be served, false if the response is already complete
+     */
+    protected boolean checkIfHeaders(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        I_CmsRepositoryItem item) {
+
+        String eTag = getETag(item);
+        long lastModified = item.getLastModifiedDate();
+
+        // If-Match uses the strong comparison of the ETags
+        String headerValue = request.getHeader(HEADER_IFMATCH);
+        if ((headerValue != null) && !matchesETag(headerValue, eTag, false)) {
+            response.setStatus(CmsWebdavStatus.SC_PRECONDITION_FAILED);
+            return false;
+        }
+
+        long headerValueTime = parseDateHeader(request, HEADER_IFUNMODIFIEDSINCE);
+        if ((headerValueTime != -1L) && (lastModified >= (headerValueTime + 1000))) {
+            response.setStatus(CmsWebdavStatus.SC_PRECONDITION_FAILED);
+            return false;
+        }
+
+        // If-None-Match uses the weak comparison of the ETags
+        headerValue = request.getHeader(HEADER_IFNONEMATCH);
+        if (headerValue != null) {
+            if (matchesETag(headerValue, eTag, true)) {
+                String method = request.getMethod();
+                if (METHOD_GET.equals(method) || METHOD_HEAD.equals(method)) {
+                    response.setStatus(CmsWebdavStatus.SC_NOT_MODIFIED);
+                    response.setHeader(HEADER_ETAG, eTag);
+                } else {
+                    response.setStatus(CmsWebdavStatus.SC_PRECONDITION_FAILED);
+                }
+                return false;
+            }
+        } else {
+            // If-Modified-Since is ignored if If-None-Match is present
+            headerValueTime = parseDateHeader(request, HEADER_IFMODIFIEDSINCE);
+            if ((headerValueTime != -1L) && (lastModified < (headerValueTime + 1000))) {
+                response.setStatus(CmsWebdavStatus.SC_NOT_MODIFIED);
+                response.setHeader(HEADER_ETAG, eTag);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Copy the contents of the specified input stream to the specified
      * output stream, and ensure that both streams are closed before returning
@@ -523,7 +596,7 @@ public class CmsWebdavServlet extends HttpServlet {
 
         InputStream resourceInputStream = null;
         if (!item.isCollection()) {
-            resourceInputStream = new ByteArrayInputStream(item.getContent());
+            resourceInputStream = item.getContentStream(0, -1);
         } else {
             resourceInputStream = is;
         }
@@ -564,15 +637,9 @@ public class CmsWebdavServlet extends HttpServlet {
         IOException exception = null;
         InputStream resourceInputStream = null;
 
-        // Optimization: If the binary content has already been loaded, send
-        // it directly
+        // stream the content, so that large files do not have to be read into memory
         if (!item.isCollection()) {
-            byte[] buffer = item.getContent();
-            if (buffer != null) {
-                ostream.write(buffer, 0, buffer.length);
-                return;
-            }
-            resourceInputStream = new ByteArrayInputStream(item.getContent());
+            resourceInputStream = item.getContentStream(0, -1);
         } else {
             resourceInputStream = is;
         }
@@ -612,10 +679,13 @@ public class CmsWebdavServlet extends HttpServlet {
 
         IOException exception = null;
 
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+        // only the requested range is read from the repository 
+        InputStream resourceInputStream = item.getContentStream(
+            range.getStart(),
+            (range.getEnd() - range.getStart()) + 1);
 
         Reader reader = new InputStreamReader(resourceInputStream);
-        exception = copyRange(reader, writer, range.getStart(), range.getEnd());
+        exception = copyRange(reader, writer);
 
         // Clean up the input stream
         try {
@@ -654,10 +724,14 @@ public class CmsWebdavServlet extends HttpServlet {
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+            CmsWebdavRange currentRange = ranges.next();
+
+            // only the requested range is read from the repository 
+            InputStream resourceInputStream = item.getContentStream(
+                currentRange.getStart(),
+                (currentRange.getEnd() - currentRange.getStart()) + 1);
 
             Reader reader = new InputStreamReader(resourceInputStream);
-            CmsWebdavRange currentRange = ranges.next();
 
             // Writing MIME header.
             writer.println();
@@ -674,7 +748,7 @@ public class CmsWebdavServlet extends HttpServlet {
             writer.println();
 
             // Printing content
-            exception = copyRange(reader, writer, currentRange.getStart(), currentRange.getEnd());
+            exception = copyRange(reader, writer);
 
             try {
                 reader.close();
@@ -710,9 +784,12 @@ public class CmsWebdavServlet extends HttpServlet {
 
         IOException exception = null;
 
-        InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
+        // only the requested range is read from the repository 
+        InputStream resourceInputStream = item.getContentStream(
+            range.getStart(),
+            (range.getEnd() - range.getStart()) + 1);
         InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-        exception = copyRange(istream, ostream, range.getStart(), range.getEnd());
+        exception = copyRange(istream, ostream);
 
         // Clean up the input stream
         try {
@@ -751,11 +828,14 @@ public class CmsWebdavServlet extends HttpServlet {
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = new ByteArrayInputStream(item.getContent());
-            InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
-
             CmsWebdavRange currentRange = ranges.next();
 
+            // only the requested range is read from the repository 
+            InputStream resourceInputStream = item.getContentStream(
+                currentRange.getStart(),
+                (currentRange.getEnd() - currentRange.getStart()) + 1);
+            InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
+
             // Writing MIME header.
             ostream.println();
             ostream.println("--" + MIME_SEPARATION);
@@ -771,7 +851,7 @@ public class CmsWebdavServlet extends HttpServlet {
             ostream.println();
 
             // Printing content
-            exception = copyRange(istream, ostream, currentRange.getStart(), currentRange.getEnd());
+            exception = copyRange(istream, ostream);
 
             try {
                 istream.close();
@@ -2175,7 +2255,7 @@ public class CmsWebdavServlet extends HttpServlet {
         try {
             I_CmsRepositoryItem item = m_session.getItem(path);
 
-            oldResourceStream = new ByteArrayInputStream(item.getContent());
+            oldResourceStream = item.getContentStream(0, -1);
         } catch (CmsException e) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(Messages.get().getBundle().key(Messages.LOG_ITEM_NOT_FOUND_1, path), e);
@@ -2649,6 +2729,11 @@ public class CmsWebdavServlet extends HttpServlet {
 
         } else {
 
+            // Check the conditional request headers, the content is not read if a condition fails
+            if (!checkIfHeaders(request, response, item)) {
+                return;
+            }
+
             // Parse range specifier
             ranges = parseRange(request, response, item);
 
@@ -3123,6 +3208,36 @@ public class CmsWebdavServlet extends HttpServlet {
         return true;
     }
 
+    /**
+     * Checks if a list of ETags from a conditional request header matches the given ETag.<p>
+     * 
+     * @param headerValue the value of the header, a comma separated list of ETags or "*"
+     * @param eTag the ETag of the item
+     * @param weak if true, weak ETags are compared as if they were strong, otherwise they never match
+     * 
+     * @return true if one of the ETags matches
+     */
+    private boolean matchesETag(String headerValue, String eTag, boolean weak) {
+
+        if ("*".equals(headerValue.trim())) {
+            return true;
+        }
+        StringTokenizer commaTokenizer = new StringTokenizer(headerValue, ",");
+        while (commaTokenizer.hasMoreTokens()) {
+            String currentETag = commaTokenizer.nextToken().trim();
+            if (currentETag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                currentETag = currentETag.substring(2);
+            }
+            if (currentETag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Return a context-relative path, beginning with a "/".<p>
      * 
@@ -3250,6 +3365,23 @@ public class CmsWebdavServlet extends HttpServlet {
         return range;
     }
 
+    /**
+     * Reads a date header of the request.<p>
+     * 
+     * @param request the servlet request we are processing
+     * @param name the name of the header
+     * 
+     * @return the date of the header, or -1 if the header is missing or invalid
+     */
+    private long parseDateHeader(HttpServletRequest request, String name) {
+
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
     /**
      * Reads the information about a destination path out of the header of the
      * request.<p>
@@ -87,6 +87,9 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
     /** Reference for named elements in the document. */
     private Map<String, I_CmsXmlContentValue> m_bookmarks;
 
+    /** Index of the bookmarked values by locale and compiled path. */
+    private Map<Locale, Map<CmsXmlPath, I_CmsXmlContentValue>> m_valueIndex;
+
     /**
      * Default constructor for a XML document
      * that initializes some internal values.<p> 
@@ -94,6 +97,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
     protected A_CmsXmlDocument() {
 
         m_bookmarks = new HashMap<String, I_CmsXmlContentValue>();
+        m_valueIndex = new HashMap<Locale, Map<CmsXmlPath, I_CmsXmlContentValue>>();
         m_locales = new HashSet<Locale>();
     }
 
@@ -442,7 +446,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public String getStringValue(CmsObject cms, String path, Locale locale) {
 
-        I_CmsXmlContentValue value = getValueInternal(CmsXmlUtils.createXpath(path, 1), locale);
+        I_CmsXmlContentValue value = lookupValue(path, locale, 1);
         if (value != null) {
             return value.getStringValue(cms);
         }
@@ -454,9 +458,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public String getStringValue(CmsObject cms, String path, Locale locale, int index) {
 
-        // directly calling getValueInternal() is more efficient then calling getStringValue(CmsObject, String, Locale)
-        // since the most costs are generated in resolving the xpath name
-        I_CmsXmlContentValue value = getValueInternal(CmsXmlUtils.createXpath(path, index + 1), locale);
+        I_CmsXmlContentValue value = lookupValue(path, locale, index + 1);
         if (value != null) {
             return value.getStringValue(cms);
         }
@@ -491,7 +493,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public I_CmsXmlContentValue getValue(String path, Locale locale) {
 
-        return getValueInternal(CmsXmlUtils.createXpath(path, 1), locale);
+        return lookupValue(path, locale, 1);
     }
 
     /**
@@ -499,7 +501,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public I_CmsXmlContentValue getValue(String path, Locale locale, int index) {
 
-        return getValueInternal(CmsXmlUtils.createXpath(path, index + 1), locale);
+        return lookupValue(path, locale, index + 1);
     }
 
     /**
@@ -579,7 +581,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public boolean hasValue(String path, Locale locale) {
 
-        return null != getBookmark(CmsXmlUtils.createXpath(path, 1), locale);
+        return null != lookupValue(path, locale, 1);
     }
 
     /**
@@ -587,7 +589,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
      */
     public boolean hasValue(String path, Locale locale, int index) {
 
-        return null != getBookmark(CmsXmlUtils.createXpath(path, index + 1), locale);
+        return null != lookupValue(path, locale, index + 1);
     }
 
     /**
@@ -720,6 +722,15 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
 
         // add a bookmark to the provided value 
         m_bookmarks.put(getBookmarkName(path, locale), value);
+        CmsXmlPath compiledPath = CmsXmlPath.compileXpath(path);
+        if (compiledPath != null) {
+            Map<CmsXmlPath, I_CmsXmlContentValue> values = m_valueIndex.get(locale);
+            if (values == null) {
+                values = new HashMap<CmsXmlPath, I_CmsXmlContentValue>();
+                m_valueIndex.put(locale, values);
+            }
+            values.put(compiledPath, value);
+        }
 
         Set<Locale> sl;
         // update mapping of element name to locale
@@ -760,6 +771,7 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
     protected void clearBookmarks() {
 
         m_bookmarks.clear();
+        m_valueIndex.clear();
     }
 
     /**
@@ -829,6 +841,23 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
         return getBookmark(path, locale);
     }
 
+    /**
+     * Internal method to look up a value by its compiled path in the value index.<p>
+     * 
+     * This is equivalent to {@link #getValueInternal(String, Locale)} with the Xpath 
+     * of the compiled path, but does not require to create the bookmark name.<p>
+     * 
+     * @param path the compiled path to look up 
+     * @param locale the locale to look up
+     *  
+     * @return the value found in the value index 
+     */
+    protected I_CmsXmlContentValue getValueInternal(CmsXmlPath path, Locale locale) {
+
+        Map<CmsXmlPath, I_CmsXmlContentValue> values = m_valueIndex.get(locale);
+        return (values != null) ? values.get(path) : null;
+    }
+
     /**
      * Initializes an XML document based on the provided document, encoding and content definition.<p>
      * 
@@ -883,6 +912,14 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
         if (sn != null) {
             sn.remove(path);
         }
+        // remove the value from the index
+        CmsXmlPath compiledPath = CmsXmlPath.compileXpath(path);
+        if (compiledPath != null) {
+            Map<CmsXmlPath, I_CmsXmlContentValue> values = m_valueIndex.get(locale);
+            if (values != null) {
+                values.remove(compiledPath);
+            }
+        }
         // remove the bookmark and return the removed element
         return m_bookmarks.remove(getBookmarkName(path, locale));
     }
@@ -974,4 +1011,25 @@ public abstract class A_CmsXmlDocument implements I_CmsXmlDocument {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Looks up a value by its path and index, using the value index if the path can be compiled.<p>
+     * 
+     * The path is resolved like {@link CmsXmlUtils#createXpath(String, int)}, but
+     * the Xpath string and the bookmark name are not created for compiled paths.<p>
+     * 
+     * @param path the path of the value
+     * @param locale the locale of the value
+     * @param index the index to use for the last path element if it has no index (starting with 1)
+     * 
+     * @return the value, or <code>null</code> if not found
+     */
+    private I_CmsXmlContentValue lookupValue(String path, Locale locale, int index) {
+
+        CmsXmlPath compiledPath = CmsXmlPath.compile(path, index);
+        if (compiledPath != null) {
+            return getValueInternal(compiledPath, locale);
+        }
+        return getValueInternal(CmsXmlUtils.createXpath(path, index), locale);
+    }
+}
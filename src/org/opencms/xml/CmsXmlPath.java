@@ -0,0 +1,308 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled simplified Xpath like <code>Title[1]/Text[2]</code>,
+ * made of interned element names and integer indices.<p>
+ *
+ * Compiled paths are used as keys for the value index of the XML documents,
+ * so a value can be looked up without creating the Xpath string with {@link CmsXmlUtils#createXpath(String, int)}.
+ * Compiled paths are equal if they describe the same value, for example <code>Title/Text[2]</code>
+ * compiled with index 1 is equal to <code>Title[1]/Text[2]</code>.<p>
+ *
+ * Instances of this class are immutable.<p>
+ *
+ * @since 9.5.0
+ */
+public final class CmsXmlPath {
+
+    /** The maximum number of entries in the path and name caches. */
+    private static final int MAX_CACHE_SIZE = 10000;
+
+    /** Cache for the interned element names. */
+    private static final ConcurrentHashMap<String, String> NAMES = new ConcurrentHashMap<String, String>();
+
+    /** Cache for compiled paths, the paths are compiled with index 1 for the last element. */
+    private static final ConcurrentHashMap<String, CmsXmlPath> PATHS = new ConcurrentHashMap<String, CmsXmlPath>();
+
+    /** Indicates if all path elements had an explicit index. */
+    private final boolean m_fullyIndexed;
+
+    /** The precalculated hash code. */
+    private final int m_hashCode;
+
+    /** The indices of the path elements. */
+    private final int[] m_indices;
+
+    /** Indicates if the index of the last path element was set explicitly. */
+    private final boolean m_lastIndexExplicit;
+
+    /** The interned names of the path elements. */
+    private final String[] m_names;
+
+    /**
+     * Creates a new compiled path.<p>
+     *
+     * @param names the interned names of the path elements
+     * @param indices the indices of the path elements
+     * @param lastIndexExplicit if the index of the last path element was set explicitly
+     * @param fullyIndexed if all path elements had an explicit index
+     */
+    private CmsXmlPath(String[] names, int[] indices, boolean lastIndexExplicit, boolean fullyIndexed) {
+
+        m_names = names;
+        m_indices = indices;
+        m_lastIndexExplicit = lastIndexExplicit;
+        m_fullyIndexed = fullyIndexed;
+        int hash = 1;
+        for (int i = 0; i < names.length; i++) {
+            hash = (31 * ((31 * hash) + names[i].hashCode())) + indices[i];
+        }
+        m_hashCode = hash;
+    }
+
+    /**
+     * Compiles the given path the same way as {@link CmsXmlUtils#createXpath(String, int)}
+     * creates the Xpath for it.<p>
+     *
+     * The given index is used for the last path element if that element has no index,
+     * all other elements without an index get the index 1.<p>
+     *
+     * Paths that can not be compiled, like paths with empty elements or invalid indices,
+     * result in <code>null</code>.<p>
+     *
+     * @param path the path to compile
+     * @param index the index to use for the last path element if it has no index
+     *
+     * @return the compiled path, or <code>null</code> if the path can not be compiled
+     */
+    public static CmsXmlPath compile(String path, int index) {
+
+        CmsXmlPath result = PATHS.get(path);
+        if (result == null) {
+            result = parse(path);
+            if (result == null) {
+                return null;
+            }
+            if (PATHS.size() < MAX_CACHE_SIZE) {
+                PATHS.putIfAbsent(path, result);
+            }
+        }
+        if ((index == 1) || result.m_lastIndexExplicit) {
+            return result;
+        }
+        int[] indices = result.m_indices.clone();
+        indices[indices.length - 1] = index;
+        return new CmsXmlPath(result.m_names, indices, false, false);
+    }
+
+    /**
+     * Compiles the given fully indexed Xpath, like a bookmark path <code>Title[1]/Text[2]</code>.<p>
+     *
+     * Paths where any element has no index result in <code>null</code>,
+     * since such paths can never be the result of {@link CmsXmlUtils#createXpath(String, int)}.<p>
+     *
+     * @param xpath the Xpath to compile
+     *
+     * @return the compiled path, or <code>null</code> if the path can not be compiled
+     */
+    public static CmsXmlPath compileXpath(String xpath) {
+
+        CmsXmlPath result = PATHS.get(xpath);
+        if (result == null) {
+            result = parse(xpath);
+            if (result == null) {
+                return null;
+            }
+            if (PATHS.size() < MAX_CACHE_SIZE) {
+                PATHS.putIfAbsent(xpath, result);
+            }
+        }
+        return result.m_fullyIndexed ? result : null;
+    }
+
+    /**
+     * Returns the interned instance of the given element name.<p>
+     *
+     * @param name the element name
+     *
+     * @return the interned element name
+     */
+    private static String intern(String name) {
+
+        String result = NAMES.get(name);
+        if (result == null) {
+            if (NAMES.size() >= MAX_CACHE_SIZE) {
+                return name;
+            }
+            result = NAMES.putIfAbsent(name, name);
+            if (result == null) {
+                result = name;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses the given path.<p>
+     *
+     * @param path the path to parse
+     *
+     * @return the parsed path, with index 1 for the last element if it has no index,
+     *      or <code>null</code> if the path can not be parsed
+     */
+    private static CmsXmlPath parse(String path) {
+
+        int count = 1;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+        String[] names = new String[count];
+        int[] indices = new int[count];
+        boolean lastIndexExplicit = false;
+        boolean fullyIndexed = true;
+        int start = 0;
+        for (int e = 0; e < count; e++) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end == start) {
+                // empty path element
+                return null;
+            }
+            int nameEnd = end;
+            int index = 1;
+            boolean explicit = path.charAt(end - 1) == ']';
+            if (explicit) {
+                nameEnd = path.lastIndexOf('[', end - 1);
+                if ((nameEnd <= start) || (nameEnd >= (end - 2))) {
+                    return null;
+                }
+                index = parseIndex(path, nameEnd + 1, end - 1);
+                if (index < 0) {
+                    return null;
+                }
+            } else {
+                fullyIndexed = false;
+            }
+            names[e] = intern(path.substring(start, nameEnd));
+            indices[e] = index;
+            lastIndexExplicit = explicit;
+            start = end + 1;
+        }
+        return new CmsXmlPath(names, indices, lastIndexExplicit, fullyIndexed);
+    }
+
+    /**
+     * Parses a canonical non negative decimal index, so that <code>[01]</code> is not taken as <code>[1]</code>.<p>
+     *
+     * @param path the path containing the index
+     * @param start the start position of the index
+     * @param end the end position of the index (exclusive)
+     *
+     * @return the index, or -1 if the characters are no canonical index
+     */
+    private static int parseIndex(String path, int start, int end) {
+
+        if (((end - start) > 9) || ((path.charAt(start) == '0') && ((end - start) > 1))) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return -1;
+            }
+            result = (result * 10) + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CmsXmlPath)) {
+            return false;
+        }
+        CmsXmlPath other = (CmsXmlPath)obj;
+        if ((m_hashCode != other.m_hashCode) || !Arrays.equals(m_indices, other.m_indices)) {
+            return false;
+        }
+        for (int i = 0; i < m_names.length; i++) {
+            // names are usually interned, so the equals check is only required if the name cache is full
+            if ((m_names[i] != other.m_names[i]) && !m_names[i].equals(other.m_names[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return m_hashCode;
+    }
+
+    /**
+     * Returns the Xpath of this compiled path, like <code>Title[1]/Text[2]</code>.<p>
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(32);
+        for (int i = 0; i < m_names.length; i++) {
+            if (i > 0) {
+                result.append('/');
+            }
+            result.append(m_names[i]);
+            result.append('[');
+            result.append(m_indices[i]);
+            result.append(']');
+        }
+        return result.toString();
+    }
+}
@@ -35,6 +35,7 @@ import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsXmlContent;
+import org.opencms.xml.content.CmsXmlContentCacheEntry;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -47,6 +48,9 @@ import org.apache.commons.logging.Log;
 /**
  * Cache object instance for simultaneously cache online and offline items.<p>
  * 
+ * Besides container pages and group containers, this also caches the parsed XML documents 
+ * of the online XML contents, from which every request creates its own XML content instance.<p>
+ * 
  * @since 7.6 
  */
 public final class CmsADECache extends CmsVfsCache {
@@ -69,6 +73,9 @@ public final class CmsADECache extends CmsVfsCache {
     /** Read-write lock to ensure that the cache maps aren't accessed while we iterate through them to remove invalid entries. */
     private ReadWriteLock m_lock = new ReentrantReadWriteLock(true);
 
+    /** Cache for online XML contents. */
+    private Map<String, CmsXmlContentCacheEntry> m_xmlContentsOnline;
+
     /**
      * Initializes the cache. Only intended to be called during startup.<p>
      * 
@@ -121,6 +128,14 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Flushes the online XML contents cache.<p>
+     */
+    public void flushXmlContents() {
+
+        m_xmlContentsOnline.clear();
+    }
+
     /**
      * Returns the cached container page under the given key and for the given project.<p>
      * 
@@ -233,6 +248,29 @@ public final class CmsADECache extends CmsVfsCache {
         return structureId.toString() + "_" + keepEncoding;
     }
 
+    /**
+     * Returns the cached online XML content for the given version of a resource.<p>
+     * 
+     * @param resource the resource of the XML content
+     * 
+     * @return the cached XML content or <code>null</code> if not found
+     */
+    public CmsXmlContentCacheEntry getCacheXmlContent(CmsResource resource) {
+
+        String key = getXmlContentCacheKey(resource);
+        CmsXmlContentCacheEntry retValue = m_xmlContentsOnline.get(key);
+        if (LOG.isDebugEnabled()) {
+            if (retValue == null) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_MISSED_ONLINE_1, new Object[] {key}));
+            } else {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_DEBUG_CACHE_MATCHED_ONLINE_2,
+                    new Object[] {key, retValue}));
+            }
+        }
+        return retValue;
+    }
+
     /**
      * Caches the given container page under the given key and for the given project.<p>
      * 
@@ -297,6 +335,21 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Caches the given online XML content for the given version of a resource.<p>
+     * 
+     * @param resource the resource of the XML content
+     * @param content the XML content to cache
+     */
+    public void setCacheXmlContent(CmsResource resource, CmsXmlContentCacheEntry content) {
+
+        String key = getXmlContentCacheKey(resource);
+        m_xmlContentsOnline.put(key, content);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_SET_ONLINE_2, new Object[] {key, content}));
+        }
+    }
+
     /**
      * Removes the container page identified by its structure id from the cache.<p>
      * 
@@ -351,6 +404,9 @@ public final class CmsADECache extends CmsVfsCache {
             m_lock.writeLock().lock();
             flushContainerPages(online);
             flushGroupContainers(online);
+            if (online) {
+                flushXmlContents();
+            }
         } finally {
             m_lock.writeLock().unlock();
         }
@@ -378,6 +434,18 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Returns the key for the XML content cache, which includes the version of the resource.<p>
+     * 
+     * @param resource the resource of the XML content
+     * 
+     * @return the key for the XML content cache
+     */
+    private String getXmlContentCacheKey(CmsResource resource) {
+
+        return resource.getStructureId().toString() + "_" + resource.getDateLastModified();
+    }
+
     /**
      * Initializes the caches.<p>
      * 
@@ -403,6 +471,11 @@ public final class CmsADECache extends CmsVfsCache {
         lruMapGroupContainer = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupContainerOnlineSize());
         m_groupContainersOnline = Collections.synchronizedMap(lruMapGroupContainer);
         memMonitor.register(CmsADECache.class.getName() + ".groupContainersOnline", lruMapGroupContainer);
+
+        // online XML content cache
+        Map<String, CmsXmlContentCacheEntry> lruMapXmlContent = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getXmlContentOnlineSize());
+        m_xmlContentsOnline = Collections.synchronizedMap(lruMapXmlContent);
+        memMonitor.register(CmsADECache.class.getName() + ".xmlContentsOnline", lruMapXmlContent);
     }
 
     /**
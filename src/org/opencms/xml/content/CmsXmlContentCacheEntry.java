@@ -0,0 +1,97 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.content;
+
+import org.opencms.file.CmsFile;
+
+import org.dom4j.Document;
+
+/**
+ * Cached form of an unmarshalled XML content file.<p>
+ *
+ * The entry keeps the parsed XML document exactly as it was read from the file,
+ * before any user dependent processing like link validation or content handler preparation.
+ * The cached document and file are never handed out, every caller gets its own copy.<p>
+ *
+ * @since 9.5.0
+ */
+public final class CmsXmlContentCacheEntry {
+
+    /** The parsed XML document. */
+    private final Document m_document;
+
+    /** The encoding to use when marshalling the XML content later. */
+    private final String m_encoding;
+
+    /** The XML content file. */
+    private final CmsFile m_file;
+
+    /**
+     * Creates a new cache entry.<p>
+     *
+     * @param file the XML content file, must not be modified after this call
+     * @param document the parsed XML document, must not be modified after this call
+     * @param encoding the encoding to use when marshalling the XML content later
+     */
+    public CmsXmlContentCacheEntry(CmsFile file, Document document, String encoding) {
+
+        m_file = file;
+        m_document = document;
+        m_encoding = encoding;
+    }
+
+    /**
+     * Returns a new copy of the parsed XML document.<p>
+     *
+     * @return a new copy of the parsed XML document
+     */
+    public Document getDocument() {
+
+        return (Document)m_document.clone();
+    }
+
+    /**
+     * Returns the encoding to use when marshalling the XML content later.<p>
+     *
+     * @return the encoding
+     */
+    public String getEncoding() {
+
+        return m_encoding;
+    }
+
+    /**
+     * Returns a new copy of the XML content file.<p>
+     *
+     * @return a new copy of the XML content file
+     */
+    public CmsFile getFile() {
+
+        return (CmsFile)m_file.clone();
+    }
+}
@@ -31,6 +31,7 @@ import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.loader.CmsLoaderException;
@@ -40,6 +41,7 @@ import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlException;
 import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.containerpage.CmsADECache;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Locale;
@@ -210,21 +212,7 @@ public final class CmsXmlContentFactory {
 
         byte[] contentBytes = file.getContents();
         String filename = cms.getSitePath(file);
-
-        String encoding = null;
-        try {
-            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
-        } catch (CmsException e) {
-            // encoding will be null 
-        }
-        if (encoding == null) {
-            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
-        } else {
-            encoding = CmsEncoder.lookupEncoding(encoding, null);
-            if (encoding == null) {
-                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
-            }
-        }
+        String encoding = readEncoding(cms, file);
 
         CmsXmlContent content;
         if (contentBytes.length > 0) {
@@ -254,6 +242,45 @@ public final class CmsXmlContentFactory {
         return content.getHandler().prepareForUse(cms, content);
     }
 
+    /**
+     * Factory method to unmarshal (read) a XML content instance from a resource.<p>
+     * 
+     * In the online project, the parsed XML document is cached for the current 
+     * version of the resource, so the file is neither read nor parsed again on a cache hit.
+     * Every call returns a new XML content instance created from a copy of the cached document,
+     * so the returned XML content can be modified like an uncached one.<p>
+     * 
+     * @param cms the current OpenCms context object
+     * @param resource the resource to unmarshal
+     * 
+     * @return the unmarshalled XML content
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public static CmsXmlContent unmarshal(CmsObject cms, CmsResource resource) throws CmsException {
+
+        CmsADECache cache = getCache(cms, resource);
+        if (cache == null) {
+            return unmarshal(cms, cms.readFile(resource));
+        }
+        CmsXmlContentCacheEntry entry = cache.getCacheXmlContent(resource);
+        if (entry == null) {
+            CmsFile file = cms.readFile(resource);
+            if (file.getContents().length == 0) {
+                return unmarshal(cms, file);
+            }
+            // the cached document is parsed before any user dependent processing takes place
+            Document document = CmsXmlUtils.unmarshalHelper(file.getContents(), new CmsXmlEntityResolver(cms));
+            entry = new CmsXmlContentCacheEntry(file, document, readEncoding(cms, file));
+            cache.setCacheXmlContent(resource, entry);
+        }
+        CmsXmlEntityResolver resolver = new CmsXmlEntityResolver(cms);
+        CmsXmlContent content = new CmsXmlContent(cms, entry.getDocument(), entry.getEncoding(), resolver);
+        content.setFile(entry.getFile());
+        // call prepare for use content handler and return the result 
+        return content.getHandler().prepareForUse(cms, content);
+    }
+
     /**
      * Factory method to unmarshal (read) a XML content instance from
      * a resource, using the request attributes as cache.<p>
@@ -286,7 +313,7 @@ public final class CmsXmlContentFactory {
 
         if (content == null) {
             // unmarshal XML structure from the file content
-            content = unmarshal(cms, cms.readFile(resource));
+            content = unmarshal(cms, resource);
             // store the content as request attribute for future read requests
             req.setAttribute(rootPath, content);
         }
@@ -372,4 +399,55 @@ public final class CmsXmlContentFactory {
 
         return unmarshal(null, xmlData, encoding, resolver);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the cache for the XML content of the given resource.<p>
+     * 
+     * Only XML contents of the online project are cached, historic versions are never cached.<p>
+     * 
+     * @param cms the cms context
+     * @param resource the XML content resource
+     * 
+     * @return the cache, or <code>null</code> if the XML content must not be cached
+     */
+    private static CmsADECache getCache(CmsObject cms, CmsResource resource) {
+
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        if ((cache == null)
+            || (resource instanceof I_CmsHistoryResource)
+            || !cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            return null;
+        }
+        return cache;
+    }
+
+    /**
+     * Reads the encoding of the given XML content file from the content encoding property.<p>
+     * 
+     * @param cms the cms context
+     * @param file the XML content file
+     * 
+     * @return the encoding of the file
+     * 
+     * @throws CmsXmlException if the encoding is invalid
+     */
+    private static String readEncoding(CmsObject cms, CmsFile file) throws CmsXmlException {
+
+        String filename = cms.getSitePath(file);
+        String encoding = null;
+        try {
+            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
+        } catch (CmsException e) {
+            // encoding will be null 
+        }
+        if (encoding == null) {
+            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
+        } else {
+            encoding = CmsEncoder.lookupEncoding(encoding, null);
+            if (encoding == null) {
+                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
+            }
+        }
+        return encoding;
+    }
+}
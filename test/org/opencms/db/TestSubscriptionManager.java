@@ -76,6 +76,8 @@ public class TestSubscriptionManager extends OpenCmsTestCase {
         suite.addTest(new TestSubscriptionManager("testVisitResources"));
         suite.addTest(new TestSubscriptionManager("testSubscribeResources"));
         suite.addTest(new TestSubscriptionManager("testReadSubscribedResources"));
+        suite.addTest(new TestSubscriptionManager("testVisitQueueMerge"));
+        suite.addTest(new TestSubscriptionManager("testVisitQueueFull"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -204,6 +206,89 @@ public class TestSubscriptionManager extends OpenCmsTestCase {
         assertEquals(0, subscribedUserResources.size());
     }
 
+    /**
+     * Test that visits are written on the calling thread if the visit queue is full.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testVisitQueueFull() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        CmsUser user = cms.createUser("visitor2", "visitor2", "visit queue test user", null);
+        echo("Testing visitation of resources with a full visit queue");
+
+        CmsSubscriptionManager subMan = createQueuedManager(cms, 2);
+        CmsVisitedByFilter filter = new CmsVisitedByFilter(cms);
+        filter.setUser(user);
+        subMan.markResourceAsVisitedBy(cms, "/folder1/index.html", user);
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page1.html", user);
+        assertEquals(2, subMan.getVisitQueueDepth());
+
+        // the queue is full, so this visit is written directly
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page2.html", user);
+        assertEquals(2, subMan.getVisitQueueDepth());
+        assertEquals(0, subMan.getVisitsWritten());
+        // the default subscription manager reads the visits without writing the queue of the test manager
+        List<CmsResource> visitedUserResources = OpenCms.getSubscriptionManager().readResourcesVisitedBy(cms, filter);
+        assertEquals(1, visitedUserResources.size());
+        assertEquals("/folder1/page2.html", cms.getSitePath(visitedUserResources.get(0)));
+
+        // a repeated visit of a queued resource is still merged
+        subMan.markResourceAsVisitedBy(cms, "/folder1/index.html", user);
+        assertEquals(2, subMan.getVisitQueueDepth());
+
+        subMan.flushVisits();
+        assertEquals(0, subMan.getVisitQueueDepth());
+        assertEquals(2, subMan.getVisitsWritten());
+        visitedUserResources = OpenCms.getSubscriptionManager().readResourcesVisitedBy(cms, filter);
+        assertEquals(3, visitedUserResources.size());
+        subMan.shutDown();
+    }
+
+    /**
+     * Test that repeated visits of the same resource are merged in the visit queue.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testVisitQueueMerge() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        CmsUser user = cms.createUser("visitor1", "visitor1", "visit queue test user", null);
+        echo("Testing merging of repeated visits in the visit queue");
+
+        CmsSubscriptionManager subMan = createQueuedManager(cms, 10);
+        CmsVisitedByFilter filter = new CmsVisitedByFilter(cms);
+        filter.setUser(user);
+        for (int i = 0; i < 3; i++) {
+            subMan.markResourceAsVisitedBy(cms, "/folder1/index.html", user);
+        }
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page1.html", user);
+        assertEquals(2, subMan.getVisitQueueDepth());
+        assertEquals(0, subMan.getVisitsWritten());
+
+        // reading the visits writes the queue first
+        List<CmsResource> visitedUserResources = subMan.readResourcesVisitedBy(cms, filter);
+        assertEquals(2, visitedUserResources.size());
+        assertEquals(0, subMan.getVisitQueueDepth());
+        assertEquals(2, subMan.getVisitsWritten());
+
+        // the remaining queued visits are written on shutdown
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page2.html", user);
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page2.html", user);
+        assertEquals(1, subMan.getVisitQueueDepth());
+        subMan.shutDown();
+        assertEquals(0, subMan.getVisitQueueDepth());
+        assertEquals(3, subMan.getVisitsWritten());
+        visitedUserResources = OpenCms.getSubscriptionManager().readResourcesVisitedBy(cms, filter);
+        assertEquals(3, visitedUserResources.size());
+
+        // after the shutdown, visits are written directly
+        subMan.markResourceAsVisitedBy(cms, "/folder1/page3.html", user);
+        assertEquals(0, subMan.getVisitQueueDepth());
+        visitedUserResources = OpenCms.getSubscriptionManager().readResourcesVisitedBy(cms, filter);
+        assertEquals(4, visitedUserResources.size());
+    }
+
     /**
      * Test subscription of resources.<p>
      * 
@@ -270,4 +355,28 @@ public class TestSubscriptionManager extends OpenCmsTestCase {
         assertEquals(2, visitedUserResources.size());
 
     }
+
+    /**
+     * Creates a started subscription manager that queues up to the given number of visits.<p>
+     * 
+     * The queue is not written by the visit writer thread during the tests.<p>
+     * 
+     * @param cms the admin context
+     * @param queueSize the maximum number of queued visits
+     * 
+     * @return the subscription manager
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private CmsSubscriptionManager createQueuedManager(CmsObject cms, int queueSize) throws Exception {
+
+        CmsSubscriptionManager subMan = new CmsSubscriptionManager();
+        subMan.setEnabled(true);
+        subMan.setPoolName(OpenCms.getSubscriptionManager().getPoolName());
+        subMan.setVisitQueueSize(String.valueOf(queueSize));
+        subMan.setVisitFlushInterval("3600000");
+        subMan.setSecurityManager(OpenCms.getSubscriptionManager().m_securityManager);
+        subMan.initialize(cms);
+        return subMan;
+    }
 }
@@ -0,0 +1,268 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db.generic;
+
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the transaction handling of the publish batch with recording JDBC connections.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestCmsPublishBatch extends OpenCmsTestCase {
+
+    /**
+     * SQL manager returning recording connections instead of pooled ones.<p>
+     */
+    private static class CmsTestSqlManager extends CmsSqlManager {
+
+        /** The calls made to the connections and statements of this SQL manager. */
+        List<String> m_calls = Collections.synchronizedList(new ArrayList<String>());
+
+        /** Indicates if committing should fail. */
+        boolean m_failCommit;
+
+        /**
+         * Creates a new test SQL manager.<p>
+         * 
+         * @param poolUrl the pool URL
+         */
+        CmsTestSqlManager(String poolUrl) {
+
+            m_poolUrl = poolUrl;
+        }
+
+        /**
+         * @see org.opencms.db.CmsSqlManager#getConnectionByUrl(java.lang.String)
+         */
+        @Override
+        public Connection getConnectionByUrl(String dbPoolUrl) {
+
+            return (Connection)createProxy(Connection.class);
+        }
+
+        /**
+         * @see org.opencms.db.generic.CmsSqlManager#getPreparedStatement(java.sql.Connection, java.lang.String)
+         */
+        @Override
+        public PreparedStatement getPreparedStatement(Connection con, String queryKey) throws SQLException {
+
+            return con.prepareStatement(queryKey);
+        }
+
+        /**
+         * Creates a proxy recording all calls.<p>
+         * 
+         * @param type the interface to implement
+         * 
+         * @return the proxy
+         */
+        Object createProxy(Class<?> type) {
+
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                    String name = method.getName();
+                    m_calls.add(name);
+                    if ("commit".equals(name) && m_failCommit) {
+                        throw new SQLException("commit failed");
+                    }
+                    if ("prepareStatement".equals(name)) {
+                        return createProxy(PreparedStatement.class);
+                    }
+                    if ("setSavepoint".equals(name)) {
+                        return createProxy(Savepoint.class);
+                    }
+                    if ("executeBatch".equals(name)) {
+                        return new int[0];
+                    }
+                    if ("hashCode".equals(name)) {
+                        return new Integer(System.identityHashCode(proxy));
+                    }
+                    if ("equals".equals(name)) {
+                        return Boolean.valueOf(proxy == args[0]);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        /**
+         * Returns the number of recorded calls of the given method.<p>
+         * 
+         * @param name the method name
+         * 
+         * @return the number of calls
+         */
+        int count(String name) {
+
+            return Collections.frequency(m_calls, name);
+        }
+    }
+
+    /**
+     * Tests that a failed commit rolls back the chunk and is not tried again.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testFailedCommit() throws Exception {
+
+        CmsTestSqlManager sqlManager = new CmsTestSqlManager("pool");
+        CmsPublishBatch batch = new CmsPublishBatch(2);
+
+        batch.startResource();
+        batch.getConnection(sqlManager).prepareStatement("write");
+        batch.addBatch(sqlManager, "history", new Object[] {"a"});
+        assertFalse(batch.resourcePublished(createResource("/a.txt")));
+        batch.startResource();
+        batch.addBatch(sqlManager, "history", new Object[] {"b"});
+        assertTrue(batch.resourcePublished(createResource("/b.txt")));
+
+        sqlManager.m_failCommit = true;
+        try {
+            batch.commit();
+            fail("commit must fail");
+        } catch (SQLException e) {
+            // expected
+        }
+        assertEquals(1, sqlManager.count("rollback"));
+        assertEquals(0, batch.getCommitCount());
+
+        // the next chunk starts empty
+        sqlManager.m_failCommit = false;
+        sqlManager.m_calls.clear();
+        batch.startResource();
+        assertFalse(batch.resourcePublished(createResource("/c.txt")));
+        List<CmsResource> committed = batch.commit();
+        assertEquals(1, committed.size());
+        assertEquals("/c.txt", committed.get(0).getRootPath());
+        assertEquals(0, sqlManager.count("addBatch"));
+        assertEquals(1, sqlManager.count("commit"));
+        assertEquals(1, batch.getCommitCount());
+        batch.close(true);
+    }
+
+    /**
+     * Tests that a failed resource in the middle of a chunk only rolls back its own changes.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testFailedResource() throws Exception {
+
+        CmsTestSqlManager sqlManager = new CmsTestSqlManager("pool");
+        CmsTestSqlManager otherSqlManager = new CmsTestSqlManager("other");
+        CmsPublishBatch batch = new CmsPublishBatch(3);
+
+        // first resource is published
+        batch.startResource();
+        batch.getConnection(sqlManager).prepareStatement("write");
+        batch.addBatch(sqlManager, "history", new Object[] {"a"});
+        assertFalse(batch.resourcePublished(createResource("/a.txt")));
+
+        // second resource fails after it was already added to the chunk
+        batch.startResource();
+        assertEquals(1, sqlManager.count("setSavepoint"));
+        batch.getConnection(sqlManager).prepareStatement("write");
+        batch.getConnection(otherSqlManager).prepareStatement("write");
+        batch.addBatch(sqlManager, "history", new Object[] {"b"});
+        batch.addBatch(otherSqlManager, "history", new Object[] {"b"});
+        batch.resourcePublished(createResource("/b.txt"));
+        batch.resourceFailed();
+        // the connection used before is rolled back to the savepoint
+        assertEquals(1, sqlManager.count("rollback"));
+        assertEquals(0, sqlManager.count("commit"));
+        // the connection opened for the failed resource is rolled back completely
+        assertEquals(1, otherSqlManager.count("rollback"));
+
+        // third resource is published
+        batch.startResource();
+        assertEquals(2, sqlManager.count("setSavepoint"));
+        assertEquals(1, otherSqlManager.count("setSavepoint"));
+        batch.addBatch(sqlManager, "history", new Object[] {"c"});
+        assertFalse(batch.resourcePublished(createResource("/c.txt")));
+
+        List<CmsResource> committed = batch.commit();
+        assertEquals(2, committed.size());
+        assertEquals("/a.txt", committed.get(0).getRootPath());
+        assertEquals("/c.txt", committed.get(1).getRootPath());
+        // only the deferred statements of the published resources are executed
+        assertEquals(2, sqlManager.count("addBatch"));
+        assertEquals(0, otherSqlManager.count("addBatch"));
+        assertEquals(1, sqlManager.count("commit"));
+        assertEquals(1, otherSqlManager.count("commit"));
+        assertEquals(1, batch.getCommitCount());
+        assertEquals(2, batch.getStatementCount());
+
+        batch.close(true);
+    }
+
+    /**
+     * Creates a resource for testing.<p>
+     * 
+     * @param rootPath the root path
+     * 
+     * @return the resource
+     */
+    private CmsResource createResource(String rootPath) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            CmsResourceTypePlain.getStaticTypeId(),
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.STATE_CHANGED,
+            0,
+            CmsUUID.getNullUUID(),
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            0,
+            0,
+            0);
+    }
+}
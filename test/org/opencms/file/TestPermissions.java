@@ -41,6 +41,7 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -73,6 +74,7 @@ public class TestPermissions extends OpenCmsTestCase {
         suite.addTest(new TestPermissions("testVisiblePermission"));
         suite.addTest(new TestPermissions("testVisiblePermissionForFolder"));
         suite.addTest(new TestPermissions("testFilterForFolder"));
+        suite.addTest(new TestPermissions("testFilterPermissions"));
         suite.addTest(new TestPermissions("testDefaultPermissions"));
         suite.addTest(new TestPermissions("testPermissionOverwrite"));
         suite.addTest(new TestPermissions("testPermissionInheritance"));
@@ -161,6 +163,64 @@ public class TestPermissions extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that filtering a list of resources by permissions gives the same result
+     * as checking the permissions of each resource.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testFilterPermissions() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing filtering resources by permissions");
+
+        String foldername = "/testFilterPermissions/";
+        String subfoldername = foldername + "subfolder/";
+        cms.createResource(foldername, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(subfoldername, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(foldername + "a.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(subfoldername + "c.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(subfoldername + "d.txt", CmsResourceTypePlain.getStaticTypeId());
+
+        cms.createUser("testFilterUser", "secret", "", null);
+        cms.addUserToGroup("testFilterUser", OpenCms.getDefaultUsers().getGroupUsers());
+
+        // overwritten and inherited entries
+        cms.chacc(foldername, I_CmsPrincipal.PRINCIPAL_GROUP, "Users", "+r+v+o+i");
+        cms.chacc(subfoldername, I_CmsPrincipal.PRINCIPAL_USER, "testFilterUser", "+w+i");
+        cms.chacc(subfoldername + "d.txt", I_CmsPrincipal.PRINCIPAL_USER, "testFilterUser", "-r");
+
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        resources.add(cms.readResource(foldername, CmsResourceFilter.ALL));
+        resources.addAll(cms.readResources(foldername, CmsResourceFilter.ALL, true));
+        assertEquals(5, resources.size());
+
+        cms.loginUser("testFilterUser", "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        List<CmsResource> readable = assertFilterPermissions(cms, resources, CmsPermissionSet.ACCESS_READ);
+        List<CmsResource> writable = assertFilterPermissions(cms, resources, CmsPermissionSet.ACCESS_WRITE);
+        assertTrue(readable.contains(cms.readResource(foldername + "a.txt", CmsResourceFilter.ALL)));
+        assertTrue(readable.contains(cms.readResource(subfoldername + "c.txt", CmsResourceFilter.ALL)));
+        assertFalse(readable.contains(cms.readResource(subfoldername + "d.txt", CmsResourceFilter.ALL)));
+        assertFalse(writable.contains(cms.readResource(foldername + "a.txt", CmsResourceFilter.ALL)));
+        assertTrue(writable.contains(cms.readResource(subfoldername + "c.txt", CmsResourceFilter.ALL)));
+        // the access control lists are now cached
+        assertEquals(readable, assertFilterPermissions(cms, resources, CmsPermissionSet.ACCESS_READ));
+
+        // changed entries must not be hidden by the cached access control lists
+        cms.loginUser("Admin", "admin");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        cms.rmacc(subfoldername, I_CmsPrincipal.PRINCIPAL_USER, "testFilterUser");
+        cms.rmacc(subfoldername + "d.txt", I_CmsPrincipal.PRINCIPAL_USER, "testFilterUser");
+
+        cms.loginUser("testFilterUser", "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        readable = assertFilterPermissions(cms, resources, CmsPermissionSet.ACCESS_READ);
+        writable = assertFilterPermissions(cms, resources, CmsPermissionSet.ACCESS_WRITE);
+        assertTrue(readable.contains(cms.readResource(subfoldername + "d.txt", CmsResourceFilter.ALL)));
+        assertFalse(writable.contains(cms.readResource(subfoldername + "c.txt", CmsResourceFilter.ALL)));
+    }
+
     /**
      * Test the lock status permissions.<p>
      *
@@ -692,4 +752,32 @@ public class TestPermissions extends OpenCmsTestCase {
             fail("There should be 6 visible resource in the folder, not " + resultList.size());
         }
     }
+
+    /**
+     * Asserts that filtering the given resources by permissions gives the same result
+     * as checking the permissions of each resource.<p>
+     *
+     * @param cms the current user's context
+     * @param resources the resources to filter
+     * @param permissions the permissions to filter by
+     *
+     * @return the resources for which the permissions are granted
+     *
+     * @throws Throwable if something goes wrong
+     */
+    private List<CmsResource> assertFilterPermissions(
+        CmsObject cms,
+        List<CmsResource> resources,
+        CmsPermissionSet permissions) throws Throwable {
+
+        List<CmsResource> allowed = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            if (cms.hasPermissions(resource, permissions, false, CmsResourceFilter.ALL)) {
+                allowed.add(resource);
+            }
+        }
+        List<CmsResource> filtered = cms.filterPermissions(resources, permissions, false, CmsResourceFilter.ALL);
+        assertEquals(allowed, filtered);
+        return filtered;
+    }
 }
@@ -29,10 +29,15 @@ package org.opencms.file;
 
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -74,6 +79,7 @@ public class TestReadResource extends OpenCmsTestCase {
         suite.addTest(new TestReadResource("testReadWithResourceID"));
         suite.addTest(new TestReadResource("testReadWithWrongResourceID"));
         suite.addTest(new TestReadResource("testReadFileWithResourceID"));
+        suite.addTest(new TestReadResource("testReadResourcesByPath"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -284,6 +290,49 @@ public class TestReadResource extends OpenCmsTestCase {
         readInValidTimeRange(this, cms, "/folder1/page3.html", CmsResourceFilter.ALL);
     }
 
+    /**
+     * Test reading several resources by their paths at once.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadResourcesByPath() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading resources by their paths");
+
+        List<String> paths = Arrays.asList(
+            "/index.html",
+            "/folder1/",
+            "/folder1/page1.html",
+            "/folder1/page3.html",
+            "/folder1/page2.html/",
+            "/folder1/doesnotexist.html");
+
+        List<CmsResource> expected = new ArrayList<CmsResource>();
+        expected.add(cms.readResource("/index.html"));
+        expected.add(cms.readResource("/folder1/"));
+        expected.add(cms.readResource("/folder1/page1.html"));
+        expected.add(cms.readResource("/folder1/page3.html"));
+
+        List<CmsResource> resources = cms.readResourcesByPath(paths, CmsResourceFilter.DEFAULT);
+        assertEquals(expected.size(), resources.size());
+        assertTrue(resources.containsAll(expected));
+
+        // resources without read permission must be filtered
+        cms.lockResource("/folder1/page3.html");
+        cms.chacc("/folder1/page3.html", I_CmsPrincipal.PRINCIPAL_USER, "test1", "-r");
+        cms.loginUser("test1", "test1");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        resources = cms.readResourcesByPath(paths, CmsResourceFilter.DEFAULT);
+        assertEquals(expected.size() - 1, resources.size());
+        assertFalse(resources.contains(expected.get(3)));
+
+        cms.loginUser("Admin", "admin");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        cms.rmacc("/folder1/page3.html", I_CmsPrincipal.PRINCIPAL_USER, "test1");
+        cms.unlockResource("/folder1/page3.html");
+    }
+
     /**
      * Test readResource methods that use the structureId.<p>
      * 
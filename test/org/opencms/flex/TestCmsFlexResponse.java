@@ -33,13 +33,16 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsRequestUtil;
 
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -245,6 +248,10 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
         suite.setName(TestCmsFlexResponse.class.getName());
 
         suite.addTest(new TestCmsFlexResponse("testContentTypeRules"));
+        suite.addTest(new TestCmsFlexResponse("testOutputStreamSegments"));
+        suite.addTest(new TestCmsFlexResponse("testOutputStreamShared"));
+        suite.addTest(new TestCmsFlexResponse("testOutputStreamGetBytes"));
+        suite.addTest(new TestCmsFlexResponse("testOutputStreamClear"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -296,6 +303,23 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
             handler);
     }
 
+    /**
+     * Creates a byte array with test content.<p>
+     * 
+     * @param length the length of the array
+     * @param seed the seed for the content, different seeds create different content
+     * 
+     * @return the byte array with test content
+     */
+    private static byte[] createBytes(int length, int seed) {
+
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte)(seed + (i * 31));
+        }
+        return result;
+    }
+
     /**
      * Test semantics for Content-Type header on
      * {@link CmsFlexResponse#setContentType(String)} and {@link CmsFlexResponse#setHeader(String, String)}.<p>
@@ -346,6 +370,147 @@ public class TestCmsFlexResponse extends OpenCmsTestCase {
         assertEquals("no other methods called", 1, m_resMock.m_invocations.size());
     }
 
+    /**
+     * Tests clearing the buffer of the output stream.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testOutputStreamClear() throws Exception {
+
+        CmsFlexResponse f_res = new CmsFlexResponse(m_response, m_controller, false, false);
+        ServletOutputStream out = f_res.getOutputStream();
+        // the output stream class is private, so the clear method is not accessible otherwise
+        Method clear = out.getClass().getMethod("clear");
+        clear.setAccessible(true);
+
+        out.write(createBytes(3000, 1));
+        f_res.writeToOutputStream(createBytes(2000, 2), false);
+        assertEquals(5000, f_res.getWriterBytes().length);
+
+        clear.invoke(out);
+        assertEquals("buffer is empty after clear", 0, f_res.getWriterBytes().length);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        byte[] bytes = createBytes(1500, 3);
+        out.write(bytes);
+        expected.write(bytes);
+        out.write(7);
+        expected.write(7);
+        assertTrue("only bytes written after clear are returned", Arrays.equals(
+            expected.toByteArray(),
+            f_res.getWriterBytes()));
+    }
+
+    /**
+     * Tests that the bytes returned by the output stream are not changed by later writes.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testOutputStreamGetBytes() throws Exception {
+
+        CmsFlexResponse f_res = new CmsFlexResponse(m_response, m_controller, false, false);
+        ServletOutputStream out = f_res.getOutputStream();
+
+        // exactly fill the first segment, so the segment itself may be returned
+        byte[] first = createBytes(1024, 1);
+        out.write(first);
+        byte[] bytes1 = f_res.getWriterBytes();
+        assertTrue(Arrays.equals(first, bytes1));
+        assertSame("bytes are not joined again without a write", bytes1, f_res.getWriterBytes());
+
+        byte[] second = createBytes(700, 2);
+        out.write(second);
+        byte[] bytes2 = f_res.getWriterBytes();
+        byte[] copy2 = bytes2.clone();
+        assertTrue("earlier result is not changed by later writes", Arrays.equals(first, bytes1));
+
+        // continue writing into the segment that has been joined before
+        byte[] third = createBytes(100, 3);
+        out.write(third);
+        out.write(42);
+        byte[] bytes3 = f_res.getWriterBytes();
+        assertTrue("earlier result is not changed by later writes", Arrays.equals(first, bytes1));
+        assertTrue("earlier result is not changed by later writes", Arrays.equals(copy2, bytes2));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+        assertTrue(Arrays.equals(expected.toByteArray(), bytes2));
+        expected.write(third);
+        expected.write(42);
+        assertTrue(Arrays.equals(expected.toByteArray(), bytes3));
+    }
+
+    /**
+     * Tests writes to the output stream that cross the boundaries of the buffer segments.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testOutputStreamSegments() throws Exception {
+
+        CmsFlexResponse f_res = new CmsFlexResponse(m_response, m_controller, false, false);
+        ServletOutputStream out = f_res.getOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        // odd sizes, so the writes are split at the segment boundaries
+        for (int i = 0; i < 200; i++) {
+            byte[] bytes = createBytes(997, i);
+            out.write(bytes, 0, bytes.length);
+            expected.write(bytes, 0, bytes.length);
+            out.write(i);
+            expected.write(i);
+        }
+        // a single write larger than the maximum segment size
+        byte[] large = createBytes(150 * 1024, 7);
+        out.write(large, 10, large.length - 20);
+        expected.write(large, 10, large.length - 20);
+        // an empty write
+        out.write(large, 0, 0);
+
+        byte[] result = f_res.getWriterBytes();
+        assertEquals(expected.size(), result.length);
+        assertTrue("bytes are written in order across segments", Arrays.equals(expected.toByteArray(), result));
+    }
+
+    /**
+     * Tests shared byte arrays mixed with normal writes to the output stream.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testOutputStreamShared() throws Exception {
+
+        CmsFlexResponse f_res = new CmsFlexResponse(m_response, m_controller, false, false);
+        ServletOutputStream out = f_res.getOutputStream();
+
+        // a single shared array is returned without copying it
+        byte[] shared = createBytes(4096, 1);
+        f_res.writeToOutputStream(shared, false);
+        assertSame(shared, f_res.getWriterBytes());
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(shared);
+        byte[] bytes = createBytes(300, 2);
+        out.write(bytes);
+        expected.write(bytes);
+        // small shared arrays are copied
+        byte[] small = createBytes(100, 3);
+        f_res.writeToOutputStream(small, false);
+        expected.write(small);
+        out.write(17);
+        expected.write(17);
+        byte[] shared2 = createBytes(2000, 4);
+        f_res.writeToOutputStream(shared2, false);
+        expected.write(shared2);
+        bytes = createBytes(1500, 5);
+        out.write(bytes);
+        expected.write(bytes);
+
+        byte[] result = f_res.getWriterBytes();
+        assertTrue("shared and written bytes are kept in order", Arrays.equals(expected.toByteArray(), result));
+        assertTrue("shared arrays are not changed", Arrays.equals(createBytes(4096, 1), shared));
+        assertTrue("shared arrays are not changed", Arrays.equals(createBytes(2000, 4), shared2));
+    }
+
     /**
      * Initializes a flex cache controller and mock servlet request and response objects to be
      * used by this unit tests.<p>
@@ -124,6 +124,7 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         suite.addTest(new TestCmsImportExport("testImportChangedContent"));
         suite.addTest(new TestCmsImportExport("testImportRelations"));
         suite.addTest(new TestCmsImportExport("testImportContentIssue"));
+        suite.addTest(new TestCmsImportExport("testImportThreads"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -1864,6 +1865,118 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests the import of several resources with more than one import thread.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testImportThreads() throws Exception {
+
+        CmsObject cms = getCmsObject();
+
+        echo("Testing the import of several resources with more than one import thread.");
+        String foldername = "/importThreads/";
+        String zipExportFilename = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(
+            "packages/testImportThreads.zip");
+        int importThreads = OpenCms.getImportExportManager().getImportThreads();
+
+        try {
+            // create the resources
+            cms.createResource(foldername, CmsResourceTypeFolder.getStaticTypeId());
+            cms.createResource(foldername + "subfolder/", CmsResourceTypeFolder.getStaticTypeId());
+            for (int i = 0; i < 10; i++) {
+                String parent = (i % 2) == 0 ? foldername : foldername + "subfolder/";
+                cms.createResource(
+                    parent + "file" + i + ".txt",
+                    CmsResourceTypePlain.getStaticTypeId(),
+                    ("content " + i).getBytes(),
+                    null);
+            }
+            cms.createResource(foldername + "image.gif", CmsResourceTypeImage.getStaticTypeId(), "gif".getBytes(), null);
+
+            // publish the resources
+            cms.unlockResource(foldername);
+            OpenCms.getPublishManager().publishResource(cms, foldername);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            List<CmsResource> startResources = cms.readResources(foldername, CmsResourceFilter.ALL, true);
+            assertEquals(13, startResources.size());
+            List<CmsFile> startFiles = new ArrayList<CmsFile>();
+            for (CmsResource resource : startResources) {
+                if (resource.isFile()) {
+                    startFiles.add(cms.readFile(resource));
+                }
+            }
+
+            // export the folder
+            CmsVfsImportExportHandler vfsExportHandler = new CmsVfsImportExportHandler();
+            List<String> exportPaths = new ArrayList<String>(1);
+            exportPaths.add(foldername);
+            CmsExportParameters params = new CmsExportParameters(
+                zipExportFilename,
+                null,
+                true,
+                false,
+                false,
+                exportPaths,
+                false,
+                true,
+                0,
+                true,
+                false);
+            vfsExportHandler.setExportParams(params);
+            OpenCms.getImportExportManager().exportData(
+                cms,
+                vfsExportHandler,
+                new CmsShellReport(cms.getRequestContext().getLocale()));
+
+            // delete the folder
+            cms.lockResource(foldername);
+            cms.deleteResource(foldername, CmsResource.DELETE_REMOVE_SIBLINGS);
+
+            // publish the deleted folder
+            cms.unlockResource(foldername);
+            OpenCms.getPublishManager().publishResource(cms, foldername);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            assertFalse(cms.existsResource(foldername));
+
+            // re-import the exported folder with several import threads
+            OpenCms.getImportExportManager().setImportThreads("4");
+            OpenCms.getImportExportManager().importData(
+                cms,
+                new CmsShellReport(cms.getRequestContext().getLocale()),
+                new CmsImportParameters(zipExportFilename, "/", true));
+
+            // check the imported resources
+            List<CmsResource> importedResources = cms.readResources(foldername, CmsResourceFilter.ALL, true);
+            assertEquals(startResources.size(), importedResources.size());
+            for (CmsResource resource : startResources) {
+                CmsResource imported = cms.readResource(cms.getSitePath(resource), CmsResourceFilter.ALL);
+                assertEquals(resource.getStructureId(), imported.getStructureId());
+                assertEquals(resource.getTypeId(), imported.getTypeId());
+                assertEquals(resource.isFolder(), imported.isFolder());
+            }
+            for (CmsFile file : startFiles) {
+                CmsFile imported = cms.readFile(cms.getSitePath(file), CmsResourceFilter.ALL);
+                assertEquals(file.getLength(), imported.getLength());
+                assertEquals(new String(file.getContents()), new String(imported.getContents()));
+            }
+        } finally {
+            OpenCms.getImportExportManager().setImportThreads(String.valueOf(importThreads));
+            try {
+                if (zipExportFilename != null) {
+                    File file = new File(zipExportFilename);
+                    if (file.exists()) {
+                        file.delete();
+                    }
+                }
+            } catch (Throwable t) {
+                // intentionally left blank
+            }
+        }
+    }
+
     /**
      * Tests the import xml validation.<p>
      * 
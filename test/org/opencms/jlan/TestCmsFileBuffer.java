@@ -0,0 +1,185 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jlan;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Tests for CmsFileBuffer.<p>
+ */
+public class TestCmsFileBuffer extends OpenCmsTestCase {
+
+    /**
+     * Creates test data of the given size.<p>
+     * 
+     * @param size the size
+     * 
+     * @return the test data
+     */
+    private static byte[] createData(int size) {
+
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte)(i % 251);
+        }
+        return data;
+    }
+
+    /**
+     * Tests that closing the buffer deletes the temporary file.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testClose() throws Exception {
+
+        CmsFileBuffer buffer = new CmsFileBuffer();
+        buffer.init(createData(CmsFileBuffer.MEMORY_THRESHOLD + 1));
+        assertTrue(buffer.isOnDisk());
+        File tempFile = buffer.m_tempFile;
+        assertTrue(tempFile.exists());
+
+        buffer.close();
+        assertFalse(buffer.isOnDisk());
+        assertFalse(tempFile.exists());
+        assertEquals(0, buffer.getLength());
+        assertEquals(0, buffer.getPosition());
+    }
+
+    /**
+     * Tests reading and writing at given positions in memory.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPositionalReadWrite() throws Exception {
+
+        CmsFileBuffer buffer = new CmsFileBuffer();
+        buffer.init("hello world".getBytes("US-ASCII"));
+        assertFalse(buffer.isOnDisk());
+        assertEquals(11, buffer.getLength());
+        assertEquals(0, buffer.getPosition());
+
+        buffer.seek(6);
+        buffer.write("WORLD".getBytes("US-ASCII"));
+        assertEquals("hello WORLD", new String(buffer.getContents(), "US-ASCII"));
+
+        byte[] dest = new byte[12];
+        // reading beyond the end only returns the available bytes
+        assertEquals(5, buffer.read(dest, 10, 2, 6));
+        assertEquals("WORLD", new String(dest, 2, 5, "US-ASCII"));
+        assertEquals(-1, buffer.read(dest, 10, 0, 11));
+
+        buffer.seek(11);
+        buffer.write("!!".getBytes("US-ASCII"));
+        assertEquals("hello WORLD!!", new String(buffer.getContents(), "US-ASCII"));
+        buffer.close();
+    }
+
+    /**
+     * Tests that the contents are moved to a temporary file if they grow beyond the memory threshold.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSpill() throws Exception {
+
+        int size = CmsFileBuffer.MEMORY_THRESHOLD;
+        byte[] data = createData(size + 1000);
+        CmsFileBuffer buffer = new CmsFileBuffer();
+        buffer.init(Arrays.copyOf(data, size));
+        assertFalse(buffer.isOnDisk());
+        assertEquals(size, buffer.getLength());
+
+        buffer.seek(size);
+        buffer.write(data, size, 1000);
+        assertTrue(buffer.isOnDisk());
+        assertEquals(size + 1000, buffer.getLength());
+        assertTrue(Arrays.equals(data, buffer.getContents()));
+
+        // positional reads and writes around the old threshold
+        byte[] dest = new byte[100];
+        assertEquals(100, buffer.read(dest, 100, 0, size - 50));
+        assertTrue(Arrays.equals(Arrays.copyOfRange(data, size - 50, size + 50), dest));
+        buffer.seek(size - 2);
+        buffer.write(new byte[] {1, 2, 3, 4});
+        assertEquals(size + 1000, buffer.getLength());
+        assertEquals(4, buffer.read(dest, 4, 10, size - 2));
+        assertEquals(1, dest[10]);
+        assertEquals(4, dest[13]);
+        assertEquals(-1, buffer.read(dest, 4, 0, size + 1000));
+        buffer.close();
+
+        // initializing from a stream spills as well
+        buffer = new CmsFileBuffer();
+        buffer.init(new ByteArrayInputStream(data));
+        assertTrue(buffer.isOnDisk());
+        assertEquals(0, buffer.getPosition());
+        assertTrue(Arrays.equals(data, buffer.getContents()));
+        buffer.close();
+    }
+
+    /**
+     * Tests changing the size of the buffer in memory and in the temporary file.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testTruncate() throws Exception {
+
+        int size = CmsFileBuffer.MEMORY_THRESHOLD;
+        byte[] data = createData(1000);
+        CmsFileBuffer buffer = new CmsFileBuffer();
+        buffer.init(data);
+        buffer.seek(800);
+        buffer.truncate(500);
+        assertFalse(buffer.isOnDisk());
+        assertEquals(500, buffer.getLength());
+        assertEquals(500, buffer.getPosition());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 500), buffer.getContents()));
+
+        // growing beyond the threshold moves the contents to the temporary file, filled with 0s
+        buffer.truncate(size + 10);
+        assertTrue(buffer.isOnDisk());
+        assertEquals(size + 10, buffer.getLength());
+        byte[] contents = buffer.getContents();
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 500), Arrays.copyOf(contents, 500)));
+        assertTrue(Arrays.equals(new byte[size + 10 - 500], Arrays.copyOfRange(contents, 500, size + 10)));
+
+        // shrinking keeps the temporary file
+        buffer.truncate(100);
+        assertTrue(buffer.isOnDisk());
+        assertEquals(100, buffer.getLength());
+        assertEquals(100, buffer.m_tempFile.length());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, 100), buffer.getContents()));
+        buffer.truncate(200);
+        assertEquals(200, buffer.getLength());
+        assertTrue(Arrays.equals(Arrays.copyOf(Arrays.copyOf(data, 100), 200), buffer.getContents()));
+        buffer.close();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionViolationException;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the <code>{@link CmsJspNavigationIndex}</code>.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestCmsJspNavigationIndex extends OpenCmsTestCase {
+
+    /** The folder used by the tests. */
+    private static final String FOLDER = "/navindex/";
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspNavigationIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspNavigationIndex.class.getName());
+
+        suite.addTest(new TestCmsJspNavigationIndex("testPermissionFiltering"));
+        suite.addTest(new TestCmsJspNavigationIndex("testPublishInvalidation"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the children read from the index are filtered by the permissions of the current user.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFiltering() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filtering of the navigation index");
+
+        String guestName = OpenCms.getDefaultUsers().getUserGuest();
+        cms.createResource(FOLDER, CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        cms.chacc(FOLDER, I_CmsPrincipal.PRINCIPAL_USER, guestName, "+r+v+i");
+        createNavResource(cms, "a.html", "2");
+        createNavResource(cms, "b.html", "1");
+        createNavResource(cms, "c.html", "3");
+        cms.chacc(FOLDER + "c.html", I_CmsPrincipal.PRINCIPAL_USER, guestName, "-r");
+        OpenCms.getPublishManager().publishResource(cms, FOLDER);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsJspNavigationIndex index = OpenCms.getNavigationIndex();
+        CmsObject adminCms = getOnlineCms(cms);
+        assertTrue(index.isAvailable(adminCms));
+        assertFalse(index.isAvailable(cms));
+        assertEquals("b.html|a.html|c.html", getNames(index.readChildren(adminCms, FOLDER, CmsResourceFilter.ALL)));
+
+        CmsObject guestCms = OpenCms.initCmsObject(guestName);
+        guestCms.getRequestContext().setSiteRoot(cms.getRequestContext().getSiteRoot());
+        assertEquals("b.html|a.html", getNames(index.readChildren(guestCms, FOLDER, CmsResourceFilter.ALL)));
+        // the result must be the same as reading the children from the VFS
+        List<CmsResource> vfsChildren = guestCms.getResourcesInFolder(FOLDER, CmsResourceFilter.ALL);
+        assertEquals(2, vfsChildren.size());
+
+        assertEquals(
+            FOLDER + "a.html",
+            guestCms.getSitePath(index.readResource(guestCms, FOLDER + "a.html", CmsResourceFilter.ALL)));
+        try {
+            index.readResource(guestCms, FOLDER + "c.html", CmsResourceFilter.ALL);
+            fail("Guest must not be able to read a resource without read permissions from the navigation index");
+        } catch (CmsPermissionViolationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that published changes are visible in the navigation index.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPublishInvalidation() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the navigation index after publishing");
+
+        CmsJspNavigationIndex index = OpenCms.getNavigationIndex();
+        CmsObject adminCms = getOnlineCms(cms);
+        assertEquals("b.html|a.html|c.html", getNames(index.readChildren(adminCms, FOLDER, CmsResourceFilter.ALL)));
+        assertTrue(index.getFolderCount() > 0);
+
+        // offline changes must not be visible
+        createNavResource(cms, "d.html", "0");
+        cms.lockResource(FOLDER + "a.html");
+        cms.writePropertyObject(FOLDER + "a.html", new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, "4", null));
+        assertEquals("b.html|a.html|c.html", getNames(index.readChildren(adminCms, FOLDER, CmsResourceFilter.ALL)));
+
+        OpenCms.getPublishManager().publishResource(cms, FOLDER);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        assertEquals(
+            "d.html|b.html|c.html|a.html",
+            getNames(index.readChildren(adminCms, FOLDER, CmsResourceFilter.ALL)));
+        CmsResource resource = index.readResource(adminCms, FOLDER + "a.html", CmsResourceFilter.ALL);
+        assertEquals("4", index.readProperties(adminCms, resource).get(CmsPropertyDefinition.PROPERTY_NAVPOS));
+
+        // a deleted resource is removed from the index
+        cms.lockResource(FOLDER + "d.html");
+        cms.deleteResource(FOLDER + "d.html", CmsResource.DELETE_PRESERVE_SIBLINGS);
+        OpenCms.getPublishManager().publishResource(cms, FOLDER + "d.html");
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals("b.html|c.html|a.html", getNames(index.readChildren(adminCms, FOLDER, CmsResourceFilter.ALL)));
+    }
+
+    /**
+     * Creates a file with the given navigation position in the test folder.<p>
+     * 
+     * @param cms the current users context
+     * @param name the name of the file
+     * @param navPos the navigation position
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void createNavResource(CmsObject cms, String name, String navPos) throws Exception {
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, navPos, null));
+        cms.createResource(FOLDER + name, CmsResourceTypePlain.getStaticTypeId(), "".getBytes(), properties);
+    }
+
+    /**
+     * Returns the names of the given resources, separated by '|'.<p>
+     * 
+     * @param resources the resources
+     * 
+     * @return the names of the resources
+     */
+    private String getNames(List<CmsResource> resources) {
+
+        StringBuffer result = new StringBuffer();
+        for (CmsResource resource : resources) {
+            if (result.length() > 0) {
+                result.append('|');
+            }
+            result.append(resource.getName());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a copy of the given context in the online project.<p>
+     * 
+     * @param cms the context to copy
+     * 
+     * @return the copy in the online project
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private CmsObject getOnlineCms(CmsObject cms) throws Exception {
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        return onlineCms;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.lock;
+
+import org.opencms.file.CmsProject;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the lock index used by the lock manager.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestCmsLockIndex extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsLockIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests the lookup of parent folder locks.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testParentLocks() throws Exception {
+
+        CmsProject project = createProject("project");
+        CmsUUID userId = CmsUUID.getConstantUUID("user");
+        CmsLockIndex index = new CmsLockIndex();
+        index.put(new CmsLock("/sites/default/", userId, project, CmsLockType.EXCLUSIVE));
+        index.put(new CmsLock("/sites/default/folder/", userId, project, CmsLockType.EXCLUSIVE));
+        index.put(new CmsLock("/sites/default/folder2/", userId, project, CmsLockType.EXCLUSIVE));
+
+        List<CmsLock> parents = index.getParentLocks("/sites/default/folder/index.html");
+        assertEquals(2, parents.size());
+        assertEquals("/sites/default/folder/", parents.get(0).getResourceName());
+        assertEquals("/sites/default/", parents.get(1).getResourceName());
+
+        assertTrue(index.getParentLocks("/system/index.html").isEmpty());
+        assertTrue(index.getParentLocks("/").isEmpty());
+    }
+
+    /**
+     * Tests the secondary indexes by user and project.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSecondaryIndexes() throws Exception {
+
+        CmsProject project1 = createProject("project1");
+        CmsProject project2 = createProject("project2");
+        CmsUUID user1 = CmsUUID.getConstantUUID("user1");
+        CmsUUID user2 = CmsUUID.getConstantUUID("user2");
+        CmsLockIndex index = new CmsLockIndex();
+        index.put(new CmsLock("/a.html", user1, project1, CmsLockType.EXCLUSIVE));
+        index.put(new CmsLock("/b.html", user1, project2, CmsLockType.EXCLUSIVE));
+        index.put(new CmsLock("/c.html", user2, project2, CmsLockType.EXCLUSIVE));
+
+        assertEquals(2, index.getUserLocks(user1).size());
+        assertEquals(1, index.getUserLocks(user2).size());
+        assertEquals(1, index.getProjectLocks(project1.getUuid()).size());
+        assertEquals(2, index.getProjectLocks(project2.getUuid()).size());
+
+        // replacing a lock must update the secondary indexes
+        index.put(new CmsLock("/b.html", user2, project1, CmsLockType.EXCLUSIVE));
+        assertEquals(1, index.getUserLocks(user1).size());
+        assertEquals(2, index.getUserLocks(user2).size());
+        assertEquals(2, index.getProjectLocks(project1.getUuid()).size());
+
+        index.remove("/a.html");
+        assertTrue(index.getUserLocks(user1).isEmpty());
+        assertEquals(2, index.size());
+
+        index.clear();
+        assertTrue(index.getUserLocks(user2).isEmpty());
+        assertTrue(index.getProjectLocks(project1.getUuid()).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Tests the enumeration of locks in a subtree.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSubtreeLocks() throws Exception {
+
+        CmsProject project = createProject("project");
+        CmsUUID userId = CmsUUID.getConstantUUID("user");
+        CmsLockIndex index = new CmsLockIndex();
+        String[] paths = {
+            "/sites/default/",
+            "/sites/default/folder/",
+            "/sites/default/folder/index.html",
+            "/sites/default/folder/sub/page.html",
+            "/sites/default/folder2/index.html",
+            "/sites/other/index.html"};
+        for (String path : paths) {
+            index.put(new CmsLock(path, userId, project, CmsLockType.EXCLUSIVE));
+        }
+
+        List<String> result = getPaths(index.getSubtreeLocks("/sites/default/folder/"));
+        assertEquals(3, result.size());
+        assertTrue(result.contains("/sites/default/folder/"));
+        assertTrue(result.contains("/sites/default/folder/index.html"));
+        assertTrue(result.contains("/sites/default/folder/sub/page.html"));
+
+        assertEquals(5, index.getSubtreeLocks("/sites/default/").size());
+        assertEquals(6, index.getSubtreeLocks("/").size());
+        assertTrue(index.getSubtreeLocks("/system/").isEmpty());
+    }
+
+    /**
+     * Creates a project with an id derived from the given name.<p>
+     * 
+     * @param name the project name
+     * 
+     * @return the project
+     */
+    private CmsProject createProject(String name) {
+
+        CmsUUID nullId = CmsUUID.getNullUUID();
+        return new CmsProject(
+            CmsUUID.getConstantUUID(name),
+            name,
+            "",
+            nullId,
+            nullId,
+            nullId,
+            0,
+            0,
+            CmsProject.PROJECT_TYPE_NORMAL);
+    }
+
+    /**
+     * Returns the sorted root paths of the given locks.<p>
+     * 
+     * @param locks the locks
+     * 
+     * @return the sorted root paths
+     */
+    private List<String> getPaths(List<CmsLock> locks) {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsLock lock : locks) {
+            result.add(lock.getResourceName());
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -65,7 +65,9 @@ public final class AllTests {
         suite.addTest(TestCmsShellInline.suite());
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
+        suite.addTest(new TestSuite(TestCmsClusterEventManager.class));
         suite.addTest(TestCmsSystemInfo.suite());
+        suite.addTest(new TestSuite(TestCmsStartupTaskRunner.class));
         // $JUnit-END$
         return suite;
     }
@@ -0,0 +1,164 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the cluster event manager with the loopback transport.<p>
+ *
+ * @since 9.5.0
+ */
+public class TestCmsClusterEventManager extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsClusterEventManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that duplicate messages are dropped and lost messages clear the caches.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDuplicateAndMissedMessages() throws Exception {
+
+        CmsClusterEventManager manager = createManager("testDuplicateAndMissedMessages");
+        List<CmsEvent> events = addListener(manager);
+        String sender = new CmsUUID().toString();
+        int type = I_CmsEventListener.EVENT_FLEX_CACHE_CLEAR;
+
+        manager.receiveMessage(sender + "|1|" + type);
+        manager.receiveMessage(sender + "|1|" + type);
+        assertEquals(1, events.size());
+
+        manager.receiveMessage(sender + "|4|" + type);
+        manager.receiveMessage(sender + "|3|" + type);
+        assertEquals(3, events.size());
+        assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, events.get(1).getType());
+        assertEquals(type, events.get(2).getType());
+
+        // invalid messages are ignored
+        manager.receiveMessage("invalid");
+        assertEquals(3, events.size());
+        manager.shutDown();
+    }
+
+    /**
+     * Tests that events are forwarded to the other event managers of the same channel.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testForwardEvents() throws Exception {
+
+        CmsClusterEventManager manager1 = createManager("testForwardEvents");
+        CmsClusterEventManager manager2 = createManager("testForwardEvents");
+        CmsClusterEventManager manager3 = createManager("testForwardEventsOther");
+        List<CmsEvent> events1 = addListener(manager1);
+        List<CmsEvent> events2 = addListener(manager2);
+        List<CmsEvent> events3 = addListener(manager3);
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(I_CmsEventListener.KEY_PUBLISHID, "a|b=c,d");
+        data.put(I_CmsEventListener.KEY_CHANGE, new Integer(3));
+        data.put(I_CmsEventListener.KEY_PROJECTID, CmsUUID.getConstantUUID("project"));
+        data.put(I_CmsEventListener.KEY_REPORT, new Object());
+        manager1.fireEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, data);
+        // events that are not configured are not forwarded
+        manager1.fireEvent(I_CmsEventListener.EVENT_LOGIN_USER, new HashMap<String, Object>());
+        // wait until all messages have been sent
+        manager1.shutDown();
+
+        assertEquals(2, events1.size());
+        assertEquals(1, events2.size());
+        assertTrue(events3.isEmpty());
+        CmsEvent event = events2.get(0);
+        assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, event.getType());
+        assertEquals("a|b=c,d", event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
+        assertEquals(new Integer(3), event.getData().get(I_CmsEventListener.KEY_CHANGE));
+        assertEquals(CmsUUID.getConstantUUID("project"), event.getData().get(I_CmsEventListener.KEY_PROJECTID));
+        assertFalse(event.getData().containsKey(I_CmsEventListener.KEY_REPORT));
+
+        manager2.shutDown();
+        manager3.shutDown();
+    }
+
+    /**
+     * Adds a listener for all events to the given event manager.<p>
+     *
+     * @param manager the event manager
+     *
+     * @return the list the received events are added to
+     */
+    private List<CmsEvent> addListener(CmsEventManager manager) {
+
+        final List<CmsEvent> events = Collections.synchronizedList(new ArrayList<CmsEvent>());
+        manager.addCmsEventListener(new I_CmsEventListener() {
+
+            public void cmsEvent(CmsEvent event) {
+
+                events.add(event);
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Creates a started cluster event manager with a loopback transport.<p>
+     *
+     * @param channel the loopback channel
+     *
+     * @return the event manager
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsClusterEventManager createManager(String channel) throws Exception {
+
+        CmsClusterEventManager manager = new CmsClusterEventManager();
+        manager.addConfigurationParameter(
+            CmsClusterEventManager.PARAM_TRANSPORT,
+            CmsLoopbackEventTransport.class.getName());
+        manager.addConfigurationParameter(CmsClusterEventManager.PARAM_TRANSPORT_PREFIX
+            + CmsLoopbackEventTransport.PARAM_CHANNEL, channel);
+        manager.initConfiguration();
+        manager.initializeCms(null);
+        return manager;
+    }
+}
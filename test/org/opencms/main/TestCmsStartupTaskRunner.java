@@ -0,0 +1,341 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the startup task runner.<p>
+ *
+ * @since 9.5.0
+ */
+public class TestCmsStartupTaskRunner extends OpenCmsTestCase {
+
+    /**
+     * Startup task that records when it is started and finished.<p>
+     */
+    private static class CmsRecordingTask implements CmsStartupTaskRunner.I_CmsStartupTask {
+
+        /** The names of the dependencies of the task. */
+        private String[] m_dependencies;
+
+        /** The error thrown by the task, or <code>null</code>. */
+        private CmsException m_error;
+
+        /** The names of the finished tasks. */
+        private Set<String> m_finished;
+
+        /** The name of the task. */
+        private String m_name;
+
+        /** The names of the started tasks, in the order they were started. */
+        private List<String> m_started;
+
+        /** The threads that ran the tasks. */
+        private List<Thread> m_threads;
+
+        /** The names of the tasks that were started before their dependencies were finished. */
+        private List<String> m_violations;
+
+        /**
+         * Creates a new recording task.<p>
+         *
+         * @param name the name of the task
+         * @param log the log of the test to record the task in
+         * @param error the error thrown by the task, or <code>null</code>
+         * @param dependencies the names of the dependencies of the task
+         */
+        protected CmsRecordingTask(String name, CmsTaskLog log, CmsException error, String... dependencies) {
+
+            m_name = name;
+            m_started = log.m_started;
+            m_finished = log.m_finished;
+            m_threads = log.m_threads;
+            m_violations = log.m_violations;
+            m_error = error;
+            m_dependencies = dependencies;
+        }
+
+        /**
+         * @see org.opencms.main.CmsStartupTaskRunner.I_CmsStartupTask#run()
+         */
+        public void run() throws CmsException {
+
+            m_started.add(m_name);
+            m_threads.add(Thread.currentThread());
+            for (String dependency : m_dependencies) {
+                if (!m_finished.contains(dependency)) {
+                    m_violations.add(m_name);
+                }
+            }
+            work();
+            if (m_error != null) {
+                throw m_error;
+            }
+            m_finished.add(m_name);
+        }
+
+        /**
+         * Does the work of the task, the default implementation does nothing.<p>
+         *
+         * @throws CmsException if something goes wrong
+         */
+        protected void work() throws CmsException {
+
+            // noop
+        }
+    }
+
+    /**
+     * The records of the tasks of a single test.<p>
+     */
+    private static class CmsTaskLog {
+
+        /** The names of the finished tasks. */
+        protected Set<String> m_finished = Collections.synchronizedSet(new HashSet<String>());
+
+        /** The names of the started tasks, in the order they were started. */
+        protected List<String> m_started = Collections.synchronizedList(new ArrayList<String>());
+
+        /** The threads that ran the tasks. */
+        protected List<Thread> m_threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        /** The names of the tasks that were started before their dependencies were finished. */
+        protected List<String> m_violations = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsStartupTaskRunner(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that independent tasks run in parallel, and that tasks wait for their dependencies.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDependenciesParallel() throws Exception {
+
+        CmsTaskLog log = new CmsTaskLog();
+        final CountDownLatch independentStarted = new CountDownLatch(1);
+        final List<Boolean> parallel = Collections.synchronizedList(new ArrayList<Boolean>());
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(4);
+        runner.addTask("slow", new CmsRecordingTask("slow", log, null) {
+
+            @Override
+            protected void work() {
+
+                try {
+                    // only finishes in time if the independent task runs at the same time
+                    parallel.add(Boolean.valueOf(independentStarted.await(10, TimeUnit.SECONDS)));
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    parallel.add(Boolean.FALSE);
+                }
+            }
+        });
+        runner.addTask("fast", new CmsRecordingTask("fast", log, null));
+        runner.addTask("dependent", new CmsRecordingTask("dependent", log, null, "slow", "fast"), "slow", "fast");
+        runner.addTask("independent", new CmsRecordingTask("independent", log, null) {
+
+            @Override
+            protected void work() {
+
+                independentStarted.countDown();
+            }
+        });
+        runner.addTask("last", new CmsRecordingTask("last", log, null, "dependent"), "dependent");
+        runner.run();
+
+        assertEquals(5, log.m_finished.size());
+        assertTrue("tasks started before their dependencies finished: " + log.m_violations, log.m_violations.isEmpty());
+        assertEquals(Collections.singletonList(Boolean.TRUE), parallel);
+        assertTrue(log.m_started.indexOf("dependent") < log.m_started.indexOf("last"));
+        assertFalse(log.m_threads.contains(Thread.currentThread()));
+    }
+
+    /**
+     * Tests that a failed task stops further tasks when running with several threads, 
+     * and that the error is thrown after the running tasks have finished.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testErrorParallel() throws Exception {
+
+        CmsTaskLog log = new CmsTaskLog();
+        final CountDownLatch failed = new CountDownLatch(1);
+        CmsException error = new CmsException(Messages.get().container(Messages.ERR_STARTUP_TASKS_0));
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(4);
+        runner.addTask("running", new CmsRecordingTask("running", log, null) {
+
+            @Override
+            protected void work() {
+
+                try {
+                    // still running when the other task fails
+                    failed.await(10, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    // finish
+                }
+            }
+        });
+        runner.addTask("failing", new CmsRecordingTask("failing", log, error) {
+
+            @Override
+            protected void work() {
+
+                failed.countDown();
+            }
+        });
+        runner.addTask("dependent", new CmsRecordingTask("dependent", log, null, "failing"), "failing");
+        runner.addTask("after", new CmsRecordingTask("after", log, null, "running"), "running");
+        try {
+            runner.run();
+            fail("the error of the failed task was not thrown");
+        } catch (CmsException e) {
+            assertSame(error, e);
+        }
+
+        assertTrue("the running task is finished before the error is thrown", log.m_finished.contains("running"));
+        assertFalse(log.m_started.contains("dependent"));
+        assertFalse("no further tasks are started after an error", log.m_started.contains("after"));
+    }
+
+    /**
+     * Tests that a failed task stops the remaining tasks when running with one thread.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testErrorSequential() throws Exception {
+
+        CmsTaskLog log = new CmsTaskLog();
+        CmsException error = new CmsException(Messages.get().container(Messages.ERR_STARTUP_TASKS_0));
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(1);
+        runner.addTask("first", new CmsRecordingTask("first", log, null));
+        runner.addTask("failing", new CmsRecordingTask("failing", log, error));
+        runner.addTask("third", new CmsRecordingTask("third", log, null));
+        try {
+            runner.run();
+            fail("the error of the failed task was not thrown");
+        } catch (CmsException e) {
+            assertSame(error, e);
+        }
+        assertEquals(2, log.m_started.size());
+        assertFalse(log.m_started.contains("third"));
+    }
+
+    /**
+     * Tests that runtime exceptions of a task are thrown unchanged.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRuntimeErrorParallel() throws Exception {
+
+        CmsTaskLog log = new CmsTaskLog();
+        final IllegalStateException error = new IllegalStateException();
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("failing", new CmsRecordingTask("failing", log, null) {
+
+            @Override
+            protected void work() {
+
+                throw error;
+            }
+        });
+        runner.addTask("dependent", new CmsRecordingTask("dependent", log, null, "failing"), "failing");
+        try {
+            runner.run();
+            fail("the error of the failed task was not thrown");
+        } catch (IllegalStateException e) {
+            assertSame(error, e);
+        }
+        assertFalse(log.m_started.contains("dependent"));
+    }
+
+    /**
+     * Tests that the tasks run in the order they were added on the calling thread when running with one thread.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSequentialOrder() throws Exception {
+
+        CmsTaskLog log = new CmsTaskLog();
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(1);
+        runner.addTask("a", new CmsRecordingTask("a", log, null));
+        runner.addTask("b", new CmsRecordingTask("b", log, null));
+        runner.addTask("c", new CmsRecordingTask("c", log, null, "a"), "a");
+        runner.addTask("d", new CmsRecordingTask("d", log, null, "c", "b"), "c", "b");
+        runner.addTask("e", new CmsRecordingTask("e", log, null));
+        runner.run();
+
+        List<String> expected = new ArrayList<String>();
+        Collections.addAll(expected, "a", "b", "c", "d", "e");
+        assertEquals(expected, log.m_started);
+        assertTrue(log.m_violations.isEmpty());
+        for (Thread thread : log.m_threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+    }
+
+    /**
+     * Tests that tasks can only depend on tasks added before them.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUnknownDependency() throws Exception {
+
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("a", new CmsRecordingTask("a", new CmsTaskLog(), null));
+        try {
+            runner.addTask("b", new CmsRecordingTask("b", new CmsTaskLog(), null, "c"), "c");
+            fail("a dependency on an unknown task was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            runner.addTask("a", new CmsRecordingTask("a", new CmsTaskLog(), null));
+            fail("a duplicate task name was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the concurrent memory monitor caches.<p>
+ * 
+ * @since 9.5.0
+ */
+public class TestCmsConcurrentCacheFactory extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsConcurrentCacheFactory(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that bounded caches respect the configured maximum size.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testBoundedCache() throws Exception {
+
+        I_CmsMemoryCacheFactory factory = new CmsConcurrentCacheFactory(4);
+        Map<String, String> cache = factory.createCache(CacheType.RESOURCE, 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(100, factory.getMaxSize(cache));
+        assertEquals("value999", cache.get("key999"));
+
+        Map<String, String> unbounded = factory.createCache(CacheType.LOCK, -1);
+        for (int i = 0; i < 1000; i++) {
+            unbounded.put("key" + i, "value" + i);
+        }
+        assertEquals(1000, unbounded.size());
+        assertEquals(-1, factory.getMaxSize(unbounded));
+    }
+
+    /**
+     * Tests concurrent reads and writes on a bounded cache.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentAccess() throws Exception {
+
+        I_CmsMemoryCacheFactory factory = new CmsConcurrentCacheFactory();
+        final Map<Integer, Integer> cache = factory.createCache(CacheType.PERMISSION, 500);
+        final int threadCount = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final AtomicInteger errors = new AtomicInteger();
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t;
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        start.await();
+                        for (int i = 0; i < 10000; i++) {
+                            Integer key = Integer.valueOf((i * offset) % 1000);
+                            cache.put(key, key);
+                            Integer value = cache.get(key);
+                            if ((value != null) && !value.equals(key)) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            thread.start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(0, errors.get());
+        assertTrue(cache.size() <= 500);
+    }
+
+    /**
+     * Tests that the caches handle <code>null</code> keys and values like the previously used LRU maps.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testNullHandling() throws Exception {
+
+        I_CmsMemoryCacheFactory factory = new CmsConcurrentCacheFactory();
+        Map<String, Object> cache = factory.createCache(CacheType.VFS_OBJECT, 10);
+        assertNull(cache.get(null));
+        assertFalse(cache.containsKey(null));
+        cache.put("a", "b");
+        assertEquals("b", cache.get("a"));
+        cache.put("a", null);
+        assertFalse(cache.containsKey("a"));
+        assertNull(cache.remove(null));
+    }
+}
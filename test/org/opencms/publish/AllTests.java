@@ -58,6 +58,7 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(TestPublishManager.suite());
+        suite.addTest(TestPublishQueue.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,296 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.publish;
+
+import org.opencms.db.CmsPublishList;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the conflict detection of publish jobs and the order in which the publish queue starts them.<p>
+ */
+public class TestPublishQueue extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestPublishQueue(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestPublishQueue.class.getName());
+
+        suite.addTest(new TestPublishQueue("testConflictOverlappingIds"));
+        suite.addTest(new TestPublishQueue("testConflictSiblings"));
+        suite.addTest(new TestPublishQueue("testConflictParentFolder"));
+        suite.addTest(new TestPublishQueue("testConflictUnknownResources"));
+        suite.addTest(new TestPublishQueue("testNextInEnqueueOrder"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that publish jobs containing the same resource conflict, while unrelated jobs do not.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConflictOverlappingIds() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publish jobs with the same resources");
+
+        touch(cms, "/folder1/subfolder11/page1.html");
+        touch(cms, "/folder1/subfolder11/page2.html");
+        touch(cms, "/folder2/page1.html");
+
+        CmsPublishJobInfoBean folderJob = createPublishJob(cms, "/folder1/subfolder11/");
+        CmsPublishJobInfoBean fileJob = createPublishJob(cms, "/folder1/subfolder11/page2.html");
+        CmsPublishJobInfoBean otherJob = createPublishJob(cms, "/folder2/page1.html");
+
+        assertTrue(folderJob.isConflicting(fileJob));
+        assertTrue(fileJob.isConflicting(folderJob));
+        assertTrue(fileJob.isConflicting(createPublishJob(cms, "/folder1/subfolder11/page2.html")));
+        assertFalse(folderJob.isConflicting(otherJob));
+        assertFalse(otherJob.isConflicting(fileJob));
+    }
+
+    /**
+     * Tests that a publish job containing a folder conflicts with a job containing a resource below that folder.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConflictParentFolder() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publish jobs with a folder and a resource below it");
+
+        // the folder job is created before the file is changed, so only the folder itself is contained
+        touch(cms, "/folder2/subfolder21/");
+        CmsPublishJobInfoBean folderJob = createPublishJob(cms, "/folder2/subfolder21/");
+        assertEquals(1, folderJob.getPublishList().size());
+        touch(cms, "/folder2/subfolder21/image1.gif");
+        CmsPublishJobInfoBean fileJob = createPublishJob(cms, "/folder2/subfolder21/image1.gif");
+        assertEquals(1, fileJob.getPublishList().size());
+
+        assertTrue(folderJob.isConflicting(fileJob));
+        assertTrue(fileJob.isConflicting(folderJob));
+
+        // a folder next to the parent folder does not conflict
+        touch(cms, "/folder2/subfolder22/");
+        CmsPublishJobInfoBean otherJob = createPublishJob(cms, "/folder2/subfolder22/");
+        assertFalse(otherJob.isConflicting(fileJob));
+        assertFalse(folderJob.isConflicting(otherJob));
+    }
+
+    /**
+     * Tests that publish jobs for siblings conflict, since siblings share the resource id.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConflictSiblings() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publish jobs with siblings");
+
+        String source = "/folder1/page2.html";
+        String sibling = "/folder1/page2_sibling.html";
+        cms.createSibling(source, sibling, null);
+        touch(cms, source);
+
+        CmsPublishJobInfoBean sourceJob = createPublishJob(cms, source);
+        CmsPublishJobInfoBean siblingJob = createPublishJob(cms, sibling);
+        CmsResource siblingResource = cms.readResource(sibling);
+        for (CmsResource resource : sourceJob.getPublishList().getAllResources()) {
+            assertFalse(resource.getStructureId().equals(siblingResource.getStructureId()));
+        }
+
+        assertTrue(sourceJob.isConflicting(siblingJob));
+        assertTrue(siblingJob.isConflicting(sourceJob));
+    }
+
+    /**
+     * Tests that a publish job whose resources are not known conflicts with every other job.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConflictUnknownResources() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publish jobs with unknown resources");
+
+        touch(cms, "/folder1/image1.gif");
+        touch(cms, "/folder2/image1.gif");
+        CmsPublishJobInfoBean job = createPublishJob(cms, "/folder1/image1.gif");
+        // the resources are collected when the job is enqueued
+        CmsPublishJobInfoBean unknownJob = new CmsPublishJobInfoBean(
+            cms,
+            OpenCms.getPublishManager().getPublishList(cms, cms.readResource("/folder2/image1.gif"), false),
+            new CmsShellReport(cms.getRequestContext().getLocale()));
+
+        assertTrue(unknownJob.isConflicting(job));
+        assertTrue(job.isConflicting(unknownJob));
+    }
+
+    /**
+     * Tests that the queue starts jobs that do not conflict with running jobs, 
+     * and keeps conflicting jobs in the order they were enqueued.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testNextInEnqueueOrder() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the order of conflicting jobs in the publish queue");
+
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertTrue(OpenCms.getMemoryMonitor().getAllCachedPublishJobs().isEmpty());
+
+        touch(cms, "/folder2/page2.html");
+        touch(cms, "/folder1/page4.html");
+        touch(cms, "/folder1/image2.gif");
+
+        CmsPublishJobInfoBean running = createPublishJob(cms, "/folder2/page2.html");
+        CmsPublishJobInfoBean queued1 = createPublishJob(cms, "/folder2/page2.html");
+        CmsPublishJobInfoBean queued2 = createPublishJob(cms, "/folder1/page4.html");
+        CmsPublishJobInfoBean queued3 = createPublishJob(cms, "/folder2/page2.html");
+        CmsPublishJobInfoBean queued4 = createPublishJob(cms, "/folder1/image2.gif");
+
+        // the queue does not use the publish engine for selecting the next job 
+        CmsPublishQueue queue = new CmsPublishQueue(null);
+        List<CmsPublishJobInfoBean> queued = new ArrayList<CmsPublishJobInfoBean>();
+        queued.add(queued1);
+        queued.add(queued2);
+        queued.add(queued3);
+        queued.add(queued4);
+        try {
+            for (CmsPublishJobInfoBean job : queued) {
+                OpenCms.getMemoryMonitor().cachePublishJob(job);
+            }
+
+            List<CmsPublishJobInfoBean> runningJobs = new ArrayList<CmsPublishJobInfoBean>();
+            runningJobs.add(running);
+            // the jobs conflicting with the running job are skipped
+            assertSame(queued2, queue.next(runningJobs));
+            runningJobs.add(queued2);
+            assertSame(queued4, queue.next(runningJobs));
+            runningJobs.add(queued4);
+            assertNull(queue.next(runningJobs));
+
+            // the conflicting jobs are started in the order they were enqueued
+            runningJobs.clear();
+            assertSame(queued1, queue.next(runningJobs));
+            runningJobs.add(queued1);
+            assertNull(queue.next(runningJobs));
+            runningJobs.clear();
+            assertSame(queued3, queue.next(runningJobs));
+            assertTrue(OpenCms.getMemoryMonitor().getAllCachedPublishJobs().isEmpty());
+        } finally {
+            for (CmsPublishJobInfoBean job : queued) {
+                OpenCms.getMemoryMonitor().uncachePublishJob(job);
+            }
+        }
+    }
+
+    /**
+     * Creates a publish job for the given resource and collects the resources to publish like on enqueue.<p>
+     * 
+     * @param cms the cms context
+     * @param resourceName the resource to publish, without siblings
+     * 
+     * @return the publish job
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private CmsPublishJobInfoBean createPublishJob(CmsObject cms, String resourceName) throws Exception {
+
+        CmsPublishList publishList = OpenCms.getPublishManager().getPublishList(
+            cms,
+            cms.readResource(resourceName, CmsResourceFilter.ALL),
+            false);
+        CmsPublishJobInfoBean publishJob = new CmsPublishJobInfoBean(
+            cms,
+            publishList,
+            new CmsShellReport(cms.getRequestContext().getLocale()));
+        publishJob.enqueue();
+        return publishJob;
+    }
+
+    /**
+     * Changes the given resource, so it is contained in publish lists.<p>
+     * 
+     * @param cms the cms context
+     * @param resourceName the resource to change
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void touch(CmsObject cms, String resourceName) throws Exception {
+
+        cms.lockResource(resourceName);
+        cms.setDateLastModified(resourceName, System.currentTimeMillis(), false);
+    }
+}
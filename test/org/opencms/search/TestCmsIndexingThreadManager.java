@@ -0,0 +1,312 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.report.CmsStringBufferReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the extraction of index documents by the pooled worker threads of the indexing thread manager.<p>
+ */
+public class TestCmsIndexingThreadManager extends OpenCmsTestCase {
+
+    /**
+     * Search index that calls a test hook instead of checking if a resource is excluded.<p>
+     * 
+     * All resources are excluded, so no document is created and the resources are deleted from the index.<p>
+     */
+    private abstract static class CmsTestIndex extends CmsSearchIndex {
+
+        /**
+         * @see org.opencms.search.CmsSearchIndex#excludeFromIndex(org.opencms.file.CmsObject, org.opencms.file.CmsResource)
+         */
+        @Override
+        protected boolean excludeFromIndex(CmsObject cms, CmsResource resource) {
+
+            extract(cms, resource);
+            return true;
+        }
+
+        /**
+         * Called by the worker threads for every resource.<p>
+         * 
+         * @param cms the context of the indexing thread
+         * @param resource the resource to index
+         */
+        protected abstract void extract(CmsObject cms, CmsResource resource);
+    }
+
+    /**
+     * VFS indexer that records the resources written to the index.<p>
+     */
+    private static class CmsTestIndexer extends CmsVfsIndexer {
+
+        /** The root paths of the resources written to the index, in the order they were written. */
+        protected List<String> m_written = new ArrayList<String>();
+
+        /**
+         * Creates a new test indexer.<p>
+         * 
+         * @param cms the context of the indexer
+         * @param index the index 
+         * @param report the report
+         */
+        protected CmsTestIndexer(CmsObject cms, CmsSearchIndex index, CmsStringBufferReport report) {
+
+            m_cms = cms;
+            m_index = index;
+            m_report = report;
+        }
+
+        /**
+         * @see org.opencms.search.CmsVfsIndexer#deleteResource(org.opencms.search.I_CmsIndexWriter, org.opencms.db.CmsPublishedResource)
+         */
+        @Override
+        protected void deleteResource(I_CmsIndexWriter indexWriter, CmsPublishedResource resource) {
+
+            m_written.add(resource.getRootPath());
+        }
+
+        /**
+         * @see org.opencms.search.CmsVfsIndexer#updateResource(org.opencms.search.I_CmsIndexWriter, java.lang.String, org.opencms.search.I_CmsSearchDocument)
+         */
+        @Override
+        protected void updateResource(I_CmsIndexWriter indexWriter, String rootPath, I_CmsSearchDocument doc) {
+
+            m_written.add(rootPath);
+        }
+    }
+
+    /** The resources used for the tests. */
+    private static final String[] RESOURCES = {
+        "/index.html",
+        "/folder1/index.html",
+        "/folder1/page1.html",
+        "/folder1/page2.html"};
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsIndexingThreadManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsIndexingThreadManager.class.getName());
+
+        suite.addTest(new TestCmsIndexingThreadManager("testParallelExtraction"));
+        suite.addTest(new TestCmsIndexingThreadManager("testAbandonedThread"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that a job reaching the timeout is abandoned and counted in the statistics, 
+     * while the other jobs are still written in order.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testAbandonedThread() throws Throwable {
+
+        echo("Testing abandoned indexing threads");
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> resources = readResources(cms);
+        final String hangingPath = resources.get(0).getRootPath();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        CmsSearchIndex index = new CmsTestIndex() {
+
+            @Override
+            protected void extract(CmsObject jobCms, CmsResource resource) {
+
+                if (resource.getRootPath().equals(hangingPath)) {
+                    try {
+                        Thread.sleep(60000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                }
+            }
+        };
+        CmsStringBufferReport report = new CmsStringBufferReport(Locale.ENGLISH);
+        CmsTestIndexer indexer = new CmsTestIndexer(cms, index, report);
+
+        CmsIndexingThreadManager manager = new CmsIndexingThreadManager(500, Integer.MAX_VALUE, 2);
+        for (CmsResource resource : resources) {
+            manager.createIndexingThread(indexer, null, resource);
+        }
+        while (manager.isRunning()) {
+            Thread.sleep(10);
+        }
+        manager.reportStatistics(report);
+
+        // the abandoned worker is interrupted
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        // the abandoned resource is removed from the index, all resources are written in order
+        assertEquals(getRootPaths(resources), indexer.m_written);
+        assertTrue(report.toString().contains(
+            Messages.get().getBundle(Locale.ENGLISH).key(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, hangingPath)));
+        assertTrue(report.toString().contains(
+            "indexed files: " + resources.size() + ", returned threads: " + (resources.size() - 1) + ", "));
+        assertTrue(report.toString().contains("abandoned threads: 1"));
+    }
+
+    /**
+     * Tests that the documents are extracted in parallel, each job with its own context, 
+     * and that the results are written in the order of the resources.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testParallelExtraction() throws Throwable {
+
+        echo("Testing the parallel extraction of documents");
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> resources = readResources(cms);
+        final CountDownLatch started = new CountDownLatch(resources.size());
+        final List<CmsObject> contexts = Collections.synchronizedList(new ArrayList<CmsObject>());
+        final List<Boolean> parallel = Collections.synchronizedList(new ArrayList<Boolean>());
+        CmsSearchIndex index = new CmsTestIndex() {
+
+            @Override
+            protected void extract(CmsObject jobCms, CmsResource resource) {
+
+                contexts.add(jobCms);
+                started.countDown();
+                try {
+                    // all jobs must be running at the same time to get past this
+                    parallel.add(Boolean.valueOf(started.await(10, TimeUnit.SECONDS)));
+                } catch (InterruptedException e) {
+                    parallel.add(Boolean.FALSE);
+                }
+            }
+        };
+        CmsStringBufferReport report = new CmsStringBufferReport(Locale.ENGLISH);
+        CmsTestIndexer indexer = new CmsTestIndexer(cms, index, report);
+
+        CmsIndexingThreadManager manager = new CmsIndexingThreadManager(60000, Integer.MAX_VALUE, resources.size());
+        for (CmsResource resource : resources) {
+            manager.createIndexingThread(indexer, null, resource);
+        }
+        while (manager.isRunning()) {
+            Thread.sleep(10);
+        }
+        manager.reportStatistics(report);
+
+        assertEquals(resources.size(), parallel.size());
+        assertFalse(parallel.contains(Boolean.FALSE));
+        // every job has its own copy of the indexer context
+        assertEquals(resources.size(), contexts.size());
+        for (int i = 0; i < contexts.size(); i++) {
+            assertNotSame(cms, contexts.get(i));
+            for (int j = i + 1; j < contexts.size(); j++) {
+                assertNotSame(contexts.get(i), contexts.get(j));
+            }
+        }
+        assertEquals(getRootPaths(resources), indexer.m_written);
+        assertTrue(report.toString().contains(
+            "indexed files: " + resources.size() + ", returned threads: " + resources.size() + ", "));
+        assertTrue(report.toString().contains("abandoned threads: 0"));
+    }
+
+    /**
+     * Returns the root paths of the given resources.<p>
+     * 
+     * @param resources the resources 
+     * 
+     * @return the root paths of the given resources
+     */
+    private List<String> getRootPaths(List<CmsResource> resources) {
+
+        List<String> result = new ArrayList<String>();
+        for (CmsResource resource : resources) {
+            result.add(resource.getRootPath());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the resources used for the tests.<p>
+     * 
+     * @param cms the current context
+     * 
+     * @return the resources used for the tests
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private List<CmsResource> readResources(CmsObject cms) throws Exception {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        for (String path : RESOURCES) {
+            result.add(cms.readResource(path));
+        }
+        return result;
+    }
+}
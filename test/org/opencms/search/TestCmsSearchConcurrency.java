@@ -0,0 +1,234 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.report.I_CmsReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for concurrent searches on a Lucene search index.<p>
+ */
+public class TestCmsSearchConcurrency extends OpenCmsTestCase {
+
+    /** Name of the index used for testing. */
+    public static final String INDEX_OFFLINE = "Offline project (VFS)";
+
+    /** The query used for the tests. */
+    private static final String QUERY = "+Alkacon +OpenCms";
+
+    /** The number of searches every thread executes. */
+    private static final int SEARCHES_PER_THREAD = 200;
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSearchConcurrency(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSearchConcurrency.class.getName());
+
+        suite.addTest(new TestCmsSearchConcurrency("testConcurrentSearchResults"));
+        suite.addTest(new TestCmsSearchConcurrency("testConcurrentSearchWhileRebuilding"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that searches executed by an increasing number of concurrent threads all return the expected hits.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentSearchResults() throws Throwable {
+
+        echo("Testing the results of concurrent searches");
+
+        I_CmsReport report = new CmsShellReport(Locale.ENGLISH);
+        OpenCms.getSearchManager().rebuildIndex(INDEX_OFFLINE, report);
+
+        CmsSearchIndex index = OpenCms.getSearchManager().getIndex(INDEX_OFFLINE);
+        List<String> expected = getPaths(index.search(getCmsObject(), new CmsSearchParameters(QUERY)));
+        assertFalse(expected.isEmpty());
+
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            echo("Running " + SEARCHES_PER_THREAD + " searches in each of " + threads + " threads");
+            runSearches(index, threads, SEARCHES_PER_THREAD, expected);
+        }
+    }
+
+    /**
+     * Tests that concurrent searches succeed while the index is rebuilt and the searcher is replaced.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentSearchWhileRebuilding() throws Throwable {
+
+        echo("Testing concurrent searches while the index is rebuilt");
+
+        final CmsSearchIndex index = OpenCms.getSearchManager().getIndex(INDEX_OFFLINE);
+        final List<String> expected = getPaths(index.search(getCmsObject(), new CmsSearchParameters(QUERY)));
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread rebuild = new Thread() {
+
+            @Override
+            public void run() {
+
+                try {
+                    I_CmsReport report = new CmsShellReport(Locale.ENGLISH);
+                    for (int i = 0; i < 3; i++) {
+                        OpenCms.getSearchManager().rebuildIndex(INDEX_OFFLINE, report);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+        };
+        rebuild.start();
+        while (rebuild.isAlive()) {
+            runSearches(index, 4, 10, expected);
+        }
+        rebuild.join();
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+        // the searcher must still be usable after all the updates
+        assertEquals(expected, getPaths(index.search(getCmsObject(), new CmsSearchParameters(QUERY))));
+    }
+
+    /**
+     * Returns the sorted root paths of the given search results.<p>
+     * 
+     * The paths are sorted, because the order of hits with the same score may change when the index is rebuilt.<p>
+     * 
+     * @param results the search results
+     * 
+     * @return the sorted root paths of the search results
+     */
+    private List<String> getPaths(List<CmsSearchResult> results) {
+
+        List<String> paths = new ArrayList<String>(results.size());
+        for (CmsSearchResult result : results) {
+            paths.add(result.getPath());
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    /**
+     * Executes the given number of searches in the given number of concurrent threads 
+     * and checks that every search returns the expected hits.<p>
+     * 
+     * @param index the index to search
+     * @param threadCount the number of concurrent threads
+     * @param searches the number of searches every thread executes
+     * @param expected the expected root paths of the hits of every search
+     * 
+     * @throws Throwable the first error thrown by one of the threads
+     */
+    private void runSearches(
+        final CmsSearchIndex index,
+        int threadCount,
+        final int searches,
+        final List<String> expected) throws Throwable {
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final CmsObject cms = getCmsObject();
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int j = 0; j < searches; j++) {
+                            List<String> paths = getPaths(index.search(cms, new CmsSearchParameters(QUERY)));
+                            if (!expected.equals(paths)) {
+                                throw new Exception("Expected " + expected + " but got " + paths);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+        }
+        for (int i = 0; i < threadCount; i++) {
+            threads[i].start();
+        }
+        for (int i = 0; i < threadCount; i++) {
+            threads[i].join();
+        }
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+    }
+}
@@ -49,6 +49,7 @@ import org.opencms.xml.content.CmsXmlContentFactory;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
@@ -109,10 +110,10 @@ public class TestSolrSearch extends OpenCmsTestCase {
         suite.addTest(new TestSolrSearch("testXmlContent"));
         suite.addTest(new TestSolrSearch("testDocumentBoost"));
         suite.addTest(new TestSolrSearch("testAdvancedFacetting"));
+        suite.addTest(new TestSolrSearch("testAdvancedPaging"));
 
         // suite.addTest(new TestSolrSearch("testAdvancedHighlighting"));
         // suite.addTest(new TestSolrSearch("testAdvancedMoreLikeThis"));
-        // suite.addTest(new TestSolrSearch("testAdvancedPaging"));
         // suite.addTest(new TestSolrSearch("testAdvancedRangingDates"));
         // suite.addTest(new TestSolrSearch("testAdvancedRangingNumerics"));
         // suite.addTest(new TestSolrSearch("testAdvancedSorting"));
@@ -205,11 +206,40 @@ public class TestSolrSearch extends OpenCmsTestCase {
     }
 
     /**
-     * @throws Throwable
+     * Tests that paging through a search result delivers every document exactly once, 
+     * also if a page is requested again after the following pages have been read.<p>
+     * 
+     * @throws Throwable if something goes wrong
      */
     public void testAdvancedPaging() throws Throwable {
 
-        // TODO: implement
+        echo("Testing paging through a search result");
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        String query = "?q=text:OpenCms";
+        int rows = 5;
+
+        List<String> expected = new ArrayList<String>();
+        for (CmsSearchResource res : index.search(getCmsObject(), query + "&rows=50")) {
+            expected.add(res.getRootPath());
+        }
+        assertTrue("Test needs more than one page of results", expected.size() > rows);
+
+        List<String> paged = new ArrayList<String>();
+        for (int start = 0; start < expected.size(); start += rows) {
+            CmsSolrResultList page = index.search(getCmsObject(), query + "&rows=" + rows + "&start=" + start);
+            assertEquals(start, page.getStart().intValue());
+            for (CmsSearchResource res : page) {
+                paged.add(res.getRootPath());
+            }
+        }
+        assertEquals(expected, paged);
+
+        // the second page is now read starting at the position remembered by the result cursor
+        List<String> secondPage = new ArrayList<String>();
+        for (CmsSearchResource res : index.search(getCmsObject(), query + "&rows=" + rows + "&start=" + rows)) {
+            secondPage.add(res.getRootPath());
+        }
+        assertEquals(expected.subList(rows, Math.min(2 * rows, expected.size())), secondPage);
     }
 
     /**
@@ -91,6 +91,7 @@ public final class AllTests {
         suite.addTest(org.opencms.cache.AllTests.suite());
         suite.addTest(org.opencms.configuration.AllTests.suite());
         suite.addTest(org.opencms.db.AllTests.suite());
+        suite.addTest(org.opencms.db.generic.AllTests.suite());
         suite.addTest(org.opencms.file.AllTests.suite());
         suite.addTest(org.opencms.file.collectors.AllTests.suite());
         suite.addTest(org.opencms.file.types.AllTests.suite());
@@ -98,9 +99,12 @@ public final class AllTests {
         suite.addTest(org.opencms.flex.AllTests.suite());
         suite.addTest(org.opencms.i18n.AllTests.suite());
         suite.addTest(org.opencms.importexport.AllTests.suite());
+        suite.addTest(org.opencms.jlan.AllTests.suite());
+        suite.addTest(org.opencms.jsp.AllTests.suite());
         suite.addTest(org.opencms.jsp.decorator.AllTests.suite());
         suite.addTest(org.opencms.jsp.util.AllTests.suite());
         suite.addTest(org.opencms.loader.AllTests.suite());
+        suite.addTest(org.opencms.lock.AllTests.suite());
         suite.addTest(org.opencms.mail.AllTests.suite());
         suite.addTest(org.opencms.main.AllTests.suite());
         suite.addTest(org.opencms.module.AllTests.suite());
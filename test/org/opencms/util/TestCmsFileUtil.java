@@ -135,6 +135,38 @@ public class TestCmsFileUtil extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests reading byte ranges with {@link CmsFileUtil#getRangeStream(InputStream, long, long)} 
+     * and {@link CmsFileUtil#getRangeStream(byte[], long, long)}.<p>
+     *  
+     * @throws IOException in case the test fails
+     */
+    public void testGetRangeStream() throws IOException {
+
+        // range spanning both chunks of the test stream
+        TestInputStream is = new TestInputStream();
+        byte[] data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(is, 14, 4));
+        assertTrue("range data returned", Arrays.equals(new byte[] {1, 1, 2, 2}, data));
+        assertTrue("input stream was closed", is.isClosed());
+
+        // open range up to the end of the stream
+        data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(new TestInputStream(), 20, -1));
+        assertTrue("open range data returned", Arrays.equals(new byte[] {2, 2, 2, 2}, data));
+
+        // range beyond the end of the stream
+        data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(new TestInputStream(), 30, 10));
+        assertEquals("no data returned", 0, data.length);
+
+        // the same ranges on a byte array
+        byte[] content = CmsFileUtil.readFully(new TestInputStream());
+        data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(content, 14, 4));
+        assertTrue("range data returned", Arrays.equals(new byte[] {1, 1, 2, 2}, data));
+        data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(content, 20, -1));
+        assertTrue("open range data returned", Arrays.equals(new byte[] {2, 2, 2, 2}, data));
+        data = CmsFileUtil.readFully(CmsFileUtil.getRangeStream(content, 30, 10));
+        assertEquals("no data returned", 0, data.length);
+    }
+
     /**
      * Test the behavior of {@link CmsFileUtil#readFully(InputStream)}
      * when the read takes more than one iteration to complete.<p>  
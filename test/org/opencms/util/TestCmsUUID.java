@@ -191,6 +191,26 @@ public class TestCmsUUID extends OpenCmsTestCase {
         System.out.println("Time for UUID equals() implementation for " + testSize + " UUIDs : " + time1);
     }
 
+    /**
+     * Tests the {@link CmsUUID#getMostSignificantBits()} and {@link CmsUUID#getLeastSignificantBits()} methods.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUUIDSignificantBits() throws Exception {
+
+        CmsUUID id1 = new CmsUUID("c300ba5c-01e8-3727-b305-5dcc9ccae1ee");
+        assertEquals(0xc300ba5c01e83727L, id1.getMostSignificantBits());
+        assertEquals(0xb3055dcc9ccae1eeL, id1.getLeastSignificantBits());
+
+        java.util.UUID jid = java.util.UUID.fromString(id1.toString());
+        assertEquals(jid.getMostSignificantBits(), id1.getMostSignificantBits());
+        assertEquals(jid.getLeastSignificantBits(), id1.getLeastSignificantBits());
+
+        CmsUUID idNull = CmsUUID.getNullUUID();
+        assertEquals(0L, idNull.getMostSignificantBits());
+        assertEquals(0L, idNull.getLeastSignificantBits());
+    }
+
     /**
      * Tests the {@link CmsUUID#isValidUUID(String)} method.<p> 
      * 
@@ -34,6 +34,33 @@ import org.opencms.test.OpenCmsTestCase;
  */
 public class TestXmlUtils extends OpenCmsTestCase {
 
+    /**
+     * Test case for the compiled paths, which must match the Xpath generation methods.
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCompilePath() throws Exception {
+
+        String[] paths = {"Title", "Title/Test", "Title[4]/Test[2]/Toast[1]", "Title/Test[2]/Toast", "Title/Test/Toast/Toll"};
+        for (int i = 0; i < paths.length; i++) {
+            for (int index = 1; index <= 3; index++) {
+                String xpath = CmsXmlUtils.createXpath(paths[i], index);
+                CmsXmlPath compiledPath = CmsXmlPath.compile(paths[i], index);
+                assertEquals(xpath, compiledPath.toString());
+                assertEquals(CmsXmlPath.compileXpath(xpath), compiledPath);
+                assertEquals(CmsXmlPath.compileXpath(xpath).hashCode(), compiledPath.hashCode());
+            }
+        }
+        assertFalse(CmsXmlPath.compile("Title", 1).equals(CmsXmlPath.compile("Title", 2)));
+        assertFalse(CmsXmlPath.compile("Title/Test", 1).equals(CmsXmlPath.compile("Test/Title", 1)));
+
+        // paths that are not fully indexed or not canonical are not compiled for the value index
+        assertNull(CmsXmlPath.compileXpath("Title/Test[1]"));
+        assertNull(CmsXmlPath.compileXpath("Title[01]"));
+        assertNull(CmsXmlPath.compile("Title//Test", 1));
+        assertNull(CmsXmlPath.compile("Title[x]", 1));
+    }
+
     /**
      * Test case for the Xpath generation methods.
      * 
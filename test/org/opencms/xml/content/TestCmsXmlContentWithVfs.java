@@ -29,6 +29,7 @@ package org.opencms.xml.content;
 
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
@@ -166,6 +167,7 @@ public class TestCmsXmlContentWithVfs extends OpenCmsTestCase {
         suite.addTest(new TestCmsXmlContentWithVfs("testMacros"));
         suite.addTest(new TestCmsXmlContentWithVfs("testAddFileReference"));
         suite.addTest(new TestCmsXmlContentWithVfs("testXmlContentCreate"));
+        suite.addTest(new TestCmsXmlContentWithVfs("testUnmarshalOnlineCopies"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -1916,6 +1918,45 @@ public class TestCmsXmlContentWithVfs extends OpenCmsTestCase {
         assertEquals("Der Autor ist JETZT", messagesDEde.key("label.newauthor"));
     }
 
+    /**
+     * Tests that XML contents unmarshalled from the online cache do not share any state.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testUnmarshalOnlineCopies() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that cached online XML contents do not share state");
+
+        String filename = "/xmlcontent-online.html";
+        CmsResource res = cms.createResource(filename, OpenCmsTestCase.ARTICLE_TYPEID);
+        CmsFile file = cms.readFile(res);
+        CmsXmlContent xmlcontent = CmsXmlContentFactory.unmarshal(cms, file);
+        xmlcontent.getValue("Author", Locale.ENGLISH).setStringValue(cms, "Author 1");
+        file.setContents(xmlcontent.marshal());
+        cms.writeFile(file);
+        cms.unlockResource(filename);
+        OpenCms.getPublishManager().publishResource(cms, filename);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject onlineCms = getCmsObject();
+        onlineCms.getRequestContext().setCurrentProject(onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsResource onlineRes = onlineCms.readResource(filename);
+        CmsXmlContent content1 = CmsXmlContentFactory.unmarshal(onlineCms, onlineRes);
+        CmsXmlContent content2 = CmsXmlContentFactory.unmarshal(onlineCms, onlineRes);
+        assertNotSame(content1, content2);
+        assertNotSame(content1.getFile(), content2.getFile());
+        assertNotSame(
+            content1.getValue("Author", Locale.ENGLISH),
+            content2.getValue("Author", Locale.ENGLISH));
+
+        // modifying one instance must neither change the other instance nor the cache
+        content1.getValue("Author", Locale.ENGLISH).setStringValue(onlineCms, "Author 2");
+        assertEquals("Author 1", content2.getValue("Author", Locale.ENGLISH).getStringValue(onlineCms));
+        CmsXmlContent content3 = CmsXmlContentFactory.unmarshal(onlineCms, onlineRes);
+        assertEquals("Author 1", content3.getValue("Author", Locale.ENGLISH).getStringValue(onlineCms));
+    }
+
     /**
      * Test the validation of the value elements.<p>
      * 